@@ -12,6 +12,7 @@
 package mlda.attributes;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 import mulan.dimensionalityReduction.BinaryRelevanceAttributeEvaluator;
 import weka.attributeSelection.ASEvaluation;
@@ -35,9 +36,10 @@ public class AvgGainRatio extends MLDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		double res = 0.0;
         
         try{
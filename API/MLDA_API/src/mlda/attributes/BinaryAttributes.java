@@ -14,6 +14,7 @@ package mlda.attributes;
 import java.util.Set;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 import weka.core.Attribute;
 
@@ -31,13 +32,23 @@ public class BinaryAttributes extends MLDataMetric{
 		super("Number of binary attributes");
 	}
 	
+	/**
+	 * The values of each attribute are declared in the header
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
         Set<Attribute> attributeSet = mlData.getFeatureAttributes();
         
         int count = 0;
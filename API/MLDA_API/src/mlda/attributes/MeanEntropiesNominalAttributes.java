@@ -12,10 +12,9 @@
 package mlda.attributes;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mlda.util.Utils;
 import mulan.data.MultiLabelInstances;
-import weka.core.AttributeStats;
-import weka.core.Instances;
 
 /**
 * Class implementing the Mean of entropies of nominal attributes
@@ -31,25 +30,40 @@ public class MeanEntropiesNominalAttributes extends MLDataMetric{
 		super("Mean of entropies of nominal attributes");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.FEATURES};
+	}
+	
+	/**
+	 * The entropies are computed from the counts of the nominal values, which are added when merging
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		double mean = 0.0;
         
-		Instances instances = mlData.getDataSet();
-        
         int countNominal = 0;
-        int [] featureIndices = mlData.getFeatureIndices();
         
-        for(int fIndex : featureIndices){
-            AttributeStats attStats = instances.attributeStats(fIndex);
-            if(attStats.nominalCounts != null){
+        for(int [] counts : profile.getNominalCounts()){
+            if(counts != null){
                 countNominal++;
-                mean += Utils.entropy(attStats.nominalCounts);
+                mean += Utils.entropy(counts);
             }
         }
         
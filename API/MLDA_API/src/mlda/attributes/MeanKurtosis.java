@@ -11,13 +11,10 @@
 
 package mlda.attributes;
 
-import java.util.Set;
-
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
+import mlda.util.Moments;
 import mulan.data.MultiLabelInstances;
-import weka.core.Attribute;
-import weka.core.Instance;
-import weka.core.Instances;
 
 /**
 * Class implementing the Mean of kurtosis
@@ -33,42 +30,51 @@ public class MeanKurtosis extends MLDataMetric{
 		super("Mean of kurtosis");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.MOMENTS};
+	}
+	
+	/**
+	 * The fourth moments of the numeric attributes are merged exactly
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){		
-        Instances instances = mlData.getDataSet();
-        int nInstances = mlData.getNumInstances();
-        
-        double avg;
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+        double n;
         double var2;
         double var4;
-        double val;
         int nNumeric = 0;
         double mean = 0;
         
-        Set<Attribute> attributesSet = mlData.getFeatureAttributes();
-        
-        for(Attribute att : attributesSet){
-            if(att.isNumeric()){
-                nNumeric++;
-                avg = instances.meanOrMode(att);
-                var2 = 0;
-                var4 = 0;
-                
-                for(Instance inst : instances){
-                    val = inst.value(att);
-                    var2 += Math.pow(val-avg, 2);
-                    var4 += Math.pow(val-avg, 4);
-                }
-                
-                double kurtosis = (nInstances*var4/Math.pow(var2,2))-3;
-                double sampleKurtosis = (kurtosis*(nInstances+1) + 6) * (nInstances-1)/((nInstances-2)*(nInstances-3));
-                mean += sampleKurtosis;
+        for(Moments moments : profile.getMoments()){
+            if(moments == null){
+                continue;
             }
+            
+            nNumeric++;
+            n = moments.getCount();
+            var2 = moments.getM2();
+            var4 = moments.getM4();
+            
+            double kurtosis = (n*var4/Math.pow(var2,2))-3;
+            double sampleKurtosis = (kurtosis*(n+1) + 6) * (n-1)/((n-2)*(n-3));
+            mean += sampleKurtosis;
         }
         if(nNumeric > 0){
         	mean = mean/nNumeric;
@@ -11,12 +11,10 @@
 
 package mlda.attributes;
 
-import java.util.Set;
-
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
+import mlda.util.Moments;
 import mulan.data.MultiLabelInstances;
-import weka.core.Attribute;
-import weka.core.Instances;
 
 /**
 * Class implementing the Mean of mean of numeric attributes
@@ -32,23 +30,39 @@ public class MeanOfMeanOfNumericAttributes extends MLDataMetric{
 		super("Mean of mean of numeric attributes");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.MOMENTS};
+	}
+	
+	/**
+	 * The means of the numeric attributes are merged exactly
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		double mean = 0.0;
         int nNumeric = 0;
         
-        Instances instances = mlData.getDataSet();
-        
-        Set<Attribute> attributeSet = mlData.getFeatureAttributes();
-        for(Attribute att : attributeSet){
-            if(att.isNumeric()){
+        for(Moments moments : profile.getMoments()){
+            if(moments != null){
                 nNumeric++;
-                mean += instances.meanOrMode(att);
+                mean += moments.getMean();
             }
         }
         
@@ -11,13 +11,10 @@
 
 package mlda.attributes;
 
-import java.util.Set;
-
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
+import mlda.util.Moments;
 import mulan.data.MultiLabelInstances;
-import weka.core.Attribute;
-import weka.core.Instance;
-import weka.core.Instances;
 
 /**
 * Class implementing the Mean of skewness of numeric attributes
@@ -33,35 +30,48 @@ public class MeanSkewnessNumericAttributes extends MLDataMetric{
 		super("Mean of skewness of numeric attributes");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.MOMENTS};
+	}
+	
+	/**
+	 * The third moments of the numeric attributes are merged exactly
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-        Instances instances = mlData.getDataSet();
-        int nInstances = mlData.getNumInstances();
-        
-        Set<Attribute> attributesSet = mlData.getFeatureAttributes();
-        
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
         int nNumeric = 0;
         double mean = 0;
-        double avg;
+        double n;
         double var;
         double stdev;
         
-        for(Attribute att : attributesSet){
-            if(att.isNumeric()){
-                nNumeric++;
-                avg = instances.meanOrMode(att);
-                var = 0;
-                for(Instance inst : instances){
-                    var += Math.pow(inst.value(att) - avg, 3);
-                }
-                stdev = Math.sqrt(instances.variance(att));
-                mean += nInstances*var / ((nInstances-1)*(nInstances-2)*Math.pow(stdev, 3));
+        for(Moments moments : profile.getMoments()){
+            if(moments == null){
+                continue;
             }
+            
+            nNumeric++;
+            n = moments.getCount();
+            var = moments.getM3();
+            stdev = moments.getStdv();
+            mean += n*var / ((n-1)*(n-2)*Math.pow(stdev, 3));
         }
         
         if(nNumeric > 0){
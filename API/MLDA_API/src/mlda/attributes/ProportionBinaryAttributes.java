@@ -12,6 +12,7 @@
 package mlda.attributes;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mlda.dimensionality.Attributes;
 import mulan.data.MultiLabelInstances;
 
@@ -29,17 +30,27 @@ public class ProportionBinaryAttributes extends MLDataMetric{
 		super("Proportion of binary attributes");
 	}
 	
+	/**
+	 * The binary attributes and all the attributes are counted in the header
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
         BinaryAttributes binaries = new BinaryAttributes();
         Attributes att = new Attributes();
 		
-		this.value = binaries.calculate(mlData) / att.calculate(mlData);
+		this.value = binaries.calculate(mlData, profile) / att.calculate(mlData, profile);
 		return value;
 	}
 
@@ -11,14 +11,12 @@
 
 package mlda.attributes;
 
-import java.util.Arrays;
-import java.util.Set;
-
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
+import mlda.util.FeatureColumns;
+import mlda.util.Moments;
+import mlda.util.Utils;
 import mulan.data.MultiLabelInstances;
-import weka.core.Attribute;
-import weka.core.Instances;
-import weka.core.Utils;
 
 /**
 * Class implementing the Proportion of numeric attributes with outliers
@@ -34,54 +32,98 @@ public class ProportionNumericAttributesWithOutliers extends MLDataMetric{
 		super("Proportion of numeric attributes with outliers");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.FEATURES};
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Instances instances = mlData.getDataSet();
-        int nInstances = mlData.getNumInstances();
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		FeatureColumns columns = profile.getFeatureColumns();
+        int [] numericFeatures = columns.getNumericFeatures();
+        int nNumeric = numericFeatures.length;
         
-        double alpha = 0.05;
-        int numToTrimAtSide = (int)(nInstances*alpha / 2);
-        int nNumeric = 0;
-        int nOutliers = 0;
-        Set<Attribute> attributeSet = mlData.getFeatureAttributes();
+        if(nNumeric <= 0){
+        	this.value = Double.NaN;
+        	return value;
+        }
         
-        double variance, varianceTrimmed;
-        double [] values;
-        double [] trimmed = new double[nInstances - (numToTrimAtSide * 2)];
-        double ratio;
+        //Each worker copies the attributes it checks into its own scratch buffer
+        int nWorkers = Math.min(profile.getNumThreads(), nNumeric);
+        int [] counts = new int[nWorkers];
+        Utils.parallelFor(nWorkers, nWorkers, w -> {
+        	double [] scratch = new double[columns.getNumInstances()];
+        	for(int i=w; i<nNumeric; i+=nWorkers){
+        		if(hasOutliers(columns.copyNumericColumn(numericFeatures[i], scratch), columns.getNumInstances())){
+        			counts[w]++;
+        		}
+        	}
+        });
         
-        for(Attribute att : attributeSet){
-            if(att.isNumeric()){
-                nNumeric++;
-                variance = instances.variance(att);
-                values = instances.attributeToDoubleArray(att.index());
-                Arrays.sort(values);
-                
-                for(int i=0; i<trimmed.length; i++){
-                    trimmed[i] = values[i + numToTrimAtSide];
-                }
-                varianceTrimmed = Utils.variance(trimmed);
-                ratio = varianceTrimmed / variance;
-                
-                if(ratio < 0.7){
-                    nOutliers++;
-                }
-            }
+        int nOutliers = 0;
+        for(int count : counts){
+        	nOutliers += count;
         }
         
-        if(nNumeric > 0){
-        	this.value = ((double) nOutliers) / nNumeric;
-        }
-        else{
-        	this.value = Double.NaN;
-        }
-		
+        this.value = ((double) nOutliers) / nNumeric;
 		return value;
 	}
+	
+	/**
+	 * Check if a numeric attribute has outliers, i.e., if the variance without
+	 * the alpha/2 lowest and highest values is lower than 0.7 times the variance
+	 * of all the values.
+	 * Trim thresholds are found by quickselect and both variances are computed
+	 * in a single pass, so the values are not sorted
+	 * 
+	 * @param values Buffer with the values of the attribute, which are reordered
+	 * @param nInstances Number of values of the attribute
+	 * @return True if the attribute has outliers and false otherwise
+	 */
+	protected boolean hasOutliers(double [] values, int nInstances){
+		double alpha = 0.05;
+		int numToTrimAtSide = (int)(nInstances*alpha / 2);
+		int upper = nInstances - numToTrimAtSide;
+		
+		//Move the non-missing values to the beginning
+		int n = 0;
+		for(int i=0; i<nInstances; i++){
+			if(!Double.isNaN(values[i])){
+				values[n++] = values[i];
+			}
+		}
+		
+		//Missing values would be among the trimmed values, so the ratio is undefined
+		if(n < upper){
+			return false;
+		}
+		
+		if(numToTrimAtSide > 0){
+			Utils.select(values, 0, n, numToTrimAtSide);
+			Utils.select(values, numToTrimAtSide, n, upper - 1);
+		}
+		
+		Moments all = new Moments();
+		Moments trimmed = new Moments();
+		for(int i=0; i<n; i++){
+			all.add(values[i]);
+			if(i >= numToTrimAtSide && i < upper){
+				trimmed.add(values[i]);
+			}
+		}
+		
+		double ratio = trimmed.getVariance() / all.getVariance();
+		return ratio < 0.7;
+	}
 
 }
@@ -13,6 +13,14 @@ package mlda.base;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import mlda.metricsTaxonomy.AttributesMetrics;
 import mlda.metricsTaxonomy.DimensionalityMetrics;
@@ -43,6 +51,11 @@ public class MLDataCharacterization {
 	 */
 	protected String[] availableMetrics;
 	
+	/**
+	 * Maximum number of threads used to calculate the metrics
+	 */
+	protected int numThreads = 1;
+	
 	
 	
 	/**
@@ -171,13 +184,37 @@ public class MLDataCharacterization {
 	}
 	
 	
+	/**
+	 * Set the maximum number of threads used to calculate the metrics,
+	 * including the threads used to compute the inputs of the profile.
+	 * With only one thread, metrics and inputs are calculated sequentially
+	 * 
+	 * @param numThreads Number of threads. If it is not positive, the number of available processors is used
+	 */
+	public void setNumThreads(int numThreads){
+		if(numThreads <= 0){
+			this.numThreads = Runtime.getRuntime().availableProcessors();
+		}
+		else{
+			this.numThreads = numThreads;
+		}
+	}
+	
+	/**
+	 * Get the maximum number of threads used to calculate the metrics
+	 * 
+	 * @return Number of threads
+	 */
+	public int getNumThreads(){
+		return numThreads;
+	}
+	
+	
 	/**
 	 * Calculate values of all the metrics in the list
 	 */
 	public void calculateMetrics(){
-		for(MLDataMetric metric : metrics){
-			metric.calculate(mlData);
-		}
+		calculateMetrics(mlData);
 	}
 	
 	
@@ -185,11 +222,274 @@ public class MLDataCharacterization {
 	 * Calculate values of all the metrics in the list for a new mlData
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @throws CancellationException if the metrics are calculated in parallel and the thread is interrupted
+	 */
+	public void calculateMetrics(MultiLabelInstances mlData){
+		MLDataProfile profile = new MLDataProfile(mlData);
+		
+		for(MLDataMetric metric : metrics){
+			metric.setApproximate(false);
+		}
+		
+		calculateMetrics(mlData, profile, metrics);
+	}
+	
+	/**
+	 * Calculate values of all the metrics in the list from a profile built
+	 * beforehand, e.g., from a binary file. Metrics requiring inputs that the
+	 * profile does not provide, e.g., any metric other than the header-only
+	 * ones with a profile built from the header, are not calculated and are
+	 * left with NaN value
+	 * 
+	 * @param mlData Multi-label dataset of the profile
+	 * @param profile Profile of the dataset
+	 * @throws CancellationException if the metrics are calculated in parallel and the thread is interrupted
+	 */
+	public void calculateMetrics(MultiLabelInstances mlData, MLDataProfile profile){
+		for(MLDataMetric metric : metrics){
+			metric.setApproximate(false);
+		}
+		
+		calculateMetrics(mlData, profile, metrics);
+	}
+	
+	/**
+	 * Calculate values of all the metrics in the list for a dataset split in
+	 * several parts, without joining them. The mergeable information of each
+	 * part is gathered in parallel and then merged, so mergeable metrics have
+	 * exactly the same value as over the whole dataset. The rest of metrics are
+	 * approximated by the mean of their values in the parts, weighted by their
+	 * number of instances, and they are marked as approximate
+	 * 
+	 * @param parts Parts of the multi-label dataset, all of them with the same attributes
+	 * @throws CancellationException if the thread is interrupted before all the parts are calculated
+	 */
+	public void calculateMetrics(List<MultiLabelInstances> parts){
+		if(parts.isEmpty()){
+			throw new IllegalArgumentException("At least one part of the dataset is needed");
+		}
+		
+		ArrayList<Callable<MLDataPartial>> tasks = new ArrayList<Callable<MLDataPartial>>();
+		for(final MultiLabelInstances part : parts){
+			tasks.add(() -> calculatePartial(part));
+		}
+		
+		List<MLDataPartial> partials = runTasks(tasks);
+		
+		MLDataPartial merged = partials.get(0);
+		for(int i=1; i<partials.size(); i++){
+			merged.merge(partials.get(i));
+		}
+		
+		calculateMetrics(merged);
+	}
+	
+	/**
+	 * Get the mergeable information of a part of a dataset, including the
+	 * values in this part of the metrics of the list that are not mergeable.
+	 * These values are calculated on copies of the metrics, so the metrics of
+	 * the list are not modified and several parts may be calculated at once.
+	 * The partial may be serialized, e.g., to merge partials obtained in
+	 * different JVMs
+	 * 
+	 * @param part Part of a multi-label dataset
+	 * @return Partial of the part
 	 */
-	public void calculateMetrics(MultiLabelInstances mlData){		
+	public MLDataPartial calculatePartial(MultiLabelInstances part){
+		MLDataPartial partial = new MLDataPartial(part);
+		
+		MLDataProfile profile = null;
 		for(MLDataMetric metric : metrics){
-			metric.calculate(mlData);
+			if(!metric.isMergeable()){
+				if(profile == null){
+					//Parts are already calculated in parallel
+					profile = new MLDataProfile(part);
+					profile.setNumThreads(1);
+				}
+				partial.setApproximateValue(metric, metric.copy().calculate(part, profile));
+			}
+		}
+		
+		return partial;
+	}
+	
+	/**
+	 * Calculate values of all the metrics in the list from the merged
+	 * partials of the parts of a dataset. Metrics that are not mergeable take
+	 * the mean of their values in the parts and are marked as approximate.
+	 * If the partial has no values for them, e.g., if it was read in streaming,
+	 * they are left not calculated, with NaN value
+	 * 
+	 * @param partial Merged partial of all the parts of the dataset
+	 */
+	public void calculateMetrics(MLDataPartial partial){
+		ArrayList<MLDataMetric> mergeable = new ArrayList<MLDataMetric>();
+		
+		for(MLDataMetric metric : metrics){
+			if(metric.isMergeable()){
+				metric.setApproximate(false);
+				mergeable.add(metric);
+			}
+			else{
+				metric.value = partial.getApproximateValue(metric);
+				metric.setApproximate(!Double.isNaN(metric.value));
+			}
 		}
+		
+		calculateMetrics(partial.getHeader(), partial.getProfile(), mergeable);
+	}
+	
+	/**
+	 * Calculate values of a list of metrics sharing the same profile.
+	 * Metrics that can not be calculated with the inputs of the profile are
+	 * left with NaN value
+	 * 
+	 * @param mlData Multi-label dataset to which calculate the metrics
+	 * @param profile Profile of the dataset
+	 * @param metricsList Metrics to calculate
+	 */
+	protected void calculateMetrics(MultiLabelInstances mlData, MLDataProfile profile, List<MLDataMetric> metricsList){
+		profile.setNumThreads(numThreads);
+		
+		ArrayList<MLDataMetric> available = new ArrayList<MLDataMetric>();
+		for(MLDataMetric metric : metricsList){
+			if(canCalculate(metric, profile)){
+				available.add(metric);
+			}
+			else{
+				metric.value = Double.NaN;
+			}
+		}
+		metricsList = available;
+		
+		if(numThreads > 1 && metricsList.size() > 1){
+			calculateMetricsInParallel(mlData, profile, metricsList);
+		}
+		else{
+			for(MLDataMetric metric : metricsList){
+				metric.calculate(mlData, profile);
+			}
+		}
+	}
+	
+	/**
+	 * Know if a metric can be calculated with the inputs provided by a profile
+	 * 
+	 * @param metric Metric
+	 * @param profile Profile of the dataset
+	 * @return True if the metric only needs the header or the profile provides all its required inputs
+	 */
+	protected boolean canCalculate(MLDataMetric metric, MLDataProfile profile){
+		if(metric.isHeaderOnly()){
+			return true;
+		}
+		if(profile.isHeaderOnly()){
+			return false;
+		}
+		//Profiles built from a labelset histogram have no instances, which non-mergeable metrics may use
+		if(profile.getData() == null && !metric.isMergeable()){
+			return false;
+		}
+		
+		for(MLDataProfile.Input input : metric.getRequiredInputs()){
+			if(!profile.provides(input)){
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Calculate the metrics in parallel, sharing the same profile.
+	 * Each input of the profile required by the metrics is computed by a single
+	 * task, submitted before the metrics; metrics requiring an input that is
+	 * still being computed wait for it instead of computing it again.
+	 * Metrics without shared inputs are submitted first, so they run meanwhile.
+	 * 
+	 * @param mlData Multi-label dataset to which calculate the metrics
+	 * @param profile Profile of the dataset
+	 * @param metricsList Metrics to calculate
+	 * @throws CancellationException if the thread is interrupted before all the metrics are calculated
+	 */
+	protected void calculateMetricsInParallel(final MultiLabelInstances mlData, final MLDataProfile profile, List<MLDataMetric> metricsList){
+		LinkedHashSet<MLDataProfile.Input> inputs = new LinkedHashSet<MLDataProfile.Input>();
+		ArrayList<MLDataMetric> independent = new ArrayList<MLDataMetric>();
+		ArrayList<MLDataMetric> dependent = new ArrayList<MLDataMetric>();
+		
+		for(MLDataMetric metric : metricsList){
+			MLDataProfile.Input[] required = metric.getRequiredInputs();
+			if(required.length == 0){
+				independent.add(metric);
+			}
+			else{
+				dependent.add(metric);
+				for(MLDataProfile.Input input : required){
+					inputs.add(input);
+				}
+			}
+		}
+		
+		ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+		
+		for(final MLDataProfile.Input input : inputs){
+			tasks.add(() -> {
+				profile.prepare(input);
+				return null;
+			});
+		}
+		for(final MLDataMetric metric : independent){
+			tasks.add(() -> metric.calculate(mlData, profile));
+		}
+		for(final MLDataMetric metric : dependent){
+			tasks.add(() -> metric.calculate(mlData, profile));
+		}
+		
+		runTasks(tasks);
+	}
+	
+	/**
+	 * Run a list of tasks with at most numThreads threads, and wait for all of them.
+	 * The tasks run in a ForkJoinPool, so the inputs of the profile computed in
+	 * parallel inside the tasks share the same threads
+	 * 
+	 * @param tasks Tasks to run
+	 * @return Results of the tasks, in the same order
+	 * @throws CancellationException if the thread is interrupted while waiting for the tasks
+	 */
+	protected <T> List<T> runTasks(List<Callable<T>> tasks){
+		ExecutorService executor = new ForkJoinPool(Math.max(1, Math.min(numThreads, tasks.size())));
+		List<T> values = new ArrayList<T>();
+		
+		try{
+			List<Future<T>> results = executor.invokeAll(tasks);
+			for(Future<T> result : results){
+				values.add(result.get());
+			}
+		}
+		catch(InterruptedException e){
+			//Results of the finished tasks are not returned, since they do not cover all the tasks
+			Thread.currentThread().interrupt();
+			CancellationException cancelled = new CancellationException("Calculation of the metrics was interrupted");
+			cancelled.initCause(e);
+			throw cancelled;
+		}
+		catch(ExecutionException e){
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			else if(e.getCause() instanceof Error){
+				throw (Error) e.getCause();
+			}
+			else{
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		finally{
+			executor.shutdownNow();
+		}
+		
+		return values;
 	}
 	
 	
@@ -18,7 +18,7 @@ import mulan.data.MultiLabelInstances;
 *
 * @author Jose Maria Moyano Murillo
 */
-public class MLDataMetric implements Comparable<MLDataMetric>{
+public class MLDataMetric implements Comparable<MLDataMetric>, Cloneable{
 
 	/**
 	 * Metric name
@@ -29,6 +29,11 @@ public class MLDataMetric implements Comparable<MLDataMetric>{
 	 * Metric value
 	 */
 	protected double value;
+	
+	/**
+	 * Whether the value was obtained by approximately merging the values of parts of the dataset
+	 */
+	protected boolean approximate;
 
 	
 	/**
@@ -39,6 +44,7 @@ public class MLDataMetric implements Comparable<MLDataMetric>{
 	public MLDataMetric(String name) {
 		this.name = name;
 		this.value = Double.NaN;
+		this.approximate = false;
 	}
 	
 	
@@ -60,15 +66,37 @@ public class MLDataMetric implements Comparable<MLDataMetric>{
 		return value;
 	}
 	
+	/**
+	 * Know if the value was obtained by approximately merging the values of
+	 * parts of the dataset, since the metric is not mergeable
+	 * 
+	 * @return True if the value is approximate and false otherwise
+	 */
+	public boolean isApproximate(){
+		return approximate;
+	}
+	
+	/**
+	 * Set whether the value is approximate
+	 * 
+	 * @param approximate True if the value is approximate and false otherwise
+	 */
+	protected void setApproximate(boolean approximate){
+		this.approximate = approximate;
+	}
+	
 	/**
 	 * To String method
 	 * 
-	 * @return MLDataMetric as String, including name and value
+	 * @return MLDataMetric as String, including name and value, and if the value is approximate
 	 */
 	public String toString(){
 		String s = new String();
 		
 		s += name + ": " + value;
+		if(approximate){
+			s += " (approximate)";
+		}
 		
 		return s;
 	}
@@ -76,17 +104,101 @@ public class MLDataMetric implements Comparable<MLDataMetric>{
 	
 	
 	/**
-	 * Calculate metric value.
-	 * To be implemented in each metric
+	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
 	 * @return Calculated value of the metric
 	 */
 	public double calculate(MultiLabelInstances mlData){
+		return calculate(mlData, new MLDataProfile(mlData));
+	}
+	
+	/**
+	 * Calculate metric value using the information shared in the profile.
+	 * To be implemented in each metric
+	 * 
+	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
+	 * @return Calculated value of the metric
+	 */
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		return Double.NaN;
 	}
 	
 	
+	/**
+	 * Get the inputs of the profile required by the metric, so they can be
+	 * computed before calculating metrics in parallel
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[0];
+	}
+	
+	/**
+	 * Know if the metric can be calculated exactly from the merged information
+	 * of parts of a dataset (see MLDataPartial), i.e., if it only depends on the
+	 * attributes of the dataset and on the label counts, labelsets, label pairs,
+	 * moments of numeric features and counts of nominal features of the profile.
+	 * By default only header-only metrics are mergeable, so other metrics using
+	 * only this information must return true
+	 * 
+	 * @return True if the metric is mergeable and false otherwise
+	 */
+	public boolean isMergeable(){
+		return isHeaderOnly();
+	}
+	
+	/**
+	 * Know if the metric can be calculated from the header of the dataset and
+	 * its number of instances only, i.e., without reading the data (see
+	 * DatasetDescriptor)
+	 * 
+	 * @return True if the metric only needs the header and false otherwise
+	 */
+	public boolean isHeaderOnly(){
+		return false;
+	}
+	
+	/**
+	 * Get an accumulator to calculate the metric incrementally, starting with
+	 * the instances of a dataset. Only mergeable metrics can be accumulated
+	 * 
+	 * @param mlData Multi-label dataset whose instances are added initially
+	 * @return Accumulator of the metric
+	 */
+	public MetricAccumulator accumulator(MultiLabelInstances mlData){
+		if(!isMergeable()){
+			throw new UnsupportedOperationException(name + " can not be calculated incrementally");
+		}
+		
+		return new ProfileAccumulator(this, mlData);
+	}
+	
+	/**
+	 * Get a copy of the metric, with the same parameters and without value,
+	 * so it may be calculated without changing the value of this metric,
+	 * e.g., over a part of the dataset or in other thread.
+	 * Metrics keeping state that is modified in place, instead of replaced
+	 * in each calculation, must override it to copy that state
+	 * 
+	 * @return Copy of the metric
+	 */
+	public MLDataMetric copy(){
+		try{
+			MLDataMetric copy = (MLDataMetric) super.clone();
+			copy.value = Double.NaN;
+			copy.approximate = false;
+			return copy;
+		}
+		catch(CloneNotSupportedException e){
+			//MLDataMetric is Cloneable
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	
 	@Override
 	public int compareTo(MLDataMetric other) {
 		return this.name.compareTo(other.getName());
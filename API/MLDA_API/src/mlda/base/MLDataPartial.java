@@ -0,0 +1,393 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import mlda.util.LabelMatrix;
+import mlda.util.LabelsetDictionary;
+import mlda.util.Moments;
+import mlda.util.Utils;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.LabelsMetaData;
+import mulan.data.MultiLabelInstances;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+* Class storing the mergeable information of a part of a multi-label dataset.
+* It keeps the histogram of labelsets, the moments of the stored values of
+* each numeric feature and the counts of the stored values of each nominal
+* feature, so partials of different parts of a dataset (e.g., shards loaded in
+* different threads or JVMs) can be merged into the partial of the whole
+* dataset. Label counts, label pair contingency tables, cardinality, entropies,
+* IR and moments are then exactly the same as if the dataset were complete.
+* Values of the metrics that can not be merged exactly are kept as the mean of
+* the values of the parts, weighted by their number of instances.
+* Instances may also be added and removed one by one.
+* It is not thread safe.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class MLDataPartial implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Dataset without instances, with the attributes of the parts
+	 */
+	protected Instances header;
+
+	/**
+	 * Labels of the dataset
+	 */
+	protected LabelsMetaData labelsMetaData;
+
+	/**
+	 * Names of the labels
+	 */
+	protected String[] labelNames;
+
+	/**
+	 * Position of each attribute among the labels, or -1
+	 */
+	protected int[] labelPositions;
+
+	/**
+	 * Position of each attribute among the features, or -1
+	 */
+	protected int[] featurePositions;
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+	/**
+	 * Distinct labelsets and their number of instances
+	 */
+	protected LabelsetDictionary labelsets;
+
+	/**
+	 * Number of missing values of each label
+	 */
+	protected int[] labelMissing;
+
+	/**
+	 * Moments of the stored values of each feature, null for the non-numeric ones
+	 */
+	protected Moments[] storedMoments;
+
+	/**
+	 * Counts of the stored values of each feature, null for the non-nominal ones
+	 */
+	protected int[][] storedCounts;
+
+	/**
+	 * Number of stored values of each feature, including missing values
+	 */
+	protected int[] nStored;
+
+	/**
+	 * Sum of the values of each non-mergeable metric weighted by the number
+	 * of instances of each part, and sum of the weights
+	 */
+	protected HashMap<String, double[]> approximateValues;
+
+	/**
+	 * Bitset of the labelset of the current instance
+	 */
+	protected transient long[] key;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param mlData Multi-label dataset whose instances are added
+	 */
+	public MLDataPartial(MultiLabelInstances mlData) {
+		Instances instances = mlData.getDataSet();
+		int[] featureIndices = mlData.getFeatureIndices();
+
+		header = new Instances(instances, 0);
+		labelsMetaData = mlData.getLabelsMetaData();
+		labelNames = mlData.getLabelNames();
+		labelPositions = Utils.getPositions(instances.numAttributes(), mlData.getLabelIndices());
+		featurePositions = Utils.getPositions(instances.numAttributes(), featureIndices);
+
+		nInstances = 0;
+		labelsets = new LabelsetDictionary(labelNames.length);
+		labelMissing = new int[labelNames.length];
+
+		storedMoments = new Moments[featureIndices.length];
+		storedCounts = new int[featureIndices.length][];
+		nStored = new int[featureIndices.length];
+		Attribute attribute;
+		for(int f=0; f<featureIndices.length; f++){
+			attribute = instances.attribute(featureIndices[f]);
+			if(attribute.isNumeric()){
+				storedMoments[f] = new Moments();
+			}
+			else if(attribute.isNominal()){
+				storedCounts[f] = new int[attribute.numValues()];
+			}
+		}
+
+		approximateValues = new HashMap<String, double[]>();
+
+		for(int i=0; i<instances.numInstances(); i++){
+			add(instances.get(i));
+		}
+	}
+
+
+	/**
+	 * Add an instance
+	 *
+	 * @param instance Instance with the attributes of the dataset
+	 */
+	public void add(Instance instance){
+		update(instance, 1);
+	}
+
+	/**
+	 * Remove an instance previously added
+	 *
+	 * @param instance Instance with the attributes of the dataset
+	 * @throws IllegalArgumentException if no instance with the labelset of the instance remains in the partial
+	 */
+	public void remove(Instance instance){
+		//Check the labelset before changing anything
+		fillKey(instance);
+		int id = labelsets.getId(key);
+		if(id == -1 || labelsets.getCount(id) < 1){
+			throw new IllegalArgumentException("The labelset of the instance is not in the partial, so it can not be removed");
+		}
+
+		update(instance, -1);
+	}
+
+	/**
+	 * Set the bitset of the labelset of an instance in the key
+	 *
+	 * @param instance Instance
+	 */
+	protected void fillKey(Instance instance){
+		if(key == null){
+			key = new long[LabelMatrix.words(labelNames.length)];
+		}
+		Arrays.fill(key, 0);
+
+		int label;
+		for(int p=0; p<instance.numValues(); p++){
+			label = labelPositions[instance.index(p)];
+			if(label >= 0 && instance.valueSparse(p) == 1){
+				key[label >>> 6] |= 1L << label;
+			}
+		}
+	}
+
+	/**
+	 * Add or remove an instance
+	 *
+	 * @param instance Instance
+	 * @param sign 1 to add the instance and -1 to remove it
+	 */
+	protected void update(Instance instance, int sign){
+		if(key == null){
+			key = new long[LabelMatrix.words(labelNames.length)];
+		}
+		Arrays.fill(key, 0);
+
+		if(instance instanceof SparseInstance){
+			//Values not stored are 0
+			for(int p=0; p<instance.numValues(); p++){
+				updateValue(instance.index(p), instance.valueSparse(p), sign);
+			}
+		}
+		else{
+			for(int a=0; a<instance.numAttributes(); a++){
+				updateValue(a, instance.value(a), sign);
+			}
+		}
+
+		labelsets.add(key, 0, sign);
+		nInstances += sign;
+	}
+
+	/**
+	 * Add or remove the value of an attribute of the current instance
+	 *
+	 * @param index Index of the attribute
+	 * @param value Value of the attribute
+	 * @param sign 1 to add the value and -1 to remove it
+	 */
+	protected void updateValue(int index, double value, int sign){
+		int label = labelPositions[index];
+		if(label >= 0){
+			//Missing labels are not relevant in the labelset, but they are counted as in LabelMatrix
+			if(value == 1){
+				key[label >>> 6] |= 1L << label;
+			}
+			else if(Double.isNaN(value)){
+				labelMissing[label] += sign;
+			}
+			return;
+		}
+
+		int f = featurePositions[index];
+		if(f < 0){
+			return;
+		}
+
+		if(storedMoments[f] != null){
+			if(sign > 0){
+				storedMoments[f].add(value);
+			}
+			else{
+				storedMoments[f].remove(value);
+			}
+			nStored[f] += sign;
+		}
+		else if(storedCounts[f] != null){
+			if(!Double.isNaN(value)){
+				storedCounts[f][(int)value] += sign;
+			}
+			nStored[f] += sign;
+		}
+	}
+
+	/**
+	 * Merge other partial of the same dataset into this one
+	 *
+	 * @param other Partial to merge
+	 */
+	public void merge(MLDataPartial other){
+		if(!Arrays.equals(other.labelPositions, labelPositions) || !Arrays.equals(other.featurePositions, featurePositions)){
+			throw new IllegalArgumentException("Partials of datasets with different attributes can not be merged");
+		}
+
+		labelsets.merge(other.labelsets);
+		for(int j=0; j<labelMissing.length; j++){
+			labelMissing[j] += other.labelMissing[j];
+		}
+		for(int f=0; f<nStored.length; f++){
+			if(storedMoments[f] != null){
+				storedMoments[f].merge(other.storedMoments[f]);
+			}
+			else if(storedCounts[f] != null){
+				for(int v=0; v<storedCounts[f].length; v++){
+					storedCounts[f][v] += other.storedCounts[f][v];
+				}
+			}
+			nStored[f] += other.nStored[f];
+		}
+		nInstances += other.nInstances;
+
+		for(String name : other.approximateValues.keySet()){
+			double[] sums = approximateValues.get(name);
+			double[] otherSums = other.approximateValues.get(name);
+			if(sums == null){
+				approximateValues.put(name, otherSums.clone());
+			}
+			else{
+				sums[0] += otherSums[0];
+				sums[1] += otherSums[1];
+			}
+		}
+	}
+
+	/**
+	 * Store the value of a metric that can not be merged exactly, calculated
+	 * over the current instances of the partial
+	 *
+	 * @param metric Metric
+	 * @param value Value of the metric over the instances of the partial
+	 */
+	public void setApproximateValue(MLDataMetric metric, double value){
+		if(!Double.isNaN(value) && nInstances > 0){
+			approximateValues.put(metric.getName(), new double[]{value * nInstances, nInstances});
+		}
+	}
+
+	/**
+	 * Get the value of a metric that can not be merged exactly, as the mean
+	 * of its values in the merged partials weighted by their number of instances
+	 *
+	 * @param metric Metric
+	 * @return Approximate value of the metric, or NaN if it was not calculated
+	 */
+	public double getApproximateValue(MLDataMetric metric){
+		double[] sums = approximateValues.get(metric.getName());
+		if(sums == null || sums[1] == 0){
+			return Double.NaN;
+		}
+		return sums[0] / sums[1];
+	}
+
+	/**
+	 * Get number of instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return nInstances;
+	}
+
+	/**
+	 * Get a dataset without instances and with the attributes and labels of the partial
+	 *
+	 * @return Multi-label dataset without instances
+	 */
+	public MultiLabelInstances getHeader(){
+		try{
+			return new MultiLabelInstances(new Instances(header, 0), labelsMetaData);
+		}
+		catch(InvalidDataFormatException e){
+			//The header comes from a valid multi-label dataset
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Get a profile with the information of the partial. The moments and
+	 * counts of each feature are those of the stored values merged with
+	 * the values not stored, which are 0
+	 *
+	 * @return Profile built from the labelset histogram and the feature statistics
+	 */
+	public MLDataProfile getProfile(){
+		Moments[] moments = new Moments[nStored.length];
+		int[][] nominalCounts = new int[nStored.length][];
+
+		for(int f=0; f<nStored.length; f++){
+			if(storedMoments[f] != null){
+				moments[f] = new Moments();
+				moments[f].merge(storedMoments[f]);
+				moments[f].merge(Moments.constant(0, nInstances - nStored[f]));
+			}
+			else if(storedCounts[f] != null){
+				nominalCounts[f] = storedCounts[f].clone();
+				if(nominalCounts[f].length > 0){
+					nominalCounts[f][0] += nInstances - nStored[f];
+				}
+			}
+		}
+
+		return new MLDataProfile(labelsets.compact(), labelNames, labelMissing.clone(), moments, nominalCounts);
+	}
+
+}
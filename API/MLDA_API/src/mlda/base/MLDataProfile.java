@@ -0,0 +1,748 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import java.util.HashMap;
+
+import mlda.util.CorrelationMatrix;
+import mlda.util.FeatureColumns;
+import mlda.util.ImbalancedFeature;
+import mlda.util.LabelContingency;
+import mlda.util.LabelMatrix;
+import mlda.util.LabelsetDictionary;
+import mlda.util.Moments;
+import mlda.util.Utils;
+import mulan.data.LabelSet;
+import mulan.data.LabelsPair;
+import mulan.data.MultiLabelInstances;
+
+/**
+ * Class storing the label-side information of a multi-label dataset that is
+ * shared by several metrics (label counts, labelsets histogram, cardinality of
+ * each instance and IR of each label).
+ * All this information is gathered in a single pass over the dataset the first
+ * time that any of it is required, so it is computed once and then shared by
+ * all the metrics calculated with the same profile.
+ * Each input is guarded by its own lock, so metrics running in parallel may
+ * share the profile: a thread requiring an input which is being computed by
+ * other thread waits for it instead of computing it again.
+ * The label counts, cardinality distribution, entropies and IR of the labels
+ * are derived from the histogram of distinct labelsets, so they cost
+ * O(#labelsets) instead of O(#instances). A profile may also be built from a
+ * labelset histogram alone, without the dataset; then only these inputs, and
+ * the moments of the features if they are given, are available.
+ *
+ * @author Jose Maria Moyano Murillo
+ */
+public class MLDataProfile {
+
+	/**
+	 * Expensive inputs of the profile that are shared among metrics
+	 */
+	public enum Input {
+		/** Label counts, labelsets, cardinality per instance, entropies and IR of labels */
+		LABELS,
+		/** Contingency tables and chi-square scores of all pairs of labels */
+		CHI_SQUARE,
+		/** Feature attributes stored by columns */
+		FEATURES,
+		/** Moments of the numeric attributes */
+		MOMENTS,
+		/** Correlation matrix of the numeric attributes */
+		CORRELATION
+	}
+
+	/**
+	 * Multi-label dataset
+	 */
+	protected MultiLabelInstances mlData;
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+	/**
+	 * Number of labels
+	 */
+	protected int nLabels;
+
+	/**
+	 * Names of the labels
+	 */
+	protected String[] labelNames;
+
+	/**
+	 * Whether the profile was built from the header of a dataset only
+	 */
+	protected boolean headerOnly = false;
+
+	/**
+	 * Maximum number of threads used to compute each input
+	 */
+	protected int numThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Labels of the dataset as bitsets
+	 */
+	protected LabelMatrix labelMatrix;
+
+	/**
+	 * Number of instances where each label is relevant
+	 */
+	protected int[] labelAppearances;
+
+	/**
+	 * Number of instances where each label has value 0
+	 */
+	protected int[] labelZeros;
+
+	/**
+	 * Number of missing values of each label, if the profile was built from
+	 * a labelset histogram; otherwise they are taken from the label matrix
+	 */
+	protected int[] labelMissing;
+
+	/**
+	 * Number of labels associated with each instance
+	 */
+	protected int[] labelsForInstance;
+
+	/**
+	 * Number of instances with each number of labels
+	 */
+	protected int[] cardinalityCounts;
+
+	/**
+	 * Distinct labelsets and their number of instances
+	 */
+	protected LabelsetDictionary labelsetDictionary;
+
+	/**
+	 * Number of instances associated with each labelset, as mulan LabelSet objects
+	 */
+	protected HashMap<LabelSet, Integer> labelsets;
+
+	/**
+	 * Labels as ImbalancedFeature objects, including IR values
+	 */
+	protected ImbalancedFeature[] imbalancedData;
+
+	/**
+	 * Labels as ImbalancedFeature objects sorted by frequency
+	 */
+	protected ImbalancedFeature[] labelsByFrequency;
+
+	/**
+	 * Entropy of each label
+	 */
+	protected double[] labelEntropies;
+
+	/**
+	 * Contingency tables of all pairs of labels
+	 */
+	protected LabelContingency labelContingency;
+
+	/**
+	 * Pairs of labels with their chi-square score, in descendent order of score
+	 */
+	protected LabelsPair[] chiSquarePairs;
+
+	/**
+	 * Feature attributes stored by columns
+	 */
+	protected FeatureColumns featureColumns;
+
+	/**
+	 * Moments of each feature; null for the non-numeric ones
+	 */
+	protected Moments[] moments;
+
+	/**
+	 * Number of instances with each value of the nominal features
+	 */
+	protected int[][] nominalCounts;
+
+	/**
+	 * Correlation matrix of the numeric features
+	 */
+	protected CorrelationMatrix correlationMatrix;
+
+	/**
+	 * Lock for the label information
+	 */
+	protected final Object labelsLock = new Object();
+
+	/**
+	 * Lock for the contingency tables and chi-square scores
+	 */
+	protected final Object chiSquareLock = new Object();
+
+	/**
+	 * Lock for the feature columns
+	 */
+	protected final Object featuresLock = new Object();
+
+	/**
+	 * Lock for the moments
+	 */
+	protected final Object momentsLock = new Object();
+
+	/**
+	 * Lock for the correlation matrix
+	 */
+	protected final Object correlationLock = new Object();
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	public MLDataProfile(MultiLabelInstances mlData) {
+		this.mlData = mlData;
+		this.nInstances = mlData.getNumInstances();
+		this.nLabels = mlData.getNumLabels();
+		this.labelNames = mlData.getLabelNames();
+	}
+
+	/**
+	 * Constructor with the labels and features of a dataset already stored
+	 * by columns, e.g., read from a binary file
+	 *
+	 * @param header Multi-label dataset with the attributes, that may have no instances
+	 * @param labelMatrix Labels of the instances as bitsets
+	 * @param featureColumns Features of the instances by columns
+	 */
+	public MLDataProfile(MultiLabelInstances header, LabelMatrix labelMatrix, FeatureColumns featureColumns) {
+		this.mlData = header;
+		this.nInstances = labelMatrix.getNumInstances();
+		this.nLabels = header.getNumLabels();
+		this.labelNames = header.getLabelNames();
+		this.labelMatrix = labelMatrix;
+		this.featureColumns = featureColumns;
+	}
+
+	/**
+	 * Constructor with the header of a dataset and its number of instances.
+	 * Neither the labels nor the features of the instances are available
+	 *
+	 * @param header Multi-label dataset with the attributes and without instances
+	 * @param nInstances Number of instances of the dataset
+	 */
+	public MLDataProfile(MultiLabelInstances header, int nInstances) {
+		this.mlData = header;
+		this.nInstances = nInstances;
+		this.nLabels = header.getNumLabels();
+		this.labelNames = header.getLabelNames();
+		this.headerOnly = true;
+	}
+
+	/**
+	 * Constructor with the histogram of labelsets of a dataset.
+	 * Only the label-distribution inputs (label counts, cardinality
+	 * distribution, labelsets, entropies and IR) are available
+	 *
+	 * @param labelsets Distinct labelsets and their number of instances
+	 * @param labelNames Names of the labels
+	 */
+	public MLDataProfile(LabelsetDictionary labelsets, String[] labelNames) {
+		this.mlData = null;
+		this.nInstances = (int)labelsets.getTotalCount();
+		this.nLabels = labelNames.length;
+		this.labelNames = labelNames;
+		this.labelsetDictionary = labelsets;
+	}
+
+	/**
+	 * Constructor with the labelset histogram and the statistics of the
+	 * features, e.g., gathered incrementally or merged from parts of a dataset
+	 *
+	 * @param labelsets Distinct labelsets and their number of instances, where missing labels are not relevant
+	 * @param labelNames Names of the labels
+	 * @param labelMissing Number of missing values of each label
+	 * @param moments Moments of each feature, null for the non-numeric ones
+	 * @param nominalCounts Counts of each value of each feature, null for the non-nominal ones
+	 */
+	public MLDataProfile(LabelsetDictionary labelsets, String[] labelNames, int[] labelMissing, Moments[] moments, int[][] nominalCounts) {
+		this(labelsets, labelNames);
+		this.labelMissing = labelMissing;
+		this.moments = moments;
+		this.nominalCounts = nominalCounts;
+	}
+
+
+	/**
+	 * Get the dataset of the profile
+	 *
+	 * @return Multi-label dataset, or null if the profile was built from a labelset histogram.
+	 * If the profile was built from the header, the dataset has no instances
+	 */
+	public MultiLabelInstances getData(){
+		return mlData;
+	}
+
+	/**
+	 * Get number of instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return nInstances;
+	}
+
+	/**
+	 * Know if the profile was built from the header of a dataset only
+	 *
+	 * @return True if only the header and the number of instances are available
+	 */
+	public boolean isHeaderOnly(){
+		return headerOnly;
+	}
+
+	/**
+	 * Set the maximum number of threads used to compute each input, i.e.,
+	 * the moments, the contingency tables and the correlation matrix.
+	 * With only one thread, they are computed sequentially
+	 *
+	 * @param numThreads Number of threads. If it is not positive, the number of available processors is used
+	 */
+	public void setNumThreads(int numThreads){
+		if(numThreads <= 0){
+			this.numThreads = Runtime.getRuntime().availableProcessors();
+		}
+		else{
+			this.numThreads = numThreads;
+		}
+	}
+
+	/**
+	 * Get the maximum number of threads used to compute each input
+	 *
+	 * @return Number of threads
+	 */
+	public int getNumThreads(){
+		return numThreads;
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return nLabels;
+	}
+
+	/**
+	 * Get the labels of the dataset as bitsets
+	 *
+	 * @return Label matrix
+	 */
+	public LabelMatrix getLabelMatrix(){
+		synchronized(labelsLock){
+			scanLabels();
+			if(labelMatrix == null){
+				throw new UnsupportedOperationException("Label matrix is not available in a profile built from a labelset histogram");
+			}
+			return labelMatrix;
+		}
+	}
+
+	/**
+	 * Get number of appearances of each label
+	 *
+	 * @return Array with the number of instances where each label is relevant
+	 */
+	public int[] getLabelAppearances(){
+		synchronized(labelsLock){
+			scanLabels();
+			return labelAppearances;
+		}
+	}
+
+	/**
+	 * Get number of labels associated with each instance
+	 *
+	 * @return Array with the number of labels of each instance
+	 */
+	public int[] getLabelsForInstance(){
+		synchronized(labelsLock){
+			if(labelsForInstance == null){
+				labelsForInstance = getLabelMatrix().labelsForInstance();
+			}
+			return labelsForInstance;
+		}
+	}
+
+	/**
+	 * Get the distribution of the number of labels of the instances
+	 *
+	 * @return Array where position c has the number of instances with c labels
+	 */
+	public int[] getCardinalityCounts(){
+		synchronized(labelsLock){
+			scanLabels();
+			return cardinalityCounts;
+		}
+	}
+
+	/**
+	 * Get the distinct labelsets and their number of instances
+	 *
+	 * @return Labelset dictionary
+	 */
+	public LabelsetDictionary getLabelsets(){
+		synchronized(labelsLock){
+			scanLabels();
+			return labelsetDictionary;
+		}
+	}
+
+	/**
+	 * Get the number of instances associated with each labelset, as mulan
+	 * LabelSet objects. It is built from the labelset dictionary the first
+	 * time it is required
+	 *
+	 * @return HashMap with labelsets as keys and their number of instances as values
+	 */
+	public HashMap<LabelSet, Integer> getLabelsetCounts(){
+		synchronized(labelsLock){
+			if(labelsets == null){
+				scanLabels();
+
+				labelsets = new HashMap<LabelSet, Integer>(labelsetDictionary.size() * 2);
+				for(int id=0; id<labelsetDictionary.size(); id++){
+					labelsets.put(labelsetDictionary.getLabelSet(id), labelsetDictionary.getCount(id));
+				}
+			}
+
+			return labelsets;
+		}
+	}
+
+	/**
+	 * Get the number of distinct labelsets
+	 *
+	 * @return Number of distinct labelsets
+	 */
+	public int getNumLabelsets(){
+		return getLabelsets().size();
+	}
+
+	/**
+	 * Get label cardinality
+	 *
+	 * @return Cardinality
+	 */
+	public double getCardinality(){
+		int[] appearances = getLabelAppearances();
+
+		double sum = 0;
+		for(int i=0; i<nLabels; i++){
+			sum += appearances[i];
+		}
+
+		return sum / nInstances;
+	}
+
+	/**
+	 * Get labels sorted by frequency
+	 *
+	 * @return Array of ImbalancedFeature in descendent order of frequency
+	 */
+	public ImbalancedFeature[] getLabelsByFrequency(){
+		synchronized(labelsLock){
+			if(labelsByFrequency == null){
+				scanLabels();
+
+				ImbalancedFeature[] labels = new ImbalancedFeature[nLabels];
+				for(int i=0; i<nLabels; i++){
+					labels[i] = new ImbalancedFeature(labelNames[i], labelAppearances[i]);
+				}
+				labelsByFrequency = Utils.getSortedByFrequency(labels);
+			}
+
+			return labelsByFrequency;
+		}
+	}
+
+	/**
+	 * Get labels with their IR values, in the same order than the labels of the dataset
+	 *
+	 * @return Array of ImbalancedFeature with IR values
+	 */
+	public ImbalancedFeature[] getImbalancedData(){
+		synchronized(labelsLock){
+			if(imbalancedData == null){
+				scanLabels();
+				imbalancedData = Utils.getImbalancedWithIR(labelNames, labelAppearances, nInstances);
+			}
+
+			return imbalancedData;
+		}
+	}
+
+	/**
+	 * Get entropy of each label
+	 *
+	 * @return Array with the entropy of each label
+	 */
+	public double[] getLabelEntropies(){
+		synchronized(labelsLock){
+			if(labelEntropies == null){
+				scanLabels();
+
+				labelEntropies = new double[nLabels];
+				for(int i=0; i<nLabels; i++){
+					labelEntropies[i] = Utils.entropy(new int[]{labelZeros[i], labelAppearances[i]});
+				}
+			}
+
+			return labelEntropies;
+		}
+	}
+
+	/**
+	 * Get the contingency tables of all pairs of labels
+	 *
+	 * @return Label contingency tables
+	 */
+	public LabelContingency getLabelContingency(){
+		synchronized(chiSquareLock){
+			if(labelContingency == null){
+				if(mlData != null){
+					labelContingency = new LabelContingency(getLabelMatrix(), numThreads);
+				}
+				else{
+					labelContingency = new LabelContingency(getLabelsets());
+				}
+			}
+
+			return labelContingency;
+		}
+	}
+
+	/**
+	 * Get the chi-square score of each pair of labels
+	 *
+	 * @return Array of LabelsPair in descendent order of chi-square score
+	 */
+	public LabelsPair[] getChiSquarePairs(){
+		synchronized(chiSquareLock){
+			if(chiSquarePairs == null){
+				chiSquarePairs = getLabelContingency().getChiSquarePairs();
+			}
+
+			return chiSquarePairs;
+		}
+	}
+
+	/**
+	 * Get the feature attributes stored by columns
+	 *
+	 * @return Feature columns
+	 */
+	public FeatureColumns getFeatureColumns(){
+		synchronized(featuresLock){
+			if(featureColumns == null){
+				if(headerOnly){
+					throw new UnsupportedOperationException("Feature columns are not available in a profile built from the header of a dataset");
+				}
+				if(mlData == null){
+					throw new UnsupportedOperationException("Feature columns are not available in a profile built from a labelset histogram");
+				}
+				featureColumns = new FeatureColumns(mlData);
+			}
+
+			return featureColumns;
+		}
+	}
+
+	/**
+	 * Get the moments of the numeric features.
+	 * The moments of all the numeric features are computed at once, each
+	 * feature in a single pass over its column, or over its stored values if
+	 * the dataset is sparse, and the features in parallel with at most
+	 * numThreads threads
+	 *
+	 * @return Array with the moments of each feature, null for the non-numeric ones
+	 */
+	public Moments[] getMoments(){
+		synchronized(momentsLock){
+			if(moments == null){
+				FeatureColumns columns = getFeatureColumns();
+				Moments[] featureMoments = new Moments[columns.getNumFeatures()];
+				int[] numericFeatures = columns.getNumericFeatures();
+
+				Utils.parallelFor(numericFeatures.length, numThreads,
+						i -> featureMoments[numericFeatures[i]] = columns.getMoments(numericFeatures[i]));
+
+				moments = featureMoments;
+			}
+
+			return moments;
+		}
+	}
+
+	/**
+	 * Get the number of instances with each value of the nominal features
+	 *
+	 * @return Array with the counts of each feature, null for the non-nominal ones
+	 */
+	public int[][] getNominalCounts(){
+		synchronized(featuresLock){
+			if(nominalCounts == null){
+				FeatureColumns columns = getFeatureColumns();
+				int[][] counts = new int[columns.getNumFeatures()][];
+				for(int f : columns.getNominalFeatures()){
+					counts[f] = columns.getNominalCounts(f);
+				}
+				nominalCounts = counts;
+			}
+
+			return nominalCounts;
+		}
+	}
+
+	/**
+	 * Get the correlation matrix of the numeric features
+	 *
+	 * @return Correlation matrix, in the order of the numeric features of the dataset
+	 */
+	public CorrelationMatrix getCorrelationMatrix(){
+		synchronized(correlationLock){
+			if(correlationMatrix == null){
+				FeatureColumns columns = getFeatureColumns();
+				int[] numericFeatures = columns.getNumericFeatures();
+
+				double[][] numericColumns = new double[numericFeatures.length][];
+				for(int i=0; i<numericFeatures.length; i++){
+					numericColumns[i] = columns.getNumericColumn(numericFeatures[i]);
+				}
+
+				correlationMatrix = new CorrelationMatrix(numericColumns, numThreads);
+			}
+
+			return correlationMatrix;
+		}
+	}
+
+	/**
+	 * Know if an input can be obtained from the profile. A profile built from
+	 * the header of a dataset provides no input, and a profile built from a
+	 * labelset histogram provides the label inputs and only the statistics of
+	 * the features given in the constructor
+	 *
+	 * @param input Input of the profile
+	 * @return True if the input is available and false otherwise
+	 */
+	public boolean provides(Input input){
+		if(headerOnly){
+			return false;
+		}
+		if(mlData != null){
+			return true;
+		}
+
+		switch(input){
+			case LABELS:
+			case CHI_SQUARE:
+				return true;
+			case FEATURES:
+				return nominalCounts != null;
+			case MOMENTS:
+				return moments != null;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Compute an input of the profile, if it has not been computed yet
+	 *
+	 * @param input Input to compute
+	 */
+	public void prepare(Input input){
+		switch(input){
+			case LABELS:
+				getLabelAppearances();
+				break;
+			case CHI_SQUARE:
+				getChiSquarePairs();
+				break;
+			case FEATURES:
+				//Without dataset, the statistics of the features are given in the constructor
+				if(mlData != null){
+					getFeatureColumns();
+				}
+				break;
+			case MOMENTS:
+				getMoments();
+				break;
+			case CORRELATION:
+				getCorrelationMatrix();
+				break;
+		}
+	}
+
+	/**
+	 * Gather all the label information in a single pass over the dataset.
+	 * The labels are packed into a LabelMatrix and its rows into the labelset
+	 * histogram, and the counts are then derived from the distinct labelsets.
+	 * Must be called holding the labels lock
+	 */
+	protected void scanLabels(){
+		if(labelAppearances != null){
+			return;
+		}
+
+		if(labelsetDictionary == null){
+			if(headerOnly){
+				throw new UnsupportedOperationException("Labels of the instances are not available in a profile built from the header of a dataset");
+			}
+			if(labelMatrix == null){
+				labelMatrix = new LabelMatrix(mlData);
+			}
+			labelsetDictionary = new LabelsetDictionary(labelMatrix);
+		}
+
+		int[] appearances = new int[nLabels];
+		cardinalityCounts = new int[nLabels + 1];
+
+		int count;
+		int[] labels;
+		for(int id=0; id<labelsetDictionary.size(); id++){
+			count = labelsetDictionary.getCount(id);
+			labels = labelsetDictionary.getLabels(id);
+
+			cardinalityCounts[labels.length] += count;
+			for(int label : labels){
+				appearances[label] += count;
+			}
+		}
+
+		labelZeros = new int[nLabels];
+		for(int j=0; j<nLabels; j++){
+			labelZeros[j] = nInstances - appearances[j];
+			if(labelMatrix != null){
+				labelZeros[j] -= labelMatrix.missingCount(j);
+			}
+			else if(labelMissing != null){
+				labelZeros[j] -= labelMissing[j];
+			}
+		}
+
+		labelAppearances = appearances;
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import weka.core.Instance;
+
+/**
+* Interface for the incremental calculation of a metric.
+* Instances are added and removed one by one, and accumulators of different
+* parts of a dataset can be merged, so when the data changes the value of the
+* metric is updated in the cost of the change instead of recalculated.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public interface MetricAccumulator {
+
+	/**
+	 * Add an instance
+	 *
+	 * @param instance Instance with the attributes of the dataset of the accumulator
+	 */
+	public void add(Instance instance);
+
+	/**
+	 * Remove an instance previously added
+	 *
+	 * @param instance Instance with the attributes of the dataset of the accumulator
+	 */
+	public void remove(Instance instance);
+
+	/**
+	 * Merge the instances of other accumulator of the same metric and dataset
+	 *
+	 * @param other Accumulator to merge
+	 */
+	public void merge(MetricAccumulator other);
+
+	/**
+	 * Get the value of the metric for the instances accumulated so far
+	 *
+	 * @return Value of the metric
+	 */
+	public double value();
+
+}
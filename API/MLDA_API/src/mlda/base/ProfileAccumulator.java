@@ -0,0 +1,114 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import mulan.data.MultiLabelInstances;
+import weka.core.Instance;
+
+/**
+* Class implementing the accumulator of the metrics that can be calculated
+* from the mergeable information of a dataset (see MLDataPartial).
+* The histogram of labelsets and the statistics of each feature are updated
+* with each instance, so adding or removing an instance costs O(#attributes),
+* or O(#stored values) for sparse instances. The value is obtained by
+* calculating the metric over a profile built from this information, which
+* costs O(#labelsets + #features).
+* It is not thread safe.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ProfileAccumulator implements MetricAccumulator {
+
+	/**
+	 * Copy of the metric to calculate, so the value of the given metric is not changed
+	 */
+	protected MLDataMetric metric;
+
+	/**
+	 * Mergeable information of the accumulated instances
+	 */
+	protected MLDataPartial partial;
+
+	/**
+	 * Dataset without instances, with the attributes of the accumulated instances
+	 */
+	protected MultiLabelInstances header;
+
+	/**
+	 * Profile of the accumulated instances, null if they have changed since it was built
+	 */
+	protected MLDataProfile profile;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param metric Metric to calculate
+	 * @param mlData Multi-label dataset whose instances are added initially
+	 */
+	public ProfileAccumulator(MLDataMetric metric, MultiLabelInstances mlData) {
+		this.metric = metric.copy();
+		this.partial = new MLDataPartial(mlData);
+		this.header = partial.getHeader();
+	}
+
+
+	@Override
+	public void add(Instance instance) {
+		partial.add(instance);
+		profile = null;
+	}
+
+	@Override
+	public void remove(Instance instance) {
+		partial.remove(instance);
+		profile = null;
+	}
+
+	@Override
+	public void merge(MetricAccumulator other) {
+		if(!(other instanceof ProfileAccumulator)){
+			throw new IllegalArgumentException("Only accumulators of the same type can be merged");
+		}
+
+		partial.merge(((ProfileAccumulator) other).partial);
+		profile = null;
+	}
+
+	/**
+	 * Get the profile of the accumulated instances
+	 *
+	 * @return Profile built from the mergeable information of the instances
+	 */
+	public MLDataProfile getProfile(){
+		if(profile == null){
+			profile = partial.getProfile();
+		}
+
+		return profile;
+	}
+
+	/**
+	 * Get number of accumulated instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return partial.getNumInstances();
+	}
+
+	@Override
+	public double value() {
+		return metric.calculate(header, getProfile());
+	}
+
+}
@@ -12,6 +12,7 @@
 package mlda.dimensionality;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -28,13 +29,23 @@ public class Attributes extends MLDataMetric{
 		super("Attributes");
 	}
 	
+	/**
+	 * The number of attributes is given by the header
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		this.value = mlData.getFeatureIndices().length;
 		return value;
 	}
@@ -12,8 +12,8 @@
 package mlda.dimensionality;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Distinct labelsets metric
@@ -29,17 +29,33 @@ public class DistinctLabelsets extends MLDataMetric {
 		super("Distinct labelsets");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The distinct labelsets are kept in the merged histogram
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
-		this.value = stat.labelCombCount().size();
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = profile.getNumLabelsets();
 		return value;
 	}
 
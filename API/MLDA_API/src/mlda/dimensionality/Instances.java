@@ -12,6 +12,7 @@
 package mlda.dimensionality;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -28,14 +29,24 @@ public class Instances extends MLDataMetric {
 		super("Instances");
 	}
 	
+	/**
+	 * The number of instances is counted without parsing the data
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		this.value = mlData.getNumInstances();
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = profile.getNumInstances();
 		return value;
 	}
 
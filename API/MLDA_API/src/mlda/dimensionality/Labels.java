@@ -12,6 +12,7 @@
 package mlda.dimensionality;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -28,14 +29,24 @@ public class Labels extends MLDataMetric {
 		super("Labels");
 	}
 	
+	/**
+	 * The labels are given by the XML file
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		this.value = mlData.getNumLabels();
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = profile.getNumLabels();
 		return value;
 	}
 
@@ -12,6 +12,7 @@
 package mlda.dimensionality;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -28,14 +29,24 @@ public class LxIxF extends MLDataMetric {
 		super("LxIxF");
 	}
 	
+	/**
+	 * Labels and attributes are given by the header, and instances are counted
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		this.value = mlData.getNumLabels() * mlData.getFeatureIndices().length * mlData.getNumInstances();
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = profile.getNumLabels() * mlData.getFeatureIndices().length * profile.getNumInstances();
 		return value;
 	}
 
@@ -12,6 +12,7 @@
 package mlda.dimensionality;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -28,14 +29,24 @@ public class RatioInstancesToAttributes extends MLDataMetric {
 		super("Ratio of number of instances to the number of attributes");
 	}
 	
+	/**
+	 * Attributes are given by the header, and instances are counted
+	 * 
+	 * @return True
+	 */
+	public boolean isHeaderOnly(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		this.value = ((double)mlData.getNumInstances()) / mlData.getFeatureIndices().length;
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = ((double)profile.getNumInstances()) / mlData.getFeatureIndices().length;
 		return value;
 	}
 
@@ -11,8 +11,8 @@
 
 package mlda.imbalance;
 
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the CVIR inter class
@@ -32,17 +32,15 @@ public class CVIRInterClass extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
 		double CV = 0;
 		MeanIRInterClass meanIRinter = new MeanIRInterClass();
-        double meanIR = meanIRinter.calculate(mlData);
+        double meanIR = meanIRinter.calculate(mlData, profile);
         int nValues = 0;
             
         for(int i=0; i<imbalancedData.length; i++){
@@ -12,8 +12,8 @@
 package mlda.imbalance;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mlda.util.ImbalancedFeature;
-import mlda.util.Utils;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -34,14 +34,34 @@ public class ImbalanceDataMetric extends MLDataMetric{
 		super(name);
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * IR values, labelsets and cardinality distribution are derived from the
+	 * merged histogram of labelsets, so all the imbalance metrics are mergeable
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		imbalancedData =  Utils.getImbalancedWithIR(mlData, Utils.getSortedByFrequency(Utils.getAppearancesPerLabel(mlData)));
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		imbalancedData = profile.getImbalancedData();
 		
 		return Double.NaN;
 	}
@@ -11,10 +11,9 @@
 
 package mlda.imbalance;
 
+import mlda.base.MLDataProfile;
 import mlda.labelsDistribution.Cardinality;
-import mlda.util.Utils;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Kurtosis cardinality
@@ -34,29 +33,28 @@ public class KurtosisCardinality extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
 		Cardinality card = new Cardinality();
-		double cardinality = card.calculate(mlData);
+		double cardinality = card.calculate(mlData, profile);
         
-        int [] labelsForInstance = Utils.labelsForInstance(mlData);
+        //Each number of labels weighted by its number of instances
+        int [] cardinalityCounts = profile.getCardinalityCounts();
         
-        int nInstances = mlData.getNumInstances();
+        double nInstances = profile.getNumInstances();
         
         double v;
         double sum2 = 0;
         double sum4 = 0;
         
-        for(int i=0; i<nInstances; i++){
-            v = labelsForInstance[i] - cardinality;
-            sum2 += Math.pow(v, 2);
-            sum4 += Math.pow(v, 4);
+        for(int c=0; c<cardinalityCounts.length; c++){
+            v = c - cardinality;
+            sum2 += cardinalityCounts[c] * Math.pow(v, 2);
+            sum4 += cardinalityCounts[c] * Math.pow(v, 4);
         }
         
         double kurtosis = (nInstances*sum4/Math.pow(sum2,2))-3;
@@ -11,6 +11,7 @@
 
 package mlda.imbalance;
 
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -31,10 +32,11 @@ public class MaxIRIntraClass extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
 		double max = 0;
         
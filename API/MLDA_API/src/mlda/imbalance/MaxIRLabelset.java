@@ -11,12 +11,9 @@
 
 package mlda.imbalance;
 
-import java.util.HashMap;
-import java.util.Set;
-
-import mulan.data.LabelSet;
+import mlda.base.MLDataProfile;
+import mlda.util.LabelsetDictionary;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Max IR per labelset
@@ -36,33 +33,19 @@ public class MaxIRLabelset extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
-		HashMap<LabelSet,Integer> result = stat.labelCombCount();
-        Set<LabelSet> keysets = result.keySet();
-        
-        double IR;
+		LabelsetDictionary labelsets = profile.getLabelsets();
         
-        int maxCountLabelset = 0;
         double maxIR = 0;
         
-        for(LabelSet labelset : keysets){
-            if(result.get(labelset) > maxCountLabelset){
-                maxCountLabelset = result.get(labelset);
-            }
-        }
-
-        for(LabelSet labelset : keysets){
-        	IR = maxCountLabelset / (result.get(labelset)*1.0);
-            if(IR > maxIR){
-                maxIR = IR;
-            }
+        //The maximum IR is the one of the least frequent labelset
+        if(labelsets.size() > 0){
+        	maxIR = labelsets.getMaxCount() / (labelsets.getMinCount()*1.0);
         }
         
 		this.value = maxIR;
@@ -11,12 +11,9 @@
 
 package mlda.imbalance;
 
-import java.util.HashMap;
-import java.util.Set;
-
-import mulan.data.LabelSet;
+import mlda.base.MLDataProfile;
+import mlda.util.LabelsetDictionary;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Mean of IR per labelset
@@ -36,31 +33,23 @@ public class MeanIRLabelset extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
-		HashMap<LabelSet,Integer> result = stat.labelCombCount();
-        Set<LabelSet> keysets = result.keySet();
+		LabelsetDictionary labelsets = profile.getLabelsets();
+        int nLabelsets = labelsets.size();
 
         double mean = 0;
         
-        int maxCountLabelset = 0;
-        
-        for(LabelSet labelset : keysets){
-            if(result.get(labelset) > maxCountLabelset){
-                maxCountLabelset = result.get(labelset);
-            }
-        }
+        int maxCountLabelset = labelsets.getMaxCount();
         
-        for(LabelSet labelset : keysets){
-        	mean += maxCountLabelset / (result.get(labelset)*1.0);
+        for(int id=0; id<nLabelsets; id++){
+        	mean += maxCountLabelset / (labelsets.getCount(id)*1.0);
         }
-        mean = mean/keysets.size();
+        mean = mean/nLabelsets;
         
 		this.value = mean;
 		return value;
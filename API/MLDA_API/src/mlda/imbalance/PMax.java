@@ -11,11 +11,8 @@
 
 package mlda.imbalance;
 
-import java.util.HashMap;
-
-import mulan.data.LabelSet;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Proportion of maxim label combination (PMax)
@@ -35,25 +32,15 @@ public class PMax extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
-		HashMap<LabelSet, Integer> combCount = stat.labelCombCount();
-        
-        int max = 0;
-        
-        for(LabelSet key : combCount.keySet()){
-            if(combCount.get(key) > max){
-                max = combCount.get(key);
-            }
-        }
+        int max = profile.getLabelsets().getMaxCount();
 
-		this.value = ((double) max)/mlData.getNumInstances();
+		this.value = ((double) max)/profile.getNumInstances();
 		return value;
 	}
 
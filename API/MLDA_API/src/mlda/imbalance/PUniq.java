@@ -12,9 +12,9 @@
 package mlda.imbalance;
 
 
+import mlda.base.MLDataProfile;
 import mlda.labelsRelation.UniqueLabelsets;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Proportion of unique label combination (PUniq)
@@ -34,18 +34,16 @@ public class PUniq extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
 		UniqueLabelsets uniqueLabelsets = new UniqueLabelsets();		
-		double uniq = uniqueLabelsets.calculate(mlData);		 
+		double uniq = uniqueLabelsets.calculate(mlData, profile);		 
 
-		this.value = uniq / mlData.getNumInstances();
+		this.value = uniq / profile.getNumInstances();
 		return value;
 	}
 
@@ -11,9 +11,8 @@
 
 package mlda.imbalance;
 
-import mlda.util.Utils;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Skewness cardinality
@@ -33,25 +32,24 @@ public class SkewnessCardinality extends ImbalanceDataMetric{
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		super.calculate(mlData);
-		
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		super.calculate(mlData, profile);
 		
 		double card = 0;
         
         try{
-            int [] labelsForInstance = Utils.labelsForInstance(mlData);
-            double avg = stat.cardinality();
+            //Each number of labels weighted by its number of instances
+            int [] cardinalityCounts = profile.getCardinalityCounts();
+            double avg = profile.getCardinality();
             double sum = 0;
-            int n = labelsForInstance.length;
+            double n = profile.getNumInstances();
             double cardStdev;
             
-            for(int i=0; i<n; i++){
-                sum += Math.pow(labelsForInstance[i] - avg, 3);
+            for(int c=0; c<cardinalityCounts.length; c++){
+                sum += cardinalityCounts[c] * Math.pow(c - avg, 3);
             }
             
             cardStdev = Math.sqrt(sum / (n-1));
@@ -0,0 +1,372 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+/**
+* Class for splitting a line of the data section of an ARFF file in tokens,
+* with the same rules than the tokenizer of weka's ArffReader: values are
+* separated by commas and/or blanks, quoted values may contain escape
+* characters, braces are tokens by themselves, and % starts a comment until
+* the end of the line.
+* The tokenizer works over a range of a buffer of characters and may be reset
+* to each line of the buffer, so a single tokenizer reads a whole chunk of
+* lines. Tokens are kept as offsets in the buffer, and their value is only
+* built when it is requested; values of fields that are not needed may be
+* skipped without building them.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ArffTokenizer {
+
+	/**
+	 * Type of the token at the end of the line
+	 */
+	public static final int TT_EOL = -1;
+
+	/**
+	 * Type of an unquoted value
+	 */
+	public static final int TT_WORD = 0;
+
+	/**
+	 * Type of a quoted value
+	 */
+	public static final int TT_QUOTED = 1;
+
+	/**
+	 * Type of an opening brace
+	 */
+	public static final int TT_OPEN = '{';
+
+	/**
+	 * Type of a closing brace
+	 */
+	public static final int TT_CLOSE = '}';
+
+	/**
+	 * Buffer with the line
+	 */
+	protected char[] buffer;
+
+	/**
+	 * First position of the line in the buffer
+	 */
+	protected int lineStart;
+
+	/**
+	 * Last position of the line in the buffer, exclusive
+	 */
+	protected int lineEnd;
+
+	/**
+	 * Position of the next character of the line
+	 */
+	protected int position;
+
+	/**
+	 * Type of the current token
+	 */
+	protected int type;
+
+	/**
+	 * First position of the current value in the buffer, without quotes
+	 */
+	protected int valueStart;
+
+	/**
+	 * Last position of the current value in the buffer, exclusive
+	 */
+	protected int valueEnd;
+
+	/**
+	 * True if the current value is quoted and has escape characters, so its
+	 * value is in unescaped instead of in the buffer
+	 */
+	protected boolean escaped;
+
+	/**
+	 * Value of the current quoted token with its escape characters replaced,
+	 * reused for all the tokens
+	 */
+	protected StringBuilder unescaped = new StringBuilder();
+
+	/**
+	 * Constructor of a tokenizer without line; reset must be called before
+	 * reading tokens
+	 */
+	public ArffTokenizer() {
+		reset(new char[0], 0, 0);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param line Line of the data section
+	 */
+	public ArffTokenizer(String line) {
+		reset(line.toCharArray(), 0, line.length());
+	}
+
+	/**
+	 * Start reading a line of a buffer
+	 *
+	 * @param buffer Buffer of characters
+	 * @param from First position of the line
+	 * @param to Last position of the line, exclusive
+	 */
+	public void reset(char[] buffer, int from, int to){
+		this.buffer = buffer;
+		this.lineStart = from;
+		this.lineEnd = to;
+		this.position = from;
+		this.type = TT_EOL;
+		this.escaped = false;
+	}
+
+	/**
+	 * Read the next token of the line
+	 *
+	 * @return Type of the token
+	 */
+	public int next(){
+		return read(false);
+	}
+
+	/**
+	 * Move past the next token of the line without building its value. The
+	 * type and the bounds of the token are the same as with next(), but the
+	 * escape characters of quoted values are not replaced
+	 *
+	 * @return Type of the token
+	 */
+	public int skip(){
+		return read(true);
+	}
+
+	/**
+	 * Read the next token of the line
+	 *
+	 * @param skip True to not replace the escape characters of quoted values
+	 * @return Type of the token
+	 */
+	protected int read(boolean skip){
+		escaped = false;
+
+		//Blanks and commas separate the values
+		while(position < lineEnd && isSeparator(buffer[position])){
+			position++;
+		}
+
+		if(position >= lineEnd || buffer[position] == '%'){
+			position = lineEnd;
+			type = TT_EOL;
+		}
+		else if(buffer[position] == '{' || buffer[position] == '}'){
+			type = buffer[position++];
+		}
+		else if(buffer[position] == '\'' || buffer[position] == '"'){
+			readQuoted(skip);
+			type = TT_QUOTED;
+		}
+		else{
+			valueStart = position;
+			while(position < lineEnd && !isDelimiter(buffer[position])){
+				position++;
+			}
+			valueEnd = position;
+			type = TT_WORD;
+		}
+
+		return type;
+	}
+
+	/**
+	 * Read a quoted value. The value ends at the closing quote or at the end
+	 * of the line. Values without escape characters are kept as bounds in the
+	 * buffer, and the rest are unescaped unless they are skipped
+	 *
+	 * @param skip True to not replace the escape characters
+	 */
+	protected void readQuoted(boolean skip){
+		char quote = buffer[position++];
+		valueStart = position;
+
+		while(position < lineEnd && buffer[position] != quote){
+			if(buffer[position] == '\\' && position + 1 < lineEnd){
+				escaped = true;
+				position++;
+			}
+			position++;
+		}
+		valueEnd = position;
+
+		if(position < lineEnd){
+			//Closing quote
+			position++;
+		}
+
+		if(escaped && !skip){
+			unescape();
+		}
+		else{
+			escaped = false;
+		}
+	}
+
+	/**
+	 * Replace the escape characters of the current quoted value
+	 */
+	protected void unescape(){
+		unescaped.setLength(0);
+		int p = valueStart;
+		char c;
+
+		while(p < valueEnd){
+			c = buffer[p++];
+			if(c == '\\' && p < valueEnd){
+				c = buffer[p++];
+				if(c >= '0' && c <= '7'){
+					//Octal escape of up to 3 digits
+					int code = c - '0';
+					int maxDigits = (c <= '3') ? 2 : 1;
+					while(maxDigits > 0 && p < valueEnd && buffer[p] >= '0' && buffer[p] <= '7'){
+						code = code * 8 + (buffer[p++] - '0');
+						maxDigits--;
+					}
+					c = (char) code;
+				}
+				else{
+					switch(c){
+						case 'a':
+							c = 0x7;
+							break;
+						case 'b':
+							c = '\b';
+							break;
+						case 'f':
+							c = 0xC;
+							break;
+						case 'n':
+							c = '\n';
+							break;
+						case 'r':
+							c = '\r';
+							break;
+						case 't':
+							c = '\t';
+							break;
+						case 'v':
+							c = 0xB;
+							break;
+						default:
+							break;
+					}
+				}
+			}
+			unescaped.append(c);
+		}
+	}
+
+	/**
+	 * Check if a character separates values
+	 *
+	 * @param c Character
+	 * @return True if it is a blank or a comma and false otherwise
+	 */
+	protected boolean isSeparator(char c){
+		return c <= ' ' || c == ',';
+	}
+
+	/**
+	 * Check if a character ends an unquoted value
+	 *
+	 * @param c Character
+	 * @return True if it ends the value and false otherwise
+	 */
+	protected boolean isDelimiter(char c){
+		return isSeparator(c) || c == '%' || c == '{' || c == '}' || c == '\'' || c == '"';
+	}
+
+	/**
+	 * Get the type of the current token
+	 *
+	 * @return Type of the token
+	 */
+	public int getType(){
+		return type;
+	}
+
+	/**
+	 * Get the value of the current token, without quotes. A new string is
+	 * built in each call
+	 *
+	 * @return Value of the token, or null if it is not a value
+	 */
+	public String getValue(){
+		if(!isValue()){
+			return null;
+		}
+		if(escaped){
+			return unescaped.toString();
+		}
+		return new String(buffer, valueStart, valueEnd - valueStart);
+	}
+
+	/**
+	 * Get the current token as a non-negative integer, e.g., the index of a
+	 * value of a sparse instance, without building its value
+	 *
+	 * @return Value of the token, or -1 if it is not an unquoted integer
+	 */
+	public int getIndex(){
+		if(type != TT_WORD || valueEnd == valueStart || valueEnd - valueStart > 9){
+			return -1;
+		}
+
+		int index = 0;
+		for(int p=valueStart; p<valueEnd; p++){
+			if(buffer[p] < '0' || buffer[p] > '9'){
+				return -1;
+			}
+			index = index * 10 + (buffer[p] - '0');
+		}
+		return index;
+	}
+
+	/**
+	 * Check if the current token is a value
+	 *
+	 * @return True if the token is a quoted or unquoted value and false otherwise
+	 */
+	public boolean isValue(){
+		return type == TT_WORD || type == TT_QUOTED;
+	}
+
+	/**
+	 * Check if the current token is a missing value, i.e., an unquoted ?
+	 *
+	 * @return True if the value is missing and false otherwise
+	 */
+	public boolean isMissing(){
+		return type == TT_WORD && valueEnd - valueStart == 1 && buffer[valueStart] == '?';
+	}
+
+	/**
+	 * Get the line, e.g., for error messages
+	 *
+	 * @return Line
+	 */
+	public String getLine(){
+		return new String(buffer, lineStart, lineEnd - lineStart);
+	}
+
+}
@@ -0,0 +1,440 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+import weka.core.Utils;
+
+/**
+* Class for writing datasets in ARFF format. The rows are written with the
+* same format than Instance.toString() (numeric values rounded to 6 decimals),
+* but the values are appended directly to a buffer, the quoted values of the
+* nominal attributes are computed only once, and sparse instances are written
+* in sparse format. The rows are formatted in chunks by several threads, and
+* the chunks are written in order. The same rows may be written to several
+* files at once, e.g., the Mulan and Meka versions of a dataset, which only
+* differ in the relation line.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ArffWriter {
+
+	/**
+	 * Number of rows of each chunk
+	 */
+	protected static final int CHUNK_ROWS = 4096;
+
+	/**
+	 * Size of the buffer of the files
+	 */
+	protected static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Number of decimals of the numeric values
+	 */
+	protected static final int DECIMALS = 6;
+
+	/**
+	 * Factor to round the numeric values to DECIMALS decimals
+	 */
+	protected static final double SCALE = 1e6;
+
+	/**
+	 * Line separator of the system
+	 */
+	protected static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	/**
+	 * Number of threads
+	 */
+	protected int numThreads = Runtime.getRuntime().availableProcessors();
+
+
+	/**
+	 * Set the number of threads used to format the rows
+	 *
+	 * @param numThreads Number of threads. If it is not positive, the number of available processors is used
+	 */
+	public void setNumThreads(int numThreads){
+		if(numThreads <= 0){
+			this.numThreads = Runtime.getRuntime().availableProcessors();
+		}
+		else{
+			this.numThreads = numThreads;
+		}
+	}
+
+	/**
+	 * Get the number of threads used to format the rows
+	 *
+	 * @return Number of threads
+	 */
+	public int getNumThreads(){
+		return numThreads;
+	}
+
+	/**
+	 * Open a buffered writer for a file. If the path ends with .gz, the file
+	 * is compressed with gzip
+	 *
+	 * @param path Path of the file
+	 * @return Writer of the file
+	 * @throws IOException if the file can not be created
+	 */
+	public static Writer open(String path) throws IOException {
+		return open(path, path.toLowerCase().endsWith(".gz"));
+	}
+
+	/**
+	 * Open a buffered writer for a file
+	 *
+	 * @param path Path of the file
+	 * @param gzip True if the file is compressed with gzip and false otherwise
+	 * @return Writer of the file
+	 * @throws IOException if the file can not be created
+	 */
+	public static Writer open(String path, boolean gzip) throws IOException {
+		OutputStream out = new FileOutputStream(path);
+		if(gzip){
+			out = new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+		return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/**
+	 * Write a dataset: the relation line, the attributes and the rows
+	 *
+	 * @param out Writer
+	 * @param instances Dataset
+	 * @param relationLine Full @relation line
+	 * @throws IOException if the dataset can not be written
+	 */
+	public void write(Writer out, Instances instances, String relationLine) throws IOException {
+		writeHeader(out, instances, relationLine);
+		writeData(out, instances);
+	}
+
+	/**
+	 * Write a dataset to several files at the same time, each one with its own
+	 * relation line. The rows are formatted only once and written to all the
+	 * files, so the cost is about the same as writing a single file
+	 *
+	 * @param outs Writers
+	 * @param instances Dataset
+	 * @param relationLines Full @relation line of each writer
+	 * @throws IOException if the dataset can not be written
+	 */
+	public void write(Writer[] outs, Instances instances, String[] relationLines) throws IOException {
+		for(int i=0; i<outs.length; i++){
+			writeHeader(outs[i], instances, relationLines[i]);
+		}
+		writeData(outs, instances);
+	}
+
+	/**
+	 * Write the header of a dataset: the relation line, the attributes and
+	 * the @data line
+	 *
+	 * @param out Writer
+	 * @param instances Dataset
+	 * @param relationLine Full @relation line
+	 * @throws IOException if the header can not be written
+	 */
+	public void writeHeader(Writer out, Instances instances, String relationLine) throws IOException {
+		out.write(relationLine);
+		out.write(LINE_SEPARATOR);
+
+		for(int i=0; i<instances.numAttributes(); i++){
+			out.write(instances.attribute(i).toString());
+			out.write(LINE_SEPARATOR);
+		}
+
+		out.write("@data");
+		out.write(LINE_SEPARATOR);
+	}
+
+	/**
+	 * Write the rows of a dataset. Chunks of rows are formatted in parallel,
+	 * keeping at most two chunks per thread in memory
+	 *
+	 * @param out Writer
+	 * @param instances Dataset
+	 * @throws IOException if the rows can not be written
+	 */
+	public void writeData(Writer out, Instances instances) throws IOException {
+		writeData(new Writer[]{out}, instances);
+	}
+
+	/**
+	 * Write the rows of a dataset to several writers. Each chunk of rows is
+	 * formatted once and written to all the writers
+	 *
+	 * @param outs Writers
+	 * @param instances Dataset
+	 * @throws IOException if the rows can not be written
+	 */
+	public void writeData(Writer[] outs, Instances instances) throws IOException {
+		final String[][] nominalValues = getNominalValues(instances);
+		int nChunks = (instances.numInstances() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+
+		if(numThreads <= 1 || nChunks <= 1){
+			StringBuilder sb = new StringBuilder();
+			for(int c=0; c<nChunks; c++){
+				sb.setLength(0);
+				formatChunk(sb, instances, c, nominalValues);
+				for(Writer out : outs){
+					out.append(sb);
+				}
+			}
+			return;
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, nChunks));
+		Deque<Future<String>> pending = new ArrayDeque<Future<String>>();
+		String chunk;
+		int next = 0;
+
+		try{
+			while(next < nChunks || !pending.isEmpty()){
+				while(next < nChunks && pending.size() < 2 * numThreads){
+					final int c = next++;
+					pending.add(executor.submit(() -> formatChunk(new StringBuilder(), instances, c, nominalValues).toString()));
+				}
+				chunk = pending.poll().get();
+				for(Writer out : outs){
+					out.write(chunk);
+				}
+			}
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IOException("Writing of " + instances.relationName() + " was interrupted", e);
+		}
+		catch(ExecutionException e){
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			else if(e.getCause() instanceof Error){
+				throw (Error) e.getCause();
+			}
+			else{
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		finally{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get the quoted values of the nominal attributes
+	 *
+	 * @param instances Dataset
+	 * @return Array with the quoted values of each nominal attribute, or null for other attributes
+	 */
+	protected String[][] getNominalValues(Instances instances){
+		String[][] values = new String[instances.numAttributes()][];
+		Attribute attribute;
+
+		for(int a=0; a<instances.numAttributes(); a++){
+			attribute = instances.attribute(a);
+			if(attribute.isNominal()){
+				values[a] = new String[attribute.numValues()];
+				for(int v=0; v<attribute.numValues(); v++){
+					values[a][v] = Utils.quote(attribute.value(v));
+				}
+			}
+		}
+
+		return values;
+	}
+
+	/**
+	 * Get new formats for the date attributes. The format of a date attribute
+	 * is not thread-safe and may be shared with the attributes of other
+	 * datasets, e.g., with the folds of the dataset, so each chunk formats the
+	 * dates with its own formats
+	 *
+	 * @param instances Dataset
+	 * @return Array with the format of each date attribute, or null for other attributes
+	 */
+	protected SimpleDateFormat[] getDateFormats(Instances instances){
+		SimpleDateFormat[] formats = new SimpleDateFormat[instances.numAttributes()];
+
+		for(int a=0; a<instances.numAttributes(); a++){
+			if(instances.attribute(a).isDate()){
+				formats[a] = new SimpleDateFormat(instances.attribute(a).getDateFormat());
+				formats[a].setLenient(false);
+			}
+		}
+
+		return formats;
+	}
+
+	/**
+	 * Format the rows of a chunk
+	 *
+	 * @param sb Buffer where the rows are appended
+	 * @param instances Dataset
+	 * @param chunk Index of the chunk
+	 * @param nominalValues Quoted values of the nominal attributes
+	 * @return The same buffer
+	 */
+	protected StringBuilder formatChunk(StringBuilder sb, Instances instances, int chunk, String[][] nominalValues){
+		SimpleDateFormat[] dateFormats = getDateFormats(instances);
+		int to = Math.min(instances.numInstances(), (chunk + 1) * CHUNK_ROWS);
+		for(int i=chunk*CHUNK_ROWS; i<to; i++){
+			appendInstance(sb, instances.get(i), nominalValues, dateFormats);
+			sb.append(LINE_SEPARATOR);
+		}
+		return sb;
+	}
+
+	/**
+	 * Append an instance to a buffer, in dense or sparse format
+	 *
+	 * @param sb Buffer
+	 * @param instance Instance
+	 * @param nominalValues Quoted values of the nominal attributes
+	 * @param dateFormats Formats of the date attributes
+	 */
+	protected void appendInstance(StringBuilder sb, Instance instance, String[][] nominalValues, SimpleDateFormat[] dateFormats){
+		if(instance instanceof SparseInstance){
+			sb.append('{');
+			for(int p=0; p<instance.numValues(); p++){
+				if(p > 0){
+					sb.append(',');
+				}
+				sb.append(instance.index(p)).append(' ');
+				appendValue(sb, instance, instance.index(p), nominalValues, dateFormats);
+			}
+			sb.append('}');
+		}
+		else{
+			for(int a=0; a<instance.numAttributes(); a++){
+				if(a > 0){
+					sb.append(',');
+				}
+				appendValue(sb, instance, a, nominalValues, dateFormats);
+			}
+		}
+
+		if(instance.weight() != 1.0){
+			sb.append(",{");
+			appendDouble(sb, instance.weight());
+			sb.append('}');
+		}
+	}
+
+	/**
+	 * Append a value of an instance to a buffer
+	 *
+	 * @param sb Buffer
+	 * @param instance Instance
+	 * @param index Index of the attribute
+	 * @param nominalValues Quoted values of the nominal attributes
+	 * @param dateFormats Formats of the date attributes
+	 */
+	protected void appendValue(StringBuilder sb, Instance instance, int index, String[][] nominalValues, SimpleDateFormat[] dateFormats){
+		if(instance.isMissing(index)){
+			sb.append('?');
+		}
+		else if(nominalValues[index] != null){
+			sb.append(nominalValues[index][(int) instance.value(index)]);
+		}
+		else if(dateFormats[index] != null){
+			//Date attributes are also numeric in weka, so they are checked first
+			sb.append(Utils.quote(dateFormats[index].format(new Date((long) instance.value(index)))));
+		}
+		else if(instance.attribute(index).isNumeric()){
+			appendDouble(sb, instance.value(index));
+		}
+		else if(instance.attribute(index).isString()){
+			sb.append(Utils.quote(instance.stringValue(index)));
+		}
+		else{
+			//Relational attributes
+			sb.append(instance.toString(index));
+		}
+	}
+
+	/**
+	 * Append a double rounded to 6 decimals, without trailing zeros, as
+	 * weka.core.Utils.doubleToString(value, 6) does
+	 *
+	 * @param sb Buffer
+	 * @param value Value
+	 */
+	protected static void appendDouble(StringBuilder sb, double value){
+		//Integer values
+		if(value == (long) value && Math.abs(value) < 1e12){
+			sb.append((long) value);
+			return;
+		}
+
+		double scaled = value * SCALE;
+		if(!(Math.abs(scaled) < Long.MAX_VALUE)){
+			sb.append(value);
+			return;
+		}
+
+		long rounded = (scaled > 0) ? (long)(scaled + 0.5) : -(long)(Math.abs(scaled) + 0.5);
+		if(rounded == 0){
+			sb.append('0');
+			return;
+		}
+		if(rounded < 0){
+			sb.append('-');
+			rounded = -rounded;
+		}
+
+		sb.append(rounded / (long) SCALE);
+
+		int fraction = (int)(rounded % (long) SCALE);
+		if(fraction != 0){
+			int digits = DECIMALS;
+			while(fraction % 10 == 0){
+				fraction /= 10;
+				digits--;
+			}
+
+			sb.append('.');
+			int start = sb.length();
+			sb.setLength(start + digits);
+			for(int d=digits-1; d>=0; d--){
+				sb.setCharAt(start + d, (char)('0' + fraction % 10));
+				fraction /= 10;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,746 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import mlda.base.MLDataCharacterization;
+import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
+import mlda.util.FeatureColumns;
+import mlda.util.LabelMatrix;
+import mlda.util.Utils;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.LabelsBuilder;
+import mulan.data.LabelsBuilderException;
+import mulan.data.MultiLabelInstances;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+* Class implementing a binary file format for multi-label datasets, that is
+* opened by mapping the file in memory instead of parsing it.
+* The file has a header with the ARFF header of the dataset (including the
+* values of the nominal attributes) and the XML of the labels, followed by the
+* bitsets of the relevant and missing labels of each instance and a block for
+* each feature with its values for all the instances: doubles for numeric
+* features and int codes for nominal ones (-1 for missing values).
+* Columns are accessed without copying through buffers over the mapped file,
+* so the data stay off the heap until they are copied, e.g., to build a
+* profile or the weka instances.
+* Each region is mapped by a single buffer, so a column must be smaller than
+* 2 GB; the label bitsets may be larger, and they are mapped by slices of
+* instances.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class BinaryDataset implements Closeable {
+
+	/**
+	 * Extension of the binary files
+	 */
+	public static final String EXTENSION = ".mldb";
+
+	/**
+	 * First bytes of the binary files
+	 */
+	protected static final int MAGIC = 0x4D4C4442;
+
+	/**
+	 * Version of the format
+	 */
+	protected static final int VERSION = 1;
+
+	/**
+	 * Size of the buffer used to write the file
+	 */
+	protected static final int BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Maximum number of bytes of label bitsets mapped at once
+	 */
+	protected static final long SLICE_BYTES = 1L << 30;
+
+	/**
+	 * Maximum length of the arrays
+	 */
+	protected static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Channel of the file
+	 */
+	protected FileChannel channel;
+
+	/**
+	 * Dataset without instances, with the attributes and labels of the file
+	 */
+	protected MultiLabelInstances header;
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+	/**
+	 * Number of labels
+	 */
+	protected int nLabels;
+
+	/**
+	 * Whether the instances were sparse
+	 */
+	protected boolean sparse;
+
+	/**
+	 * Position in the file of the bitsets of relevant labels
+	 */
+	protected long labelsOffset;
+
+	/**
+	 * Position in the file of the bitsets of missing labels
+	 */
+	protected long missingOffset;
+
+	/**
+	 * Position in the file of the block of each feature
+	 */
+	protected long[] featureOffsets;
+
+	/**
+	 * Feature attributes
+	 */
+	protected Attribute[] attributes;
+
+
+	/**
+	 * Constructor. Only the header of the file is read
+	 *
+	 * @param path Path of the binary file
+	 * @throws IOException if the file can not be read or is not a binary dataset
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	protected BinaryDataset(String path) throws IOException, InvalidDataFormatException {
+		channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+
+		ByteBuffer fixed = map(0, 24);
+		if(fixed.getInt() != MAGIC){
+			close();
+			throw new IOException(path + " is not a binary multi-label dataset");
+		}
+		if(fixed.getInt() != VERSION){
+			close();
+			throw new IOException("Unsupported version of binary multi-label dataset in " + path);
+		}
+		nInstances = fixed.getInt();
+		nLabels = fixed.getInt();
+		int nFeatures = fixed.getInt();
+		sparse = (fixed.getInt() != 0);
+
+		ByteBuffer lengths = map(24, 8);
+		int arffLength = lengths.getInt();
+		int xmlLength = lengths.getInt();
+
+		ByteBuffer text = map(32, arffLength + xmlLength);
+		byte[] arff = new byte[arffLength];
+		byte[] xml = new byte[xmlLength];
+		text.get(arff);
+		text.get(xml);
+
+		try{
+			Instances structure = new Instances(new InputStreamReader(new ByteArrayInputStream(arff), StandardCharsets.UTF_8));
+			header = new MultiLabelInstances(structure, LabelsBuilder.createLabels(new ByteArrayInputStream(xml)));
+		}
+		catch(LabelsBuilderException e){
+			close();
+			throw new IOException("Labels of " + path + " can not be read", e);
+		}
+
+		long offset = align(32 + arffLength + xmlLength);
+		featureOffsets = new long[nFeatures];
+		LongBuffer offsets = map(offset, 8L * nFeatures).asLongBuffer();
+		offsets.get(featureOffsets);
+		offset += 8L * nFeatures;
+
+		long labelBytes = 8L * nInstances * LabelMatrix.words(nLabels);
+		labelsOffset = offset;
+		missingOffset = offset + labelBytes;
+
+		int[] featureIndices = header.getFeatureIndices();
+		attributes = new Attribute[nFeatures];
+		for(int f=0; f<nFeatures; f++){
+			attributes[f] = header.getDataSet().attribute(featureIndices[f]);
+		}
+	}
+
+
+	/**
+	 * Open a binary file
+	 *
+	 * @param path Path of the binary file
+	 * @return Binary dataset
+	 * @throws IOException if the file can not be read or is not a binary dataset
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public static BinaryDataset open(String path) throws IOException, InvalidDataFormatException {
+		return new BinaryDataset(path);
+	}
+
+	/**
+	 * Write a multi-label dataset in a binary file. The blocks are written
+	 * one value after the other from the instances, so only the buffer of the
+	 * file is kept in memory besides the dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 * @param path Path of the binary file
+	 * @throws IOException if the file can not be written
+	 */
+	public static void write(MultiLabelInstances mlData, String path) throws IOException {
+		Instances instances = mlData.getDataSet();
+		int nInstances = instances.numInstances();
+		int[] labelIndices = mlData.getLabelIndices();
+		int[] featureIndices = mlData.getFeatureIndices();
+		int nLabels = labelIndices.length;
+		int nFeatures = featureIndices.length;
+		int rowWords = LabelMatrix.words(nLabels);
+
+		Attribute attribute;
+		for(int f=0; f<nFeatures; f++){
+			attribute = instances.attribute(featureIndices[f]);
+			if(!attribute.isNumeric() && !attribute.isNominal()){
+				throw new IllegalArgumentException("Attribute " + attribute.name() + " is not numeric nor nominal");
+			}
+		}
+
+		byte[] arff = new Instances(instances, 0).toString().getBytes(StandardCharsets.UTF_8);
+		ByteArrayOutputStream xmlStream = new ByteArrayOutputStream();
+		try{
+			LabelsBuilder.dumpLabels(mlData.getLabelsMetaData(), xmlStream);
+		}
+		catch(LabelsBuilderException e){
+			throw new IOException("Labels can not be written", e);
+		}
+		byte[] xml = xmlStream.toByteArray();
+
+		//Position of each feature block, after the header and the label bitsets
+		long offset = align(32 + arff.length + xml.length) + 8L * nFeatures;
+		offset += 2 * 8L * nInstances * rowWords;
+		long[] featureOffsets = new long[nFeatures];
+		for(int f=0; f<nFeatures; f++){
+			featureOffsets[f] = offset;
+			if(instances.attribute(featureIndices[f]).isNominal()){
+				offset += align(4L * nInstances);
+			}
+			else{
+				offset += 8L * nInstances;
+			}
+		}
+
+		try(FileChannel out = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(nInstances);
+			buffer.putInt(nLabels);
+			buffer.putInt(nFeatures);
+			buffer.putInt(Utils.isSparse(instances) ? 1 : 0);
+			buffer.putInt(arff.length);
+			buffer.putInt(xml.length);
+			putBytes(out, buffer, arff);
+			putBytes(out, buffer, xml);
+			pad(out, buffer, 32 + arff.length + xml.length);
+
+			for(int f=0; f<nFeatures; f++){
+				ensure(out, buffer, 8);
+				buffer.putLong(featureOffsets[f]);
+			}
+
+			//Bitsets of relevant labels and then of missing labels, in two passes over the instances
+			long[] row = new long[rowWords];
+			for(boolean missing : new boolean[]{false, true}){
+				for(int i=0; i<nInstances; i++){
+					labelRow(instances.get(i), labelIndices, missing, row);
+					for(int w=0; w<rowWords; w++){
+						ensure(out, buffer, 8);
+						buffer.putLong(row[w]);
+					}
+				}
+			}
+
+			//Feature blocks, with a pass over the instances for each feature
+			int index;
+			double value;
+			for(int f=0; f<nFeatures; f++){
+				index = featureIndices[f];
+				if(instances.attribute(index).isNominal()){
+					for(int i=0; i<nInstances; i++){
+						value = instances.get(i).value(index);
+						ensure(out, buffer, 4);
+						buffer.putInt(Double.isNaN(value) ? -1 : (int)value);
+					}
+					pad(out, buffer, 4L * nInstances);
+				}
+				else{
+					for(int i=0; i<nInstances; i++){
+						ensure(out, buffer, 8);
+						buffer.putDouble(instances.get(i).value(index));
+					}
+				}
+			}
+
+			flush(out, buffer);
+		}
+	}
+
+
+	/**
+	 * Get the bitset of the relevant or the missing labels of an instance
+	 *
+	 * @param instance Instance
+	 * @param labelIndices Indices of the labels
+	 * @param missing True for the missing labels and false for the relevant ones
+	 * @param row Bitset where the labels are set, cleared before
+	 */
+	protected static void labelRow(Instance instance, int[] labelIndices, boolean missing, long[] row){
+		Arrays.fill(row, 0);
+		double value;
+		for(int l=0; l<labelIndices.length; l++){
+			value = instance.value(labelIndices[l]);
+			if(missing ? Double.isNaN(value) : value == 1){
+				row[l >>> 6] |= 1L << l;
+			}
+		}
+	}
+
+	/**
+	 * Round a size up to a multiple of 8 bytes
+	 *
+	 * @param size Size in bytes
+	 * @return Aligned size
+	 */
+	protected static long align(long size){
+		return (size + 7) & ~7L;
+	}
+
+	/**
+	 * Write the buffer to the channel
+	 *
+	 * @param out Channel
+	 * @param buffer Buffer
+	 * @throws IOException if the channel can not be written
+	 */
+	protected static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()){
+			out.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Write the buffer to the channel if it has not enough space
+	 *
+	 * @param out Channel
+	 * @param buffer Buffer
+	 * @param bytes Number of bytes that are going to be put
+	 * @throws IOException if the channel can not be written
+	 */
+	protected static void ensure(FileChannel out, ByteBuffer buffer, int bytes) throws IOException {
+		if(buffer.remaining() < bytes){
+			flush(out, buffer);
+		}
+	}
+
+	/**
+	 * Put an array of bytes in the buffer
+	 *
+	 * @param out Channel
+	 * @param buffer Buffer
+	 * @param bytes Bytes to put
+	 * @throws IOException if the channel can not be written
+	 */
+	protected static void putBytes(FileChannel out, ByteBuffer buffer, byte[] bytes) throws IOException {
+		int written = 0;
+		int n;
+		while(written < bytes.length){
+			ensure(out, buffer, 1);
+			n = Math.min(buffer.remaining(), bytes.length - written);
+			buffer.put(bytes, written, n);
+			written += n;
+		}
+	}
+
+	/**
+	 * Put zeros in the buffer until the size of a block is a multiple of 8 bytes
+	 *
+	 * @param out Channel
+	 * @param buffer Buffer
+	 * @param size Size of the block
+	 * @throws IOException if the channel can not be written
+	 */
+	protected static void pad(FileChannel out, ByteBuffer buffer, long size) throws IOException {
+		for(long p=size; p<align(size); p++){
+			ensure(out, buffer, 1);
+			buffer.put((byte)0);
+		}
+	}
+
+	/**
+	 * Map a region of the file
+	 *
+	 * @param position Position of the region
+	 * @param size Size of the region
+	 * @return Buffer over the region
+	 * @throws IOException if the region can not be mapped or it is larger than 2 GB
+	 */
+	protected ByteBuffer map(long position, long size) throws IOException {
+		if(size > Integer.MAX_VALUE){
+			throw new IOException("Regions of " + size + " bytes can not be mapped at once, the maximum is 2 GB");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Get the dataset without instances, with the attributes and labels of the file
+	 *
+	 * @return Multi-label dataset without instances
+	 */
+	public MultiLabelInstances getHeader(){
+		return header;
+	}
+
+	/**
+	 * Get number of instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return nInstances;
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return nLabels;
+	}
+
+	/**
+	 * Get number of features
+	 *
+	 * @return Number of features
+	 */
+	public int getNumFeatures(){
+		return attributes.length;
+	}
+
+	/**
+	 * Get the values of a numeric feature, without copying them
+	 *
+	 * @param feature Position of the feature
+	 * @return Buffer with the values of the feature, NaN for missing values
+	 * @throws IOException if the file can not be mapped or the column is larger than 2 GB
+	 */
+	public DoubleBuffer getNumericColumn(int feature) throws IOException {
+		if(!attributes[feature].isNumeric()){
+			throw new IllegalArgumentException("Feature " + feature + " is not numeric");
+		}
+		return map(featureOffsets[feature], 8L * nInstances).asDoubleBuffer();
+	}
+
+	/**
+	 * Get the codes of a nominal feature, without copying them
+	 *
+	 * @param feature Position of the feature
+	 * @return Buffer with the codes of the feature, -1 for missing values
+	 * @throws IOException if the file can not be mapped or the column is larger than 2 GB
+	 */
+	public IntBuffer getNominalColumn(int feature) throws IOException {
+		if(!attributes[feature].isNominal()){
+			throw new IllegalArgumentException("Feature " + feature + " is not nominal");
+		}
+		return map(featureOffsets[feature], 4L * nInstances).asIntBuffer();
+	}
+
+	/**
+	 * Get the bitsets of the relevant labels of the instances, without copying
+	 * them. The bitsets must take less than 2 GB; otherwise they must be
+	 * mapped by slices with getLabelRows(int, int)
+	 *
+	 * @return Buffer with the bitset of each instance, one after the other
+	 * @throws IOException if the file can not be mapped or the bitsets are larger than 2 GB
+	 */
+	public LongBuffer getLabelRows() throws IOException {
+		return getLabelRows(0, nInstances);
+	}
+
+	/**
+	 * Get the bitsets of the relevant labels of a range of instances, without
+	 * copying them
+	 *
+	 * @param from First instance of the range
+	 * @param to Last instance of the range, exclusive
+	 * @return Buffer with the bitset of each instance of the range, one after the other
+	 * @throws IOException if the file can not be mapped or the bitsets are larger than 2 GB
+	 */
+	public LongBuffer getLabelRows(int from, int to) throws IOException {
+		return mapRows(labelsOffset, from, to);
+	}
+
+	/**
+	 * Get the bitsets of the missing labels of the instances, without copying
+	 * them. The bitsets must take less than 2 GB; otherwise they must be
+	 * mapped by slices with getMissingRows(int, int)
+	 *
+	 * @return Buffer with the bitset of each instance, one after the other
+	 * @throws IOException if the file can not be mapped or the bitsets are larger than 2 GB
+	 */
+	public LongBuffer getMissingRows() throws IOException {
+		return getMissingRows(0, nInstances);
+	}
+
+	/**
+	 * Get the bitsets of the missing labels of a range of instances, without
+	 * copying them
+	 *
+	 * @param from First instance of the range
+	 * @param to Last instance of the range, exclusive
+	 * @return Buffer with the bitset of each instance of the range, one after the other
+	 * @throws IOException if the file can not be mapped or the bitsets are larger than 2 GB
+	 */
+	public LongBuffer getMissingRows(int from, int to) throws IOException {
+		return mapRows(missingOffset, from, to);
+	}
+
+	/**
+	 * Map the bitsets of a range of instances
+	 *
+	 * @param offset Position in the file of the bitset of the first instance
+	 * @param from First instance of the range
+	 * @param to Last instance of the range, exclusive
+	 * @return Buffer with the bitset of each instance of the range, one after the other
+	 * @throws IOException if the file can not be mapped or the bitsets are larger than 2 GB
+	 */
+	protected LongBuffer mapRows(long offset, int from, int to) throws IOException {
+		if(from < 0 || to > nInstances || from > to){
+			throw new IndexOutOfBoundsException("Instances " + from + " to " + to + " out of " + nInstances);
+		}
+		long rowBytes = 8L * LabelMatrix.words(nLabels);
+		return map(offset + from * rowBytes, (to - from) * rowBytes).asLongBuffer();
+	}
+
+	/**
+	 * Get the number of instances of the slices in which the bitsets of all
+	 * the instances are read, so each slice takes at most SLICE_BYTES
+	 *
+	 * @return Number of instances of each slice
+	 */
+	protected int getSliceInstances(){
+		return (int)Math.max(1, Math.min(nInstances, SLICE_BYTES / (8L * LabelMatrix.words(nLabels))));
+	}
+
+	/**
+	 * Get the labels of the instances as bitsets. The bitsets are read by
+	 * slices of instances
+	 *
+	 * @return Label matrix
+	 * @throws IOException if the file can not be mapped or the bitsets do not fit in an array
+	 */
+	public LabelMatrix getLabelMatrix() throws IOException {
+		int rowWords = LabelMatrix.words(nLabels);
+		long size = (long)nInstances * rowWords;
+		if(size > MAX_ARRAY_SIZE){
+			throw new IOException("The labels of " + nInstances + " instances do not fit in a label matrix");
+		}
+		long[] rows = new long[(int)size];
+		int[] missing = new int[nLabels];
+
+		int sliceInstances = getSliceInstances();
+		int to;
+		LongBuffer missingRows;
+		long word;
+		for(int from=0; from<nInstances; from=to){
+			to = (int)Math.min(nInstances, (long)from + sliceInstances);
+			getLabelRows(from, to).get(rows, from * rowWords, (to - from) * rowWords);
+
+			missingRows = getMissingRows(from, to);
+			for(int k=0; k<missingRows.limit(); k++){
+				word = missingRows.get(k);
+				while(word != 0){
+					missing[((k % rowWords) << 6) + Long.numberOfTrailingZeros(word)]++;
+					word &= word - 1;
+				}
+			}
+		}
+
+		return new LabelMatrix(nInstances, nLabels, rows, missing);
+	}
+
+	/**
+	 * Get the features of the instances by columns
+	 *
+	 * @return Feature columns
+	 * @throws IOException if the file can not be mapped
+	 */
+	public FeatureColumns getFeatureColumns() throws IOException {
+		int nFeatures = attributes.length;
+		double[][] numericColumns = new double[nFeatures][];
+		int[][] nominalColumns = new int[nFeatures][];
+
+		for(int f=0; f<nFeatures; f++){
+			if(attributes[f].isNumeric()){
+				numericColumns[f] = new double[nInstances];
+				getNumericColumn(f).get(numericColumns[f]);
+			}
+			else if(attributes[f].isNominal()){
+				nominalColumns[f] = new int[nInstances];
+				getNominalColumn(f).get(nominalColumns[f]);
+			}
+		}
+
+		return new FeatureColumns(attributes, nInstances, numericColumns, nominalColumns);
+	}
+
+	/**
+	 * Get a profile of the dataset, built from the labels and columns of the
+	 * file without creating the weka instances. Metrics that need the
+	 * instances themselves (e.g., the gain ratio) need toMultiLabelInstances()
+	 *
+	 * @return Profile of the dataset
+	 * @throws IOException if the file can not be mapped
+	 */
+	public MLDataProfile getProfile() throws IOException {
+		return new MLDataProfile(header, getLabelMatrix(), getFeatureColumns());
+	}
+
+	/**
+	 * Calculate the metrics of a characterization for the dataset of the file.
+	 * If all the metrics are mergeable, they are calculated from the profile
+	 * of the file; otherwise, the weka instances are built first
+	 *
+	 * @param characterization Characterization with the metrics to calculate
+	 * @throws IOException if the file can not be mapped
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public void calculateMetrics(MLDataCharacterization characterization) throws IOException, InvalidDataFormatException {
+		for(MLDataMetric metric : characterization.getMetrics()){
+			if(!metric.isMergeable()){
+				characterization.calculateMetrics(toMultiLabelInstances());
+				return;
+			}
+		}
+
+		characterization.calculateMetrics(header, getProfile());
+	}
+
+	/**
+	 * Build the weka instances of the dataset. Instances are sparse if they
+	 * were sparse when the file was written
+	 *
+	 * @return Multi-label dataset
+	 * @throws IOException if the file can not be mapped
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public MultiLabelInstances toMultiLabelInstances() throws IOException, InvalidDataFormatException {
+		Instances structure = header.getDataSet();
+		Instances data = new Instances(structure, nInstances);
+		int nAttributes = structure.numAttributes();
+		int[] labelIndices = header.getLabelIndices();
+		int[] featureIndices = header.getFeatureIndices();
+		int rowWords = LabelMatrix.words(nLabels);
+
+		DoubleBuffer[] numeric = new DoubleBuffer[attributes.length];
+		IntBuffer[] nominal = new IntBuffer[attributes.length];
+		for(int f=0; f<attributes.length; f++){
+			if(attributes[f].isNumeric()){
+				numeric[f] = getNumericColumn(f);
+			}
+			else{
+				nominal[f] = getNominalColumn(f);
+			}
+		}
+		int sliceInstances = getSliceInstances();
+		LongBuffer labelRows = null;
+		LongBuffer missingRows = null;
+		int to;
+		int rowStart;
+
+		double[] values;
+		int code;
+		long bit;
+		for(int i=0; i<nInstances; i++){
+			//Bitsets mapped by slices of instances
+			if(i % sliceInstances == 0){
+				to = (int)Math.min(nInstances, (long)i + sliceInstances);
+				labelRows = getLabelRows(i, to);
+				missingRows = getMissingRows(i, to);
+			}
+			rowStart = (i % sliceInstances) * rowWords;
+			values = new double[nAttributes];
+
+			for(int f=0; f<attributes.length; f++){
+				if(numeric[f] != null){
+					values[featureIndices[f]] = numeric[f].get(i);
+				}
+				else{
+					code = nominal[f].get(i);
+					values[featureIndices[f]] = (code < 0) ? Double.NaN : code;
+				}
+			}
+
+			for(int l=0; l<nLabels; l++){
+				bit = 1L << l;
+				if((labelRows.get(rowStart + (l >>> 6)) & bit) != 0){
+					values[labelIndices[l]] = 1;
+				}
+				else if((missingRows.get(rowStart + (l >>> 6)) & bit) != 0){
+					values[labelIndices[l]] = Double.NaN;
+				}
+			}
+
+			if(sparse){
+				data.add(new SparseInstance(1.0, values));
+			}
+			else{
+				data.add(new DenseInstance(1.0, values));
+			}
+		}
+
+		return new MultiLabelInstances(data, header.getLabelsMetaData());
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import mlda.base.MLDataCharacterization;
+import mlda.base.MLDataProfile;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.LabelsBuilder;
+import mulan.data.LabelsBuilderException;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instances;
+
+/**
+* Class implementing a lightweight description of a multi-label dataset in
+* ARFF format, with its header, its labels and its number of instances.
+* The header is parsed, but the data section is only scanned byte by byte to
+* count the instances (non-empty lines that are not comments), without
+* tokenizing them. As in the ARFF reader of weka, lines end with \n, \r or
+* \r\n, and blanks are all the characters up to the space. So the memory does not depend on the number of instances,
+* and the metrics that only need the header (see MLDataMetric.isHeaderOnly)
+* are calculated without loading the dataset.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class DatasetDescriptor {
+
+	/**
+	 * Size of the buffer used to scan the file
+	 */
+	protected static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Dataset with the attributes and labels, without instances
+	 */
+	protected MultiLabelInstances header;
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+
+	/**
+	 * Constructor. The header is read and the instances are counted
+	 *
+	 * @param arffPath Path of the ARFF file
+	 * @param xmlPath Path of the XML file with the labels
+	 * @throws IOException if the files can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public DatasetDescriptor(String arffPath, String xmlPath) throws IOException, InvalidDataFormatException {
+		String headerText = scan(arffPath);
+
+		Instances structure = new Instances(new StringReader(headerText));
+		try{
+			header = new MultiLabelInstances(structure, LabelsBuilder.createLabels(xmlPath));
+		}
+		catch(LabelsBuilderException e){
+			throw new InvalidDataFormatException("Labels of " + xmlPath + " can not be read");
+		}
+	}
+
+
+	/**
+	 * Read the header of the ARFF file, up to the @data line, and count the
+	 * lines of the data section with an instance
+	 *
+	 * @param arffPath Path of the ARFF file
+	 * @return Text of the header
+	 * @throws IOException if the file can not be read
+	 */
+	protected String scan(String arffPath) throws IOException {
+		ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		byte[] buffer = new byte[BUFFER_SIZE];
+
+		try(InputStream in = new FileInputStream(arffPath)){
+			int read;
+			int start = 0;
+			boolean inData = false;
+
+			//Header lines are kept until the @data line
+			while(!inData && (read = in.read(buffer)) > 0){
+				start = 0;
+				for(int i=0; i<read; i++){
+					if(buffer[i] == '\n' || buffer[i] == '\r'){
+						line.write(buffer, start, i + 1 - start);
+						start = i + 1;
+						line.writeTo(headerBytes);
+						inData = isDataLine(line.toByteArray());
+						line.reset();
+						if(inData){
+							countInstances(buffer, start, read, in);
+							break;
+						}
+					}
+				}
+				if(!inData){
+					line.write(buffer, start, read - start);
+				}
+			}
+
+			if(!inData){
+				throw new IOException(arffPath + " has no @data section");
+			}
+		}
+
+		return new String(headerBytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Check if a line of the header is the @data line
+	 *
+	 * @param line Bytes of the line
+	 * @return True if the line starts with @data and false otherwise
+	 */
+	protected boolean isDataLine(byte[] line){
+		return new String(line, StandardCharsets.UTF_8).trim().toLowerCase().startsWith("@data");
+	}
+
+	/**
+	 * Count the instances of the data section, i.e., the lines that are not
+	 * empty nor comments
+	 *
+	 * @param buffer Buffer with the first bytes of the data section
+	 * @param from First position of the data section in the buffer
+	 * @param to Last position of valid bytes in the buffer, exclusive
+	 * @param in Stream with the rest of the file
+	 * @throws IOException if the file can not be read
+	 */
+	protected void countInstances(byte[] buffer, int from, int to, InputStream in) throws IOException {
+		int count = 0;
+		boolean content = false;
+		boolean comment = false;
+		byte b;
+
+		int start = from;
+		int read = to;
+		do{
+			for(int i=start; i<read; i++){
+				b = buffer[i];
+				if(b == '\n' || b == '\r'){
+					if(content && !comment){
+						count++;
+					}
+					content = false;
+					comment = false;
+				}
+				else if(!content && (b & 0xFF) > ' '){
+					content = true;
+					comment = (b == '%');
+				}
+			}
+			start = 0;
+		}while((read = in.read(buffer)) > 0);
+
+		//Last line without line break
+		if(content && !comment){
+			count++;
+		}
+
+		nInstances = count;
+	}
+
+	/**
+	 * Get the dataset with the attributes and labels, without instances
+	 *
+	 * @return Multi-label dataset without instances
+	 */
+	public MultiLabelInstances getHeader(){
+		return header;
+	}
+
+	/**
+	 * Get number of instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return nInstances;
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return header.getNumLabels();
+	}
+
+	/**
+	 * Get number of features
+	 *
+	 * @return Number of features
+	 */
+	public int getNumFeatures(){
+		return header.getFeatureIndices().length;
+	}
+
+	/**
+	 * Get a profile with the header and the number of instances
+	 *
+	 * @return Profile of the dataset
+	 */
+	public MLDataProfile getProfile(){
+		return new MLDataProfile(header, nInstances);
+	}
+
+	/**
+	 * Calculate the metrics of a characterization from the header. Metrics
+	 * that need the instances of the dataset (see MLDataMetric.isHeaderOnly)
+	 * are not calculated and are left with NaN value
+	 *
+	 * @param characterization Characterization with the metrics to calculate
+	 */
+	public void calculateMetrics(MLDataCharacterization characterization){
+		characterization.calculateMetrics(header, getProfile());
+	}
+
+}
@@ -0,0 +1,338 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import mulan.data.InvalidDataFormatException;
+import mulan.data.MultiLabelInstances;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+* Class for loading a multi-label dataset in ARFF format with several threads.
+* The header is read as in ProjectedArffLoader, and the data section is split
+* in chunks of bytes at line boundaries. Each chunk is read and parsed by a
+* different thread, and the instances of the chunks are then added to the
+* dataset in the original order.
+* The columns may also be projected as in ProjectedArffLoader; by default, all
+* the attributes are loaded.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ParallelArffLoader extends ProjectedArffLoader {
+
+	/**
+	 * Approximate size of each chunk of the data section
+	 */
+	protected static final int CHUNK_SIZE = 16 << 20;
+
+	/**
+	 * Number of threads
+	 */
+	protected int numThreads = Runtime.getRuntime().availableProcessors();
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param arffPath Path of the ARFF file
+	 * @param xmlPath Path of the XML file with the labels, or null if the dataset is in Meka format
+	 */
+	public ParallelArffLoader(String arffPath, String xmlPath) {
+		super(arffPath, xmlPath);
+	}
+
+
+	/**
+	 * Set the number of threads used to parse the data section
+	 *
+	 * @param numThreads Number of threads. If it is not positive, the number of available processors is used
+	 */
+	public void setNumThreads(int numThreads){
+		if(numThreads <= 0){
+			this.numThreads = Runtime.getRuntime().availableProcessors();
+		}
+		else{
+			this.numThreads = numThreads;
+		}
+	}
+
+	/**
+	 * Get the number of threads used to parse the data section
+	 *
+	 * @return Number of threads
+	 */
+	public int getNumThreads(){
+		return numThreads;
+	}
+
+	/**
+	 * Load all the attributes of the dataset. Datasets with relational
+	 * attributes are loaded with the ARFF reader of weka
+	 *
+	 * @return Multi-label dataset
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public MultiLabelInstances load() throws IOException, InvalidDataFormatException {
+		try(BufferedReader reader = open()){
+			MultiLabelInstances header = readHeader(reader);
+			if(hasRelationalAttributes(header.getDataSet())){
+				return loadWithWeka();
+			}
+			return readData(reader, header, header.getFeatureIndices());
+		}
+	}
+
+	/**
+	 * Read the data section in parallel, keeping only the given features and
+	 * the labels. The reader is only used for the header, and the chunks are
+	 * read directly from the file
+	 *
+	 * @param reader Reader of the file, positioned after the @data line
+	 * @param header Multi-label dataset without instances
+	 * @param featureIndices Indices of the attributes of the features to load
+	 * @return Multi-label dataset with the given features and the labels
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	@Override
+	protected MultiLabelInstances readData(BufferedReader reader, MultiLabelInstances header, int[] featureIndices) throws IOException, InvalidDataFormatException {
+		final int[] positions = getPositions(header, featureIndices);
+		final Instances data = createProjection(header.getDataSet(), positions);
+
+		try(FileChannel channel = FileChannel.open(Paths.get(arffPath), StandardOpenOption.READ)){
+			final long[] bounds = split(channel, findDataOffset(channel), channel.size());
+
+			List<Callable<List<Instance>>> tasks = new ArrayList<Callable<List<Instance>>>();
+			for(int c=0; c<bounds.length-1; c++){
+				final long from = bounds[c];
+				final long to = bounds[c+1];
+				tasks.add(() -> parseChunk(channel, from, to, positions, data));
+			}
+
+			for(List<Instance> chunk : runTasks(tasks)){
+				for(Instance instance : chunk){
+					data.add(instance);
+				}
+			}
+		}
+
+		return new MultiLabelInstances(data, header.getLabelsMetaData());
+	}
+
+	/**
+	 * Find the position of the first byte after the @data line
+	 *
+	 * @param channel Channel of the file
+	 * @return Position of the data section
+	 * @throws IOException if the file can not be read or has no data section
+	 */
+	protected long findDataOffset(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] bytes = buffer.array();
+		ByteArrayOutputStream line = new ByteArrayOutputStream();
+		long position = 0;
+		int read;
+		int start;
+
+		while((read = channel.read(buffer, position)) > 0){
+			start = 0;
+			for(int i=0; i<read; i++){
+				if(bytes[i] == '\n'){
+					line.write(bytes, start, i - start);
+					start = i + 1;
+					if(isDataLine(line)){
+						return position + i + 1;
+					}
+					line.reset();
+				}
+			}
+			line.write(bytes, start, read - start);
+			position += read;
+			buffer.clear();
+		}
+
+		//Data line at the end of the file, without instances
+		if(isDataLine(line)){
+			return position;
+		}
+		throw new IOException(arffPath + " has no @data section");
+	}
+
+	/**
+	 * Check if a line is the @data line
+	 *
+	 * @param line Bytes of the line
+	 * @return True if the line starts with @data and false otherwise
+	 */
+	protected boolean isDataLine(ByteArrayOutputStream line){
+		return new String(line.toByteArray(), StandardCharsets.UTF_8).trim().toLowerCase().startsWith("@data");
+	}
+
+	/**
+	 * Split a range of the file in chunks of about CHUNK_SIZE bytes, each
+	 * one ending at a line break
+	 *
+	 * @param channel Channel of the file
+	 * @param from First position of the range
+	 * @param to Last position of the range, exclusive
+	 * @return Array with the bounds of the chunks, the first being from and the last to
+	 * @throws IOException if the file can not be read
+	 */
+	protected long[] split(FileChannel channel, long from, long to) throws IOException {
+		int nChunks = (int)Math.max(1, (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		long[] bounds = new long[nChunks + 1];
+		bounds[0] = from;
+		for(int c=1; c<nChunks; c++){
+			bounds[c] = nextLine(channel, Math.max(bounds[c-1], from + (long)c*CHUNK_SIZE), to);
+		}
+		bounds[nChunks] = to;
+		return bounds;
+	}
+
+	/**
+	 * Find the beginning of the next line of the file
+	 *
+	 * @param channel Channel of the file
+	 * @param from Position where the search starts
+	 * @param to Last position of the search, exclusive
+	 * @return Position after the next line break, or to if there are no more line breaks
+	 * @throws IOException if the file can not be read
+	 */
+	protected long nextLine(FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		byte[] bytes = buffer.array();
+		long position = from;
+		int read;
+
+		while(position < to && (read = channel.read(buffer, position)) > 0){
+			for(int i=0; i<read && position + i < to; i++){
+				if(bytes[i] == '\n'){
+					return position + i + 1;
+				}
+			}
+			position += read;
+			buffer.clear();
+		}
+		return to;
+	}
+
+	/**
+	 * Read and parse the lines of a chunk of the data section
+	 *
+	 * @param channel Channel of the file
+	 * @param from First position of the chunk
+	 * @param to Last position of the chunk, exclusive
+	 * @param positions Position of each attribute in the projection, or -1
+	 * @param data Projected dataset
+	 * @return List with the instances of the chunk, in order
+	 * @throws IOException if the file can not be read or a value is not valid
+	 */
+	protected List<Instance> parseChunk(FileChannel channel, long from, long to, int[] positions, Instances data) throws IOException {
+		byte[] bytes = new byte[(int)(to - from)];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while(buffer.hasRemaining()){
+			if(channel.read(buffer, from + buffer.position()) < 0){
+				throw new IOException(arffPath + " was truncated while being read");
+			}
+		}
+
+		//The chunk ends at a line break, so it is decoded at once, and its
+		//lines are tokenized in place by a single tokenizer
+		CharBuffer chars = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(bytes));
+		List<Instance> instances = new ArrayList<Instance>();
+		parseLines(chars.array(), chars.arrayOffset(), chars.arrayOffset() + chars.limit(), true, createTokenizer(), positions, data, instances);
+		return instances;
+	}
+
+	/**
+	 * Convert a value of the ARFF file to its internal value in weka.
+	 * String and date attributes are not thread-safe, so their values are
+	 * converted holding the lock of the attribute
+	 *
+	 * @param attribute Attribute of the value
+	 * @param value Value in the file, without quotes
+	 * @return Internal value
+	 * @throws IOException if the value is not valid
+	 */
+	@Override
+	protected double parseValue(Attribute attribute, String value) throws IOException {
+		if((attribute.isNumeric() && !attribute.isDate()) || attribute.isNominal()){
+			return super.parseValue(attribute, value);
+		}
+
+		synchronized(attribute){
+			return super.parseValue(attribute, value);
+		}
+	}
+
+	/**
+	 * Run the tasks with a pool of threads
+	 *
+	 * @param tasks Tasks to run
+	 * @return List with the result of each task, in the same order
+	 * @throws IOException if any task fails reading the file
+	 */
+	protected <T> List<T> runTasks(List<Callable<T>> tasks) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numThreads, tasks.size())));
+		List<T> values = new ArrayList<T>();
+
+		try{
+			List<Future<T>> results = executor.invokeAll(tasks);
+			for(Future<T> result : results){
+				values.add(result.get());
+			}
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new IOException("Loading of " + arffPath + " was interrupted", e);
+		}
+		catch(ExecutionException e){
+			if(e.getCause() instanceof IOException){
+				throw (IOException) e.getCause();
+			}
+			else if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			else if(e.getCause() instanceof Error){
+				throw (Error) e.getCause();
+			}
+			else{
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		finally{
+			executor.shutdownNow();
+		}
+
+		return values;
+	}
+
+}
@@ -0,0 +1,642 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import mlda.util.Utils;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.LabelNodeImpl;
+import mulan.data.LabelsBuilder;
+import mulan.data.LabelsBuilderException;
+import mulan.data.LabelsMetaData;
+import mulan.data.LabelsMetaDataImpl;
+import mulan.data.MultiLabelInstances;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+* Class for loading a subset of the columns of a multi-label dataset in ARFF
+* format, e.g., only the labels or only the numeric features.
+* The labels are always loaded, so the result is a valid multi-label dataset.
+* Each line of the data section is tokenized, but the values of the columns
+* outside the projection are skipped without building their strings,
+* converting nor storing them, so label metrics on wide datasets are
+* calculated loading only the labels.
+* The lines are tokenized with the same rules than weka's ArffReader (see
+* ArffTokenizer), including the optional weight of each instance.
+* Datasets in Meka format, whose labels are given by the -C option in the
+* name of the relation, are loaded without XML file.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ProjectedArffLoader {
+
+	/**
+	 * Size of the buffers to read the file
+	 */
+	protected static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Path of the ARFF file
+	 */
+	protected String arffPath;
+
+	/**
+	 * Path of the XML file with the labels, or null for Meka datasets
+	 */
+	protected String xmlPath;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param arffPath Path of the ARFF file
+	 * @param xmlPath Path of the XML file with the labels, or null if the dataset is in Meka format
+	 */
+	public ProjectedArffLoader(String arffPath, String xmlPath) {
+		this.arffPath = arffPath;
+		this.xmlPath = xmlPath;
+	}
+
+
+	/**
+	 * Load the labels of the dataset, without features
+	 *
+	 * @return Multi-label dataset with only the labels
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public MultiLabelInstances loadLabels() throws IOException, InvalidDataFormatException {
+		return load(new int[0]);
+	}
+
+	/**
+	 * Load the numeric features and the labels of the dataset
+	 *
+	 * @return Multi-label dataset with the numeric features and the labels
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public MultiLabelInstances loadNumericFeatures() throws IOException, InvalidDataFormatException {
+		try(BufferedReader reader = open()){
+			MultiLabelInstances header = readHeader(reader);
+			Instances structure = header.getDataSet();
+
+			int[] featureIndices = header.getFeatureIndices();
+			int nNumeric = 0;
+			for(int index : featureIndices){
+				if(structure.attribute(index).isNumeric()){
+					nNumeric++;
+				}
+			}
+
+			int[] numericIndices = new int[nNumeric];
+			nNumeric = 0;
+			for(int index : featureIndices){
+				if(structure.attribute(index).isNumeric()){
+					numericIndices[nNumeric++] = index;
+				}
+			}
+
+			return readData(reader, header, numericIndices);
+		}
+	}
+
+	/**
+	 * Load a subset of the features and the labels of the dataset
+	 *
+	 * @param featureIndices Indices of the attributes of the features to load
+	 * @return Multi-label dataset with the given features and the labels
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	public MultiLabelInstances load(int[] featureIndices) throws IOException, InvalidDataFormatException {
+		try(BufferedReader reader = open()){
+			return readData(reader, readHeader(reader), featureIndices);
+		}
+	}
+
+	/**
+	 * Open the ARFF file
+	 *
+	 * @return Reader of the file
+	 * @throws IOException if the file can not be read
+	 */
+	protected BufferedReader open() throws IOException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(arffPath), StandardCharsets.UTF_8), 1 << 16);
+	}
+
+	/**
+	 * Read the header of the ARFF file, up to the @data line, and the labels
+	 *
+	 * @param reader Reader of the file, positioned at its beginning
+	 * @return Multi-label dataset without instances
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	protected MultiLabelInstances readHeader(BufferedReader reader) throws IOException, InvalidDataFormatException {
+		StringBuilder header = new StringBuilder();
+		String line;
+		boolean inData = false;
+
+		while(!inData && (line = reader.readLine()) != null){
+			header.append(line).append('\n');
+			inData = line.trim().toLowerCase().startsWith("@data");
+		}
+		if(!inData){
+			throw new IOException(arffPath + " has no @data section");
+		}
+
+		Instances structure = new Instances(new StringReader(header.toString()));
+		return new MultiLabelInstances(structure, getLabels(structure));
+	}
+
+	/**
+	 * Load the whole dataset with the ARFF reader of weka. It is used for the
+	 * datasets that this loader does not handle, i.e., with relational
+	 * attributes
+	 *
+	 * @return Multi-label dataset
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	protected MultiLabelInstances loadWithWeka() throws IOException, InvalidDataFormatException {
+		try(BufferedReader reader = open()){
+			Instances data = new Instances(reader);
+			return new MultiLabelInstances(data, getLabels(data));
+		}
+	}
+
+	/**
+	 * Check if a dataset has relational attributes, which are not handled by
+	 * this loader
+	 *
+	 * @param structure Dataset
+	 * @return True if any attribute is relational and false otherwise
+	 */
+	protected boolean hasRelationalAttributes(Instances structure){
+		for(int a=0; a<structure.numAttributes(); a++){
+			if(structure.attribute(a).isRelationValued()){
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Get the labels of the dataset, from the XML file or from the relation
+	 * of Meka datasets
+	 *
+	 * @param structure Dataset
+	 * @return Labels of the dataset
+	 * @throws InvalidDataFormatException if the labels can not be read
+	 */
+	protected LabelsMetaData getLabels(Instances structure) throws InvalidDataFormatException {
+		if(xmlPath == null){
+			return getMekaLabels(structure);
+		}
+
+		try{
+			return LabelsBuilder.createLabels(xmlPath);
+		}
+		catch(LabelsBuilderException e){
+			throw new InvalidDataFormatException("Labels of " + xmlPath + " can not be read");
+		}
+	}
+
+	/**
+	 * Get the labels of a dataset in Meka format. With -C n in the name of
+	 * the relation, the labels are the first n attributes if n is positive
+	 * and the last -n attributes if it is negative
+	 *
+	 * @param structure Dataset without instances
+	 * @return Labels of the dataset
+	 * @throws InvalidDataFormatException if the relation has no valid -C option
+	 */
+	protected LabelsMetaDataImpl getMekaLabels(Instances structure) throws InvalidDataFormatException {
+		int c = getMekaLabelCount(structure.relationName());
+		int nAttributes = structure.numAttributes();
+		if(c == 0 || Math.abs(c) > nAttributes){
+			throw new InvalidDataFormatException("Invalid number of labels in relation " + structure.relationName());
+		}
+
+		int first = (c > 0) ? 0 : nAttributes + c;
+		LabelsMetaDataImpl labels = new LabelsMetaDataImpl();
+		for(int a=first; a<first+Math.abs(c); a++){
+			labels.addRootNode(new LabelNodeImpl(structure.attribute(a).name()));
+		}
+		return labels;
+	}
+
+	/**
+	 * Get the number of labels given by the -C option of a Meka relation
+	 *
+	 * @param relationName Name of the relation
+	 * @return Number of labels, negative if the labels are the last attributes
+	 * @throws InvalidDataFormatException if the relation has no valid -C option
+	 */
+	public static int getMekaLabelCount(String relationName) throws InvalidDataFormatException {
+		int p = relationName.indexOf("-C");
+		if(p < 0){
+			throw new InvalidDataFormatException("Relation " + relationName + " is not in Meka format");
+		}
+
+		p += 2;
+		while(p < relationName.length() && Character.isWhitespace(relationName.charAt(p))){
+			p++;
+		}
+		int end = p;
+		if(end < relationName.length() && relationName.charAt(end) == '-'){
+			end++;
+		}
+		while(end < relationName.length() && Character.isDigit(relationName.charAt(end))){
+			end++;
+		}
+
+		try{
+			return Integer.parseInt(relationName.substring(p, end));
+		}
+		catch(NumberFormatException e){
+			throw new InvalidDataFormatException("Invalid number of labels in relation " + relationName);
+		}
+	}
+
+	/**
+	 * Read the data section, keeping only the given features and the labels.
+	 * The data section is read in blocks of characters, and the lines of each
+	 * block are tokenized in place by a single tokenizer
+	 *
+	 * @param reader Reader of the file, positioned after the @data line
+	 * @param header Multi-label dataset without instances
+	 * @param featureIndices Indices of the attributes of the features to load
+	 * @return Multi-label dataset with the given features and the labels
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 */
+	protected MultiLabelInstances readData(BufferedReader reader, MultiLabelInstances header, int[] featureIndices) throws IOException, InvalidDataFormatException {
+		int[] positions = getPositions(header, featureIndices);
+		Instances data = createProjection(header.getDataSet(), positions);
+
+		ArffTokenizer tokenizer = createTokenizer();
+		List<Instance> instances = new ArrayList<Instance>();
+		char[] chars = new char[BUFFER_SIZE];
+		int length = 0;
+		int parsed;
+		int read;
+
+		while((read = reader.read(chars, length, chars.length - length)) >= 0){
+			length += read;
+			parsed = parseLines(chars, 0, length, false, tokenizer, positions, data, instances);
+
+			//The incomplete last line is moved to the beginning of the buffer
+			length -= parsed;
+			System.arraycopy(chars, parsed, chars, 0, length);
+			if(length == chars.length){
+				chars = Arrays.copyOf(chars, 2 * chars.length);
+			}
+
+			addAll(data, instances);
+		}
+		parseLines(chars, 0, length, true, tokenizer, positions, data, instances);
+		addAll(data, instances);
+
+		return new MultiLabelInstances(data, header.getLabelsMetaData());
+	}
+
+	/**
+	 * Create a tokenizer for the lines of the data section
+	 *
+	 * @return Tokenizer
+	 */
+	protected ArffTokenizer createTokenizer(){
+		return new ArffTokenizer();
+	}
+
+	/**
+	 * Add instances to a dataset, and clear the list of instances
+	 *
+	 * @param data Dataset
+	 * @param instances List of instances
+	 */
+	protected void addAll(Instances data, List<Instance> instances){
+		for(Instance instance : instances){
+			data.add(instance);
+		}
+		instances.clear();
+	}
+
+	/**
+	 * Get the position of each attribute in the projection, which keeps the
+	 * given features and the labels in their original order
+	 *
+	 * @param header Multi-label dataset without instances
+	 * @param featureIndices Indices of the attributes of the features to load
+	 * @return Array with the position of each attribute in the projection, or -1
+	 */
+	protected int[] getPositions(MultiLabelInstances header, int[] featureIndices){
+		Instances structure = header.getDataSet();
+		int nAttributes = structure.numAttributes();
+
+		boolean[] keep = new boolean[nAttributes];
+		for(int index : featureIndices){
+			keep[index] = true;
+		}
+		for(int index : header.getLabelIndices()){
+			keep[index] = true;
+		}
+
+		int[] indices = new int[nAttributes];
+		int nProjected = 0;
+		for(int a=0; a<nAttributes; a++){
+			if(keep[a]){
+				if(structure.attribute(a).isRelationValued()){
+					throw new IllegalArgumentException("Relational attribute " + structure.attribute(a).name() + " can not be projected");
+				}
+				indices[nProjected++] = a;
+			}
+		}
+
+		return Utils.getPositions(nAttributes, Arrays.copyOf(indices, nProjected));
+	}
+
+	/**
+	 * Create an empty dataset with the projected attributes
+	 *
+	 * @param structure Dataset with all the attributes
+	 * @param positions Position of each attribute in the projection, or -1
+	 * @return Dataset with the projected attributes and without instances
+	 */
+	protected Instances createProjection(Instances structure, int[] positions){
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		for(int a=0; a<positions.length; a++){
+			if(positions[a] >= 0){
+				attributes.add((Attribute)structure.attribute(a).copy());
+			}
+		}
+
+		return new Instances(structure.relationName(), attributes, 0);
+	}
+
+	/**
+	 * Parse the lines of a range of a buffer. Lines end at a line feed or at
+	 * a carriage return, as in weka's ArffReader
+	 *
+	 * @param chars Buffer of characters
+	 * @param from First position of the range
+	 * @param to Last position of the range, exclusive
+	 * @param last True if the range ends at the end of the data section, so its last line is complete
+	 * @param tokenizer Tokenizer, reset to each line
+	 * @param positions Position of each attribute in the projection, or -1
+	 * @param data Projected dataset
+	 * @param instances List where the instances are added, in order
+	 * @return Position after the last parsed line
+	 * @throws IOException if a line is not valid
+	 */
+	protected int parseLines(char[] chars, int from, int to, boolean last, ArffTokenizer tokenizer, int[] positions, Instances data, List<Instance> instances) throws IOException {
+		int start = from;
+
+		for(int i=from; i<to; i++){
+			if(chars[i] == '\n' || chars[i] == '\r'){
+				if(i > start){
+					tokenizer.reset(chars, start, i);
+					addInstance(parseLine(tokenizer, positions, data), instances);
+				}
+				start = i + 1;
+			}
+		}
+
+		if(last && to > start){
+			tokenizer.reset(chars, start, to);
+			addInstance(parseLine(tokenizer, positions, data), instances);
+			start = to;
+		}
+
+		return start;
+	}
+
+	/**
+	 * Add an instance to a list, if it is not null
+	 *
+	 * @param instance Instance, or null
+	 * @param instances List of instances
+	 */
+	protected void addInstance(Instance instance, List<Instance> instances){
+		if(instance != null){
+			instances.add(instance);
+		}
+	}
+
+	/**
+	 * Parse a line of the data section, keeping the projected values. The
+	 * line is tokenized as in weka's ArffReader, and it may end with the
+	 * weight of the instance between braces
+	 *
+	 * @param tokenizer Tokenizer, at the beginning of the line
+	 * @param positions Position of each attribute in the projection, or -1
+	 * @param data Projected dataset
+	 * @return Instance with the projected values, or null if the line is empty or a comment
+	 * @throws IOException if the line is not valid
+	 */
+	protected Instance parseLine(ArffTokenizer tokenizer, int[] positions, Instances data) throws IOException {
+		//The first token is the opening brace of sparse lines or the first value
+		if(read(tokenizer, positions.length > 0 && positions[0] >= 0) == ArffTokenizer.TT_EOL){
+			return null;
+		}
+
+		double[] values = new double[data.numAttributes()];
+		boolean sparse = (tokenizer.getType() == ArffTokenizer.TT_OPEN);
+		if(sparse){
+			readSparse(tokenizer, positions, data, values);
+		}
+		else{
+			readDense(tokenizer, positions, data, values);
+		}
+
+		double weight = readWeight(tokenizer);
+		if(sparse){
+			return new SparseInstance(weight, values);
+		}
+		else{
+			return new DenseInstance(weight, values);
+		}
+	}
+
+	/**
+	 * Read the next token of a line, building its value only if it is needed
+	 *
+	 * @param tokenizer Tokenizer of the line
+	 * @param projected True if the value of the token is needed and false otherwise
+	 * @return Type of the token
+	 */
+	protected int read(ArffTokenizer tokenizer, boolean projected){
+		return projected ? tokenizer.next() : tokenizer.skip();
+	}
+
+	/**
+	 * Read the projected values of a dense line. The values of the columns
+	 * outside the projection are skipped
+	 *
+	 * @param tokenizer Tokenizer of the line, at its first value
+	 * @param positions Position of each attribute in the projection, or -1
+	 * @param data Projected dataset
+	 * @param values Array where the projected values are stored
+	 * @throws IOException if the line has less values than attributes or a value is not valid
+	 */
+	protected void readDense(ArffTokenizer tokenizer, int[] positions, Instances data, double[] values) throws IOException {
+		for(int a=0; a<positions.length; a++){
+			if(a > 0){
+				read(tokenizer, positions[a] >= 0);
+			}
+			if(!tokenizer.isValue()){
+				throw new IOException("Premature end of line, " + positions.length + " values expected: " + tokenizer.getLine());
+			}
+			if(positions[a] >= 0){
+				values[positions[a]] = readValue(tokenizer, data.attribute(positions[a]));
+			}
+		}
+		tokenizer.next();
+	}
+
+	/**
+	 * Read the projected values of a sparse line, i.e., {index value, ...}.
+	 * The indices must be in ascending order, and values that are not stored
+	 * are 0. The values of the columns outside the projection are skipped
+	 *
+	 * @param tokenizer Tokenizer of the line, at its opening brace
+	 * @param positions Position of each attribute in the projection, or -1
+	 * @param data Projected dataset
+	 * @param values Array where the projected values are stored
+	 * @throws IOException if the line or a value is not valid
+	 */
+	protected void readSparse(ArffTokenizer tokenizer, int[] positions, Instances data, double[] values) throws IOException {
+		int last = -1;
+		int index;
+
+		while(tokenizer.next() != ArffTokenizer.TT_CLOSE){
+			index = tokenizer.getIndex();
+			if(index < 0){
+				throw new IOException("Index expected: " + tokenizer.getLine());
+			}
+			if(index <= last){
+				throw new IOException("Indices have to be ordered: " + tokenizer.getLine());
+			}
+			if(index >= positions.length){
+				throw new IOException("Index out of bounds: " + tokenizer.getLine());
+			}
+			last = index;
+
+			if(!(read(tokenizer, positions[index] >= 0) == ArffTokenizer.TT_WORD || tokenizer.getType() == ArffTokenizer.TT_QUOTED)){
+				throw new IOException("Value expected after index " + index + ": " + tokenizer.getLine());
+			}
+			if(positions[index] >= 0){
+				values[positions[index]] = readValue(tokenizer, data.attribute(positions[index]));
+			}
+		}
+		tokenizer.next();
+	}
+
+	/**
+	 * Read the optional weight of the instance, i.e., {weight}, at the end of
+	 * the line
+	 *
+	 * @param tokenizer Tokenizer of the line, after the values
+	 * @return Weight of the instance, 1 if it is not given
+	 * @throws IOException if the weight is not valid or the line has more values
+	 */
+	protected double readWeight(ArffTokenizer tokenizer) throws IOException {
+		double weight = 1.0;
+
+		if(tokenizer.getType() == ArffTokenizer.TT_OPEN){
+			if(tokenizer.next() != ArffTokenizer.TT_WORD){
+				throw new IOException("Weight expected: " + tokenizer.getLine());
+			}
+			try{
+				weight = Double.parseDouble(tokenizer.getValue());
+			}
+			catch(NumberFormatException e){
+				throw new IOException("Weight expected: " + tokenizer.getLine(), e);
+			}
+			if(tokenizer.next() != ArffTokenizer.TT_CLOSE){
+				throw new IOException("Closing brace of the weight expected: " + tokenizer.getLine());
+			}
+			tokenizer.next();
+		}
+
+		if(tokenizer.getType() != ArffTokenizer.TT_EOL){
+			throw new IOException("End of line expected: " + tokenizer.getLine());
+		}
+
+		return weight;
+	}
+
+	/**
+	 * Convert the current value of the tokenizer to its internal value in weka
+	 *
+	 * @param tokenizer Tokenizer of the line, at a value
+	 * @param attribute Attribute of the value
+	 * @return Internal value, NaN if it is missing
+	 * @throws IOException if the value is not valid
+	 */
+	protected double readValue(ArffTokenizer tokenizer, Attribute attribute) throws IOException {
+		if(tokenizer.isMissing()){
+			return Double.NaN;
+		}
+		return parseValue(attribute, tokenizer.getValue());
+	}
+
+	/**
+	 * Convert a value of the ARFF file to its internal value in weka
+	 *
+	 * @param attribute Attribute of the value
+	 * @param value Value in the file, without quotes
+	 * @return Internal value
+	 * @throws IOException if the value is not valid
+	 */
+	protected double parseValue(Attribute attribute, String value) throws IOException {
+		try{
+			//Date attributes are also numeric in weka
+			if(attribute.isDate()){
+				return attribute.parseDate(value);
+			}
+			else if(attribute.isNumeric()){
+				return Double.parseDouble(value);
+			}
+			else if(attribute.isNominal()){
+				int index = attribute.indexOfValue(value);
+				if(index < 0){
+					throw new IOException("Value " + value + " not declared for attribute " + attribute.name());
+				}
+				return index;
+			}
+			else{
+				return attribute.addStringValue(value);
+			}
+		}
+		catch(NumberFormatException | ParseException e){
+			throw new IOException("Invalid value " + value + " for attribute " + attribute.name(), e);
+		}
+	}
+
+}
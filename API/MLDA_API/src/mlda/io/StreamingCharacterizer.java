@@ -0,0 +1,93 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.IOException;
+
+import mlda.base.MLDataCharacterization;
+import mlda.base.MLDataPartial;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instance;
+
+/**
+* Class for characterizing a multi-label dataset in ARFF format without loading
+* all its instances in memory.
+* Only the header of the ARFF file and the labels of the XML file are loaded;
+* the instances of the data section, either dense or sparse, are then read one
+* by one with the incremental loader of mulan, added to a MLDataPartial and
+* discarded. So the memory depends on the number of attributes, labels and
+* distinct labelsets, but not on the number of instances.
+* Metrics that are not mergeable can not be calculated in this way, so they
+* are left not calculated, with NaN value, and they are not marked as
+* approximate.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class StreamingCharacterizer {
+
+	/**
+	 * Path of the ARFF file
+	 */
+	protected String arffPath;
+
+	/**
+	 * Path of the XML file with the labels
+	 */
+	protected String xmlPath;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param arffPath Path of the ARFF file
+	 * @param xmlPath Path of the XML file with the labels
+	 */
+	public StreamingCharacterizer(String arffPath, String xmlPath) {
+		this.arffPath = arffPath;
+		this.xmlPath = xmlPath;
+	}
+
+
+	/**
+	 * Read all the instances of the ARFF file into a partial.
+	 * Each call reads the file again from the beginning. The header of the
+	 * partial may be used to build the characterization
+	 *
+	 * @return Partial with the mergeable information of the whole dataset
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 * @throws IOException if the file can not be read
+	 */
+	public MLDataPartial read() throws InvalidDataFormatException, IOException {
+		MultiLabelInstances stream = new MultiLabelInstances(arffPath, xmlPath, true);
+		MLDataPartial partial = new MLDataPartial(stream);
+
+		Instance instance;
+		while((instance = stream.getNextInstance()) != null){
+			partial.add(instance);
+		}
+
+		return partial;
+	}
+
+	/**
+	 * Calculate the metrics of a characterization over the instances of the ARFF file
+	 *
+	 * @param characterization Characterization with the metrics to calculate
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 * @throws IOException if the file can not be read
+	 */
+	public void calculateMetrics(MLDataCharacterization characterization) throws InvalidDataFormatException, IOException {
+		characterization.calculateMetrics(read());
+	}
+
+}
@@ -12,10 +12,8 @@
 package mlda.labelsDistribution;
 
 import mlda.base.MLDataMetric;
-import mlda.util.Utils;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import weka.core.AttributeStats;
-import weka.core.Instances;
 
 /**
 * Class implementing the Mean of entropies of labels
@@ -31,27 +29,33 @@ public class MeanEntropy extends MLDataMetric{
 		super("Mean of entropies of labels");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The entropy of each label is computed from its merged counts
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){        
-		Instances instances = mlData.getDataSet();
-        
-		int nLabels = mlData.getNumLabels();
-        int [] labels = mlData.getLabelIndices();
-        
-        double [] entropies = new double[nLabels];
-        
-        for(int i=0; i<nLabels; i++){
-            AttributeStats attStats = instances.attributeStats(labels[i]);
-            
-            if(attStats.nominalCounts != null){
-                entropies[i] = Utils.entropy(attStats.nominalCounts);
-            }
-        }
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+        double [] entropies = profile.getLabelEntropies();
 
         double meanEntropy = 0;
         for(double e : entropies){
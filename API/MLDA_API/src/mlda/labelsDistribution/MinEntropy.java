@@ -12,10 +12,8 @@
 package mlda.labelsDistribution;
 
 import mlda.base.MLDataMetric;
-import mlda.util.Utils;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import weka.core.AttributeStats;
-import weka.core.Instances;
 
 /**
 * Class implementing the Minimal entropy of labels
@@ -31,27 +29,33 @@ public class MinEntropy extends MLDataMetric{
 		super("Minimal entropy of labels");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The minimum is taken over the entropies of the merged label counts
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-        Instances instances = mlData.getDataSet();
-        
-        int nLabels = mlData.getNumLabels();
-        int [] labels = mlData.getLabelIndices();
-        
-        double [] entropies = new double[nLabels];
-        
-        for(int i=0; i<nLabels; i++){
-            AttributeStats attStats = instances.attributeStats(labels[i]);
-            
-            if(attStats.nominalCounts != null){
-                entropies[i] = Utils.entropy(attStats.nominalCounts);
-            }
-        }
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+        double [] entropies = profile.getLabelEntropies();
         
         double minEntropy = Double.MAX_VALUE;
         for(double e : entropies){
@@ -12,7 +12,7 @@
 package mlda.labelsDistribution;
 
 import mlda.base.MLDataMetric;
-import mlda.util.Utils;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -26,27 +26,48 @@ public class StdvCardinality extends MLDataMetric{
 		super("Standard deviation of label cardinality");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The number of instances with each number of labels is derived from the
+	 * merged histogram of labelsets
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		double stdv = 0;
 		
 		Cardinality card = new Cardinality();
-		double avg = card.calculate(mlData);
+		double avg = card.calculate(mlData, profile);
         
         try{
-            int [] labelsForInstance = Utils.labelsForInstance(mlData);
+            //Each number of labels weighted by its number of instances
+            int [] cardinalityCounts = profile.getCardinalityCounts();
             double sum = 0;
             
-            for(int i=0; i<labelsForInstance.length; i++){
-                sum += Math.pow((double)labelsForInstance[i] - avg, 2);
+            for(int c=0; c<cardinalityCounts.length; c++){
+                sum += cardinalityCounts[c] * Math.pow((double)c - avg, 2);
             }
             
-            stdv = Math.sqrt(sum / (labelsForInstance.length - 1));
+            stdv = Math.sqrt(sum / (profile.getNumInstances() - 1));
         }
         catch(Exception e){
         	stdv = 0;
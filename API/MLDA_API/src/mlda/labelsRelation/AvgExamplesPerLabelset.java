@@ -12,8 +12,8 @@
 package mlda.labelsRelation;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Average examples per labelset
@@ -29,17 +29,33 @@ public class AvgExamplesPerLabelset extends MLDataMetric{
 		super("Average examples per labelset");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * It is the number of instances divided by the number of distinct labelsets
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
-		this.value = ((double)mlData.getNumInstances()) / stat.labelSets().size();
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = ((double)profile.getNumInstances()) / profile.getNumLabelsets();
 		return value;
 	}
 
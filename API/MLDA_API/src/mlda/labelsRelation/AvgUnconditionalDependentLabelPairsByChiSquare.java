@@ -12,9 +12,9 @@
 package mlda.labelsRelation;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.LabelsPair;
 import mulan.data.MultiLabelInstances;
-import mulan.data.UnconditionalChiSquareIdentifier;
 
 /**
 * Class implementing the Average of unconditionally dependent label pairs by chi-square test
@@ -30,15 +30,33 @@ public class AvgUnconditionalDependentLabelPairsByChiSquare extends MLDataMetric
 		super("Average of unconditionally dependent label pairs by chi-square test");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.CHI_SQUARE};
+	}
+	
+	/**
+	 * The scores of the dependent pairs come from the merged histogram of labelsets
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		UnconditionalChiSquareIdentifier chi2Identifier = new UnconditionalChiSquareIdentifier();
-        LabelsPair[] pairs = chi2Identifier.calculateDependence(mlData);
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		LabelsPair[] pairs = profile.getChiSquarePairs();
         
         int dep = 0;
         double sum = 0.0;
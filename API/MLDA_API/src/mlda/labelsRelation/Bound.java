@@ -12,6 +12,7 @@
 package mlda.labelsRelation;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
 
 /**
@@ -28,14 +29,24 @@ public class Bound extends MLDataMetric{
 		super("Bound");
 	}
 	
+	/**
+	 * The bound only depends on the number of labels
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){	
-		this.value = Math.pow(2, mlData.getNumLabels());
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		this.value = Math.pow(2, profile.getNumLabels());
 		return value;
 	}
 
@@ -11,12 +11,9 @@
 
 package mlda.labelsRelation;
 
-import java.util.Arrays;
-import java.util.Collection;
-
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Number of labelsets up to N examples
@@ -37,31 +34,33 @@ public class LabelsetsUpToNExamples extends MLDataMetric{
 		this.n = n;
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * Labelsets with up to N instances are found in the merged histogram
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
-		Collection<Integer> counts = stat.labelCombCount().values();
-        Integer[] combCounts = new Integer[counts.size()];
-        counts.toArray(combCounts);
-        Arrays.sort(combCounts);
-        
-        int count = 0;
-        
-        for(int i=0; i<combCounts.length; i++){
-            if(combCounts[i] <= n){
-                count++;
-            }
-            else{
-                break;
-            }
-        }
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		int count = profile.getLabelsets().countUpTo(n);
 		
 		this.value = count;
 		return value;
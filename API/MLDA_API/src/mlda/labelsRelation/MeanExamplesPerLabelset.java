@@ -11,12 +11,10 @@
 
 package mlda.labelsRelation;
 
-import java.util.HashMap;
-
 import mlda.base.MLDataMetric;
-import mulan.data.LabelSet;
+import mlda.base.MLDataProfile;
+import mlda.util.LabelsetDictionary;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Mean examples per labelset
@@ -32,24 +30,37 @@ public class MeanExamplesPerLabelset extends MLDataMetric{
 		super("Mean examples per labelset");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The mean is taken over the counts of the merged histogram of labelsets
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
-		HashMap<LabelSet,Integer> labelsets = stat.labelCombCount();
-        int nValues = labelsets.values().size();
-        double mean = 0;
+		LabelsetDictionary labelsets = profile.getLabelsets();
+        int nValues = labelsets.size();
+        double mean = labelsets.getTotalCount();
         
-        for(int n : labelsets.values()){
-            mean += n;
-        }
         mean = mean/nValues;
 
 		this.value = mean;
@@ -12,8 +12,8 @@
 package mlda.labelsRelation;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Ratio of number of labelsets up to N examples
@@ -34,20 +34,36 @@ public class RatioLabelsetsUpToNExamples extends MLDataMetric{
 		this.n = n;
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * Labelsets with up to N instances are counted in the merged histogram
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		LabelsetsUpToNExamples upToN = new LabelsetsUpToNExamples(n);
-		double nUpToN = upToN.calculate(mlData);
+		double nUpToN = upToN.calculate(mlData, profile);
 		
-		this.value = nUpToN / stat.labelCombCount().values().size();
+		this.value = nUpToN / profile.getNumLabelsets();
 		return value;
 	}
 
@@ -12,8 +12,8 @@
 package mlda.labelsRelation;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Ratio of labelsets with number of examples less than half of the attributes
@@ -29,20 +29,36 @@ public class RatioLabelsetsWithExamplesLessThanHalfAttributes extends MLDataMetr
 		super("Ratio of labelsets with number of examples < half of the attributes");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * Labelsets below half the number of attributes are counted in the merged histogram
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 		LabelsetsUpToNExamples upToN = new LabelsetsUpToNExamples(mlData.getFeatureIndices().length / 2);
-		double n = upToN.calculate(mlData);
+		double n = upToN.calculate(mlData, profile);
 		
-		this.value = n / stat.labelCombCount().values().size();
+		this.value = n / profile.getNumLabelsets();
 		return value;
 	}
 
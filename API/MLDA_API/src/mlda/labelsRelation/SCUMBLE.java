@@ -12,11 +12,10 @@
 package mlda.labelsRelation;
 
 import mlda.base.MLDataMetric;
+import mlda.base.MLDataProfile;
 import mlda.util.ImbalancedFeature;
-import mlda.util.Utils;
+import mlda.util.LabelsetDictionary;
 import mulan.data.MultiLabelInstances;
-import weka.core.Instance;
-import weka.core.Instances;
 
 /**
 * Class implementing the SCUMBLE
@@ -24,6 +23,16 @@ import weka.core.Instances;
 * @author Jose Maria Moyano Murillo
 */
 public class SCUMBLE extends MLDataMetric{
+	
+	/**
+	 * SCUMBLE of each instance
+	 */
+	protected double[] scumbleByInstance;
+	
+	/**
+	 * SCUMBLE of each label
+	 */
+	protected double[] scumbleByLabel;
 
 	/**
 	 * Constructor
@@ -33,64 +42,134 @@ public class SCUMBLE extends MLDataMetric{
 	}
 	
 	/**
-	 * Calculate metric value
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The instances with the same labelset have the same SCUMBLE, so it is
+	 * computed from the merged histogram of labelsets
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
+	/**
+	 * Calculate metric value.
+	 * The SCUMBLE of an instance only depends on its labelset, so it is
+	 * calculated once for each distinct labelset and weighted by its number
+	 * of instances. SCUMBLE of each label is also calculated in the same pass,
+	 * and SCUMBLE of each instance when the labelset of each instance is known
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-
-        double SCUMBLE = 0.0;
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+        ImbalancedFeature [] imbalanced_data = profile.getImbalancedData();
+        LabelsetDictionary labelsets = profile.getLabelsets();
+        int [] appearances = profile.getLabelAppearances();
         
-        ImbalancedFeature [] imbalanced_data =  Utils.getImbalancedWithIR(mlData, Utils.getSortedByFrequency(Utils.getAppearancesPerLabel(mlData)));
+        int nLabels = profile.getNumLabels();
+        int nInstances = profile.getNumInstances();
+        int nLabelsets = labelsets.size();
         
-        ImbalancedFeature[] new_imbalanced_data = new ImbalancedFeature[imbalanced_data.length];
-        
-        for(int i=0; i<imbalanced_data.length; i++){
-            for(int j=0; j<imbalanced_data.length; j++){
-                if(mlData.getLabelNames()[i].equals(imbalanced_data[j].getName())){
-                    new_imbalanced_data[i] = imbalanced_data[j];
-                }
-            }
+        //IR and its logarithm indexed by label
+        double [] IR = new double[nLabels];
+        double [] logIR = new double[nLabels];
+        for(int l=0; l<nLabels; l++){
+        	IR[l] = imbalanced_data[l].getIRInterClass();
+        	logIR[l] = Math.log(IR[l]);
         }
         
-        int nLabels = mlData.getNumLabels();
-        Instances instances = mlData.getDataSet();
-        double IRLmean = 0;
-        int nActive = 0;
-        double prod = 1;
+        //SCUMBLE of each distinct labelset
+        double [] byLabelset = new double[nLabelsets];
+        double [] byLabel = new double[nLabels];
         double sum = 0;
         
-        int [] labelIndices = mlData.getLabelIndices();
+        int [] active;
+        double sumLog, sumIR, IRLmean, scumble;
         
-        for(Instance inst : instances){
-        	IRLmean = 0;
-        	prod = 1;
-        	nActive = 0;
+        for(int id=0; id<nLabelsets; id++){
+        	active = labelsets.getLabels(id);
         	
-        	for(int l=0; l<nLabels; l++){
-        		if(inst.value(labelIndices[l]) == 1){
-        			prod *= new_imbalanced_data[l].getIRInterClass();
-        			IRLmean += new_imbalanced_data[l].getIRInterClass();
-        			nActive++;
-        		}
-        		else{
-        			//prod *= 0;
-        		}        		
+        	if(active.length == 0){
+        		//Instances without labels have no concurrence among labels
+        		byLabelset[id] = 0;
+        		continue;
         	}
         	
-//        	System.out.println("prod: " + prod);
-//    		System.out.println("IRLmean: " + IRLmean);
+        	sumLog = 0;
+        	sumIR = 0;
+        	for(int l : active){
+        		sumLog += logIR[l];
+        		sumIR += IR[l];
+        	}
+        	IRLmean = sumIR / active.length;
         	
-        	IRLmean /= nActive;
+        	//Product of IRs computed in log domain to avoid overflow
+        	scumble = 1 - (Math.exp(sumLog / nLabels) / IRLmean);
+        	byLabelset[id] = scumble;
         	
-        	sum += 1 - (Math.pow(prod, 1.0/nLabels) / IRLmean);
+        	scumble *= labelsets.getCount(id);
+        	sum += scumble;
+        	for(int l : active){
+        		byLabel[l] += scumble;
+        	}
+        }
+        
+        for(int l=0; l<nLabels; l++){
+        	if(appearances[l] > 0){
+        		byLabel[l] /= appearances[l];
+        	}
+        	else{
+        		byLabel[l] = 0;
+        	}
         }
         
-        SCUMBLE = sum / mlData.getNumInstances();
+        //Each instance takes the value of its labelset
+        int [] instanceIds = labelsets.getInstanceIds();
+        if(instanceIds != null){
+        	double [] byInstance = new double[nInstances];
+        	for(int i=0; i<nInstances; i++){
+        		byInstance[i] = byLabelset[instanceIds[i]];
+        	}
+        	this.scumbleByInstance = byInstance;
+        }
+        else{
+        	this.scumbleByInstance = null;
+        }
         
-		this.value = SCUMBLE;
+        this.scumbleByLabel = byLabel;
+        
+		this.value = sum / nInstances;
 		return value;
 	}
+	
+	/**
+	 * Get SCUMBLE of each instance, as calculated in the last call to calculate
+	 * 
+	 * @return Array with the SCUMBLE of each instance, or null if the profile
+	 * was built from a labelset histogram
+	 */
+	public double[] getSCUMBLEByInstance(){
+		return scumbleByInstance;
+	}
+	
+	/**
+	 * Get SCUMBLE of each label, i.e., the mean SCUMBLE of the instances where
+	 * the label is relevant, as calculated in the last call to calculate
+	 * 
+	 * @return Array with the SCUMBLE of each label
+	 */
+	public double[] getSCUMBLEByLabel(){
+		return scumbleByLabel;
+	}
 
 }
@@ -11,12 +11,10 @@
 
 package mlda.labelsRelation;
 
-import java.util.HashMap;
-
 import mlda.base.MLDataMetric;
-import mulan.data.LabelSet;
+import mlda.base.MLDataProfile;
+import mlda.util.LabelsetDictionary;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Standard deviation of examples per labelset
@@ -32,30 +30,43 @@ public class StdvExamplesPerLabelset extends MLDataMetric{
 		super("Standard deviation of examples per labelset");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * The deviation is taken over the counts of the merged histogram of labelsets
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
 
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
-		HashMap<LabelSet,Integer> labelsets = stat.labelCombCount();
-        int nValues = labelsets.values().size();
-        double media = 0;
+		LabelsetDictionary labelsets = profile.getLabelsets();
+        int nValues = labelsets.size();
+        double media = labelsets.getTotalCount();
         
-        for(int n : labelsets.values()){
-            media += n;
-        }
         media = media/nValues;
         
         double varianza = 0;
         
-        for(int n : labelsets.values()){
-            varianza += Math.pow(n-media, 2);
+        for(int id=0; id<nValues; id++){
+            varianza += Math.pow(labelsets.getCount(id)-media, 2);
         }
         varianza = varianza/nValues;
 
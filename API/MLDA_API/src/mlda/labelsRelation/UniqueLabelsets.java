@@ -11,12 +11,10 @@
 
 package mlda.labelsRelation;
 
-import java.util.HashMap;
-
 import mlda.base.MLDataMetric;
-import mulan.data.LabelSet;
+import mlda.base.MLDataProfile;
+import mlda.util.LabelsetDictionary;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
 
 /**
 * Class implementing the Number of unique labelsets
@@ -32,25 +30,36 @@ public class UniqueLabelsets extends MLDataMetric{
 		super("Number of unique labelsets");
 	}
 	
+	/**
+	 * Get the inputs of the profile required by the metric
+	 * 
+	 * @return Array with the required inputs
+	 */
+	public MLDataProfile.Input[] getRequiredInputs(){
+		return new MLDataProfile.Input[]{MLDataProfile.Input.LABELS};
+	}
+	
+	/**
+	 * Labelsets with a single instance are found in the merged histogram
+	 * 
+	 * @return True
+	 */
+	public boolean isMergeable(){
+		return true;
+	}
+	
 	/**
 	 * Calculate metric value
 	 * 
 	 * @param mlData Multi-label dataset to which calculate the metric
+	 * @param profile Profile of the dataset, shared among the metrics
 	 * @return Value of the metric
 	 */
-	public double calculate(MultiLabelInstances mlData){
-		Statistics stat = new Statistics();
-		stat.calculateStats(mlData);
-		
-		HashMap<LabelSet,Integer> labelsets = stat.labelCombCount();
-        
-        int uniq = 0;
+	public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+		LabelsetDictionary labelsets = profile.getLabelsets();
         
-        for(int n : labelsets.values()){
-            if(n == 1){
-                uniq++;
-            }
-        }
+        //All labelsets have at least one instance
+        int uniq = labelsets.countUpTo(1);
 		
 		this.value = uniq;
 		return value;
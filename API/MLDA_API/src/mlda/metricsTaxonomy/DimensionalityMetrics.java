@@ -53,7 +53,7 @@ static String [] metrics = null;
 	 * Fill the array with the default metrics
 	 */
 	private static void defaultMetrics(){
-		String [] metrics = new String[6];
+		metrics = new String[6];
 		
 		metrics[0] = "Attributes";
 		metrics[1] = "Instances";
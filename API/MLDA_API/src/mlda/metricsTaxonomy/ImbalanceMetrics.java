@@ -53,7 +53,7 @@ public class ImbalanceMetrics {
 	 * Fill the array with the default metrics
 	 */
 	private static void defaultMetrics(){
-		String [] metrics = new String[14];
+		metrics = new String[14];
 		
 		metrics[0] = "CVIR inter class";
 		metrics[1] = "Kurtosis cardinality";
@@ -53,7 +53,7 @@ public class LabelsDistributionMetrics {
 	 * Fill the array with the default metrics
 	 */
 	private static void defaultMetrics(){
-		String [] metrics = new String[6];
+		metrics = new String[6];
 		
 		metrics[0] = "Cardinality";
 		metrics[1] = "Density";
@@ -53,7 +53,7 @@ public class LabelsRelationMetrics {
 	 * Fill the array with the default metrics
 	 */
 	private static void defaultMetrics(){
-		String [] metrics = new String[21];
+		metrics = new String[21];
 		
 		metrics[0] = "Average examples per labelset";
 		metrics[1] = "Average of unconditionally dependent label pairs by chi-square test";
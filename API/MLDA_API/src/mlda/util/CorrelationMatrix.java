@@ -0,0 +1,235 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import java.util.Arrays;
+
+/**
+* Class implementing the Pearson correlation matrix of a set of columns.
+* Each column is centered and scaled to unit norm once, and the matrix is then
+* obtained as the Gram product of the standardized columns, computed by tiles
+* of columns and chunks of rows so the data of each tile is kept in cache.
+* Tiles are computed in parallel, with a given maximum number of threads.
+* As in weka.core.Utils.correlation, the correlation of a column with zero
+* variance is 1.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class CorrelationMatrix {
+
+	/**
+	 * Number of columns of each tile
+	 */
+	protected static final int TILE = 64;
+
+	/**
+	 * Number of rows of each chunk
+	 */
+	protected static final int CHUNK = 2048;
+
+	/**
+	 * Correlation of each pair of columns
+	 */
+	protected double[][] matrix;
+
+
+	/**
+	 * Constructor, using all the available processors
+	 *
+	 * @param columns Columns of values, all of them with the same length
+	 */
+	public CorrelationMatrix(double[][] columns) {
+		this(columns, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param columns Columns of values, all of them with the same length
+	 * @param numThreads Maximum number of threads; with one thread the matrix is computed sequentially
+	 */
+	public CorrelationMatrix(double[][] columns, int numThreads) {
+		int nColumns = columns.length;
+		matrix = new double[nColumns][nColumns];
+
+		if(nColumns == 0){
+			return;
+		}
+
+		int nRows = columns[0].length;
+		if(nRows <= 1){
+			for(int i=0; i<nColumns; i++){
+				Arrays.fill(matrix[i], 1.0);
+			}
+			return;
+		}
+
+		//Standardize each column once
+		double[][] z = new double[nColumns][];
+		boolean[] constant = new boolean[nColumns];
+		Utils.parallelFor(nColumns, numThreads, c -> {
+			z[c] = standardize(columns[c]);
+			constant[c] = (z[c] == null);
+		});
+
+		//Gram product by tiles of the upper triangle
+		int nTiles = (nColumns + TILE - 1) / TILE;
+		int nPairs = nTiles * (nTiles + 1) / 2;
+		Utils.parallelFor(nPairs, numThreads, p -> {
+			int ta = 0, rest = p;
+			while(rest >= nTiles - ta){
+				rest -= nTiles - ta;
+				ta++;
+			}
+			int tb = ta + rest;
+			multiplyTile(z, constant, ta*TILE, Math.min(nColumns, (ta+1)*TILE),
+					tb*TILE, Math.min(nColumns, (tb+1)*TILE), nRows);
+		});
+
+		for(int i=0; i<nColumns; i++){
+			matrix[i][i] = 1.0;
+			for(int j=i+1; j<nColumns; j++){
+				if(constant[i] || constant[j]){
+					matrix[i][j] = 1.0;
+				}
+				matrix[j][i] = matrix[i][j];
+			}
+		}
+	}
+
+
+	/**
+	 * Center a column and scale it to unit norm
+	 *
+	 * @param column Values of the column
+	 * @return Standardized values, or null if the column has zero variance
+	 */
+	protected static double[] standardize(double[] column){
+		int n = column.length;
+
+		double mean = 0;
+		for(int i=0; i<n; i++){
+			mean += column[i];
+		}
+		mean /= n;
+
+		double[] z = new double[n];
+		double norm = 0;
+		for(int i=0; i<n; i++){
+			z[i] = column[i] - mean;
+			norm += z[i] * z[i];
+		}
+
+		if(norm == 0.0){
+			return null;
+		}
+
+		norm = Math.sqrt(norm);
+		for(int i=0; i<n; i++){
+			z[i] /= norm;
+		}
+
+		return z;
+	}
+
+	/**
+	 * Compute the dot products between two tiles of columns, for the pairs
+	 * in the upper triangle
+	 *
+	 * @param z Standardized columns
+	 * @param constant Columns with zero variance
+	 * @param fromA First column of the first tile
+	 * @param toA Last column of the first tile, exclusive
+	 * @param fromB First column of the second tile
+	 * @param toB Last column of the second tile, exclusive
+	 * @param nRows Number of rows
+	 */
+	protected void multiplyTile(double[][] z, boolean[] constant, int fromA, int toA, int fromB, int toB, int nRows){
+		double[] za, zb;
+		double sum;
+
+		for(int k0=0; k0<nRows; k0+=CHUNK){
+			int k1 = Math.min(nRows, k0 + CHUNK);
+
+			for(int a=fromA; a<toA; a++){
+				if(constant[a]){
+					continue;
+				}
+				za = z[a];
+
+				for(int b=Math.max(a+1, fromB); b<toB; b++){
+					if(constant[b]){
+						continue;
+					}
+					zb = z[b];
+
+					sum = 0;
+					for(int k=k0; k<k1; k++){
+						sum += za[k] * zb[k];
+					}
+					matrix[a][b] += sum;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get number of columns
+	 *
+	 * @return Number of columns
+	 */
+	public int size(){
+		return matrix.length;
+	}
+
+	/**
+	 * Get the correlation between two columns
+	 *
+	 * @param i Index of the first column
+	 * @param j Index of the second column
+	 * @return Correlation value
+	 */
+	public double get(int i, int j){
+		return matrix[i][j];
+	}
+
+	/**
+	 * Get the correlation matrix. The array is not copied, so it must not be modified
+	 *
+	 * @return Matrix with the correlation of each pair of columns
+	 */
+	public double[][] getMatrix(){
+		return matrix;
+	}
+
+	/**
+	 * Get the mean of the absolute correlation values between different columns
+	 *
+	 * @return Mean of absolute correlation, or NaN if there are less than two columns
+	 */
+	public double getMeanAbsoluteCorrelation(){
+		int n = matrix.length;
+		if(n < 2){
+			return Double.NaN;
+		}
+
+		double sum = 0;
+		for(int i=0; i<n; i++){
+			for(int j=i+1; j<n; j++){
+				sum += Math.abs(matrix[i][j]);
+			}
+		}
+
+		return sum / ((double)n * (n - 1) / 2);
+	}
+
+}
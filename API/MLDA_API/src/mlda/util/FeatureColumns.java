@@ -0,0 +1,408 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import java.util.Arrays;
+
+import mulan.data.MultiLabelInstances;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+* Class storing the feature attributes of a multi-label dataset by columns.
+* Numeric attributes are stored as double arrays, with NaN for missing values,
+* and nominal attributes as arrays of int codes, with -1 for missing values.
+* The columns are built in a single pass over the dataset, so metrics
+* iterating over attributes access contiguous memory.
+* When the dataset is sparse, only the stored values of each column are kept,
+* together with the instances where they appear, so the memory and the work of
+* the moments and counts are proportional to the number of non-zero values.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class FeatureColumns {
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+	/**
+	 * Feature attributes, in the order of the dataset
+	 */
+	protected Attribute[] attributes;
+
+	/**
+	 * Values of each numeric attribute; null for the non-numeric ones
+	 */
+	protected double[][] numericColumns;
+
+	/**
+	 * Codes of each nominal attribute; null for the non-nominal ones
+	 */
+	protected int[][] nominalColumns;
+
+	/**
+	 * Positions of the numeric attributes
+	 */
+	protected int[] numericFeatures;
+
+	/**
+	 * Positions of the nominal attributes
+	 */
+	protected int[] nominalFeatures;
+
+	/**
+	 * Whether the columns are stored in sparse format
+	 */
+	protected boolean sparse;
+
+	/**
+	 * Instances with a stored value of each attribute, in sparse format
+	 */
+	protected int[][] storedInstances;
+
+	/**
+	 * Stored values of each attribute, in sparse format
+	 */
+	protected double[][] storedValues;
+
+
+	/**
+	 * Constructor
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	public FeatureColumns(MultiLabelInstances mlData) {
+		Instances instances = mlData.getDataSet();
+		int[] featureIndices = mlData.getFeatureIndices();
+
+		nInstances = instances.numInstances();
+		int nFeatures = featureIndices.length;
+
+		attributes = new Attribute[nFeatures];
+		numericColumns = new double[nFeatures][];
+		nominalColumns = new int[nFeatures][];
+
+		for(int f=0; f<nFeatures; f++){
+			attributes[f] = instances.attribute(featureIndices[f]);
+		}
+		findTypes();
+
+		sparse = Utils.isSparse(instances);
+		if(sparse){
+			readSparse(instances, Utils.getPositions(instances.numAttributes(), featureIndices));
+		}
+		else{
+			readDense(instances, featureIndices);
+		}
+	}
+
+
+	/**
+	 * Constructor with dense columns, e.g., read from a file
+	 *
+	 * @param attributes Feature attributes
+	 * @param nInstances Number of instances
+	 * @param numericColumns Values of each numeric attribute; null for the non-numeric ones
+	 * @param nominalColumns Codes of each nominal attribute; null for the non-nominal ones
+	 */
+	public FeatureColumns(Attribute[] attributes, int nInstances, double[][] numericColumns, int[][] nominalColumns) {
+		this.attributes = attributes;
+		this.nInstances = nInstances;
+		this.numericColumns = numericColumns;
+		this.nominalColumns = nominalColumns;
+		this.sparse = false;
+		findTypes();
+	}
+
+
+	/**
+	 * Find the positions of the numeric and nominal attributes
+	 */
+	protected void findTypes(){
+		int nNumeric = 0, nNominal = 0;
+		for(int f=0; f<attributes.length; f++){
+			if(attributes[f].isNumeric()){
+				nNumeric++;
+			}
+			else if(attributes[f].isNominal()){
+				nNominal++;
+			}
+		}
+
+		numericFeatures = new int[nNumeric];
+		nominalFeatures = new int[nNominal];
+		nNumeric = 0;
+		nNominal = 0;
+		for(int f=0; f<attributes.length; f++){
+			if(attributes[f].isNumeric()){
+				numericFeatures[nNumeric++] = f;
+			}
+			else if(attributes[f].isNominal()){
+				nominalFeatures[nNominal++] = f;
+			}
+		}
+	}
+
+	/**
+	 * Read the values of all the instances into dense columns
+	 *
+	 * @param instances Dataset
+	 * @param featureIndices Indices of the feature attributes
+	 */
+	protected void readDense(Instances instances, int[] featureIndices){
+		int nFeatures = featureIndices.length;
+		for(int f=0; f<nFeatures; f++){
+			if(attributes[f].isNumeric()){
+				numericColumns[f] = new double[nInstances];
+			}
+			else if(attributes[f].isNominal()){
+				nominalColumns[f] = new int[nInstances];
+			}
+		}
+
+		Instance inst;
+		double value;
+		for(int i=0; i<nInstances; i++){
+			inst = instances.get(i);
+
+			for(int f=0; f<nFeatures; f++){
+				value = inst.value(featureIndices[f]);
+				if(numericColumns[f] != null){
+					numericColumns[f][i] = value;
+				}
+				else if(nominalColumns[f] != null){
+					nominalColumns[f][i] = Double.isNaN(value) ? -1 : (int)value;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Read the stored values of all the instances into sparse columns.
+	 * A first pass counts the stored values of each attribute and a second
+	 * one fills the columns
+	 *
+	 * @param instances Dataset
+	 * @param featurePositions Position of each attribute among the features, or -1
+	 */
+	protected void readSparse(Instances instances, int[] featurePositions){
+		int nFeatures = attributes.length;
+		int[] nStored = new int[nFeatures];
+
+		Instance inst;
+		int f;
+		for(int i=0; i<nInstances; i++){
+			inst = instances.get(i);
+			for(int p=0; p<inst.numValues(); p++){
+				f = featurePositions[inst.index(p)];
+				if(f >= 0){
+					nStored[f]++;
+				}
+			}
+		}
+
+		storedInstances = new int[nFeatures][];
+		storedValues = new double[nFeatures][];
+		for(f=0; f<nFeatures; f++){
+			if(attributes[f].isNumeric() || attributes[f].isNominal()){
+				storedInstances[f] = new int[nStored[f]];
+				storedValues[f] = new double[nStored[f]];
+			}
+			nStored[f] = 0;
+		}
+
+		for(int i=0; i<nInstances; i++){
+			inst = instances.get(i);
+			for(int p=0; p<inst.numValues(); p++){
+				f = featurePositions[inst.index(p)];
+				if(f >= 0 && storedValues[f] != null){
+					storedInstances[f][nStored[f]] = i;
+					storedValues[f][nStored[f]] = inst.valueSparse(p);
+					nStored[f]++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get number of instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return nInstances;
+	}
+
+	/**
+	 * Get number of feature attributes
+	 *
+	 * @return Number of features
+	 */
+	public int getNumFeatures(){
+		return attributes.length;
+	}
+
+	/**
+	 * Get a feature attribute
+	 *
+	 * @param feature Position of the feature
+	 * @return Attribute
+	 */
+	public Attribute getAttribute(int feature){
+		return attributes[feature];
+	}
+
+	/**
+	 * Get the positions of the numeric features
+	 *
+	 * @return Array with the positions of the numeric features
+	 */
+	public int[] getNumericFeatures(){
+		return numericFeatures;
+	}
+
+	/**
+	 * Get the positions of the nominal features
+	 *
+	 * @return Array with the positions of the nominal features
+	 */
+	public int[] getNominalFeatures(){
+		return nominalFeatures;
+	}
+
+	/**
+	 * Check if the columns are stored in sparse format
+	 *
+	 * @return True if the columns are sparse and false otherwise
+	 */
+	public boolean isSparse(){
+		return sparse;
+	}
+
+	/**
+	 * Get the values of a numeric feature. The array is not copied, so it must
+	 * not be modified. For sparse columns, a new dense array is built in each call
+	 *
+	 * @param feature Position of the feature
+	 * @return Array with the values of the feature, or null if it is not numeric
+	 */
+	public double[] getNumericColumn(int feature){
+		if(!sparse || !attributes[feature].isNumeric()){
+			return numericColumns[feature];
+		}
+
+		double[] column = new double[nInstances];
+		int[] rows = storedInstances[feature];
+		double[] values = storedValues[feature];
+		for(int p=0; p<rows.length; p++){
+			column[rows[p]] = values[p];
+		}
+		return column;
+	}
+
+	/**
+	 * Copy the values of a numeric feature into a given array, so it may be
+	 * reused for several features instead of building a new dense array for
+	 * each sparse column
+	 *
+	 * @param feature Position of a numeric feature
+	 * @param into Array with at least the number of instances as length
+	 * @return The same array, with the values of the feature in its first positions
+	 */
+	public double[] copyNumericColumn(int feature, double[] into){
+		if(!sparse){
+			System.arraycopy(numericColumns[feature], 0, into, 0, nInstances);
+			return into;
+		}
+
+		Arrays.fill(into, 0, nInstances, 0);
+		int[] rows = storedInstances[feature];
+		double[] values = storedValues[feature];
+		for(int p=0; p<rows.length; p++){
+			into[rows[p]] = values[p];
+		}
+		return into;
+	}
+
+	/**
+	 * Get the codes of a nominal feature. The array is not copied, so it must
+	 * not be modified. For sparse columns, a new dense array is built in each call
+	 *
+	 * @param feature Position of the feature
+	 * @return Array with the codes of the feature, or null if it is not nominal
+	 */
+	public int[] getNominalColumn(int feature){
+		if(!sparse || !attributes[feature].isNominal()){
+			return nominalColumns[feature];
+		}
+
+		int[] column = new int[nInstances];
+		int[] rows = storedInstances[feature];
+		double[] values = storedValues[feature];
+		for(int p=0; p<rows.length; p++){
+			column[rows[p]] = Double.isNaN(values[p]) ? -1 : (int)values[p];
+		}
+		return column;
+	}
+
+	/**
+	 * Get the number of instances with each value of a nominal feature
+	 *
+	 * @param feature Position of the feature
+	 * @return Array with the count of each value, without missing values
+	 */
+	public int[] getNominalCounts(int feature){
+		int[] counts = new int[attributes[feature].numValues()];
+
+		if(sparse){
+			//Values not stored are the first one
+			double[] values = storedValues[feature];
+			counts[0] = nInstances - values.length;
+			for(int p=0; p<values.length; p++){
+				if(!Double.isNaN(values[p])){
+					counts[(int)values[p]]++;
+				}
+			}
+			return counts;
+		}
+
+		int[] column = nominalColumns[feature];
+		for(int i=0; i<nInstances; i++){
+			if(column[i] >= 0){
+				counts[column[i]]++;
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Get the moments of a numeric feature. For sparse columns, the moments
+	 * of the stored values are merged with those of the zeros
+	 *
+	 * @param feature Position of the feature
+	 * @return Moments of the values of the feature
+	 */
+	public Moments getMoments(int feature){
+		if(!sparse){
+			return Moments.of(numericColumns[feature]);
+		}
+
+		double[] values = storedValues[feature];
+		Moments moments = Moments.of(values);
+		moments.merge(Moments.constant(0, nInstances - values.length));
+		return moments;
+	}
+
+}
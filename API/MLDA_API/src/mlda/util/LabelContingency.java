@@ -0,0 +1,245 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import mulan.data.LabelsPair;
+
+/**
+* Class implementing the 2x2 contingency tables of all pairs of labels.
+* The number of instances where both labels are relevant is obtained by AND and
+* popcount over the bitsets of the labels, in parallel for blocks of labels
+* with a given maximum number of threads,
+* and the rest of each table is derived from the label counts. Chi-square, phi
+* and co-occurrence values are all obtained from these tables, following the
+* conventions of mulan (Statistics.calculatePhi and
+* UnconditionalChiSquareIdentifier).
+* The tables may also be obtained from the histogram of labelsets, visiting
+* the pairs of labels of each distinct labelset once.
+* Unlike mulan, which takes any value other than 0 as relevant in these tables,
+* missing label values are counted as not relevant, as in the label counts of
+* MLDataProfile. Thus, the tables are the same from the label matrix and from
+* the labelset histogram, which does not keep missing values, but the scores
+* may differ from those of mulan in datasets with missing labels.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelContingency {
+
+	/**
+	 * Number of labels of each block computed in parallel
+	 */
+	protected static final int BLOCK = 16;
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+	/**
+	 * Number of labels
+	 */
+	protected int nLabels;
+
+	/**
+	 * Number of appearances of each label
+	 */
+	protected int[] labelCounts;
+
+	/**
+	 * Co-occurrences of each pair of labels i &lt;= j, packed by rows of the upper triangle
+	 */
+	protected int[] cooccurrences;
+
+
+	/**
+	 * Constructor, using all the available processors
+	 *
+	 * @param labelMatrix Labels of the dataset as bitsets
+	 */
+	public LabelContingency(LabelMatrix labelMatrix) {
+		this(labelMatrix, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param labelMatrix Labels of the dataset as bitsets
+	 * @param numThreads Maximum number of threads; with one thread the tables are computed sequentially
+	 */
+	public LabelContingency(LabelMatrix labelMatrix, int numThreads) {
+		nInstances = labelMatrix.getNumInstances();
+		nLabels = labelMatrix.getNumLabels();
+		labelCounts = labelMatrix.labelAppearances();
+		cooccurrences = new int[(int)((long)nLabels*(nLabels+1)/2)];
+
+		int nBlocks = (nLabels + BLOCK - 1) / BLOCK;
+		Utils.parallelFor(nBlocks, numThreads, block -> {
+			int to = Math.min(nLabels, (block+1)*BLOCK);
+			for(int i=block*BLOCK; i<to; i++){
+				int offset = (int)index(i, i);
+				cooccurrences[offset] = labelCounts[i];
+				for(int j=i+1; j<nLabels; j++){
+					cooccurrences[offset + j - i] = labelMatrix.cooccurrences(i, j);
+				}
+			}
+		});
+	}
+
+
+	/**
+	 * Constructor with the histogram of labelsets
+	 *
+	 * @param labelsets Distinct labelsets and their number of instances
+	 */
+	public LabelContingency(LabelsetDictionary labelsets) {
+		nInstances = (int)labelsets.getTotalCount();
+		nLabels = labelsets.getNumLabels();
+		labelCounts = new int[nLabels];
+		cooccurrences = new int[(int)((long)nLabels*(nLabels+1)/2)];
+
+		int count;
+		int[] labels;
+		for(int id=0; id<labelsets.size(); id++){
+			count = labelsets.getCount(id);
+			labels = labelsets.getLabels(id);
+
+			for(int a=0; a<labels.length; a++){
+				labelCounts[labels[a]] += count;
+				for(int b=a; b<labels.length; b++){
+					cooccurrences[(int)index(labels[a], labels[b])] += count;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Position of a pair of labels in the packed upper triangle
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label, greater or equal than i
+	 * @return Position of the pair
+	 */
+	protected long index(int i, int j){
+		return (long)i*nLabels - (long)i*(i-1)/2 + (j - i);
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return nLabels;
+	}
+
+	/**
+	 * Get number of instances where two labels are relevant at the same time
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label
+	 * @return Number of co-occurrences
+	 */
+	public int getCooccurrences(int i, int j){
+		if(i > j){
+			return cooccurrences[(int)index(j, i)];
+		}
+		return cooccurrences[(int)index(i, j)];
+	}
+
+	/**
+	 * Get the contingency table of a pair of labels
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label
+	 * @return Array with the number of instances with {i=0 j=0, i=1 j=0, i=0 j=1, i=1 j=1}
+	 */
+	public int[] getTable(int i, int j){
+		int d = getCooccurrences(i, j);
+		int b = labelCounts[i] - d;
+		int c = labelCounts[j] - d;
+		int a = nInstances - labelCounts[i] - labelCounts[j] + d;
+		return new int[]{a, b, c, d};
+	}
+
+	/**
+	 * Get phi coefficient of a pair of labels
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label
+	 * @return Phi coefficient, NaN if any label is constant
+	 */
+	public double getPhi(int i, int j){
+		int[] t = getTable(i, j);
+		double a = t[0], b = t[1], c = t[2], d = t[3];
+
+		double denominator = Math.sqrt((a + b) * (c + d) * (a + c) * (b + d));
+		double nominator = a * d - b * c;
+		return nominator / denominator;
+	}
+
+	/**
+	 * Get chi-square score of a pair of labels, as phi^2 * N.
+	 * When phi is not defined, 0.0001 is returned as in mulan
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label
+	 * @return Chi-square score
+	 */
+	public double getChiSquare(int i, int j){
+		double phi = getPhi(i, j);
+		if(Double.isNaN(phi)){
+			return 0.0001;
+		}
+		return Math.pow(phi, 2) * nInstances;
+	}
+
+	/**
+	 * Get the phi coefficients of all pairs of labels
+	 *
+	 * @return Matrix with the phi coefficient of each pair of labels
+	 */
+	public double[][] getPhiMatrix(){
+		double[][] phi = new double[nLabels][nLabels];
+		for(int i=0; i<nLabels; i++){
+			for(int j=i; j<nLabels; j++){
+				phi[i][j] = getPhi(i, j);
+				phi[j][i] = phi[i][j];
+			}
+		}
+		return phi;
+	}
+
+	/**
+	 * Get the chi-square scores of all pairs of labels
+	 *
+	 * @return Array of LabelsPair in descendent order of chi-square score
+	 */
+	public LabelsPair[] getChiSquarePairs(){
+		List<LabelsPair> chiPairsList = new ArrayList<LabelsPair>();
+		for(int i=0; i<nLabels-1; i++){
+			for(int j=i+1; j<nLabels; j++){
+				chiPairsList.add(new LabelsPair(new int[]{i, j}, getChiSquare(i, j)));
+			}
+		}
+
+		LabelsPair[] pairs = new LabelsPair[chiPairsList.size()];
+		chiPairsList.toArray(pairs);
+		Arrays.sort(pairs, Collections.reverseOrder());
+		return pairs;
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+/**
+* Class implementing the co-occurrences of all pairs of labels.
+* For each instance only the pairs among its relevant labels are visited, so
+* the cost is linear in the number of instances and quadratic in their
+* cardinality instead of in the number of labels.
+* The counts are stored in a packed upper triangular array; partial arrays are
+* built in parallel over blocks of instances and then merged.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelCooccurrences {
+
+	/**
+	 * Maximum number of cells of all the partial arrays together
+	 */
+	protected static final long MAX_PARTIAL_CELLS = 1L << 26;
+
+	/**
+	 * Number of cells of each block merged in parallel
+	 */
+	protected static final int MERGE_BLOCK = 1 << 16;
+
+	/**
+	 * Number of labels
+	 */
+	protected int nLabels;
+
+	/**
+	 * Co-occurrences of each pair of labels i &lt; j, packed by rows of the upper triangle
+	 */
+	protected int[] counts;
+
+
+	/**
+	 * Constructor, using all the available processors
+	 *
+	 * @param labelMatrix Labels of the dataset as bitsets
+	 */
+	public LabelCooccurrences(LabelMatrix labelMatrix) {
+		this(labelMatrix, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param labelMatrix Labels of the dataset as bitsets
+	 * @param numThreads Maximum number of threads; with one thread the co-occurrences are counted sequentially
+	 */
+	public LabelCooccurrences(LabelMatrix labelMatrix, int numThreads) {
+		nLabels = labelMatrix.getNumLabels();
+		int nInstances = labelMatrix.getNumInstances();
+		int size = (int)((long)nLabels*(nLabels-1)/2);
+
+		//Number of partial arrays bounded by the available memory for them
+		int nWorkers = (int)Math.min(Math.max(1, numThreads), Math.max(1, MAX_PARTIAL_CELLS / Math.max(1, size)));
+		nWorkers = Math.max(1, Math.min(nWorkers, nInstances));
+
+		int[][] partials = new int[nWorkers][];
+		int chunk = (nInstances + nWorkers - 1) / nWorkers;
+
+		Utils.parallelFor(nWorkers, numThreads, w -> {
+			int[] partial = new int[size];
+			int[] active;
+			int rowOffset;
+
+			for(int i=w*chunk; i<Math.min(nInstances, (w+1)*chunk); i++){
+				active = labelMatrix.activeLabels(i);
+				for(int a=0; a<active.length; a++){
+					rowOffset = rowOffset(active[a]);
+					for(int b=a+1; b<active.length; b++){
+						partial[rowOffset + active[b]]++;
+					}
+				}
+			}
+
+			partials[w] = partial;
+		});
+
+		//Merge the partial arrays into the first one, by blocks of cells
+		counts = partials[0];
+		if(nWorkers > 1){
+			int nBlocks = (size + MERGE_BLOCK - 1) / MERGE_BLOCK;
+			Utils.parallelFor(nBlocks, numThreads, block -> {
+				int to = Math.min(size, (block+1)*MERGE_BLOCK);
+				for(int w=1; w<partials.length; w++){
+					int[] partial = partials[w];
+					for(int c=block*MERGE_BLOCK; c<to; c++){
+						counts[c] += partial[c];
+					}
+				}
+			});
+		}
+	}
+
+
+	/**
+	 * Offset of the row of a label in the packed array, such that the
+	 * position of the pair i &lt; j is rowOffset(i) + j
+	 *
+	 * @param i Index of the label
+	 * @return Offset of the row
+	 */
+	protected int rowOffset(int i){
+		return (int)((long)i*nLabels - (long)i*(i+1)/2 - i - 1);
+	}
+
+	/**
+	 * Get the position of a pair of labels in the packed array
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label, greater than i
+	 * @return Position of the pair
+	 */
+	public int getPairIndex(int i, int j){
+		return rowOffset(i) + j;
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return nLabels;
+	}
+
+	/**
+	 * Get number of instances where two labels are relevant at the same time
+	 *
+	 * @param i Index of the first label
+	 * @param j Index of the second label
+	 * @return Number of co-occurrences
+	 */
+	public int get(int i, int j){
+		if(i > j){
+			return counts[getPairIndex(j, i)];
+		}
+		return counts[getPairIndex(i, j)];
+	}
+
+	/**
+	 * Get the co-occurrences packed by rows of the upper triangle, i.e.,
+	 * pairs (0,1), (0,2), ..., (0,L-1), (1,2), ... The array is not copied,
+	 * so it must not be modified
+	 *
+	 * @return Packed array of co-occurrences
+	 */
+	public int[] getPackedCounts(){
+		return counts;
+	}
+
+	/**
+	 * Get the co-occurrences as a matrix
+	 *
+	 * @return Matrix with the co-occurrences of each pair of labels i &lt; j in position [i][j]
+	 */
+	public double[][] toMatrix(){
+		double[][] matrix = new double[nLabels][nLabels];
+		int index = 0;
+		for(int i=0; i<nLabels; i++){
+			for(int j=i+1; j<nLabels; j++){
+				matrix[i][j] = counts[index++];
+			}
+		}
+		return matrix;
+	}
+
+}
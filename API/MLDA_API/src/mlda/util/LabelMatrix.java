@@ -0,0 +1,363 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import mulan.data.MultiLabelInstances;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+* Class storing the labels of a multi-label dataset as bitsets.
+* Each instance is stored as a bitset with one bit per label, and each label as
+* a bitset with one bit per instance, so counts are obtained with popcount and
+* co-occurrences with bitwise AND.
+* For sparse instances only the stored values are visited to build the bitsets.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelMatrix {
+
+	/**
+	 * Number of instances
+	 */
+	protected int nInstances;
+
+	/**
+	 * Number of labels
+	 */
+	protected int nLabels;
+
+	/**
+	 * Number of words of the bitset of each instance
+	 */
+	protected int rowWords;
+
+	/**
+	 * Number of words of the bitset of each label
+	 */
+	protected int columnWords;
+
+	/**
+	 * Bitsets of the instances, one after the other
+	 */
+	protected long[] rows;
+
+	/**
+	 * Bitset of each label
+	 */
+	protected long[][] columns;
+
+	/**
+	 * Number of missing values of each label
+	 */
+	protected int[] missing;
+
+
+	/**
+	 * Constructor with dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	public LabelMatrix(MultiLabelInstances mlData) {
+		this(mlData.getNumInstances(), mlData.getNumLabels());
+
+		int[] labelIndices = mlData.getLabelIndices();
+		Instances instances = mlData.getDataSet();
+		int[] labelPositions = Utils.getPositions(instances.numAttributes(), labelIndices);
+
+		Instance inst;
+		int label;
+		for(int i=0; i<nInstances; i++){
+			inst = instances.get(i);
+
+			if(inst instanceof SparseInstance){
+				//Values not stored are 0
+				for(int p=0; p<inst.numValues(); p++){
+					label = labelPositions[inst.index(p)];
+					if(label >= 0){
+						setValue(i, label, inst.valueSparse(p));
+					}
+				}
+			}
+			else{
+				for(int l=0; l<nLabels; l++){
+					setValue(i, l, inst.value(labelIndices[l]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructor for an empty matrix
+	 *
+	 * @param nInstances Number of instances
+	 * @param nLabels Number of labels
+	 */
+	public LabelMatrix(int nInstances, int nLabels) {
+		this.nInstances = nInstances;
+		this.nLabels = nLabels;
+		this.rowWords = words(nLabels);
+		this.columnWords = words(nInstances);
+		this.rows = new long[nInstances * rowWords];
+		this.columns = new long[nLabels][columnWords];
+		this.missing = new int[nLabels];
+	}
+
+
+	/**
+	 * Constructor with the bitsets of the instances, e.g., read from a file
+	 *
+	 * @param nInstances Number of instances
+	 * @param nLabels Number of labels
+	 * @param rows Bitsets of the instances, one after the other
+	 * @param missing Number of missing values of each label
+	 */
+	public LabelMatrix(int nInstances, int nLabels, long[] rows, int[] missing) {
+		this.nInstances = nInstances;
+		this.nLabels = nLabels;
+		this.rowWords = words(nLabels);
+		this.columnWords = words(nInstances);
+		this.rows = rows;
+		this.columns = new long[nLabels][columnWords];
+		this.missing = missing;
+
+		long word;
+		for(int i=0; i<nInstances; i++){
+			for(int w=0; w<rowWords; w++){
+				word = rows[i*rowWords + w];
+				while(word != 0){
+					columns[(w << 6) + Long.numberOfTrailingZeros(word)][i >>> 6] |= 1L << i;
+					word &= word - 1;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Number of 64-bit words needed to store a number of bits
+	 *
+	 * @param nBits Number of bits
+	 * @return Number of words
+	 */
+	public static int words(int nBits){
+		return (nBits + 63) >>> 6;
+	}
+
+	/**
+	 * Set a label as relevant for an instance
+	 *
+	 * @param instance Index of the instance
+	 * @param label Index of the label
+	 */
+	public void set(int instance, int label){
+		rows[instance*rowWords + (label >>> 6)] |= 1L << label;
+		columns[label][instance >>> 6] |= 1L << instance;
+	}
+
+	/**
+	 * Store the value of a label for an instance, counting missing values
+	 *
+	 * @param instance Index of the instance
+	 * @param label Index of the label
+	 * @param value Value of the label in the instance
+	 */
+	protected void setValue(int instance, int label, double value){
+		if(value == 1){
+			set(instance, label);
+		}
+		else if(Double.isNaN(value)){
+			missing[label]++;
+		}
+	}
+
+	/**
+	 * Get number of instances
+	 *
+	 * @return Number of instances
+	 */
+	public int getNumInstances(){
+		return nInstances;
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return nLabels;
+	}
+
+	/**
+	 * Get number of words of the bitset of each instance
+	 *
+	 * @return Number of words
+	 */
+	public int getRowWords(){
+		return rowWords;
+	}
+
+	/**
+	 * Check if a label is relevant for an instance
+	 *
+	 * @param instance Index of the instance
+	 * @param label Index of the label
+	 * @return True if the label is relevant and false otherwise
+	 */
+	public boolean isRelevant(int instance, int label){
+		return (rows[instance*rowWords + (label >>> 6)] & (1L << label)) != 0;
+	}
+
+	/**
+	 * Get a copy of the bitset of an instance
+	 *
+	 * @param instance Index of the instance
+	 * @return Bitset with the relevant labels of the instance
+	 */
+	public long[] getRow(int instance){
+		long[] row = new long[rowWords];
+		System.arraycopy(rows, instance*rowWords, row, 0, rowWords);
+		return row;
+	}
+
+	/**
+	 * Get the bitset of a label. The array is not copied, so it must not be modified
+	 *
+	 * @param label Index of the label
+	 * @return Bitset with the instances where the label is relevant
+	 */
+	public long[] getColumn(int label){
+		return columns[label];
+	}
+
+	/**
+	 * Get number of labels of an instance
+	 *
+	 * @param instance Index of the instance
+	 * @return Number of relevant labels
+	 */
+	public int cardinality(int instance){
+		int count = 0;
+		int offset = instance*rowWords;
+		for(int w=0; w<rowWords; w++){
+			count += Long.bitCount(rows[offset + w]);
+		}
+		return count;
+	}
+
+	/**
+	 * Get number of instances where a label is relevant
+	 *
+	 * @param label Index of the label
+	 * @return Number of appearances of the label
+	 */
+	public int labelCount(int label){
+		int count = 0;
+		long[] column = columns[label];
+		for(int w=0; w<columnWords; w++){
+			count += Long.bitCount(column[w]);
+		}
+		return count;
+	}
+
+	/**
+	 * Get number of missing values of a label
+	 *
+	 * @param label Index of the label
+	 * @return Number of missing values
+	 */
+	public int missingCount(int label){
+		return missing[label];
+	}
+
+	/**
+	 * Get number of instances where two labels are relevant at the same time
+	 *
+	 * @param label1 Index of the first label
+	 * @param label2 Index of the second label
+	 * @return Number of co-occurrences
+	 */
+	public int cooccurrences(int label1, int label2){
+		int count = 0;
+		long[] column1 = columns[label1];
+		long[] column2 = columns[label2];
+		for(int w=0; w<columnWords; w++){
+			count += Long.bitCount(column1[w] & column2[w]);
+		}
+		return count;
+	}
+
+	/**
+	 * Get the relevant labels of an instance
+	 *
+	 * @param instance Index of the instance
+	 * @return Array with the indices of the relevant labels, in increasing order
+	 */
+	public int[] activeLabels(int instance){
+		int[] active = new int[cardinality(instance)];
+		int offset = instance*rowWords;
+		int n = 0;
+		long word;
+		for(int w=0; w<rowWords; w++){
+			word = rows[offset + w];
+			while(word != 0){
+				active[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Get number of labels associated with each instance
+	 *
+	 * @return Array with the number of labels of each instance
+	 */
+	public int[] labelsForInstance(){
+		int[] labelsForInstance = new int[nInstances];
+		for(int i=0; i<nInstances; i++){
+			labelsForInstance[i] = cardinality(i);
+		}
+		return labelsForInstance;
+	}
+
+	/**
+	 * Get number of appearances of each label
+	 *
+	 * @return Array with the number of instances where each label is relevant
+	 */
+	public int[] labelAppearances(){
+		int[] appearances = new int[nLabels];
+		for(int l=0; l<nLabels; l++){
+			appearances[l] = labelCount(l);
+		}
+		return appearances;
+	}
+
+	/**
+	 * Get co-occurrences of all pairs of labels
+	 *
+	 * @return Matrix with the co-occurrences of each pair of labels i &lt; j in position [i][j]
+	 */
+	public int[][] cooccurrences(){
+		int[][] matrix = new int[nLabels][nLabels];
+		for(int i=0; i<nLabels; i++){
+			for(int j=i+1; j<nLabels; j++){
+				matrix[i][j] = cooccurrences(i, j);
+			}
+		}
+		return matrix;
+	}
+
+}
@@ -0,0 +1,450 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import mulan.data.LabelSet;
+
+/**
+* Class implementing a dictionary of the distinct labelsets of a dataset.
+* Each labelset is stored as a packed bitset key and receives a dense id, in
+* order of first appearance; keys are found by open addressing over primitive
+* arrays, and the number of instances of each labelset is kept in an int array.
+* Once all the labelsets are added, the ids are also sorted by frequency, so
+* queries about the most frequent labelsets or the number of labelsets with a
+* given number of instances do not need to scan the dictionary.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelsetDictionary implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Number of labels
+	 */
+	protected int nLabels;
+
+	/**
+	 * Number of words of each key
+	 */
+	protected int keyWords;
+
+	/**
+	 * Number of distinct labelsets
+	 */
+	protected int size;
+
+	/**
+	 * Sum of the counts of all labelsets
+	 */
+	protected long totalCount;
+
+	/**
+	 * Keys of the labelsets, one after the other in order of id
+	 */
+	protected long[] keys;
+
+	/**
+	 * Number of instances of each labelset, by id
+	 */
+	protected int[] counts;
+
+	/**
+	 * Hash table with id+1 of the labelset stored in each slot, or 0 if empty
+	 */
+	protected int[] slots;
+
+	/**
+	 * Ids of the labelsets in descendent order of count, computed on demand
+	 */
+	protected int[] byFrequency;
+
+	/**
+	 * Counts of the labelsets in ascendent order, computed on demand
+	 */
+	protected int[] sortedCounts;
+
+	/**
+	 * Id of the labelset of each instance, when built from a label matrix
+	 */
+	protected int[] instanceIds;
+
+
+	/**
+	 * Constructor for an empty dictionary
+	 *
+	 * @param nLabels Number of labels
+	 */
+	public LabelsetDictionary(int nLabels) {
+		this.nLabels = nLabels;
+		this.keyWords = LabelMatrix.words(nLabels);
+		this.size = 0;
+		this.totalCount = 0;
+		this.keys = new long[16 * keyWords];
+		this.counts = new int[16];
+		this.slots = new int[32];
+	}
+
+	/**
+	 * Constructor with the labels of a dataset
+	 *
+	 * @param labelMatrix Labels of the dataset as bitsets
+	 */
+	public LabelsetDictionary(LabelMatrix labelMatrix) {
+		this(labelMatrix.getNumLabels());
+
+		int nInstances = labelMatrix.getNumInstances();
+		instanceIds = new int[nInstances];
+		for(int i=0; i<nInstances; i++){
+			instanceIds[i] = add(labelMatrix.rows, i*keyWords, 1);
+		}
+
+		sortByFrequency();
+	}
+
+
+	/**
+	 * Add a number of instances to a labelset
+	 *
+	 * @param key Array containing the bitset of the labelset
+	 * @param offset Position of the bitset in the array
+	 * @param count Number of instances to add, negative to remove instances
+	 * @return Id of the labelset
+	 */
+	public int add(long[] key, int offset, int count){
+		int id = find(key, offset, true);
+		counts[id] += count;
+		totalCount += count;
+		byFrequency = null;
+		sortedCounts = null;
+		return id;
+	}
+
+	/**
+	 * Add the counts of the labelsets of other dictionary
+	 *
+	 * @param other Dictionary with the same number of labels
+	 */
+	public void merge(LabelsetDictionary other){
+		for(int id=0; id<other.size; id++){
+			add(other.keys, id*keyWords, other.counts[id]);
+		}
+	}
+
+	/**
+	 * Get a copy of the dictionary without the labelsets whose count is 0,
+	 * e.g., after removing all their instances
+	 *
+	 * @return New dictionary with the labelsets with positive count
+	 */
+	public LabelsetDictionary compact(){
+		LabelsetDictionary compacted = new LabelsetDictionary(nLabels);
+		for(int id=0; id<size; id++){
+			if(counts[id] > 0){
+				compacted.add(keys, id*keyWords, counts[id]);
+			}
+		}
+		compacted.sortByFrequency();
+		return compacted;
+	}
+
+	/**
+	 * Get the id of a labelset
+	 *
+	 * @param key Bitset of the labelset
+	 * @return Id of the labelset, or -1 if it is not in the dictionary
+	 */
+	public int getId(long[] key){
+		return find(key, 0, false);
+	}
+
+	/**
+	 * Find the id of a key, optionally inserting it
+	 *
+	 * @param key Array containing the key
+	 * @param offset Position of the key in the array
+	 * @param insert Whether to insert the key if it is not found
+	 * @return Id of the key, or -1 if it is not found and not inserted
+	 */
+	protected int find(long[] key, int offset, boolean insert){
+		int mask = slots.length - 1;
+		int slot = hash(key, offset) & mask;
+
+		while(slots[slot] != 0){
+			int id = slots[slot] - 1;
+			if(equals(id, key, offset)){
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if(!insert){
+			return -1;
+		}
+
+		if(size == counts.length){
+			counts = Arrays.copyOf(counts, size * 2);
+			keys = Arrays.copyOf(keys, size * 2 * keyWords);
+		}
+		System.arraycopy(key, offset, keys, size*keyWords, keyWords);
+		int id = size++;
+		slots[slot] = id + 1;
+
+		//Keep load factor under 0.5
+		if(size * 2 > slots.length){
+			rehash();
+		}
+
+		return id;
+	}
+
+	/**
+	 * Hash of a key
+	 *
+	 * @param key Array containing the key
+	 * @param offset Position of the key in the array
+	 * @return Hash value
+	 */
+	protected int hash(long[] key, int offset){
+		long h = 0;
+		for(int w=0; w<keyWords; w++){
+			h = (h + key[offset + w]) * 0x9E3779B97F4A7C15L;
+		}
+		return (int)(h ^ (h >>> 32));
+	}
+
+	/**
+	 * Check if a stored labelset is equal to a key
+	 *
+	 * @param id Id of the stored labelset
+	 * @param key Array containing the key
+	 * @param offset Position of the key in the array
+	 * @return True if they are equal and false otherwise
+	 */
+	protected boolean equals(int id, long[] key, int offset){
+		int start = id * keyWords;
+		for(int w=0; w<keyWords; w++){
+			if(keys[start + w] != key[offset + w]){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Double the size of the hash table
+	 */
+	protected void rehash(){
+		slots = new int[slots.length * 2];
+		int mask = slots.length - 1;
+		int slot;
+		for(int id=0; id<size; id++){
+			slot = hash(keys, id*keyWords) & mask;
+			while(slots[slot] != 0){
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+		}
+	}
+
+	/**
+	 * Sort the ids by frequency, if it has not been done yet
+	 */
+	protected synchronized void sortByFrequency(){
+		if(byFrequency == null){
+			byFrequency = Utils.sortIndicesByFrequency(Arrays.copyOf(counts, size));
+
+			sortedCounts = new int[size];
+			for(int i=0; i<size; i++){
+				sortedCounts[i] = counts[byFrequency[size - 1 - i]];
+			}
+		}
+	}
+
+	/**
+	 * Get number of labels
+	 *
+	 * @return Number of labels
+	 */
+	public int getNumLabels(){
+		return nLabels;
+	}
+
+	/**
+	 * Get number of distinct labelsets
+	 *
+	 * @return Number of labelsets
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Get the sum of the counts of all labelsets
+	 *
+	 * @return Total count
+	 */
+	public long getTotalCount(){
+		return totalCount;
+	}
+
+	/**
+	 * Get number of instances of a labelset
+	 *
+	 * @param id Id of the labelset
+	 * @return Number of instances
+	 */
+	public int getCount(int id){
+		return counts[id];
+	}
+
+	/**
+	 * Get number of instances of each labelset
+	 *
+	 * @return Array with the count of each labelset, by id
+	 */
+	public int[] getCounts(){
+		return Arrays.copyOf(counts, size);
+	}
+
+	/**
+	 * Get the bitset of a labelset
+	 *
+	 * @param id Id of the labelset
+	 * @return Bitset of the labelset
+	 */
+	public long[] getKey(int id){
+		return Arrays.copyOfRange(keys, id*keyWords, (id+1)*keyWords);
+	}
+
+	/**
+	 * Get the relevant labels of a labelset
+	 *
+	 * @param id Id of the labelset
+	 * @return Array with the indices of the relevant labels, in increasing order
+	 */
+	public int[] getLabels(int id){
+		int start = id * keyWords;
+		int n = 0;
+		for(int w=0; w<keyWords; w++){
+			n += Long.bitCount(keys[start + w]);
+		}
+
+		int[] labels = new int[n];
+		n = 0;
+		long word;
+		for(int w=0; w<keyWords; w++){
+			word = keys[start + w];
+			while(word != 0){
+				labels[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return labels;
+	}
+
+	/**
+	 * Get a labelset as mulan LabelSet
+	 *
+	 * @param id Id of the labelset
+	 * @return LabelSet object
+	 */
+	public LabelSet getLabelSet(int id){
+		double[] values = new double[nLabels];
+		for(int label : getLabels(id)){
+			values[label] = 1;
+		}
+		return new LabelSet(values);
+	}
+
+	/**
+	 * Get the id of the labelset of each instance, when the dictionary was
+	 * built from a label matrix
+	 *
+	 * @return Array with the labelset id of each instance, or null
+	 */
+	public int[] getInstanceIds(){
+		return instanceIds;
+	}
+
+	/**
+	 * Get the ids of the k most frequent labelsets
+	 *
+	 * @param k Number of labelsets
+	 * @return Array with the ids in descendent order of count
+	 */
+	public int[] getTopK(int k){
+		sortByFrequency();
+		return Arrays.copyOf(byFrequency, Math.min(k, size));
+	}
+
+	/**
+	 * Get the count of the most frequent labelset
+	 *
+	 * @return Maximum count, or 0 if the dictionary is empty
+	 */
+	public int getMaxCount(){
+		sortByFrequency();
+		return (size > 0) ? counts[byFrequency[0]] : 0;
+	}
+
+	/**
+	 * Get the count of the least frequent labelset
+	 *
+	 * @return Minimum count, or 0 if the dictionary is empty
+	 */
+	public int getMinCount(){
+		sortByFrequency();
+		return (size > 0) ? sortedCounts[0] : 0;
+	}
+
+	/**
+	 * Get number of labelsets with up to n instances
+	 *
+	 * @param n Maximum number of instances
+	 * @return Number of labelsets with count less or equal than n
+	 */
+	public int countUpTo(int n){
+		sortByFrequency();
+
+		//First position with count greater than n
+		int low = 0, high = size;
+		int mid;
+		while(low < high){
+			mid = (low + high) >>> 1;
+			if(sortedCounts[mid] <= n){
+				low = mid + 1;
+			}
+			else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Get number of labelsets with each number of instances
+	 *
+	 * @return Array where position c has the number of labelsets with c instances
+	 */
+	public int[] getCountHistogram(){
+		int[] histogram = new int[getMaxCount() + 1];
+		for(int i=0; i<size; i++){
+			histogram[counts[i]]++;
+		}
+		return histogram;
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import java.io.Serializable;
+
+/**
+* Class implementing the central moments of a set of values, up to the fourth.
+* Values are added one by one with the numerically stable updates of Welford
+* and Pebay, and partial moments of different parts of the data can be merged,
+* so the moments are computed in a single pass and in parallel.
+* Missing values (NaN) are ignored.
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class Moments implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Number of values
+	 */
+	protected long n;
+
+	/**
+	 * Mean of the values
+	 */
+	protected double mean;
+
+	/**
+	 * Sum of squared deviations from the mean
+	 */
+	protected double m2;
+
+	/**
+	 * Sum of cubed deviations from the mean
+	 */
+	protected double m3;
+
+	/**
+	 * Sum of deviations from the mean to the fourth power
+	 */
+	protected double m4;
+
+
+	/**
+	 * Constructor for empty moments
+	 */
+	public Moments() {
+		n = 0;
+		mean = 0;
+		m2 = 0;
+		m3 = 0;
+		m4 = 0;
+	}
+
+
+	/**
+	 * Moments of an array of values
+	 *
+	 * @param values Array of values
+	 * @return Moments of the values
+	 */
+	public static Moments of(double[] values){
+		return of(values, 0, values.length);
+	}
+
+	/**
+	 * Moments of a range of an array of values
+	 *
+	 * @param values Array of values
+	 * @param from First position of the range, inclusive
+	 * @param to Last position of the range, exclusive
+	 * @return Moments of the values in the range
+	 */
+	public static Moments of(double[] values, int from, int to){
+		Moments moments = new Moments();
+		for(int i=from; i<to; i++){
+			moments.add(values[i]);
+		}
+		return moments;
+	}
+
+	/**
+	 * Moments of a number of repetitions of the same value, e.g., the values
+	 * not stored in a sparse column, which are all 0
+	 *
+	 * @param x Value
+	 * @param count Number of repetitions
+	 * @return Moments of the values
+	 */
+	public static Moments constant(double x, long count){
+		Moments moments = new Moments();
+		if(count > 0 && !Double.isNaN(x)){
+			moments.n = count;
+			moments.mean = x;
+		}
+		return moments;
+	}
+
+	/**
+	 * Add a value
+	 *
+	 * @param x Value to add
+	 */
+	public void add(double x){
+		if(Double.isNaN(x)){
+			return;
+		}
+
+		long n1 = n;
+		n++;
+
+		double delta = x - mean;
+		double deltaN = delta / n;
+		double deltaN2 = deltaN * deltaN;
+		double term1 = delta * deltaN * n1;
+
+		mean += deltaN;
+		m4 += term1 * deltaN2 * ((double)n*n - 3*n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+		m3 += term1 * deltaN * (n - 2) - 3 * deltaN * m2;
+		m2 += term1;
+	}
+
+	/**
+	 * Remove a value previously added, reverting the update of add
+	 *
+	 * @param x Value to remove
+	 */
+	public void remove(double x){
+		if(Double.isNaN(x) || n == 0){
+			return;
+		}
+		if(n == 1){
+			n = 0;
+			mean = 0;
+			m2 = 0;
+			m3 = 0;
+			m4 = 0;
+			return;
+		}
+
+		long n1 = n - 1;
+		double oldMean = (n * mean - x) / n1;
+
+		double delta = x - oldMean;
+		double deltaN = delta / n;
+		double deltaN2 = deltaN * deltaN;
+		double term1 = delta * deltaN * n1;
+
+		double oldM2 = m2 - term1;
+		double oldM3 = m3 - term1 * deltaN * (n - 2) + 3 * deltaN * oldM2;
+		double oldM4 = m4 - term1 * deltaN2 * ((double)n*n - 3*n + 3) - 6 * deltaN2 * oldM2 + 4 * deltaN * oldM3;
+
+		n = n1;
+		mean = oldMean;
+		m2 = oldM2;
+		m3 = oldM3;
+		m4 = oldM4;
+	}
+
+	/**
+	 * Merge the moments of other part of the data into these moments
+	 *
+	 * @param other Moments to merge
+	 */
+	public void merge(Moments other){
+		if(other.n == 0){
+			return;
+		}
+		if(n == 0){
+			n = other.n;
+			mean = other.mean;
+			m2 = other.m2;
+			m3 = other.m3;
+			m4 = other.m4;
+			return;
+		}
+
+		double na = n;
+		double nb = other.n;
+		double nx = na + nb;
+
+		double delta = other.mean - mean;
+		double delta2 = delta * delta;
+		double delta3 = delta * delta2;
+		double delta4 = delta2 * delta2;
+
+		double newM4 = m4 + other.m4
+				+ delta4 * na * nb * (na*na - na*nb + nb*nb) / (nx*nx*nx)
+				+ 6 * delta2 * (na*na*other.m2 + nb*nb*m2) / (nx*nx)
+				+ 4 * delta * (na*other.m3 - nb*m3) / nx;
+		double newM3 = m3 + other.m3
+				+ delta3 * na * nb * (na - nb) / (nx*nx)
+				+ 3 * delta * (na*other.m2 - nb*m2) / nx;
+		double newM2 = m2 + other.m2 + delta2 * na * nb / nx;
+
+		mean += delta * nb / nx;
+		m2 = newM2;
+		m3 = newM3;
+		m4 = newM4;
+		n += other.n;
+	}
+
+	/**
+	 * Get number of values
+	 *
+	 * @return Number of values
+	 */
+	public long getCount(){
+		return n;
+	}
+
+	/**
+	 * Get mean of the values
+	 *
+	 * @return Mean, or 0 if there are no values
+	 */
+	public double getMean(){
+		return mean;
+	}
+
+	/**
+	 * Get sum of squared deviations from the mean
+	 *
+	 * @return M2
+	 */
+	public double getM2(){
+		return m2;
+	}
+
+	/**
+	 * Get sum of cubed deviations from the mean
+	 *
+	 * @return M3
+	 */
+	public double getM3(){
+		return m3;
+	}
+
+	/**
+	 * Get sum of deviations from the mean to the fourth power
+	 *
+	 * @return M4
+	 */
+	public double getM4(){
+		return m4;
+	}
+
+	/**
+	 * Get sample variance of the values, as computed by weka
+	 *
+	 * @return Variance, or 0 if there are less than two values
+	 */
+	public double getVariance(){
+		if(n <= 1){
+			return 0;
+		}
+
+		double variance = m2 / (n - 1);
+		if(variance < 0){
+			variance = 0;
+		}
+		return variance;
+	}
+
+	/**
+	 * Get sample standard deviation of the values
+	 *
+	 * @return Standard deviation
+	 */
+	public double getStdv(){
+		return Math.sqrt(getVariance());
+	}
+
+}
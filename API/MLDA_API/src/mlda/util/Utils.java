@@ -12,11 +12,19 @@
 package mlda.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import mulan.data.MultiLabelInstances;
-import weka.core.Attribute;
 import weka.core.Instance;
 import weka.core.Instances;
+import weka.core.SparseInstance;
 
 /**
 * Class implementing different utils for metrics calculation
@@ -65,31 +73,76 @@ public class Utils {
 	 * @return Array with the number of labels associated with each instance
 	 */
 	public static int[] labelsForInstance(MultiLabelInstances mlData){
-
-        int nInstances = mlData.getNumInstances();
-        int nLabels = mlData.getNumLabels();
-        
-        int [] labelsForInstance = new int[nInstances];
-        
-        int[] labelIndices = mlData.getLabelIndices();
-        
-        Instances instances = mlData.getDataSet();
-        
-        Instance inst;
-        for(int i=0; i<nInstances; i++){
-        	inst = instances.get(i);
-   
-            for(int j=0; j<nLabels; j++){
-                if(inst.value(labelIndices[j]) == 1){
-                    labelsForInstance[i]++;
-                }
-            }
-        }
-        
-        return(labelsForInstance);
+        return(new LabelMatrix(mlData).labelsForInstance());
     }
 	
 		
+	/**
+	 * Check if a dataset is stored in sparse format, i.e., if its instances
+	 * are SparseInstance and only their non-zero values are stored
+	 * 
+	 * @param instances Dataset
+	 * @return True if the dataset is sparse and false otherwise
+	 */
+	public static boolean isSparse(Instances instances){
+		return (instances.numInstances() > 0) && (instances.get(0) instanceof SparseInstance);
+	}
+	
+	/**
+	 * Get the position of each attribute in an array of attribute indices
+	 * 
+	 * @param numAttributes Number of attributes of the dataset
+	 * @param indices Indices of a subset of the attributes
+	 * @return Array with the position in indices of each attribute, or -1 if it is not in indices
+	 */
+	public static int[] getPositions(int numAttributes, int[] indices){
+		int[] positions = new int[numAttributes];
+		Arrays.fill(positions, -1);
+		for(int i=0; i<indices.length; i++){
+			positions[indices[i]] = i;
+		}
+		return positions;
+	}
+	
+	/**
+	 * Get number of appearances of each label, counted in a single pass over the instances.
+	 * Only the stored values of sparse instances are visited
+	 * 
+	 * @param dataset Multi-label dataset
+	 * @return Array with the number of instances where each label is relevant
+	 */
+	public static int[] getLabelAppearances(MultiLabelInstances dataset)
+	{
+		int[] labelIndices = dataset.getLabelIndices();
+		int[] appearances = new int[labelIndices.length];
+		
+		Instances instances = dataset.getDataSet();
+		int[] labelPositions = getPositions(instances.numAttributes(), labelIndices);
+		
+		Instance inst;
+		int label;
+		for(int i=0; i<instances.numInstances(); i++){
+			inst = instances.get(i);
+			if(inst instanceof SparseInstance){
+				for(int p=0; p<inst.numValues(); p++){
+					label = labelPositions[inst.index(p)];
+					if(label >= 0 && inst.valueSparse(p) == 1){
+						appearances[label]++;
+					}
+				}
+			}
+			else{
+				for(int j=0; j<labelIndices.length; j++){
+					if(inst.value(labelIndices[j]) == 1){
+						appearances[j]++;
+					}
+				}
+			}
+		}
+		
+		return appearances;
+	}
+	
 	/**
 	 * Get array of ImbalancedFeature with labels frequency
 	 * 
@@ -98,57 +151,71 @@ public class Utils {
 	 */
 	public static ImbalancedFeature[] getAppearancesPerLabel( MultiLabelInstances dataset)
     {
-		int[] labelIndices = dataset.getLabelIndices();
+		String[] labelNames = dataset.getLabelNames();
         
-        ImbalancedFeature[] labels = new ImbalancedFeature[labelIndices.length];
-         
-        Instances instances = dataset.getDataSet();
+        ImbalancedFeature[] labels = new ImbalancedFeature[labelNames.length];
          
-        int appearances = 0;
-        Attribute currentAtt;
+        int[] appearances = getLabelAppearances(dataset);
          
-        for(int i=0; i<labelIndices.length;i++)
+        for(int i=0; i<labelNames.length;i++)
         {
-        	currentAtt = instances.attribute(labelIndices[i]);
-        	appearances=0;
-             
-            for(int j=0; j<instances.size();j++)
-            {
-                if(instances.instance(j).value(currentAtt) == 1.0){
-                	appearances++;
-                }
-            }
-            labels[i] = new ImbalancedFeature(currentAtt.name(), appearances);
+            labels[i] = new ImbalancedFeature(labelNames[i], appearances[i]);
         }
          
         return labels;
     }
 	
 	/**
-	 * Get array of ImbalancedFeature in desdendent order of frequency
+	 * Get array of ImbalancedFeature in desdendent order of frequency.
+	 * Labels with the same frequency keep their relative order
 	 * 
 	 * @param labels Labels of the dataset as ImbalancedFeature objects
 	 * @return Array of ImbalancedFeature in desdendent order of frequency
 	 */
 	public static ImbalancedFeature[] getSortedByFrequency (ImbalancedFeature[] labels)
     {
-        ArrayList<ImbalancedFeature> listIF = new ArrayList<ImbalancedFeature>();
-        
-        for(int i=0; i<labels.length; i++) {
-        	listIF.add(labels[i]);
-        }
+		int[] appearances = new int[labels.length];
+		for(int i=0; i<labels.length; i++) {
+			appearances[i] = labels[i].getAppearances();
+		}
+		
+		int[] order = sortIndicesByFrequency(appearances);
         
         ImbalancedFeature[] sorted = new ImbalancedFeature [labels.length];
         
         for(int i=0 ; i<labels.length; i++)
         {
-            sorted[i]= getMaxAppearance(listIF);
-            listIF.remove(sorted[i]);
+            sorted[i]= labels[order[i]];
         }
         
         return sorted;
 	}
 	
+	/**
+	 * Get indices of an array of frequencies in descendent order of frequency.
+	 * Each index is packed with its negated frequency into a long key, so a
+	 * primitive sort is used and ties keep the order of the indices
+	 * 
+	 * @param frequencies Array of frequencies
+	 * @return Indices of the frequencies in descendent order of frequency
+	 */
+	public static int[] sortIndicesByFrequency(int[] frequencies)
+	{
+		long[] keys = new long[frequencies.length];
+		for(int i=0; i<frequencies.length; i++){
+			keys[i] = (-(long)frequencies[i] << 32) | i;
+		}
+		
+		Arrays.sort(keys);
+		
+		int[] order = new int[frequencies.length];
+		for(int i=0; i<frequencies.length; i++){
+			order[i] = (int)keys[i];
+		}
+		
+		return order;
+	}
+	
 	
 	/**
 	 * Calculate IRs of the ImbalancedFeatures
@@ -159,11 +226,18 @@ public class Utils {
 	 */
 	public static ImbalancedFeature[] getImbalancedWithIR (MultiLabelInstances dataset, ImbalancedFeature[] labels)
     {
-		int[] labelIndices = dataset.getLabelIndices();
+		String[] labelNames = dataset.getLabelNames();
         
-        ImbalancedFeature[] labels_imbalanced = new ImbalancedFeature[labelIndices.length];
+        ImbalancedFeature[] labels_imbalanced = new ImbalancedFeature[labelNames.length];
          
-        Instances instances = dataset.getDataSet();
+        int[] appearances = getLabelAppearances(dataset);
+        int nInstances = dataset.getNumInstances();
+        
+        //Index of each label by name
+        HashMap<String, ImbalancedFeature> labelsByName = new HashMap<String, ImbalancedFeature>(labels.length * 2);
+        for(int i=labels.length-1; i>=0; i--){
+        	labelsByName.put(labels[i].getName(), labels[i]);
+        }
          
         int nOnes=0, nZeros=0, maxAppearance=0;
         double IRIntraClass;
@@ -171,24 +245,12 @@ public class Utils {
         double IRInterClass;         
         double mean = dataset.getNumInstances()/2;
          
-        Attribute current;
         ImbalancedFeature currentLabel;
          
-        for(int i=0; i<labelIndices.length;i++) //for each label
+        for(int i=0; i<labelNames.length;i++) //for each label
         {
-        	nZeros=0;
-            nOnes=0;
-        	current = instances.attribute(labelIndices[i]); //current label
-           
-            for(int j=0; j<instances.size();j++) //for each instance
-            {
-                if(instances.instance(j).value(current) == 1.0){
-                	nOnes++;
-                }
-                else{
-                	nZeros++;
-                }
-            }
+            nOnes = appearances[i];
+            nZeros = nInstances - nOnes;
              
             try { 
             	if(nZeros ==0 || nOnes ==0){
@@ -208,7 +270,7 @@ public class Utils {
                     
             variance = (Math.pow((nZeros-mean), 2) + Math.pow((nOnes-mean), 2)) / 2;
              
-            currentLabel = getLabelByName(current.name(), labels);
+            currentLabel = labelsByName.get(labelNames[i]);
              
             maxAppearance = labels[0].getAppearances();
              
@@ -219,12 +281,178 @@ public class Utils {
         		IRInterClass = (double)maxAppearance/currentLabel.getAppearances();
             }
                
-            labels_imbalanced[i] = new ImbalancedFeature(current.name(), currentLabel.getAppearances(), IRInterClass, IRIntraClass, variance);
+            labels_imbalanced[i] = new ImbalancedFeature(labelNames[i], currentLabel.getAppearances(), IRInterClass, IRIntraClass, variance);
         }
          
         return labels_imbalanced;
     }
 	
+	/**
+	 * Calculate IRs of the labels given their number of appearances
+	 *
+	 * @param labelNames Names of the labels
+	 * @param appearances Number of appearances of each label
+	 * @param nInstances Number of instances of the dataset
+	 * @return Array of ImbalancedFeature objects with calculated IR, in the same order than the labels
+	 */
+	public static ImbalancedFeature[] getImbalancedWithIR (String[] labelNames, int[] appearances, int nInstances)
+	{
+		ImbalancedFeature[] labels_imbalanced = new ImbalancedFeature[labelNames.length];
+
+		int nOnes, nZeros;
+		double IRIntraClass;
+		double variance;
+		double IRInterClass;
+		double mean = nInstances/2;
+
+		int maxAppearance = 0;
+		for(int i=0; i<appearances.length; i++){
+			if(appearances[i] > maxAppearance){
+				maxAppearance = appearances[i];
+			}
+		}
+
+		for(int i=0; i<labelNames.length; i++)
+		{
+			nOnes = appearances[i];
+			nZeros = nInstances - nOnes;
+
+			if(nZeros ==0 || nOnes ==0){
+				IRIntraClass = 0;
+			}
+			else if(nZeros > nOnes){
+				IRIntraClass = (double)nZeros/nOnes;
+			}
+			else{
+				IRIntraClass = (double)nOnes/nZeros;
+			}
+
+			variance = (Math.pow((nZeros-mean), 2) + Math.pow((nOnes-mean), 2)) / 2;
+
+			if(nOnes <= 0){
+				IRInterClass = Double.NaN;
+			}
+			else{
+				IRInterClass = (double)maxAppearance/nOnes;
+			}
+
+			labels_imbalanced[i] = new ImbalancedFeature(labelNames[i], nOnes, IRInterClass, IRIntraClass, variance);
+		}
+
+		return labels_imbalanced;
+	}
+
+	/**
+	 * Partially sort a range of an array so the value at position k is the
+	 * one that would be there if the range were sorted, all the values before
+	 * it are lower or equal, and all the values after it are greater or equal.
+	 * It is done by quickselect, in linear expected time
+	 * 
+	 * @param values Array of values, without NaN
+	 * @param from First position of the range, inclusive
+	 * @param to Last position of the range, exclusive
+	 * @param k Position to select
+	 */
+	public static void select(double[] values, int from, int to, int k)
+	{
+		int left = from, right = to - 1;
+		int i, j, mid;
+		double pivot, tmp;
+		
+		while(right > left){
+			//Median of three as pivot
+			mid = (left + right) >>> 1;
+			if(values[mid] < values[left]){
+				tmp = values[mid]; values[mid] = values[left]; values[left] = tmp;
+			}
+			if(values[right] < values[left]){
+				tmp = values[right]; values[right] = values[left]; values[left] = tmp;
+			}
+			if(values[right] < values[mid]){
+				tmp = values[right]; values[right] = values[mid]; values[mid] = tmp;
+			}
+			pivot = values[mid];
+			
+			i = left;
+			j = right;
+			while(i <= j){
+				while(values[i] < pivot){
+					i++;
+				}
+				while(values[j] > pivot){
+					j--;
+				}
+				if(i <= j){
+					tmp = values[i]; values[i] = values[j]; values[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+			
+			if(k <= j){
+				right = j;
+			}
+			else if(k >= i){
+				left = i;
+			}
+			else{
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Run a task for each index in [0, n) with at most numThreads threads.
+	 * With one thread the indices are visited sequentially in the calling
+	 * thread. If it is already running in a ForkJoinPool, e.g., in a task of
+	 * MLDataCharacterization, the indices are split among the threads of that
+	 * pool; otherwise a pool with numThreads threads is created for the call
+	 * 
+	 * @param n Number of indices
+	 * @param numThreads Maximum number of threads
+	 * @param task Task to run for each index
+	 * @throws CancellationException if the thread is interrupted while waiting for the tasks
+	 */
+	public static void parallelFor(int n, int numThreads, IntConsumer task)
+	{
+		if(numThreads <= 1 || n <= 1){
+			for(int i=0; i<n; i++){
+				task.accept(i);
+			}
+			return;
+		}
+		
+		if(ForkJoinTask.inForkJoinPool()){
+			IntStream.range(0, n).parallel().forEach(task);
+			return;
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(Math.min(numThreads, n));
+		try{
+			pool.submit(() -> IntStream.range(0, n).parallel().forEach(task)).get();
+		}
+		catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			CancellationException cancelled = new CancellationException("Parallel task was interrupted");
+			cancelled.initCause(e);
+			throw cancelled;
+		}
+		catch(ExecutionException e){
+			if(e.getCause() instanceof RuntimeException){
+				throw (RuntimeException) e.getCause();
+			}
+			else if(e.getCause() instanceof Error){
+				throw (Error) e.getCause();
+			}
+			else{
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		finally{
+			pool.shutdown();
+		}
+	}
+	
 	/**
 	 * Get an ImbalancedFeature with the label given by name
 	 * 
@@ -0,0 +1,192 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Assert;
+
+import mulan.data.InvalidDataFormatException;
+import mulan.data.LabelNodeImpl;
+import mulan.data.LabelsMetaDataImpl;
+import mulan.data.MultiLabelInstances;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+
+/**
+* Random multi-label datasets used by the tests
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class TestDatasets {
+
+	/**
+	 * Build a random multi-label dataset. Features are numeric and nominal,
+	 * with some missing values, and labels are relevant with a different
+	 * probability each, so there are repeated and unique labelsets
+	 *
+	 * @param seed Seed of the random numbers
+	 * @param nInstances Number of instances
+	 * @param nNumeric Number of numeric features
+	 * @param nNominal Number of nominal features, with three values each
+	 * @param nLabels Number of labels
+	 * @param sparse True to build sparse instances, where most numeric values are 0
+	 * @param missingLabels Probability of each label value to be missing
+	 * @return Multi-label dataset
+	 * @throws InvalidDataFormatException if the dataset is not valid
+	 */
+	public static MultiLabelInstances random(long seed, int nInstances, int nNumeric, int nNominal,
+			int nLabels, boolean sparse, double missingLabels) throws InvalidDataFormatException {
+		Random random = new Random(seed);
+
+		ArrayList<String> nominalValues = new ArrayList<String>();
+		nominalValues.add("a");
+		nominalValues.add("b");
+		nominalValues.add("c");
+		ArrayList<String> binaryValues = new ArrayList<String>();
+		binaryValues.add("0");
+		binaryValues.add("1");
+
+		ArrayList<Attribute> attributes = new ArrayList<Attribute>();
+		for(int f=0; f<nNumeric; f++){
+			attributes.add(new Attribute("num" + f));
+		}
+		for(int f=0; f<nNominal; f++){
+			attributes.add(new Attribute("nom" + f, nominalValues));
+		}
+		LabelsMetaDataImpl labels = new LabelsMetaDataImpl();
+		for(int j=0; j<nLabels; j++){
+			attributes.add(new Attribute("label" + j, binaryValues));
+			labels.addRootNode(new LabelNodeImpl("label" + j));
+		}
+
+		Instances data = new Instances("random", attributes, nInstances);
+		double[] probabilities = new double[nLabels];
+		for(int j=0; j<nLabels; j++){
+			probabilities[j] = 0.05 + 0.6 * random.nextDouble();
+		}
+
+		for(int i=0; i<nInstances; i++){
+			double[] values = new double[attributes.size()];
+			int a = 0;
+			for(int f=0; f<nNumeric; f++, a++){
+				if(random.nextDouble() < 0.02){
+					values[a] = Double.NaN;
+				}
+				else if(sparse && random.nextDouble() < 0.7){
+					values[a] = 0;
+				}
+				else if(random.nextDouble() < 0.03){
+					//Some outliers
+					values[a] = 50 * random.nextGaussian();
+				}
+				else{
+					values[a] = f + random.nextGaussian() * (1 + f % 3);
+				}
+			}
+			for(int f=0; f<nNominal; f++, a++){
+				values[a] = (random.nextDouble() < 0.02) ? Double.NaN : random.nextInt(3);
+			}
+			for(int j=0; j<nLabels; j++, a++){
+				if(random.nextDouble() < missingLabels){
+					values[a] = Double.NaN;
+				}
+				else{
+					values[a] = (random.nextDouble() < probabilities[j]) ? 1 : 0;
+				}
+			}
+
+			Instance instance = sparse ? new SparseInstance(1, values) : new DenseInstance(1, values);
+			data.add(instance);
+		}
+
+		return new MultiLabelInstances(data, labels);
+	}
+
+	/**
+	 * Write a dataset in Mulan format, i.e., its ARFF file and the XML file
+	 * with its labels
+	 *
+	 * @param mlData Multi-label dataset
+	 * @param dir Directory of the files
+	 * @param name Name of the files, without extension
+	 * @return Array with the paths of the ARFF and the XML files
+	 * @throws IOException if the files can not be written
+	 */
+	public static String[] write(MultiLabelInstances mlData, File dir, String name) throws IOException {
+		File arff = new File(dir, name + ".arff");
+		File xml = new File(dir, name + ".xml");
+
+		try(Writer writer = new FileWriter(arff)){
+			writer.write(mlData.getDataSet().toString());
+			writer.write("\n");
+		}
+		try(Writer writer = new FileWriter(xml)){
+			writer.write(xml(mlData.getLabelNames()));
+		}
+
+		return new String[]{arff.getPath(), xml.getPath()};
+	}
+
+	/**
+	 * Check that two datasets have the same attributes and the same values
+	 * and weights in each instance, whatever their format (dense or sparse)
+	 *
+	 * @param expected Expected dataset
+	 * @param actual Dataset to check
+	 */
+	public static void assertSameData(Instances expected, Instances actual){
+		Assert.assertNull(expected.equalHeadersMsg(actual), expected.equalHeadersMsg(actual));
+		Assert.assertEquals(expected.numInstances(), actual.numInstances());
+
+		for(int i=0; i<expected.numInstances(); i++){
+			Instance e = expected.instance(i);
+			Instance a = actual.instance(i);
+			Assert.assertEquals("Weight of instance " + i, e.weight(), a.weight(), 0);
+			for(int j=0; j<expected.numAttributes(); j++){
+				String message = "Instance " + i + ", attribute " + expected.attribute(j).name();
+				if(expected.attribute(j).isString() && !e.isMissing(j)){
+					Assert.assertEquals(message, e.stringValue(j), a.stringValue(j));
+				}
+				else{
+					Assert.assertEquals(message, e.value(j), a.value(j), 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the XML file of a set of labels
+	 *
+	 * @param labelNames Names of the labels
+	 * @return Content of the XML file
+	 */
+	public static String xml(String[] labelNames){
+		StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+		sb.append("<labels xmlns=\"http://mulan.sourceforge.net/labels\">\n");
+		for(String label : labelNames){
+			sb.append("<label name=\"").append(label).append("\"></label>\n");
+		}
+		sb.append("</labels>\n");
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda;
+
+import java.util.ArrayList;
+
+import mlda.base.MLDataMetric;
+
+/**
+* Metrics used by the tests
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class TestMetrics {
+
+	/**
+	 * Get a new instance of each metric of the API
+	 *
+	 * @return List with all the metrics
+	 */
+	public static ArrayList<MLDataMetric> all(){
+		ArrayList<MLDataMetric> metrics = new ArrayList<MLDataMetric>();
+
+		metrics.add(new mlda.attributes.AvgAbsoluteCorrelationBetweenNumericAttributes());
+		metrics.add(new mlda.attributes.AvgGainRatio());
+		metrics.add(new mlda.attributes.BinaryAttributes());
+		metrics.add(new mlda.attributes.MeanEntropiesNominalAttributes());
+		metrics.add(new mlda.attributes.MeanKurtosis());
+		metrics.add(new mlda.attributes.MeanOfMeanOfNumericAttributes());
+		metrics.add(new mlda.attributes.MeanSkewnessNumericAttributes());
+		metrics.add(new mlda.attributes.MeanStdvNumericAttributes());
+		metrics.add(new mlda.attributes.NominalAttributes());
+		metrics.add(new mlda.attributes.NumericAttributes());
+		metrics.add(new mlda.attributes.ProportionBinaryAttributes());
+		metrics.add(new mlda.attributes.ProportionNominalAttributes());
+		metrics.add(new mlda.attributes.ProportionNumericAttributes());
+		metrics.add(new mlda.attributes.ProportionNumericAttributesWithOutliers());
+		metrics.add(new mlda.dimensionality.Attributes());
+		metrics.add(new mlda.dimensionality.DistinctLabelsets());
+		metrics.add(new mlda.dimensionality.Instances());
+		metrics.add(new mlda.dimensionality.Labels());
+		metrics.add(new mlda.dimensionality.LxIxF());
+		metrics.add(new mlda.dimensionality.RatioInstancesToAttributes());
+		metrics.add(new mlda.imbalance.CVIRInterClass());
+		metrics.add(new mlda.imbalance.KurtosisCardinality());
+		metrics.add(new mlda.imbalance.MaxIRInterClass());
+		metrics.add(new mlda.imbalance.MaxIRIntraClass());
+		metrics.add(new mlda.imbalance.MaxIRLabelset());
+		metrics.add(new mlda.imbalance.MeanIRInterClass());
+		metrics.add(new mlda.imbalance.MeanIRIntraClass());
+		metrics.add(new mlda.imbalance.MeanIRLabelset());
+		metrics.add(new mlda.imbalance.MeanStdvIRIntraClass());
+		metrics.add(new mlda.imbalance.PMax());
+		metrics.add(new mlda.imbalance.PUniq());
+		metrics.add(new mlda.imbalance.SkewnessCardinality());
+		metrics.add(new mlda.labelsDistribution.Cardinality());
+		metrics.add(new mlda.labelsDistribution.Density());
+		metrics.add(new mlda.labelsDistribution.MaxEntropy());
+		metrics.add(new mlda.labelsDistribution.MeanEntropy());
+		metrics.add(new mlda.labelsDistribution.MinEntropy());
+		metrics.add(new mlda.labelsDistribution.StdvCardinality());
+		metrics.add(new mlda.labelsRelation.AvgExamplesPerLabelset());
+		metrics.add(new mlda.labelsRelation.AvgUnconditionalDependentLabelPairsByChiSquare());
+		metrics.add(new mlda.labelsRelation.Bound());
+		metrics.add(new mlda.labelsRelation.Diversity());
+		metrics.add(new mlda.labelsRelation.LabelsetsUpTo10Examples());
+		metrics.add(new mlda.labelsRelation.LabelsetsUpTo2Examples());
+		metrics.add(new mlda.labelsRelation.LabelsetsUpTo50Examples());
+		metrics.add(new mlda.labelsRelation.LabelsetsUpTo5Examples());
+		metrics.add(new mlda.labelsRelation.MeanExamplesPerLabelset());
+		metrics.add(new mlda.labelsRelation.NumUnconditionalDependentLabelPairsByChiSquare());
+		metrics.add(new mlda.labelsRelation.ProportionDistinctLabelsets());
+		metrics.add(new mlda.labelsRelation.RatioLabelsetsUpTo10Examples());
+		metrics.add(new mlda.labelsRelation.RatioLabelsetsUpTo2Examples());
+		metrics.add(new mlda.labelsRelation.RatioLabelsetsUpTo50Examples());
+		metrics.add(new mlda.labelsRelation.RatioLabelsetsUpTo5Examples());
+		metrics.add(new mlda.labelsRelation.RatioLabelsetsWithExamplesLessThanHalfAttributes());
+		metrics.add(new mlda.labelsRelation.RatioUnconditionalDependentLabelPairsByChiSquare());
+		metrics.add(new mlda.labelsRelation.SCUMBLE());
+		metrics.add(new mlda.labelsRelation.StdvExamplesPerLabelset());
+		metrics.add(new mlda.labelsRelation.UniqueLabelsets());
+
+		return metrics;
+	}
+
+	/**
+	 * Get a new instance of each mergeable metric of the API
+	 *
+	 * @return List with the mergeable metrics
+	 */
+	public static ArrayList<MLDataMetric> mergeable(){
+		ArrayList<MLDataMetric> metrics = new ArrayList<MLDataMetric>();
+		for(MLDataMetric metric : all()){
+			if(metric.isMergeable()){
+				metrics.add(metric);
+			}
+		}
+
+		return metrics;
+	}
+
+}
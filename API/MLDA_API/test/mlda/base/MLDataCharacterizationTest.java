@@ -0,0 +1,134 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mlda.TestMetrics;
+import mulan.data.MultiLabelInstances;
+
+/**
+* Tests of MLDataCharacterization against the metrics calculated one by one
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class MLDataCharacterizationTest {
+
+	/**
+	 * Metrics sharing a profile have the same value as calculated alone
+	 */
+	@Test
+	public void sharedProfile() throws Exception {
+		for(boolean sparse : new boolean[]{false, true}){
+			MultiLabelInstances mlData = TestDatasets.random(1, 300, 4, 2, 8, sparse, 0.02);
+
+			ArrayList<MLDataMetric> metrics = TestMetrics.all();
+			new MLDataCharacterization(mlData, metrics).calculateMetrics();
+
+			for(MLDataMetric metric : metrics){
+				assertEquals(metric.getName(), metric.copy().calculate(mlData), metric.getValue(), 0);
+			}
+		}
+	}
+
+	/**
+	 * Metrics calculated in parallel have the same value as sequentially,
+	 * and with one thread they are all calculated in the calling thread
+	 */
+	@Test
+	public void parallelMatchesSequential() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(3, 300, 4, 2, 8, false, 0);
+
+		ArrayList<MLDataMetric> sequential = TestMetrics.all();
+		ThreadRecorder recorder = new ThreadRecorder();
+		sequential.add(recorder);
+		MLDataCharacterization characterization = new MLDataCharacterization(mlData, sequential);
+		characterization.setNumThreads(1);
+		characterization.calculateMetrics();
+		assertEquals(Thread.currentThread(), recorder.thread);
+
+		ArrayList<MLDataMetric> parallel = TestMetrics.all();
+		characterization = new MLDataCharacterization(mlData, parallel);
+		characterization.setNumThreads(4);
+		characterization.calculateMetrics();
+
+		for(int m=0; m<parallel.size(); m++){
+			assertEquals(parallel.get(m).getName(), sequential.get(m).getValue(), parallel.get(m).getValue(), 1e-12);
+		}
+	}
+
+	/**
+	 * Metric recording the thread where it is calculated, after all the
+	 * inputs of the profile that are computed in parallel
+	 */
+	protected static class ThreadRecorder extends MLDataMetric {
+
+		/**
+		 * Thread where the metric was calculated
+		 */
+		protected Thread thread;
+
+		/**
+		 * Constructor
+		 */
+		public ThreadRecorder() {
+			super("Thread recorder");
+		}
+
+		@Override
+		public MLDataProfile.Input[] getRequiredInputs(){
+			return new MLDataProfile.Input[]{MLDataProfile.Input.MOMENTS, MLDataProfile.Input.CORRELATION, MLDataProfile.Input.CHI_SQUARE};
+		}
+
+		@Override
+		public double calculate(MultiLabelInstances mlData, MLDataProfile profile){
+			profile.getMoments();
+			profile.getCorrelationMatrix();
+			profile.getChiSquarePairs();
+			thread = Thread.currentThread();
+			return value = 0;
+		}
+
+	}
+
+	/**
+	 * Metrics whose inputs are not provided by the profile are left with NaN
+	 * value, and the rest are calculated
+	 */
+	@Test
+	public void skipUnavailableInputs() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(2, 300, 4, 2, 8, false, 0.02);
+
+		//Profile built from the header
+		ArrayList<MLDataMetric> metrics = TestMetrics.all();
+		new MLDataCharacterization(mlData, metrics).calculateMetrics(mlData, new MLDataProfile(mlData, mlData.getNumInstances()));
+		for(MLDataMetric metric : metrics){
+			double expected = metric.isHeaderOnly() ? metric.copy().calculate(mlData) : Double.NaN;
+			assertEquals(metric.getName(), expected, metric.getValue(), 0);
+		}
+
+		//Profile built from the labelset histogram and feature statistics
+		MLDataPartial partial = new MLDataPartial(mlData);
+		metrics = TestMetrics.all();
+		new MLDataCharacterization(mlData, metrics).calculateMetrics(partial.getHeader(), partial.getProfile());
+		for(MLDataMetric metric : metrics){
+			double expected = metric.isMergeable() ? metric.copy().calculate(mlData) : Double.NaN;
+			assertEquals(metric.getName(), expected, metric.getValue(), 1e-9 * Math.max(1, Math.abs(expected)));
+		}
+	}
+
+}
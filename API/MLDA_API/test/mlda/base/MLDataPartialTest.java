@@ -0,0 +1,197 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mlda.TestMetrics;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+* Tests of MLDataPartial and of the characterization of datasets split in parts
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class MLDataPartialTest {
+
+	/**
+	 * Get the instances in a range of a dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 * @param from First instance, inclusive
+	 * @param to Last instance, exclusive
+	 * @return Multi-label dataset with the instances in the range
+	 */
+	protected static MultiLabelInstances range(MultiLabelInstances mlData, int from, int to) throws Exception {
+		return new MultiLabelInstances(new Instances(mlData.getDataSet(), from, to - from), mlData.getLabelsMetaData());
+	}
+
+	/**
+	 * Check that the mergeable metrics calculated from a partial have the
+	 * same value as over a dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 * @param partial Partial expected to have the information of the dataset
+	 */
+	protected static void checkMergeable(MultiLabelInstances mlData, MLDataPartial partial){
+		assertEquals(mlData.getNumInstances(), partial.getNumInstances());
+
+		for(MLDataMetric metric : TestMetrics.mergeable()){
+			double expected = metric.calculate(mlData);
+			double value = metric.copy().calculate(partial.getHeader(), partial.getProfile());
+			assertEquals(metric.getName(), expected, value, 1e-9 * Math.max(1, Math.abs(expected)));
+		}
+	}
+
+	/**
+	 * Partials of shards, of dense and sparse data, are merged into the
+	 * information of the whole dataset
+	 */
+	@Test
+	public void mergedShardsMatchWholeData() throws Exception {
+		for(boolean sparse : new boolean[]{false, true}){
+			MultiLabelInstances mlData = TestDatasets.random(1, 500, 4, 2, 10, sparse, 0.02);
+
+			MLDataPartial merged = new MLDataPartial(range(mlData, 0, 1));
+			merged.merge(new MLDataPartial(range(mlData, 1, 180)));
+			merged.merge(new MLDataPartial(range(mlData, 180, 180)));
+			merged.merge(new MLDataPartial(range(mlData, 180, 500)));
+
+			checkMergeable(mlData, merged);
+		}
+	}
+
+	/**
+	 * Removing instances gives the partial of the rest of instances
+	 */
+	@Test
+	public void remove() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(2, 400, 4, 2, 10, true, 0.02);
+
+		MLDataPartial partial = new MLDataPartial(mlData);
+		for(int i=399; i>=250; i--){
+			partial.remove(mlData.getDataSet().get(i));
+		}
+
+		checkMergeable(range(mlData, 0, 250), partial);
+	}
+
+	/**
+	 * Instances whose labelset is not in the partial, or whose instances
+	 * were all removed, are rejected without changing the partial
+	 */
+	@Test
+	public void removeUnknownLabelset() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(3, 300, 3, 1, 6, false, 0);
+		MLDataPartial partial = new MLDataPartial(range(mlData, 0, 150));
+		partial.remove(mlData.getDataSet().get(0));
+
+		//No instance has all the labels
+		Instance instance = (Instance) mlData.getDataSet().get(0).copy();
+		for(int label : mlData.getLabelIndices()){
+			instance.setValue(label, 1);
+		}
+		try{
+			partial.remove(instance);
+			fail("Removing an instance whose labelset is not in the partial must fail");
+		}
+		catch(IllegalArgumentException e){
+			//Expected
+		}
+
+		partial.add(instance);
+		partial.remove(instance);
+		try{
+			partial.remove(instance);
+			fail("Removing more instances of a labelset than were added must fail");
+		}
+		catch(IllegalArgumentException e){
+			//Expected
+		}
+
+		checkMergeable(range(mlData, 1, 150), partial);
+	}
+
+	/**
+	 * Partials may be serialized, e.g., to merge them in other JVM
+	 */
+	@Test
+	public void serialization() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(4, 300, 4, 2, 8, false, 0.02);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(ObjectOutputStream out = new ObjectOutputStream(bytes)){
+			out.writeObject(new MLDataPartial(range(mlData, 100, 300)));
+		}
+		MLDataPartial read;
+		try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))){
+			read = (MLDataPartial) in.readObject();
+		}
+
+		MLDataPartial merged = new MLDataPartial(range(mlData, 0, 100));
+		merged.merge(read);
+		checkMergeable(mlData, merged);
+	}
+
+	/**
+	 * Characterization of a dataset split in parts: mergeable metrics are
+	 * exact, and the rest are approximated by the weighted mean of the parts
+	 */
+	@Test
+	public void characterizationOfParts() throws Exception {
+		//Without missing labels, so the gain ratio is defined in all the parts
+		MultiLabelInstances mlData = TestDatasets.random(5, 600, 4, 2, 8, false, 0);
+		List<MultiLabelInstances> parts = new ArrayList<MultiLabelInstances>();
+		parts.add(range(mlData, 0, 200));
+		parts.add(range(mlData, 200, 450));
+		parts.add(range(mlData, 450, 600));
+
+		ArrayList<MLDataMetric> metrics = TestMetrics.all();
+		MLDataCharacterization characterization = new MLDataCharacterization(mlData, metrics);
+		characterization.setNumThreads(3);
+		characterization.calculateMetrics(parts);
+
+		for(MLDataMetric metric : metrics){
+			if(metric.isMergeable()){
+				double expected = metric.copy().calculate(mlData);
+				assertFalse(metric.getName(), metric.isApproximate());
+				assertEquals(metric.getName(), expected, metric.getValue(), 1e-9 * Math.max(1, Math.abs(expected)));
+			}
+			else{
+				double expected = 0;
+				for(MultiLabelInstances part : parts){
+					expected += metric.copy().calculate(part) * part.getNumInstances();
+				}
+				expected /= mlData.getNumInstances();
+
+				//Metrics not defined in the parts are left not calculated
+				assertEquals(metric.getName(), !Double.isNaN(expected), metric.isApproximate());
+				assertEquals(metric.getName(), expected, metric.getValue(), 1e-9 * Math.max(1, Math.abs(expected)));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.base;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mlda.TestMetrics;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instances;
+
+/**
+* Tests of ProfileAccumulator against the metrics calculated over the whole data
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ProfileAccumulatorTest {
+
+	/**
+	 * Get the instances in a range of a dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 * @param from First instance, inclusive
+	 * @param to Last instance, exclusive
+	 * @return Multi-label dataset with the instances in the range
+	 */
+	protected static MultiLabelInstances range(MultiLabelInstances mlData, int from, int to) throws Exception {
+		return new MultiLabelInstances(new Instances(mlData.getDataSet(), from, to - from), mlData.getLabelsMetaData());
+	}
+
+	/**
+	 * Adding, removing and merging instances gives the value of the metric
+	 * over the resulting instances, and the metric itself is not modified
+	 */
+	@Test
+	public void matchesWholeData() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(1, 400, 4, 2, 8, false, 0.02);
+		MultiLabelInstances expectedData = range(mlData, 0, 300);
+
+		for(MLDataMetric metric : TestMetrics.mergeable()){
+			MetricAccumulator accumulator = metric.accumulator(range(mlData, 0, 100));
+			for(int i=100; i<400; i++){
+				accumulator.add(mlData.getDataSet().get(i));
+			}
+			for(int i=399; i>=300; i--){
+				accumulator.remove(mlData.getDataSet().get(i));
+			}
+			double value = accumulator.value();
+			assertEquals(Double.NaN, metric.getValue(), 0);
+
+			MetricAccumulator first = metric.accumulator(range(mlData, 0, 120));
+			first.merge(metric.accumulator(range(mlData, 120, 300)));
+
+			double expected = metric.copy().calculate(expectedData);
+			assertEquals(metric.getName(), expected, value, 1e-9 * Math.max(1, Math.abs(expected)));
+			assertEquals(metric.getName(), expected, first.value(), 1e-9 * Math.max(1, Math.abs(expected)));
+		}
+	}
+
+	/**
+	 * Only mergeable metrics have accumulators
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void notMergeable() throws Exception {
+		new mlda.attributes.AvgGainRatio().accumulator(TestDatasets.random(2, 10, 1, 1, 2, false, 0));
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+import mlda.TestDatasets;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.LabelsBuilder;
+import mulan.data.LabelsBuilderException;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instances;
+
+/**
+* ARFF files with the syntax accepted by weka's ArffReader, used by the tests
+* of the loaders
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ArffSamples {
+
+	/**
+	 * Names of the labels of the sample
+	 */
+	public static final String[] LABELS = {"label0", "label1", "label2"};
+
+	/**
+	 * Header of the sample, with quoted names and values, string and date
+	 * attributes and comments
+	 */
+	protected static final String HEADER =
+			"% Sample with the syntax of weka's ArffReader\n" +
+			"@relation 'sample relation'\n" +
+			"\n" +
+			"@attribute num numeric\n" +
+			"@attribute 'quoted name' real\n" +
+			"@attribute nom {a,'b c','d,e',\"f'g\"}\n" +
+			"@attribute str string\n" +
+			"@attribute dt date \"yyyy-MM-dd HH:mm:ss\"\n" +
+			"@attribute int integer\n" +
+			"@attribute label0 {0,1}\n" +
+			"@attribute label1 {0,1}\n" +
+			"@attribute label2 {0,1}\n" +
+			"\n" +
+			"@data\n";
+
+	/**
+	 * Lines of the data section: dense and sparse instances, weights, blanks
+	 * and tabs as separators, missing values, escapes in quoted values,
+	 * comments and empty lines
+	 */
+	protected static final String[] LINES = {
+			"1.5,2,a,hello,\"2020-01-02 03:04:05\",7,1,0,1",
+			"% Comment in the data section",
+			"",
+			"   ",
+			"-3e2 , ? ,'b c','it\\'s',\"1999-12-31 23:59:59\",-1,0,?,1 {2.5}",
+			"{0 7,2 'd,e',3 \"tab\\there\",6 1}",
+			"{1 4.25, 7 1 ,8 1} {0.5}",
+			"?,?,?,?,?,?,0,0,0 % Trailing comment",
+			"0.000001\t1e-10\t\"f'g\"\t'back \\\\ slash'\t\"2000-02-29 00:00:00\"\t3\t1\t1\t1",
+			"{}",
+			"12345678901234,-0.0,'d,e',\"quote \\\" inside\",?,0,1,1,0 {3}",
+			"{0 ?,2 \"f'g\",4 \"2010-10-10 10:10:10\",5 2,6 1}",
+	};
+
+	/**
+	 * Get the sample, with its data section repeated
+	 *
+	 * @param copies Number of copies of the lines of the data section
+	 * @param lineSeparator Line separator, e.g., \n or \r\n
+	 * @return Content of the ARFF file
+	 */
+	public static String sample(int copies, String lineSeparator){
+		StringBuilder sb = new StringBuilder(HEADER.replace("\n", lineSeparator));
+		for(int c=0; c<copies; c++){
+			for(String line : LINES){
+				sb.append(line).append(lineSeparator);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Write the sample and the XML file with its labels
+	 *
+	 * @param dir Directory of the files
+	 * @param copies Number of copies of the lines of the data section
+	 * @param lineSeparator Line separator
+	 * @return Array with the paths of the ARFF and the XML files
+	 * @throws IOException if the files can not be written
+	 */
+	public static String[] write(File dir, int copies, String lineSeparator) throws IOException {
+		File arff = new File(dir, "sample.arff");
+		File xml = new File(dir, "sample.xml");
+
+		try(OutputStream out = new FileOutputStream(arff)){
+			out.write(sample(copies, lineSeparator).getBytes(StandardCharsets.UTF_8));
+		}
+		try(OutputStream out = new FileOutputStream(xml)){
+			out.write(TestDatasets.xml(LABELS).getBytes(StandardCharsets.UTF_8));
+		}
+
+		return new String[]{arff.getPath(), xml.getPath()};
+	}
+
+	/**
+	 * Load a dataset with the ARFF reader of weka
+	 *
+	 * @param arffPath Path of the ARFF file
+	 * @param xmlPath Path of the XML file
+	 * @return Multi-label dataset
+	 * @throws IOException if the file can not be read
+	 * @throws InvalidDataFormatException if the labels do not match the attributes
+	 * @throws LabelsBuilderException if the XML file can not be read
+	 */
+	public static MultiLabelInstances loadWithWeka(String arffPath, String xmlPath) throws IOException, InvalidDataFormatException, LabelsBuilderException {
+		try(Reader reader = new InputStreamReader(new FileInputStream(arffPath), StandardCharsets.UTF_8)){
+			return new MultiLabelInstances(new Instances(reader), LabelsBuilder.createLabels(xmlPath));
+		}
+	}
+
+}
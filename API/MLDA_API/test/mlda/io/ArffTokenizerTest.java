@@ -0,0 +1,136 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import weka.core.Instances;
+
+/**
+* Tests of ArffTokenizer
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ArffTokenizerTest {
+
+	/**
+	 * Check the next token of a tokenizer
+	 *
+	 * @param tokenizer Tokenizer
+	 * @param type Expected type of the token
+	 * @param value Expected value of the token
+	 */
+	protected static void assertNext(ArffTokenizer tokenizer, int type, String value){
+		assertEquals(type, tokenizer.next());
+		assertEquals(value, tokenizer.getValue());
+	}
+
+	/**
+	 * Blanks and commas separate the values, and comments end the line
+	 */
+	@Test
+	public void separators() {
+		ArffTokenizer tokenizer = new ArffTokenizer(" 1.5 ,\t? ,, x\r % comment, 2");
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "1.5");
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "?");
+		assertTrue(tokenizer.isMissing());
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "x");
+		assertNext(tokenizer, ArffTokenizer.TT_EOL, null);
+		assertNext(tokenizer, ArffTokenizer.TT_EOL, null);
+	}
+
+	/**
+	 * Sparse instances and weights are enclosed in braces
+	 */
+	@Test
+	public void braces() {
+		ArffTokenizer tokenizer = new ArffTokenizer("{0 a,2 '?'}{2.5}");
+		assertNext(tokenizer, ArffTokenizer.TT_OPEN, null);
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "0");
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "a");
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "2");
+		assertNext(tokenizer, ArffTokenizer.TT_QUOTED, "?");
+		assertTrue(tokenizer.isValue());
+		assertFalse(tokenizer.isMissing());
+		assertNext(tokenizer, ArffTokenizer.TT_CLOSE, null);
+		assertNext(tokenizer, ArffTokenizer.TT_OPEN, null);
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "2.5");
+		assertNext(tokenizer, ArffTokenizer.TT_CLOSE, null);
+		assertNext(tokenizer, ArffTokenizer.TT_EOL, null);
+	}
+
+	/**
+	 * A single tokenizer reads the lines of a buffer, and fields may be
+	 * skipped
+	 */
+	@Test
+	public void reset() {
+		char[] buffer = "12,'a\\'b'\n{3 x}\n".toCharArray();
+		ArffTokenizer tokenizer = new ArffTokenizer();
+
+		tokenizer.reset(buffer, 0, 9);
+		assertEquals(ArffTokenizer.TT_WORD, tokenizer.skip());
+		assertEquals(12, tokenizer.getIndex());
+		assertEquals(ArffTokenizer.TT_QUOTED, tokenizer.skip());
+		assertNext(tokenizer, ArffTokenizer.TT_EOL, null);
+		assertEquals("12,'a\\'b'", tokenizer.getLine());
+
+		tokenizer.reset(buffer, 0, 9);
+		tokenizer.skip();
+		assertNext(tokenizer, ArffTokenizer.TT_QUOTED, "a'b");
+
+		tokenizer.reset(buffer, 10, 15);
+		assertNext(tokenizer, ArffTokenizer.TT_OPEN, null);
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "3");
+		assertEquals(3, tokenizer.getIndex());
+		assertNext(tokenizer, ArffTokenizer.TT_WORD, "x");
+		assertEquals(-1, tokenizer.getIndex());
+		assertNext(tokenizer, ArffTokenizer.TT_CLOSE, null);
+		assertEquals(-1, tokenizer.getIndex());
+		assertNext(tokenizer, ArffTokenizer.TT_EOL, null);
+	}
+
+	/**
+	 * Quoted values have the same escapes as in the ARFF reader of weka
+	 */
+	@Test
+	public void escapes() throws Exception {
+		String[] quoted = {
+				"'it\\'s'",
+				"\"say \\\"hi\\\"\"",
+				"'a,b {c} % d'",
+				"'tab\\tnew\\nline\\rreturn'",
+				"'back \\\\ slash'",
+				"\"o'clock\"",
+				"'\\101\\60'",
+		};
+
+		StringBuilder arff = new StringBuilder("@relation r\n@attribute s string\n@data\n");
+		for(String value : quoted){
+			arff.append(value).append("\n");
+		}
+		Instances expected = new Instances(new StringReader(arff.toString()));
+
+		for(int i=0; i<quoted.length; i++){
+			ArffTokenizer tokenizer = new ArffTokenizer(quoted[i]);
+			assertNext(tokenizer, ArffTokenizer.TT_QUOTED, expected.get(i).stringValue(0));
+			assertNext(tokenizer, ArffTokenizer.TT_EOL, null);
+		}
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mlda.TestDatasets;
+import weka.core.Attribute;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+* Tests of ArffWriter against the ARFF format of weka
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ArffWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Get a random dataset where some instances have weights
+	 *
+	 * @param seed Seed of the random numbers
+	 * @param nInstances Number of instances
+	 * @param sparse True to build sparse instances
+	 * @return Dataset
+	 */
+	protected static Instances weighted(long seed, int nInstances, boolean sparse) throws Exception {
+		Instances data = TestDatasets.random(seed, nInstances, 4, 2, 6, sparse, 0.02).getDataSet();
+		Random random = new Random(seed);
+		for(int i=0; i<data.numInstances(); i+=7){
+			data.get(i).setWeight(random.nextDouble() * 3);
+		}
+		return data;
+	}
+
+	/**
+	 * Add a date attribute with random dates to a dataset
+	 *
+	 * @param data Dataset
+	 * @param seed Seed of the random numbers
+	 */
+	protected static void addDates(Instances data, long seed) throws Exception {
+		data.insertAttributeAt(new Attribute("date", "yyyy-MM-dd HH:mm:ss"), 0);
+		Random random = new Random(seed);
+		for(int i=0; i<data.numInstances(); i++){
+			if(random.nextDouble() < 0.02){
+				data.get(i).setMissing(0);
+			}
+			else{
+				//Seconds between 1970 and about 2030
+				data.get(i).setValue(0, 1000L * (long)(random.nextDouble() * 1.9e9));
+			}
+		}
+	}
+
+	/**
+	 * Write a dataset to a string
+	 *
+	 * @param writer ARFF writer
+	 * @param data Dataset
+	 * @return Content of the ARFF file
+	 */
+	protected static String write(ArffWriter writer, Instances data) throws Exception {
+		StringWriter out = new StringWriter();
+		writer.write(out, data, "@relation " + Utils.quote(data.relationName()));
+		return out.toString();
+	}
+
+	/**
+	 * Get the lines of the data section of an ARFF file
+	 *
+	 * @param arff Content of the ARFF file
+	 * @return Lines after the @data line
+	 */
+	protected static List<String> rows(String arff){
+		List<String> lines = Arrays.asList(arff.split("\r?\n"));
+		return lines.subList(lines.indexOf("@data") + 1, lines.size());
+	}
+
+	/**
+	 * Check that the rows of a dataset are written as weka formats them, and
+	 * that weka reads back the same dataset as from its own format
+	 *
+	 * @param data Dataset
+	 */
+	protected static void checkFormat(Instances data) throws Exception {
+		String arff = write(new ArffWriter(), data);
+
+		List<String> rows = rows(arff);
+		assertEquals(data.numInstances(), rows.size());
+		for(int i=0; i<data.numInstances(); i++){
+			assertEquals(data.get(i).toString(), rows.get(i));
+		}
+
+		Instances expected = new Instances(new StringReader(data.toString()));
+		TestDatasets.assertSameData(expected, new Instances(new StringReader(arff)));
+	}
+
+	/**
+	 * Dense and sparse datasets, with weights, missing values and quoted,
+	 * string and date values
+	 */
+	@Test
+	public void format() throws Exception {
+		checkFormat(weighted(1, 300, false));
+		checkFormat(weighted(2, 300, true));
+
+		String[] paths = ArffSamples.write(folder.getRoot(), 1, "\n");
+		checkFormat(ArffSamples.loadWithWeka(paths[0], paths[1]).getDataSet());
+	}
+
+	/**
+	 * Chunks formatted in parallel are written in order, and their dates are
+	 * formatted as weka does although the format of the attribute is not
+	 * thread-safe
+	 */
+	@Test
+	public void parallelMatchesSequential() throws Exception {
+		for(boolean sparse : new boolean[]{false, true}){
+			Instances data = weighted(3, 24 * ArffWriter.CHUNK_ROWS + 100, sparse);
+			addDates(data, 3);
+
+			ArffWriter sequential = new ArffWriter();
+			sequential.setNumThreads(1);
+			ArffWriter parallel = new ArffWriter();
+			parallel.setNumThreads(8);
+
+			String expected = write(sequential, data);
+			assertEquals(expected, write(parallel, data));
+
+			List<String> rows = rows(expected);
+			for(int i=0; i<data.numInstances(); i++){
+				assertEquals(data.get(i).toString(), rows.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Several writers get the same attributes and rows, each one with its
+	 * own relation line
+	 */
+	@Test
+	public void severalWriters() throws Exception {
+		Instances data = weighted(4, 2 * ArffWriter.CHUNK_ROWS + 10, false);
+		String[] relationLines = {"@relation 'data: -C 6'", "@relation data"};
+		StringWriter[] outs = {new StringWriter(), new StringWriter()};
+
+		new ArffWriter().write(outs, data, relationLines);
+
+		String single = write(new ArffWriter(), data);
+		String attributes = single.substring(single.indexOf('\n') + 1);
+		for(int i=0; i<outs.length; i++){
+			String arff = outs[i].toString();
+			assertEquals(relationLines[i], arff.substring(0, arff.indexOf('\n')).trim());
+			assertEquals(attributes, arff.substring(arff.indexOf('\n') + 1));
+		}
+	}
+
+	/**
+	 * Files ending with .gz are compressed
+	 */
+	@Test
+	public void gzip() throws Exception {
+		Instances data = weighted(5, 200, true);
+		String path = folder.newFile("data.arff.gz").getPath();
+
+		try(Writer out = ArffWriter.open(path)){
+			new ArffWriter().write(out, data, "@relation " + Utils.quote(data.relationName()));
+		}
+
+		try(Reader reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(path)), StandardCharsets.UTF_8)){
+			TestDatasets.assertSameData(new Instances(new StringReader(data.toString())), new Instances(reader));
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mlda.TestDatasets;
+import mlda.TestMetrics;
+import mlda.base.MLDataCharacterization;
+import mlda.base.MLDataMetric;
+import mlda.util.LabelMatrix;
+import mulan.data.MultiLabelInstances;
+
+/**
+* Tests of BinaryDataset, writing datasets and reading them back
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class BinaryDatasetTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Write a dataset in a binary file and check everything read from it
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	protected void roundTrip(MultiLabelInstances mlData) throws Exception {
+		String path = folder.newFile("data" + BinaryDataset.EXTENSION).getPath();
+		BinaryDataset.write(mlData, path);
+
+		try(BinaryDataset binary = BinaryDataset.open(path)){
+			assertEquals(mlData.getNumInstances(), binary.getNumInstances());
+			assertEquals(mlData.getNumLabels(), binary.getNumLabels());
+			assertEquals(mlData.getFeatureIndices().length, binary.getNumFeatures());
+			assertArrayEquals(mlData.getLabelNames(), binary.getHeader().getLabelNames());
+
+			MultiLabelInstances read = binary.toMultiLabelInstances();
+			TestDatasets.assertSameData(mlData.getDataSet(), read.getDataSet());
+
+			LabelMatrix expected = new LabelMatrix(mlData);
+			LabelMatrix labels = binary.getLabelMatrix();
+			for(int l=0; l<mlData.getNumLabels(); l++){
+				assertArrayEquals(expected.getColumn(l), labels.getColumn(l));
+				assertEquals(expected.missingCount(l), labels.missingCount(l));
+			}
+
+			//Mergeable metrics are calculated from the profile of the file
+			ArrayList<MLDataMetric> metrics = TestMetrics.mergeable();
+			binary.calculateMetrics(new MLDataCharacterization(read, metrics));
+			for(MLDataMetric metric : metrics){
+				double value = metric.copy().calculate(mlData);
+				assertEquals(metric.getName(), value, metric.getValue(), 1e-9 * Math.max(1, Math.abs(value)));
+			}
+		}
+	}
+
+	/**
+	 * Dense dataset, with more than 64 labels
+	 */
+	@Test
+	public void dense() throws Exception {
+		roundTrip(TestDatasets.random(1, 300, 5, 3, 70, false, 0.02));
+	}
+
+	/**
+	 * Sparse dataset
+	 */
+	@Test
+	public void sparse() throws Exception {
+		roundTrip(TestDatasets.random(2, 300, 5, 3, 10, true, 0.02));
+	}
+
+	/**
+	 * Dataset without instances
+	 */
+	@Test
+	public void empty() throws Exception {
+		roundTrip(TestDatasets.random(3, 0, 2, 1, 3, false, 0));
+	}
+
+	/**
+	 * Label bitsets read by slices of a few instances give the same labels
+	 * and instances as mapped at once
+	 */
+	@Test
+	public void slices() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(4, 100, 2, 1, 70, false, 0.05);
+		String path = folder.newFile("data" + BinaryDataset.EXTENSION).getPath();
+		BinaryDataset.write(mlData, path);
+
+		try(BinaryDataset binary = new BinaryDataset(path){
+			@Override
+			protected int getSliceInstances(){
+				return 7;
+			}
+		}){
+			TestDatasets.assertSameData(mlData.getDataSet(), binary.toMultiLabelInstances().getDataSet());
+
+			LabelMatrix expected = new LabelMatrix(mlData);
+			LabelMatrix labels = binary.getLabelMatrix();
+			for(int l=0; l<mlData.getNumLabels(); l++){
+				assertArrayEquals(expected.getColumn(l), labels.getColumn(l));
+				assertEquals(expected.missingCount(l), labels.missingCount(l));
+			}
+
+			int rowWords = LabelMatrix.words(mlData.getNumLabels());
+			LongBuffer all = binary.getMissingRows();
+			LongBuffer slice = binary.getMissingRows(10, 17);
+			assertEquals(7 * rowWords, slice.limit());
+			for(int k=0; k<slice.limit(); k++){
+				assertEquals(all.get(10 * rowWords + k), slice.get(k));
+			}
+		}
+	}
+
+}
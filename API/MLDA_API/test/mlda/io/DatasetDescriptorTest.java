@@ -0,0 +1,153 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mlda.TestDatasets;
+import mlda.TestMetrics;
+import mlda.base.MLDataCharacterization;
+import mlda.base.MLDataMetric;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instances;
+
+/**
+* Tests of DatasetDescriptor against the ARFF reader of weka
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class DatasetDescriptorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Write an ARFF file with the labels of the sample and check its number
+	 * of instances against the instances read by weka
+	 *
+	 * @param arff Content of the ARFF file
+	 */
+	protected void check(String arff) throws Exception {
+		File dir = folder.newFolder();
+		String[] paths = ArffSamples.write(dir, 0, "\n");
+		try(OutputStream out = new FileOutputStream(paths[0])){
+			out.write(arff.getBytes(StandardCharsets.UTF_8));
+		}
+
+		DatasetDescriptor descriptor = new DatasetDescriptor(paths[0], paths[1]);
+		assertEquals(new Instances(new StringReader(arff)).numInstances(), descriptor.getNumInstances());
+		assertEquals(ArffSamples.LABELS.length, descriptor.getNumLabels());
+	}
+
+	/**
+	 * Comments, empty lines and lines with only blanks are not instances, and
+	 * sparse rows and rows with trailing comments are
+	 */
+	@Test
+	public void commentsAndBlankLines() throws Exception {
+		check(ArffSamples.sample(1, "\n"));
+		check(ArffSamples.sample(3, "\n") + "% Last comment\n\n \t\n");
+	}
+
+	/**
+	 * Unix, Windows and old Mac line breaks, with and without a line break
+	 * at the end of the file
+	 */
+	@Test
+	public void lineBreaks() throws Exception {
+		for(String lineSeparator : new String[]{"\n", "\r\n", "\r"}){
+			String arff = ArffSamples.sample(3, lineSeparator);
+			check(arff);
+			check(arff.substring(0, arff.length() - lineSeparator.length()));
+			check(arff + "1,2,a,x,?,3,1,0,1");
+		}
+	}
+
+	/**
+	 * The @data line and the lines of the data section cross the bounds of
+	 * the buffer used to scan the file
+	 */
+	@Test
+	public void bufferBounds() throws Exception {
+		for(String lineSeparator : new String[]{"\n", "\r\n"}){
+			String sample = ArffSamples.sample(0, lineSeparator);
+			String dataLine = "@data" + lineSeparator;
+			String header = sample.substring(0, sample.length() - dataLine.length());
+
+			//Comment padding the header so the @data line ends around the bound of the buffer
+			for(int shift=-3; shift<=3; shift++){
+				int padding = DatasetDescriptor.BUFFER_SIZE + shift - sample.length() - lineSeparator.length() - 1;
+				StringBuilder arff = new StringBuilder("%");
+				for(int i=0; i<padding; i++){
+					arff.append('x');
+				}
+				arff.append(lineSeparator).append(header).append(dataLine);
+				assertEquals(DatasetDescriptor.BUFFER_SIZE + shift, arff.length());
+
+				arff.append(ArffSamples.sample(2, lineSeparator).substring(sample.length()));
+				check(arff.toString());
+			}
+
+			//Data section several times longer than the buffer
+			check(ArffSamples.sample(1000, lineSeparator));
+		}
+	}
+
+	/**
+	 * Sparse datasets
+	 */
+	@Test
+	public void sparseRows() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(1, 500, 3, 2, 6, true, 0.02);
+		String[] paths = TestDatasets.write(mlData, folder.getRoot(), "random");
+		assertEquals(mlData.getNumInstances(), new DatasetDescriptor(paths[0], paths[1]).getNumInstances());
+	}
+
+	/**
+	 * Metrics that only need the header have the same value as with the whole
+	 * dataset, and the rest are left with NaN value
+	 */
+	@Test
+	public void headerOnlyMetrics() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(2, 300, 4, 2, 8, false, 0.02);
+		String[] paths = TestDatasets.write(mlData, folder.getRoot(), "random");
+		DatasetDescriptor descriptor = new DatasetDescriptor(paths[0], paths[1]);
+
+		ArrayList<MLDataMetric> metrics = TestMetrics.all();
+		descriptor.calculateMetrics(new MLDataCharacterization(descriptor.getHeader(), metrics));
+
+		boolean someHeaderOnly = false;
+		for(MLDataMetric metric : metrics){
+			if(metric.isHeaderOnly()){
+				someHeaderOnly = true;
+				assertEquals(metric.getName(), metric.copy().calculate(mlData), metric.getValue(), 0);
+			}
+			else{
+				assertTrue(metric.getName(), Double.isNaN(metric.getValue()));
+			}
+		}
+		assertTrue(someHeaderOnly);
+	}
+
+}
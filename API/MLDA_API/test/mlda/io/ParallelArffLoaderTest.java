@@ -0,0 +1,142 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mlda.TestDatasets;
+import mulan.data.MultiLabelInstances;
+
+/**
+* Tests of ParallelArffLoader against the ARFF reader of weka
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ParallelArffLoaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Loader splitting the data section in chunks of a few bytes, so the
+	 * bounds of the chunks fall in every kind of line
+	 */
+	protected static class SmallChunksLoader extends ParallelArffLoader {
+
+		/**
+		 * Size of the chunks in bytes
+		 */
+		protected int chunkSize;
+
+		/**
+		 * Constructor
+		 *
+		 * @param arffPath Path of the ARFF file
+		 * @param xmlPath Path of the XML file
+		 * @param chunkSize Size of the chunks in bytes
+		 */
+		public SmallChunksLoader(String arffPath, String xmlPath, int chunkSize) {
+			super(arffPath, xmlPath);
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected long[] split(FileChannel channel, long from, long to) throws IOException {
+			int nChunks = (int)Math.max(1, (to - from + chunkSize - 1) / chunkSize);
+			long[] bounds = new long[nChunks + 1];
+			bounds[0] = from;
+			for(int c=1; c<nChunks; c++){
+				bounds[c] = nextLine(channel, Math.max(bounds[c-1], from + (long)c*chunkSize), to);
+			}
+			bounds[nChunks] = to;
+			return bounds;
+		}
+
+	}
+
+	/**
+	 * Any number of threads and size of the chunks give the same dataset as
+	 * weka, with Unix and Windows line breaks
+	 */
+	@Test
+	public void chunkBounds() throws Exception {
+		for(String lineSeparator : new String[]{"\n", "\r\n"}){
+			String[] paths = ArffSamples.write(folder.newFolder(), 5, lineSeparator);
+			MultiLabelInstances expected = ArffSamples.loadWithWeka(paths[0], paths[1]);
+
+			for(int chunkSize : new int[]{1, 13, 100, 1 << 20}){
+				for(int nThreads : new int[]{1, 3, 8}){
+					ParallelArffLoader loader = new SmallChunksLoader(paths[0], paths[1], chunkSize);
+					loader.setNumThreads(nThreads);
+					TestDatasets.assertSameData(expected.getDataSet(), loader.load().getDataSet());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Projections give the same dataset as the sequential loader
+	 */
+	@Test
+	public void projections() throws Exception {
+		String[] paths = ArffSamples.write(folder.getRoot(), 20, "\n");
+		ProjectedArffLoader sequential = new ProjectedArffLoader(paths[0], paths[1]);
+		ParallelArffLoader parallel = new SmallChunksLoader(paths[0], paths[1], 50);
+		parallel.setNumThreads(4);
+
+		TestDatasets.assertSameData(sequential.loadLabels().getDataSet(), parallel.loadLabels().getDataSet());
+		TestDatasets.assertSameData(sequential.loadNumericFeatures().getDataSet(), parallel.loadNumericFeatures().getDataSet());
+		TestDatasets.assertSameData(sequential.load(new int[]{3, 4}).getDataSet(), parallel.load(new int[]{3, 4}).getDataSet());
+	}
+
+	/**
+	 * Files whose data section is empty, even without a line break after the
+	 * @data line
+	 */
+	@Test
+	public void emptyDataSection() throws Exception {
+		String[] paths = ArffSamples.write(folder.getRoot(), 0, "\n");
+		try(OutputStream out = new FileOutputStream(paths[0])){
+			out.write(ArffSamples.sample(0, "\n").trim().getBytes(StandardCharsets.UTF_8));
+		}
+
+		MultiLabelInstances loaded = new ParallelArffLoader(paths[0], paths[1]).load();
+		assertEquals(0, loaded.getNumInstances());
+		assertEquals(ArffSamples.LABELS.length, loaded.getNumLabels());
+	}
+
+	/**
+	 * Errors in the lines of any chunk are thrown as IOException
+	 */
+	@Test(expected = IOException.class)
+	public void unorderedSparseIndices() throws Exception {
+		String[] paths = ArffSamples.write(folder.getRoot(), 20, "\n");
+		try(OutputStream out = new FileOutputStream(paths[0], true)){
+			out.write("{1 2,0 1}\n".getBytes(StandardCharsets.UTF_8));
+		}
+
+		ParallelArffLoader loader = new SmallChunksLoader(paths[0], paths[1], 100);
+		loader.setNumThreads(4);
+		loader.load();
+	}
+
+}
@@ -0,0 +1,315 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mlda.TestDatasets;
+import mulan.data.InvalidDataFormatException;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instances;
+import weka.filters.Filter;
+import weka.filters.unsupervised.attribute.Remove;
+
+/**
+* Tests of ProjectedArffLoader against the ARFF reader of weka
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class ProjectedArffLoaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Keep only some attributes of a dataset
+	 *
+	 * @param data Dataset
+	 * @param keep Indices of the attributes to keep
+	 * @return Dataset with the given attributes, in their original order
+	 */
+	protected static Instances project(Instances data, int[] keep) throws Exception {
+		Remove remove = new Remove();
+		remove.setAttributeIndicesArray(keep);
+		remove.setInvertSelection(true);
+		remove.setInputFormat(data);
+		return Filter.useFilter(data, remove);
+	}
+
+	/**
+	 * Concatenate the given features and the labels of a dataset
+	 *
+	 * @param features Indices of the features
+	 * @param mlData Multi-label dataset
+	 * @return Indices of the features and the labels
+	 */
+	protected static int[] withLabels(int[] features, MultiLabelInstances mlData){
+		int[] labels = mlData.getLabelIndices();
+		int[] indices = new int[features.length + labels.length];
+		System.arraycopy(features, 0, indices, 0, features.length);
+		System.arraycopy(labels, 0, indices, features.length, labels.length);
+		return indices;
+	}
+
+	/**
+	 * Check a projected dataset against the dataset read by weka
+	 *
+	 * @param expected Dataset read by weka
+	 * @param features Indices of the loaded features
+	 * @param loaded Projected dataset
+	 */
+	protected static void checkProjection(MultiLabelInstances expected, int[] features, MultiLabelInstances loaded) throws Exception {
+		TestDatasets.assertSameData(project(expected.getDataSet(), withLabels(features, expected)), loaded.getDataSet());
+		assertArrayEquals(expected.getLabelNames(), loaded.getLabelNames());
+		assertEquals(features.length, loaded.getFeatureIndices().length);
+	}
+
+	/**
+	 * Loading all the features gives the same dataset as weka. The data
+	 * section is longer than the buffer of the loader, so lines are split
+	 * between blocks
+	 */
+	@Test
+	public void allFeatures() throws Exception {
+		for(String lineSeparator : new String[]{"\n", "\r\n"}){
+			String[] paths = ArffSamples.write(folder.newFolder(), 150, lineSeparator);
+			MultiLabelInstances expected = ArffSamples.loadWithWeka(paths[0], paths[1]);
+
+			MultiLabelInstances loaded = new ProjectedArffLoader(paths[0], paths[1]).load(expected.getFeatureIndices());
+			TestDatasets.assertSameData(expected.getDataSet(), loaded.getDataSet());
+		}
+	}
+
+	/**
+	 * Lines longer than the buffer of the loader
+	 */
+	@Test
+	public void longLines() throws Exception {
+		String[] paths = ArffSamples.write(folder.getRoot(), 1, "\n");
+		StringBuilder value = new StringBuilder();
+		for(int i=0; i<50000; i++){
+			value.append("ab\\'c");
+		}
+		try(OutputStream out = new FileOutputStream(paths[0], true)){
+			out.write(("1,2,a,'" + value + "',?,3,1,0,1\n").getBytes(StandardCharsets.UTF_8));
+		}
+		MultiLabelInstances expected = ArffSamples.loadWithWeka(paths[0], paths[1]);
+
+		MultiLabelInstances loaded = new ProjectedArffLoader(paths[0], paths[1]).load(expected.getFeatureIndices());
+		TestDatasets.assertSameData(expected.getDataSet(), loaded.getDataSet());
+	}
+
+	/**
+	 * Projections keep the given features and the labels in their original
+	 * order
+	 */
+	@Test
+	public void projections() throws Exception {
+		String[] paths = ArffSamples.write(folder.getRoot(), 2, "\n");
+		MultiLabelInstances expected = ArffSamples.loadWithWeka(paths[0], paths[1]);
+		ProjectedArffLoader loader = new ProjectedArffLoader(paths[0], paths[1]);
+
+		checkProjection(expected, new int[0], loader.loadLabels());
+		//num, quoted name, dt and int attributes
+		checkProjection(expected, new int[]{0, 1, 4, 5}, loader.loadNumericFeatures());
+		checkProjection(expected, new int[]{2, 4}, loader.load(new int[]{4, 2}));
+	}
+
+	/**
+	 * Load a Meka dataset, without XML file, and check it against weka
+	 *
+	 * @param arff Content of the ARFF file
+	 * @param labelNames Expected names of the labels
+	 * @param features Indices of the features
+	 * @param numericFeatures Indices of the numeric features
+	 */
+	protected void checkMeka(String arff, String[] labelNames, int[] features, int[] numericFeatures) throws Exception {
+		File file = folder.newFile();
+		try(OutputStream out = new FileOutputStream(file)){
+			out.write(arff.getBytes(StandardCharsets.UTF_8));
+		}
+		Instances expected = new Instances(new StringReader(arff));
+
+		ProjectedArffLoader loader = new ProjectedArffLoader(file.getPath(), null);
+		MultiLabelInstances loaded = loader.load(features);
+		assertArrayEquals(labelNames, loaded.getLabelNames());
+		TestDatasets.assertSameData(expected, loaded.getDataSet());
+
+		int[] labels = loaded.getLabelIndices();
+		int[] keep = new int[numericFeatures.length + labels.length];
+		System.arraycopy(numericFeatures, 0, keep, 0, numericFeatures.length);
+		System.arraycopy(labels, 0, keep, numericFeatures.length, labels.length);
+		Arrays.sort(keep);
+		loaded = loader.loadNumericFeatures();
+		assertArrayEquals(labelNames, loaded.getLabelNames());
+		TestDatasets.assertSameData(project(expected, keep), loaded.getDataSet());
+	}
+
+	/**
+	 * With -C n in the relation of Meka datasets, the labels are the first
+	 * n attributes
+	 */
+	@Test
+	public void mekaLabelsFirst() throws Exception {
+		checkMeka(
+				"@relation 'meka: -C 2'\n" +
+				"@attribute y0 {0,1}\n" +
+				"@attribute y1 {0,1}\n" +
+				"@attribute x0 numeric\n" +
+				"@attribute x1 {a,b}\n" +
+				"@attribute x2 numeric\n" +
+				"@data\n" +
+				"1,0,0.5,a,1\n" +
+				"{1 1,2 3,4 -1} {2}\n" +
+				"0,?,?,b,2\n",
+				new String[]{"y0", "y1"}, new int[]{2, 3, 4}, new int[]{2, 4});
+	}
+
+	/**
+	 * With -C -n in the relation of Meka datasets, the labels are the last
+	 * n attributes
+	 */
+	@Test
+	public void mekaLabelsLast() throws Exception {
+		checkMeka(
+				"@relation 'meka: -C -2 -split 0.5'\n" +
+				"@attribute x0 numeric\n" +
+				"@attribute x1 {a,b}\n" +
+				"@attribute x2 numeric\n" +
+				"@attribute y0 {0,1}\n" +
+				"@attribute y1 {0,1}\n" +
+				"@data\n" +
+				"0.5,a,1,1,0\n" +
+				"{0 3,2 -1,4 1} {2}\n" +
+				"{3 1,4 1}\n" +
+				"?,b,2,0,?\n",
+				new String[]{"y0", "y1"}, new int[]{0, 1, 2}, new int[]{0, 2});
+	}
+
+	/**
+	 * Number of labels in the relation of Meka datasets
+	 */
+	@Test
+	public void mekaLabelCount() throws Exception {
+		assertEquals(3, ProjectedArffLoader.getMekaLabelCount("meka: -C 3"));
+		assertEquals(-12, ProjectedArffLoader.getMekaLabelCount("data -C   -12 -split 0.5"));
+
+		for(String relation : new String[]{"mulan", "meka: -C", "meka: -C x"}){
+			try{
+				ProjectedArffLoader.getMekaLabelCount(relation);
+				fail("Relation without a valid -C option must fail: " + relation);
+			}
+			catch(InvalidDataFormatException e){
+				//Expected
+			}
+		}
+	}
+
+	/**
+	 * Loader recording the values built by its tokenizers
+	 */
+	protected static class RecordingLoader extends ProjectedArffLoader {
+
+		/**
+		 * Values built by the tokenizers
+		 */
+		protected List<String> values = new ArrayList<String>();
+
+		/**
+		 * Constructor
+		 *
+		 * @param arffPath Path of the ARFF file
+		 * @param xmlPath Path of the XML file
+		 */
+		public RecordingLoader(String arffPath, String xmlPath) {
+			super(arffPath, xmlPath);
+		}
+
+		@Override
+		protected ArffTokenizer createTokenizer(){
+			return new ArffTokenizer(){
+
+				@Override
+				public String getValue(){
+					String value = super.getValue();
+					values.add(value);
+					return value;
+				}
+
+				@Override
+				protected void unescape(){
+					super.unescape();
+					values.add(unescaped.toString());
+				}
+
+			};
+		}
+
+	}
+
+	/**
+	 * Values of the columns outside the projection are not built
+	 */
+	@Test
+	public void skippedValues() throws Exception {
+		//Only the values of the labels and the weights are built
+		String[] paths = ArffSamples.write(folder.newFolder(), 1, "\n");
+		RecordingLoader loader = new RecordingLoader(paths[0], paths[1]);
+		loader.loadLabels();
+		assertFalse(loader.values.isEmpty());
+		for(String value : loader.values){
+			assertTrue(value, Arrays.asList("0", "1", "2.5", "0.5", "3").contains(value));
+		}
+
+		//Values of nominal features are not built
+		for(boolean sparse : new boolean[]{false, true}){
+			MultiLabelInstances mlData = TestDatasets.random(1, 200, 3, 3, 5, sparse, 0.02);
+			paths = TestDatasets.write(mlData, folder.newFolder(), "random");
+			loader = new RecordingLoader(paths[0], paths[1]);
+			checkProjection(ArffSamples.loadWithWeka(paths[0], paths[1]), new int[]{0, 1, 2}, loader.loadNumericFeatures());
+			for(String value : loader.values){
+				assertFalse(value, Arrays.asList("a", "b", "c").contains(value));
+			}
+		}
+	}
+
+	/**
+	 * Indices of sparse instances must be in ascending order
+	 */
+	@Test(expected = IOException.class)
+	public void unorderedSparseIndices() throws Exception {
+		String[] paths = ArffSamples.write(folder.getRoot(), 1, "\n");
+		try(OutputStream out = new FileOutputStream(paths[0], true)){
+			out.write("{1 2,0 1}\n".getBytes(StandardCharsets.UTF_8));
+		}
+		new ProjectedArffLoader(paths[0], paths[1]).loadLabels();
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.labelsRelation;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+* Tests of SCUMBLE against the direct computation of its formula
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class SCUMBLETest {
+
+	/**
+	 * Get a random dataset where some instances have no relevant labels
+	 *
+	 * @param seed Seed of the random numbers
+	 * @param sparse True to build sparse instances
+	 * @return Dataset with more than 64 labels
+	 */
+	protected static MultiLabelInstances withoutLabels(long seed, boolean sparse) throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(seed, 300, 2, 1, 70, sparse, 0);
+		for(int i=0; i<mlData.getNumInstances(); i+=10){
+			for(int label : mlData.getLabelIndices()){
+				mlData.getDataSet().get(i).setValue(label, 0);
+			}
+		}
+		return mlData;
+	}
+
+	/**
+	 * Check SCUMBLE by instance, by label and of the dataset against the
+	 * formula, i.e., one minus the geometric mean over all the labels of the
+	 * IRs of the relevant labels, divided by the mean of these IRs
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	protected static void check(MultiLabelInstances mlData) throws Exception {
+		Instances data = mlData.getDataSet();
+		int[] labelIndices = mlData.getLabelIndices();
+		int nLabels = labelIndices.length;
+		int nInstances = data.numInstances();
+
+		int[] appearances = new int[nLabels];
+		for(Instance instance : data){
+			for(int l=0; l<nLabels; l++){
+				if(instance.value(labelIndices[l]) == 1){
+					appearances[l]++;
+				}
+			}
+		}
+		int max = 0;
+		for(int l=0; l<nLabels; l++){
+			max = Math.max(max, appearances[l]);
+		}
+
+		double[] byInstance = new double[nInstances];
+		double[] byLabel = new double[nLabels];
+		double mean = 0;
+		for(int i=0; i<nInstances; i++){
+			double product = 1;
+			double sum = 0;
+			int nRelevant = 0;
+			for(int l=0; l<nLabels; l++){
+				if(data.get(i).value(labelIndices[l]) == 1){
+					product *= (double)max / appearances[l];
+					sum += (double)max / appearances[l];
+					nRelevant++;
+				}
+			}
+
+			if(nRelevant > 0){
+				byInstance[i] = 1 - Math.pow(product, 1.0 / nLabels) / (sum / nRelevant);
+			}
+			mean += byInstance[i] / nInstances;
+
+			for(int l=0; l<nLabels; l++){
+				if(data.get(i).value(labelIndices[l]) == 1){
+					byLabel[l] += byInstance[i] / appearances[l];
+				}
+			}
+		}
+
+		SCUMBLE scumble = new SCUMBLE();
+		assertEquals(mean, scumble.calculate(mlData), 1e-12);
+
+		double[] ourByInstance = scumble.getSCUMBLEByInstance();
+		assertEquals(nInstances, ourByInstance.length);
+		for(int i=0; i<nInstances; i++){
+			assertEquals(byInstance[i], ourByInstance[i], 1e-12);
+		}
+
+		double[] ourByLabel = scumble.getSCUMBLEByLabel();
+		assertEquals(nLabels, ourByLabel.length);
+		for(int l=0; l<nLabels; l++){
+			assertEquals(byLabel[l], ourByLabel[l], 1e-12);
+		}
+	}
+
+	/**
+	 * Dense instances, where the instances without labels have SCUMBLE 0
+	 */
+	@Test
+	public void dense() throws Exception {
+		check(withoutLabels(1, false));
+	}
+
+	/**
+	 * Sparse instances, where the instances without labels have SCUMBLE 0
+	 */
+	@Test
+	public void sparse() throws Exception {
+		check(withoutLabels(2, true));
+	}
+
+}
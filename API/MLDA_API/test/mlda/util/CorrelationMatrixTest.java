@@ -0,0 +1,92 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+* Tests of CorrelationMatrix against weka.core.Utils.correlation
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class CorrelationMatrixTest {
+
+	/**
+	 * Correlated columns, with more columns than a tile and more rows than a
+	 * chunk, and a constant column
+	 *
+	 * @param seed Seed of the random numbers
+	 * @param nColumns Number of columns
+	 * @param nRows Number of rows
+	 * @return Columns of values
+	 */
+	protected static double[][] columns(long seed, int nColumns, int nRows){
+		Random random = new Random(seed);
+		double[][] columns = new double[nColumns][nRows];
+		for(int c=0; c<nColumns; c++){
+			for(int r=0; r<nRows; r++){
+				if(c == 5){
+					columns[c][r] = 3;
+				}
+				else if(c > 0 && c % 4 == 0){
+					columns[c][r] = (c % 8 == 0 ? -2 : 0.5) * columns[c-1][r] + random.nextGaussian();
+				}
+				else{
+					columns[c][r] = c + random.nextGaussian() * (1 + c % 5);
+				}
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * All the pairs, sequentially and in parallel
+	 */
+	@Test
+	public void matchesWeka() {
+		double[][] columns = columns(1, 70, 2500);
+		CorrelationMatrix sequential = new CorrelationMatrix(columns, 1);
+		CorrelationMatrix parallel = new CorrelationMatrix(columns, 4);
+
+		assertEquals(columns.length, sequential.size());
+		double sum = 0;
+		for(int i=0; i<columns.length; i++){
+			for(int j=0; j<columns.length; j++){
+				double expected = weka.core.Utils.correlation(columns[i], columns[j], columns[i].length);
+				assertEquals(expected, sequential.get(i, j), 1e-9);
+				if(j > i){
+					sum += Math.abs(expected);
+				}
+			}
+			assertArrayEquals(sequential.getMatrix()[i], parallel.getMatrix()[i], 0);
+		}
+
+		double pairs = columns.length * (columns.length - 1) / 2.0;
+		assertEquals(sum / pairs, sequential.getMeanAbsoluteCorrelation(), 1e-9);
+	}
+
+	/**
+	 * Matrices without enough columns or rows
+	 */
+	@Test
+	public void degenerate() {
+		assertEquals(0, new CorrelationMatrix(new double[0][], 1).size());
+		assertEquals(Double.NaN, new CorrelationMatrix(columns(2, 1, 10), 1).getMeanAbsoluteCorrelation(), 0);
+		assertEquals(1, new CorrelationMatrix(columns(3, 3, 1), 1).get(0, 2), 0);
+	}
+
+}
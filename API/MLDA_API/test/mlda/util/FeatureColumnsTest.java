@@ -0,0 +1,101 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mulan.data.MultiLabelInstances;
+import weka.core.AttributeStats;
+import weka.core.Instances;
+
+/**
+* Tests of FeatureColumns against the values and the statistics of weka
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class FeatureColumnsTest {
+
+	/**
+	 * Columns of dense instances
+	 */
+	@Test
+	public void denseMatchesInstances() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(1, 200, 5, 3, 4, false, 0);
+		FeatureColumns columns = new FeatureColumns(mlData);
+
+		assertEquals(false, columns.isSparse());
+		check(mlData, columns);
+	}
+
+	/**
+	 * Columns of sparse instances, where only the stored values are kept
+	 */
+	@Test
+	public void sparseMatchesInstances() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(2, 200, 5, 3, 4, true, 0);
+		FeatureColumns columns = new FeatureColumns(mlData);
+
+		assertEquals(true, columns.isSparse());
+		check(mlData, columns);
+	}
+
+	/**
+	 * Check the columns, counts and moments of each feature of a dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 * @param columns Feature columns of the dataset
+	 */
+	protected void check(MultiLabelInstances mlData, FeatureColumns columns){
+		Instances instances = mlData.getDataSet();
+		int[] featureIndices = mlData.getFeatureIndices();
+		int nInstances = instances.numInstances();
+
+		assertEquals(nInstances, columns.getNumInstances());
+		assertEquals(featureIndices.length, columns.getNumFeatures());
+
+		double[] buffer = new double[nInstances + 3];
+		for(int f=0; f<featureIndices.length; f++){
+			int index = featureIndices[f];
+			AttributeStats stats = instances.attributeStats(index);
+
+			if(instances.attribute(index).isNumeric()){
+				double[] column = columns.getNumericColumn(f);
+				columns.copyNumericColumn(f, buffer);
+				for(int i=0; i<nInstances; i++){
+					assertEquals(instances.instance(i).value(index), column[i], 0);
+					assertEquals(column[i], buffer[i], 0);
+				}
+				assertNull(columns.getNominalColumn(f));
+
+				Moments moments = columns.getMoments(f);
+				assertEquals((long)stats.numericStats.count, moments.getCount());
+				assertEquals(stats.numericStats.mean, moments.getMean(), 1e-9);
+				assertEquals(stats.numericStats.stdDev, moments.getStdv(), 1e-9);
+			}
+			else{
+				int[] column = columns.getNominalColumn(f);
+				for(int i=0; i<nInstances; i++){
+					double value = instances.instance(i).value(index);
+					assertEquals(Double.isNaN(value) ? -1 : (int)value, column[i]);
+				}
+				assertNull(columns.getNumericColumn(f));
+				assertArrayEquals(stats.nominalCounts, columns.getNominalCounts(f));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mulan.data.LabelsPair;
+import mulan.data.MultiLabelInstances;
+import mulan.data.Statistics;
+import mulan.data.UnconditionalChiSquareIdentifier;
+
+/**
+* Tests of LabelContingency against the phi and chi-square scores of mulan
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelContingencyTest {
+
+	/**
+	 * Phi coefficients and chi-square scores, without missing labels
+	 */
+	@Test
+	public void matchesMulan() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(1, 300, 2, 0, 20, false, 0);
+		LabelContingency contingency = new LabelContingency(new LabelMatrix(mlData), 1);
+		int nLabels = mlData.getNumLabels();
+
+		double[][] phi = new Statistics().calculatePhi(mlData);
+		double[][] ourPhi = contingency.getPhiMatrix();
+		for(int i=0; i<nLabels; i++){
+			for(int j=0; j<nLabels; j++){
+				if(i != j){
+					assertEquals(phi[i][j], ourPhi[i][j], 1e-12);
+				}
+			}
+		}
+
+		LabelsPair[] pairs = new UnconditionalChiSquareIdentifier().calculateDependence(mlData);
+		for(LabelsPair pair : pairs){
+			int[] labels = pair.getPair();
+			assertEquals(pair.getScore(), contingency.getChiSquare(labels[0], labels[1]), 1e-9);
+		}
+
+		LabelsPair[] ourPairs = contingency.getChiSquarePairs();
+		assertEquals(nLabels * (nLabels - 1) / 2, ourPairs.length);
+		for(int p=1; p<ourPairs.length; p++){
+			assertEquals(true, ourPairs[p-1].getScore() >= ourPairs[p].getScore());
+		}
+	}
+
+	/**
+	 * The tables are the same from the label matrix, with any number of
+	 * threads, and from the labelset histogram. Missing labels are not relevant
+	 */
+	@Test
+	public void sameTablesFromHistogram() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(2, 500, 2, 0, 40, false, 0.05);
+		LabelMatrix matrix = new LabelMatrix(mlData);
+
+		LabelContingency sequential = new LabelContingency(matrix, 1);
+		LabelContingency parallel = new LabelContingency(matrix, 4);
+		LabelContingency histogram = new LabelContingency(new LabelsetDictionary(matrix));
+
+		int nLabels = matrix.getNumLabels();
+		for(int i=0; i<nLabels; i++){
+			for(int j=i+1; j<nLabels; j++){
+				int d = matrix.cooccurrences(i, j);
+				int b = matrix.labelCount(i) - d;
+				int c = matrix.labelCount(j) - d;
+				int[] table = {matrix.getNumInstances() - b - c - d, b, c, d};
+
+				assertArrayEquals(table, sequential.getTable(i, j));
+				assertArrayEquals(table, parallel.getTable(i, j));
+				assertArrayEquals(table, histogram.getTable(i, j));
+			}
+		}
+	}
+
+}
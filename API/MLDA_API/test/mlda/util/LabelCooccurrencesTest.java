@@ -0,0 +1,82 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mulan.data.MultiLabelInstances;
+
+/**
+* Tests of LabelCooccurrences against the co-occurrences of LabelMatrix
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelCooccurrencesTest {
+
+	/**
+	 * Check the co-occurrences of a dataset with one and several threads
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	protected static void check(MultiLabelInstances mlData){
+		LabelMatrix matrix = new LabelMatrix(mlData);
+		int nLabels = matrix.getNumLabels();
+
+		LabelCooccurrences sequential = new LabelCooccurrences(matrix, 1);
+		LabelCooccurrences parallel = new LabelCooccurrences(matrix, 4);
+		assertArrayEquals(sequential.getPackedCounts(), parallel.getPackedCounts());
+
+		double[][] cooccurrences = parallel.toMatrix();
+		assertEquals(nLabels, cooccurrences.length);
+		for(int i=0; i<nLabels; i++){
+			for(int j=0; j<nLabels; j++){
+				if(i < j){
+					assertEquals(matrix.cooccurrences(i, j), cooccurrences[i][j], 0);
+					assertEquals(matrix.cooccurrences(i, j), parallel.get(i, j));
+					assertEquals(parallel.get(i, j), parallel.get(j, i));
+				}
+				else{
+					assertEquals(0, cooccurrences[i][j], 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Dense instances, with more than one word of labels per row
+	 */
+	@Test
+	public void denseMatchesLabelMatrix() throws Exception {
+		check(TestDatasets.random(1, 400, 2, 1, 70, false, 0.05));
+	}
+
+	/**
+	 * Sparse instances, where the labels not stored are 0
+	 */
+	@Test
+	public void sparseMatchesLabelMatrix() throws Exception {
+		check(TestDatasets.random(2, 400, 2, 1, 70, true, 0.05));
+	}
+
+	/**
+	 * Fewer instances than threads
+	 */
+	@Test
+	public void smallDatasets() throws Exception {
+		check(TestDatasets.random(3, 2, 1, 0, 5, false, 0));
+	}
+
+}
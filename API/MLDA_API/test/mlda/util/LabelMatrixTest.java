@@ -0,0 +1,118 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mulan.data.MultiLabelInstances;
+import weka.core.Instance;
+
+/**
+* Tests of LabelMatrix against the label values of the weka instances
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelMatrixTest {
+
+	/**
+	 * Labels of dense instances, with more than one word per row and per column
+	 */
+	@Test
+	public void denseMatchesInstances() throws Exception {
+		check(TestDatasets.random(1, 150, 2, 1, 70, false, 0.05));
+	}
+
+	/**
+	 * Labels of sparse instances, where the labels not stored are 0
+	 */
+	@Test
+	public void sparseMatchesInstances() throws Exception {
+		check(TestDatasets.random(2, 130, 3, 1, 20, true, 0.05));
+	}
+
+	/**
+	 * The matrix built from its rows, e.g., read from a file, is the same
+	 */
+	@Test
+	public void rowsConstructor() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(3, 100, 2, 0, 66, false, 0.05);
+		LabelMatrix matrix = new LabelMatrix(mlData);
+
+		long[] rows = new long[matrix.getNumInstances() * matrix.getRowWords()];
+		int[] missing = new int[matrix.getNumLabels()];
+		for(int i=0; i<matrix.getNumInstances(); i++){
+			System.arraycopy(matrix.getRow(i), 0, rows, i * matrix.getRowWords(), matrix.getRowWords());
+		}
+		for(int l=0; l<matrix.getNumLabels(); l++){
+			missing[l] = matrix.missingCount(l);
+		}
+
+		LabelMatrix copy = new LabelMatrix(matrix.getNumInstances(), matrix.getNumLabels(), rows, missing);
+		for(int l=0; l<matrix.getNumLabels(); l++){
+			assertArrayEquals(matrix.getColumn(l), copy.getColumn(l));
+			assertEquals(matrix.missingCount(l), copy.missingCount(l));
+		}
+		assertArrayEquals(matrix.labelsForInstance(), copy.labelsForInstance());
+	}
+
+	/**
+	 * Check all the counts of the label matrix of a dataset
+	 *
+	 * @param mlData Multi-label dataset
+	 */
+	protected void check(MultiLabelInstances mlData){
+		LabelMatrix matrix = new LabelMatrix(mlData);
+		int[] labelIndices = mlData.getLabelIndices();
+		int nLabels = labelIndices.length;
+		int nInstances = mlData.getNumInstances();
+
+		int[] appearances = new int[nLabels];
+		int[] missing = new int[nLabels];
+		int[][] cooccurrences = new int[nLabels][nLabels];
+		int[] labelsForInstance = new int[nInstances];
+
+		for(int i=0; i<nInstances; i++){
+			Instance instance = mlData.getDataSet().instance(i);
+			int cardinality = 0;
+			for(int a=0; a<nLabels; a++){
+				double value = instance.value(labelIndices[a]);
+				assertEquals(value == 1, matrix.isRelevant(i, a));
+				if(Double.isNaN(value)){
+					missing[a]++;
+				}
+				else if(value == 1){
+					appearances[a]++;
+					cardinality++;
+					for(int b=a+1; b<nLabels; b++){
+						if(instance.value(labelIndices[b]) == 1){
+							cooccurrences[a][b]++;
+						}
+					}
+				}
+			}
+			labelsForInstance[i] = cardinality;
+			assertEquals(cardinality, matrix.activeLabels(i).length);
+		}
+
+		assertArrayEquals(appearances, matrix.labelAppearances());
+		for(int a=0; a<nLabels; a++){
+			assertEquals(missing[a], matrix.missingCount(a));
+			assertArrayEquals(cooccurrences[a], matrix.cooccurrences()[a]);
+		}
+		assertArrayEquals(labelsForInstance, matrix.labelsForInstance());
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import mlda.TestDatasets;
+import mulan.data.LabelSet;
+import mulan.data.MultiLabelInstances;
+import mulan.data.Statistics;
+
+/**
+* Tests of LabelsetDictionary against the labelset counts of mulan
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class LabelsetDictionaryTest {
+
+	/**
+	 * Many distinct labelsets, so the table is rehashed several times
+	 */
+	@Test
+	public void matchesMulan() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(1, 2000, 1, 0, 14, false, 0);
+		LabelMatrix matrix = new LabelMatrix(mlData);
+		LabelsetDictionary dictionary = new LabelsetDictionary(matrix);
+
+		Statistics statistics = new Statistics();
+		statistics.calculateStats(mlData);
+		HashMap<LabelSet, Integer> expected = statistics.labelCombCount();
+
+		assertTrue(dictionary.size() > 100);
+		assertEquals(expected.size(), dictionary.size());
+		assertEquals(mlData.getNumInstances(), dictionary.getTotalCount());
+		for(int id=0; id<dictionary.size(); id++){
+			assertEquals(expected.get(dictionary.getLabelSet(id)).intValue(), dictionary.getCount(id));
+			assertEquals(id, dictionary.getId(dictionary.getKey(id)));
+		}
+
+		int[] instanceIds = dictionary.getInstanceIds();
+		for(int i=0; i<matrix.getNumInstances(); i++){
+			assertArrayEquals(matrix.getRow(i), dictionary.getKey(instanceIds[i]));
+			assertArrayEquals(matrix.activeLabels(i), dictionary.getLabels(instanceIds[i]));
+		}
+
+		assertEquals(-1, dictionary.getId(new long[]{-1L}));
+	}
+
+	/**
+	 * Queries by frequency match a scan of the counts
+	 */
+	@Test
+	public void frequencyQueries() throws Exception {
+		LabelsetDictionary dictionary = new LabelsetDictionary(new LabelMatrix(TestDatasets.random(2, 1000, 1, 0, 8, false, 0)));
+		int[] counts = dictionary.getCounts();
+
+		int max = 0, min = Integer.MAX_VALUE;
+		for(int count : counts){
+			max = Math.max(max, count);
+			min = Math.min(min, count);
+		}
+		assertEquals(max, dictionary.getMaxCount());
+		assertEquals(min, dictionary.getMinCount());
+
+		for(int n=0; n<=max+1; n++){
+			int upTo = 0;
+			for(int count : counts){
+				if(count <= n){
+					upTo++;
+				}
+			}
+			assertEquals(upTo, dictionary.countUpTo(n));
+		}
+
+		int[] histogram = dictionary.getCountHistogram();
+		for(int count : counts){
+			histogram[count]--;
+		}
+		assertArrayEquals(new int[max + 1], histogram);
+
+		int[] top = dictionary.getTopK(10);
+		assertEquals(max, counts[top[0]]);
+		for(int k=1; k<top.length; k++){
+			assertTrue(counts[top[k-1]] >= counts[top[k]]);
+		}
+	}
+
+	/**
+	 * Dictionaries of two parts of a dataset, with keys of two words, are
+	 * merged into the dictionary of the whole dataset, and labelsets whose
+	 * instances are all removed are dropped when compacting
+	 */
+	@Test
+	public void mergeAndCompact() throws Exception {
+		MultiLabelInstances mlData = TestDatasets.random(3, 600, 1, 0, 70, false, 0);
+		LabelMatrix matrix = new LabelMatrix(mlData);
+		LabelsetDictionary whole = new LabelsetDictionary(matrix);
+
+		int words = matrix.getRowWords();
+		LabelsetDictionary first = new LabelsetDictionary(matrix.getNumLabels());
+		LabelsetDictionary second = new LabelsetDictionary(matrix.getNumLabels());
+		for(int i=0; i<matrix.getNumInstances(); i++){
+			(i < 250 ? first : second).add(matrix.rows, i*words, 1);
+		}
+		first.merge(second);
+
+		assertEquals(whole.size(), first.size());
+		assertEquals(whole.getTotalCount(), first.getTotalCount());
+		for(int id=0; id<whole.size(); id++){
+			assertEquals(whole.getCount(id), first.getCount(first.getId(whole.getKey(id))));
+		}
+
+		//Remove the instances of the second part
+		for(int i=250; i<matrix.getNumInstances(); i++){
+			first.add(matrix.rows, i*words, -1);
+		}
+		LabelsetDictionary compacted = first.compact();
+		LabelsetDictionary expected = new LabelsetDictionary(matrix.getNumLabels());
+		for(int i=0; i<250; i++){
+			expected.add(matrix.rows, i*words, 1);
+		}
+
+		assertEquals(expected.size(), compacted.size());
+		assertEquals(250, compacted.getTotalCount());
+		for(int id=0; id<whole.size(); id++){
+			int expectedId = expected.getId(whole.getKey(id));
+			int compactedId = compacted.getId(whole.getKey(id));
+			if(expectedId == -1){
+				assertEquals(-1, compactedId);
+			}
+			else{
+				assertEquals(expected.getCount(expectedId), compacted.getCount(compactedId));
+			}
+		}
+	}
+
+}
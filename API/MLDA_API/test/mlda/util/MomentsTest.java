@@ -0,0 +1,159 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+* Tests of Moments against the central moments computed in two passes
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class MomentsTest {
+
+	/**
+	 * Values with a large offset, some outliers and missing values
+	 *
+	 * @param seed Seed of the random numbers
+	 * @param n Number of values
+	 * @return Array of values
+	 */
+	protected static double[] values(long seed, int n){
+		Random random = new Random(seed);
+		double[] values = new double[n];
+		for(int i=0; i<n; i++){
+			if(random.nextDouble() < 0.05){
+				values[i] = Double.NaN;
+			}
+			else if(random.nextDouble() < 0.02){
+				values[i] = 1e4 + 500 * random.nextGaussian();
+			}
+			else{
+				values[i] = 1e4 + random.nextGaussian() * random.nextGaussian();
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * Check the moments against those computed in two passes, i.e., first the
+	 * mean and then the sums of the powers of the deviations from the mean
+	 *
+	 * @param values Array of values, where NaN are ignored
+	 * @param moments Moments of the values
+	 */
+	protected static void check(double[] values, Moments moments){
+		long n = 0;
+		double sum = 0;
+		for(double x : values){
+			if(!Double.isNaN(x)){
+				n++;
+				sum += x;
+			}
+		}
+		double mean = sum / n;
+
+		double m2 = 0, m3 = 0, m4 = 0;
+		for(double x : values){
+			if(!Double.isNaN(x)){
+				double d = x - mean;
+				m2 += d * d;
+				m3 += d * d * d;
+				m4 += d * d * d * d;
+			}
+		}
+
+		assertEquals(n, moments.getCount());
+		assertEquals(mean, moments.getMean(), 1e-9 * Math.abs(mean));
+		assertEquals(m2, moments.getM2(), 1e-9 * m2);
+		assertEquals(m3, moments.getM3(), 1e-9 * m4 / Math.sqrt(m2 / n));
+		assertEquals(m4, moments.getM4(), 1e-9 * m4);
+		assertEquals(m2 / (n - 1), moments.getVariance(), 1e-9 * m2 / n);
+	}
+
+	/**
+	 * Values added one by one
+	 */
+	@Test
+	public void singlePass() {
+		double[] values = values(1, 5000);
+		check(values, Moments.of(values));
+	}
+
+	/**
+	 * Moments of shards of different sizes, merged in any order, are the
+	 * same as the moments of all the values
+	 */
+	@Test
+	public void mergedShards() {
+		double[] values = values(2, 5000);
+		int[] bounds = {0, 1, 7, 1000, 1001, 3500, 5000};
+
+		Moments forward = new Moments();
+		for(int s=0; s<bounds.length-1; s++){
+			forward.merge(Moments.of(values, bounds[s], bounds[s+1]));
+		}
+		check(values, forward);
+
+		Moments backward = new Moments();
+		for(int s=bounds.length-2; s>=0; s--){
+			Moments shard = Moments.of(values, bounds[s], bounds[s+1]);
+			shard.merge(backward);
+			backward = shard;
+		}
+		check(values, backward);
+	}
+
+	/**
+	 * Removing values reverts their addition
+	 */
+	@Test
+	public void remove() {
+		double[] values = values(3, 2000);
+		Moments moments = Moments.of(values);
+		for(int i=1500; i<values.length; i++){
+			moments.remove(values[i]);
+		}
+
+		double[] kept = new double[1500];
+		System.arraycopy(values, 0, kept, 0, kept.length);
+		check(kept, moments);
+
+		for(int i=0; i<kept.length; i++){
+			moments.remove(kept[i]);
+		}
+		assertEquals(0, moments.getCount());
+		assertEquals(0, moments.getM2(), 0);
+	}
+
+	/**
+	 * Repetitions of a value, as the zeros of a sparse column, merged with
+	 * the stored values
+	 */
+	@Test
+	public void constant() {
+		double[] values = values(4, 300);
+		double[] withZeros = new double[values.length + 700];
+		System.arraycopy(values, 0, withZeros, 0, values.length);
+
+		Moments moments = Moments.of(values);
+		moments.merge(Moments.constant(0, 700));
+		check(withZeros, moments);
+
+		assertEquals(0, Moments.constant(Double.NaN, 10).getCount());
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package mlda.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+/**
+* Tests of the helpers of Utils
+*
+* @author Jose Maria Moyano Murillo
+*/
+public class UtilsTest {
+
+	/**
+	 * Selection in random, sorted, reversed and repeated values matches the
+	 * position of the sorted range, and partitions the range around it
+	 */
+	@Test
+	public void selectMatchesSort() {
+		Random random = new Random(1);
+		int n = 257;
+
+		double[][] inputs = new double[4][n];
+		for(int i=0; i<n; i++){
+			inputs[0][i] = random.nextGaussian();
+			inputs[1][i] = i;
+			inputs[2][i] = n - i;
+			inputs[3][i] = random.nextInt(4);
+		}
+
+		int[][] ranges = {{0, n}, {0, 1}, {10, 12}, {5, 200}, {100, n}};
+		for(double[] input : inputs){
+			for(int[] range : ranges){
+				int from = range[0], to = range[1];
+				double[] sorted = input.clone();
+				Arrays.sort(sorted, from, to);
+
+				for(int k=from; k<to; k++){
+					double[] values = input.clone();
+					Utils.select(values, from, to, k);
+
+					assertEquals(sorted[k], values[k], 0);
+					for(int i=from; i<k; i++){
+						assertTrue(values[i] <= values[k]);
+					}
+					for(int i=k+1; i<to; i++){
+						assertTrue(values[i] >= values[k]);
+					}
+
+					//Values out of the range are not moved, and the range keeps its values
+					assertArrayEquals(Arrays.copyOfRange(input, 0, from), Arrays.copyOfRange(values, 0, from), 0);
+					assertArrayEquals(Arrays.copyOfRange(input, to, n), Arrays.copyOfRange(values, to, n), 0);
+					Arrays.sort(values, from, to);
+					assertArrayEquals(sorted, values, 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Each index is visited once, with at most the given number of threads,
+	 * and only in the calling thread with one thread
+	 */
+	@Test
+	public void parallelForThreads() {
+		int n = 1000;
+		for(int numThreads : new int[]{1, 3}){
+			AtomicIntegerArray visits = new AtomicIntegerArray(n);
+			Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+			Utils.parallelFor(n, numThreads, i -> {
+				visits.incrementAndGet(i);
+				threads.add(Thread.currentThread());
+			});
+
+			for(int i=0; i<n; i++){
+				assertEquals(1, visits.get(i));
+			}
+			assertTrue(threads.size() <= numThreads);
+			if(numThreads == 1){
+				assertTrue(threads.contains(Thread.currentThread()));
+			}
+		}
+	}
+
+}
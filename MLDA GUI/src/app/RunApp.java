@@ -13,7 +13,6 @@ package app;
 
 import com.mxgraph.swing.mxGraphComponent;
 import com.mxgraph.view.mxGraph;
-import conversion.MekaToMulan;
 import java.awt.AWTException;
 import java.awt.BorderLayout;
 import java.awt.Color;
@@ -85,6 +84,8 @@ import mlda.dimensionality.*;
 import mlda.labelsDistribution.*;
 import mlda.attributes.*;
 import mlda.imbalance.*;
+import mlda.io.BinaryDataset;
+import mlda.io.ParallelArffLoader;
 
 import mulan.data.InvalidDataFormatException;
 import mulan.data.IterativeStratification;
@@ -153,8 +154,10 @@ public class RunApp extends javax.swing.JFrame {
      */
     String datasetName = new String();
     MultiLabelInstances dataset;
+    MLDataProfile profile;
     String xmlFilename = null, xmlPath = "";
     ArrayList<MultiLabelInstances> listDatasets;
+    ArrayList<MLDataProfile> listProfiles;
     String datasetCurrentName;
     
     /*
@@ -542,6 +545,7 @@ public class RunApp extends javax.swing.JFrame {
     {
         areMeka = new ArrayList();
         listDatasets = new ArrayList();
+        listProfiles = new ArrayList<MLDataProfile>();
         datasetNames = new ArrayList();
         listMultipleDatasetsLeft.setModel(list);
     }
@@ -1213,7 +1217,7 @@ public class RunApp extends javax.swing.JFrame {
                 .addContainerGap())
         );
 
-        jComboBoxSaveFormat.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "Mulan .arff", "Meka .arff" }));
+        jComboBoxSaveFormat.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "Mulan .arff", "Meka .arff", "Mulan and Meka .arff" }));
         jComboBoxSaveFormat.setEnabled(false);
 
         panelIS.setBorder(javax.swing.BorderFactory.createTitledBorder("Instance Selection"));
@@ -2233,7 +2237,7 @@ public class RunApp extends javax.swing.JFrame {
         jTable3.setRowSelectionAllowed(false);
         jScrollPane4.setViewportView(jTable3);
 
-        jComboBox_SaveFormat1.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "Mulan .arff", "Meka .arff" }));
+        jComboBox_SaveFormat1.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "Mulan .arff", "Meka .arff", "Mulan and Meka .arff" }));
 
         buttonSaveTable.setText("Save table");
         buttonSaveTable.addActionListener(new java.awt.event.ActionListener() {
@@ -2332,6 +2336,7 @@ public class RunApp extends javax.swing.JFrame {
         }
 
         listDatasets.remove(current);
+        listProfiles.remove(current);
         String dataName = datasetNames.get(current);
         datasetNames.remove(current);
         areMeka.remove(current);
@@ -3043,7 +3048,7 @@ public class RunApp extends javax.swing.JFrame {
             JFileChooser fc= new JFileChooser();
 
             fc.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
-            String trainPath, testPath, xmlPath;
+            String xmlPath;
 
             int returnVal = fc.showSaveDialog(this);
 
@@ -3073,42 +3078,39 @@ public class RunApp extends javax.swing.JFrame {
                     else if(radioLPStratifiedCV.isSelected() || radioLPStratifiedHoldout.isSelected()){
                         dataName += "-LP";
                     }
+                    
+                    boolean mulan = format.toLowerCase().contains("mulan");
+                    boolean meka = format.toLowerCase().contains("meka");
+                    
+                    //Names of the mulan and meka datasets (null if the format is not selected)
+                    String mulanName = null;
+                    String mekaName = null;
                     if((radioNoIS.isSelected()) && (radioNoFS.isSelected()) && (radioNoSplit.isSelected())){
-                        if(format.toLowerCase().contains("meka")){
-                            dataName += "-mekaConverted";
+                        if(mulan){
+                            mulanName = dataName + "-mulanConverted";
                         }
-                        else if(format.toLowerCase().contains("mulan")){
-                            dataName += "-mulanConverted";
+                        if(meka){
+                            mekaName = dataName + "-mekaConverted";
+                        }
+                    }
+                    else{
+                        if(mulan){
+                            mulanName = dataName;
+                        }
+                        if(meka){
+                            mekaName = mulan ? dataName + "-meka" : dataName;
                         }
                     }
                     
                     //Check if none were selected -> Dataset conversion
                     if(radioNoFS.isSelected() && radioNoIS.isSelected() && radioNoSplit.isSelected())
                     {
-                        BufferedWriter bwTrain;
                         try {
-                            if(format.toLowerCase().contains("meka")){
-                                String dataPath = file.getAbsolutePath() + "/" + dataName + ".arff";
-
-                                bwTrain = new BufferedWriter(new FileWriter(dataPath));
-                                PrintWriter wrTrain = new PrintWriter(bwTrain);
-
-                                DataIOUtils.saveMekaDataset(wrTrain, dataset, dataset.getDataSet().relationName());
+                            DataIOUtils.saveDataset(dataset, dataset.getDataSet().relationName(), 
+                                    getArffPath(file, mulanName, ""), getArffPath(file, mekaName, ""));
 
-                                wrTrain.close();
-                                bwTrain.close();
-                            }
-                            else{
-                                String dataPath = file.getAbsolutePath() + "/" + dataName + ".arff";
-                                xmlPath = file.getAbsolutePath() + "/" + dataName + ".xml";
-
-                                bwTrain = new BufferedWriter(new FileWriter(dataPath));
-                                PrintWriter wrTrain = new PrintWriter(bwTrain);
-                                
-                                DataIOUtils.saveDataset(wrTrain, dataset, dataset.getDataSet().relationName());
-
-                                wrTrain.close();
-                                bwTrain.close();
+                            if(mulan){
+                                xmlPath = file.getAbsolutePath() + "/" + mulanName + ".xml";
 
                                 BufferedWriter bwXml = new BufferedWriter(new FileWriter(xmlPath));
                                 PrintWriter wrXml = new PrintWriter(bwXml);
@@ -3130,42 +3132,20 @@ public class RunApp extends javax.swing.JFrame {
                     //check if only FS and/or IS is selected
                     if((radioBRFS.isSelected() || radioRandomFS.isSelected() || radioRandomIS.isSelected()) && radioNoSplit.isSelected())//Feature and/or instance selection
                     {
-
-                        BufferedWriter bwTrain;
                         try {
-
-                            if(format.toLowerCase().contains("meka")){
-                                String dataPath = file.getAbsolutePath() + "/" + dataName + ".arff";
-
-                                bwTrain = new BufferedWriter(new FileWriter(dataPath));
-                                PrintWriter wrTrain = new PrintWriter(bwTrain);
-
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveMekaDataset(wrTrain, preprocessedDataset, preprocessedDataset.getDataSet().relationName());
-                                }
-                                else{
-                                    DataIOUtils.saveMekaDataset(wrTrain, preprocessedDataset, dataName);
-                                }
-
-                                wrTrain.close();
-                                bwTrain.close();
+                            String relationName;
+                            if(radioNoFS.isSelected()){
+                                relationName = preprocessedDataset.getDataSet().relationName();
                             }
                             else{
-                                String dataPath = file.getAbsolutePath() + "/" + dataName + ".arff";
-                                xmlPath = file.getAbsolutePath() + "/" + dataName +".xml";
+                                relationName = dataName;
+                            }
 
-                                bwTrain = new BufferedWriter(new FileWriter(dataPath));
-                                PrintWriter wrTrain = new PrintWriter(bwTrain);
-                                
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveDataset(wrTrain, preprocessedDataset, preprocessedDataset.getDataSet().relationName());
-                                }
-                                else{
-                                    DataIOUtils.saveDataset(wrTrain, preprocessedDataset, dataName);
-                                }
+                            DataIOUtils.saveDataset(preprocessedDataset, relationName, 
+                                    getArffPath(file, mulanName, ""), getArffPath(file, mekaName, ""));
 
-                                wrTrain.close();
-                                bwTrain.close();
+                            if(mulan){
+                                xmlPath = file.getAbsolutePath() + "/" + mulanName +".xml";
 
                                 BufferedWriter bw_xml = new BufferedWriter(new FileWriter(xmlPath));
                                 PrintWriter wr_xml = new PrintWriter(bw_xml);
@@ -3186,65 +3166,24 @@ public class RunApp extends javax.swing.JFrame {
 
                     if(radioIterativeStratifiedHoldout.isSelected()|| radioRandomHoldout.isSelected() || radioLPStratifiedHoldout.isSelected()) //holdout
                     {
-                        BufferedWriter bwTrain;
                         try {
-                            trainPath = file.getAbsolutePath() + "/" + dataName + "_train.arff";
-                            testPath = file.getAbsolutePath() + "/" + dataName + "_test.arff";
-                            xmlPath = file.getAbsolutePath() + "/" + dataName + ".xml";
-
-                            if(format.toLowerCase().contains("meka")){
-                                bwTrain = new BufferedWriter(new FileWriter(trainPath));
-                                PrintWriter wrTrain = new PrintWriter(bwTrain);
-
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveMekaDataset(wrTrain, trainDataset, trainDataset.getDataSet().relationName());
-                                }
-                                else{
-                                    DataIOUtils.saveMekaDataset(wrTrain, trainDataset, dataName);
-                                }
-
-                                wrTrain.close();
-                                bwTrain.close();
-
-                                BufferedWriter bwTest = new BufferedWriter(new FileWriter(testPath));
-                                PrintWriter wrTest = new PrintWriter(bwTest);
-
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveMekaDataset(wrTest, testDataset, testDataset.getDataSet().relationName());
-                                }
-                                else{
-                                    DataIOUtils.saveMekaDataset(wrTest, testDataset, dataName);
-                                }
-                                
-                                wrTest.close();
-                                bwTest.close();
+                            String trainRelationName, testRelationName;
+                            if(radioNoFS.isSelected()){
+                                trainRelationName = trainDataset.getDataSet().relationName();
+                                testRelationName = testDataset.getDataSet().relationName();
                             }
                             else{
-                                bwTrain = new BufferedWriter(new FileWriter(trainPath));
-                                PrintWriter wrTrain = new PrintWriter(bwTrain);
-
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveDataset(wrTrain, trainDataset, trainDataset.getDataSet().relationName());
-                                }
-                                else{
-                                    DataIOUtils.saveDataset(wrTrain, trainDataset, dataName);
-                                }
-
-                                wrTrain.close();
-                                bwTrain.close();
+                                trainRelationName = dataName;
+                                testRelationName = dataName;
+                            }
 
-                                BufferedWriter bwTest = new BufferedWriter(new FileWriter(testPath));
-                                PrintWriter wrTest = new PrintWriter(bwTest);
+                            DataIOUtils.saveDataset(trainDataset, trainRelationName, 
+                                    getArffPath(file, mulanName, "_train"), getArffPath(file, mekaName, "_train"));
+                            DataIOUtils.saveDataset(testDataset, testRelationName, 
+                                    getArffPath(file, mulanName, "_test"), getArffPath(file, mekaName, "_test"));
 
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveDataset(wrTest, testDataset, testDataset.getDataSet().relationName());
-                                }
-                                else{
-                                    DataIOUtils.saveDataset(wrTest, testDataset, dataName);
-                                }
-                                
-                                wrTest.close();
-                                bwTest.close();
+                            if(mulan){
+                                xmlPath = file.getAbsolutePath() + "/" + mulanName + ".xml";
 
                                 BufferedWriter bwXml = new BufferedWriter(new FileWriter(xmlPath));
                                 PrintWriter wrXml = new PrintWriter(bwXml);
@@ -3267,46 +3206,11 @@ public class RunApp extends javax.swing.JFrame {
                     else if(radioIterativeStratifiedCV.isSelected()|| radioRandomCV.isSelected() || radioLPStratifiedCV.isSelected())//CROSS VALIDATION
                     {
                         try{
+                            //All the folds are saved in all the formats at once
+                            DataIOUtils.saveFolds(trainDatasets, testDatasets, file.getAbsolutePath(), mulanName, mekaName);
 
-                            if(format.toLowerCase().contains("meka")){
-                                DataIOUtils.saveMekaDataset(trainDatasets,file.getAbsolutePath(), dataName, "_train");
-                                DataIOUtils.saveMekaDataset(testDatasets,file.getAbsolutePath(), dataName, "_test");
-                                /*
-                                if(radioNoFS.isSelected() && radioNoIS.isSelected()){
-                                    DataIOUtils.saveMekaDataset(trainDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_train");
-                                    DataIOUtils.saveMekaDataset(testDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_test");
-                                }
-                                if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveMekaDataset(trainDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_train");
-                                    DataIOUtils.saveMekaDataset(testDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_test");
-                                }
-                                else{
-                                    DataIOUtils.saveMekaDatasetsNoViews(trainDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_train");
-                                    DataIOUtils.saveMekaDatasetsNoViews(testDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_test");
-                                }
-                                */
-                            }
-                            else{
-                                /*
-                                if(radioNoFS.isSelected() && radioNoIS.isSelected()){
-                                    DataIOUtils.saveDatasets(trainDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_train");
-                                    DataIOUtils.saveDatasets(testDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_test");
-                                    xmlPath = file.getAbsolutePath()+"/"+datasetName.substring(0,datasetName.length()-5)+".xml";
-                                }
-                                else if(radioNoFS.isSelected()){
-                                    DataIOUtils.saveDatasets(trainDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_train");
-                                    DataIOUtils.saveDatasets(testDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5),  "_test");
-                                    xmlPath = file.getAbsolutePath()+"/"+datasetName.substring(0,datasetName.length()-5) + ".xml";
-                                }
-                                else{
-                                    DataIOUtils.saveMVDatasets(trainDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5), "_train");
-                                    DataIOUtils.saveMVDatasets(testDatasets,file.getAbsolutePath(), datasetName.substring(0,datasetName.length()-5),  "_test");
-                                    xmlPath = file.getAbsolutePath()+"/"+datasetName.substring(0,datasetName.length()-5)+ ".xml";
-                                }
-                                */
-                                DataIOUtils.saveDatasets(trainDatasets,file.getAbsolutePath(), dataName, "_train");
-                                DataIOUtils.saveDatasets(testDatasets,file.getAbsolutePath(), dataName,  "_test");
-                                xmlPath = file.getAbsolutePath()+"/"+ dataName + ".xml";
+                            if(mulan){
+                                xmlPath = file.getAbsolutePath()+"/"+ mulanName + ".xml";
 
                                 BufferedWriter bwXml = new BufferedWriter(new FileWriter(xmlPath));
                                 PrintWriter wrXml = new PrintWriter(bwXml);
@@ -3516,7 +3420,7 @@ public class RunApp extends javax.swing.JFrame {
         final JFileChooser jfile1 = new JFileChooser();
         jfile1.setLocale(Locale.UK);
         jfile1.repaint();
-        FileNameExtensionFilter fname = new FileNameExtensionFilter(".arff", "arff");
+        FileNameExtensionFilter fname = new FileNameExtensionFilter(".arff, " + BinaryDataset.EXTENSION, "arff", BinaryDataset.EXTENSION.substring(1));
         jfile1.setFileFilter(fname);
 
         final boolean deleteXML = false;
@@ -4151,7 +4055,6 @@ public class RunApp extends javax.swing.JFrame {
                         preprocessedType += "_" + (n+1);
                     }
 
-                    BufferedWriter bwTrain;
                     try {
                         String dataName = datasetName.substring(0,datasetName.length()-5);
                         
@@ -4179,28 +4082,24 @@ public class RunApp extends javax.swing.JFrame {
                         viewsString += ";";
                         viewsString = viewsString.replace("!;", "");
 
-                        if(format.toLowerCase().contains("meka")){
-                            String dataPath = file.getAbsolutePath()+"/"+dataName+ preprocessedType + ".arff";
-
-                            bwTrain = new BufferedWriter(new FileWriter(dataPath));
-                            PrintWriter wrTrain = new PrintWriter(bwTrain);                           
-                                                      
-                            DataIOUtils.saveMVMekaDataset(wrTrain, mvData, dataName, viewsString);
+                        boolean mulan = format.toLowerCase().contains("mulan");
+                        boolean meka = format.toLowerCase().contains("meka");
 
-                            wrTrain.close();
-                            bwTrain.close();   
+                        String mulanName = null;
+                        String mekaName = null;
+                        if(mulan){
+                            mulanName = dataName + preprocessedType;
+                        }
+                        if(meka){
+                            mekaName = mulan ? dataName + preprocessedType + "-meka" : dataName + preprocessedType;
                         }
-                        else{
-                            String dataPath = file.getAbsolutePath()+"/"+dataName+ preprocessedType + ".arff";
-                            xmlPath = file.getAbsolutePath()+"/"+dataName+ preprocessedType +".xml";
-
-                            bwTrain = new BufferedWriter(new FileWriter(dataPath));
-                            PrintWriter wrTrain = new PrintWriter(bwTrain);
 
-                            DataIOUtils.saveDatasetMV(wrTrain, mvData, dataName, viewsString);
+                        //Both formats are saved at once
+                        DataIOUtils.saveDatasetMV(mvData, dataName, viewsString, 
+                                getArffPath(file, mulanName, ""), getArffPath(file, mekaName, ""));
 
-                            wrTrain.close();
-                            bwTrain.close();
+                        if(mulan){
+                            xmlPath = file.getAbsolutePath()+"/"+dataName+ preprocessedType +".xml";
 
                             BufferedWriter bwXml = new BufferedWriter(new FileWriter(xmlPath));
                             PrintWriter wrXml = new PrintWriter(bwXml);
@@ -4228,6 +4127,22 @@ public class RunApp extends javax.swing.JFrame {
         return 1;
     }
     
+    /**
+     * Get the path of an .arff file
+     * 
+     * @param dir Directory of the file
+     * @param name Name of the dataset, or null
+     * @param type Type, appended to the name
+     * @return Path of the file, or null if the name is null
+     */
+    private String getArffPath(File dir, String name, String type){
+        if(name == null){
+            return null;
+        }
+        
+        return dir.getAbsolutePath() + "/" + name + type + ".arff";
+    }
+    
     /**
      * Load multiple datasets
      * 
@@ -4257,8 +4172,6 @@ public class RunApp extends javax.swing.JFrame {
 
                 boolean isMeka = false;
 
-                String xmlPath = arffFilename.substring(0,arffFilename.length()-5)+".xml";
-
                 FileReader fr;
                 try
                 {
@@ -4266,74 +4179,10 @@ public class RunApp extends javax.swing.JFrame {
                     BufferedReader bf = new BufferedReader(fr);
 
                     String sString = bf.readLine();
-                    int labelFound = 0;
-                    String labelName;
-                    String[] labelNamesFound;
+                    bf.close();
 
                     isMeka = DataIOUtils.isMeka(sString);
                     areMeka.add(isMeka);
-
-                    if(isMeka)
-                    {
-                        isMeka = true;
-
-                        int labelCount = DataIOUtils.getLabelsFromARFF(sString);                
-
-                        if(labelCount > 0){
-                            labelNamesFound = new String[labelCount];
-
-                            while(labelFound < labelCount)
-                            {
-                                sString = bf.readLine();
-                                labelName = DataIOUtils.getLabelNameFromLine(sString);
-
-                                if(labelName!= null)
-                                {
-                                    labelNamesFound[labelFound]=labelName;
-                                    labelFound++;
-                                }
-                            }
-                        }
-                        else{
-                            labelCount = Math.abs(labelCount);
-                            labelNamesFound = new String[labelCount];
-
-                            String [] sStrings = new String[labelCount];
-
-                            while(!(sString = bf.readLine()).contains("@data")){
-                                if(!sString.trim().equals("")){
-                                    for(int s=0; s<labelCount-1; s++){
-                                        sStrings[s] = sStrings[s+1];
-                                    }
-                                    sStrings[labelCount-1] = sString;
-                                }
-                            }
-
-                            for(int i=0; i<labelCount; i++){
-                                labelName = DataIOUtils.getLabelNameFromLine(sStrings[i]);
-
-                                if(labelName!= null)
-                                {
-                                    labelNamesFound[labelFound]=labelName;
-                                    labelFound++;
-                                }
-                            }
-                        }
-
-                        BufferedWriter bwXml= new BufferedWriter(new FileWriter(xmlPath));
-                        PrintWriter wrXml = new PrintWriter(bwXml);
-
-                        DataIOUtils.writeXMLFile(wrXml, labelNamesFound);
-
-                        bwXml.close();
-                        wrXml.close();
-
-                        xmlFilename = DataIOUtils.getFilePath(xmlPath);
-                    }
-                    else
-                    {
-                        isMeka= false;
-                    }
                 }
                 catch (FileNotFoundException ex) {
                     Logger.getLogger(RunApp.class.getName()).log(Level.SEVERE, null, ex);
@@ -4342,19 +4191,18 @@ public class RunApp extends javax.swing.JFrame {
                 }
 
                 try {
-                    MultiLabelInstances current = new MultiLabelInstances(arffFilename, xmlFilename);
-
-                    if(isMeka){
-                        File f2 = new File(xmlFilename);
-                        f2.delete();
-                    }
+                    //Labels of meka datasets are given in the relation, without xml
+                    MultiLabelInstances current = new ParallelArffLoader(arffFilename, isMeka ? null : xmlFilename).load();
 
                     listDatasets.add(current);
+                    listProfiles.add(new MLDataProfile(current));
                     datasetNames.add(datasetName);
                     list.addElement(datasetName );
                 }
                 catch (InvalidDataFormatException ex) {
                     Logger.getLogger(RunApp.class.getName()).log(Level.SEVERE, null, ex);
+                } catch (IOException ex) {
+                    Logger.getLogger(RunApp.class.getName()).log(Level.SEVERE, null, ex);
                 }
             }
         }            
@@ -4764,6 +4612,29 @@ public class RunApp extends javax.swing.JFrame {
             datasetCurrentName = datasetName.substring(0,datasetName.length()-5);
 
             String arffFilename = f1.getAbsolutePath();
+            
+            //Binary datasets include their labels, so there is no xml to find
+            if(arffFilename.endsWith(BinaryDataset.EXTENSION)){
+                views.clear();
+                mv = false;
+                isMeka = false;
+                
+                TabPrincipal.setEnabledAt(1, true);
+                TabPrincipal.setEnabledAt(2, true);
+                TabPrincipal.setEnabledAt(3, true);
+                TabPrincipal.setEnabledAt(4, true);
+                TabPrincipal.setEnabledAt(5, true);
+                TabPrincipal.setEnabledAt(6, true);
+                TabPrincipal.setEnabledAt(7, false);
+                
+                initTableMetrics();
+                clearTableMetricsPrincipal();
+                
+                loadDataset(arffFilename, null);
+                
+                textChooseFile.setText(arffFilename);
+                return 1;
+            }
 
             xmlPath=  arffFilename.substring(0, arffFilename.length()-5)+".xml";
             xmlFilename = DataIOUtils.getFileName(xmlPath);
@@ -4864,73 +4735,8 @@ public class RunApp extends javax.swing.JFrame {
                     mv = false;
                 }
                 
-                int labelFound = 0;
-                String labelName;
-                String[] labelNamesFound;
-
-                if(DataIOUtils.isMeka(sString))
-                {
-                    deleteXML = true;
-                    isMeka = true;
-
-                    int labelCount = DataIOUtils.getLabelsFromARFF(sString);
-                    
-                    if(labelCount > 0){
-                        labelNamesFound = new String[labelCount];
-
-                        while(labelFound < labelCount)
-                        {
-                            sString = bf.readLine();
-                            labelName = DataIOUtils.getLabelNameFromLine(sString);
-
-                            if(labelName!= null)
-                            {
-                                labelNamesFound[labelFound]=labelName;
-                                labelFound++;
-                            }
-                        }
-                    }
-                    else{
-                        labelCount = Math.abs(labelCount);
-                        labelNamesFound = new String[labelCount];
-                        
-                        String [] sStrings = new String[labelCount];
-                        
-                        while(!(sString = bf.readLine()).contains("@data")){
-                            if(!sString.trim().equals("")){
-                                for(int s=0; s<labelCount-1; s++){
-                                    sStrings[s] = sStrings[s+1];
-                                }
-                                sStrings[labelCount-1] = sString;
-                            }
-                        }
-                        
-                        for(int i=0; i<labelCount; i++){
-                            labelName = DataIOUtils.getLabelNameFromLine(sStrings[i]);
-
-                            if(labelName!= null)
-                            {
-                                labelNamesFound[labelFound]=labelName;
-                                labelFound++;
-                            }
-                        }
-                    }
-
-                    BufferedWriter bwXml= new BufferedWriter(new FileWriter(xmlPath));
-                    PrintWriter wrXml = new PrintWriter(bwXml);
-
-                    DataIOUtils.writeXMLFile(wrXml, labelNamesFound);
-
-                    bwXml.close();
-                    wrXml.close();
-
-                    xmlFilename = DataIOUtils.getFilePath(xmlPath);
-                    fileTmp = new File(xmlPath);
-                }
-                else
-                {
-                    isMeka= false;
-                }
+                //Labels of meka datasets are read from the relation when loading
+                isMeka = DataIOUtils.isMeka(sString);
             }
             catch (FileNotFoundException ex) {
                 Logger.getLogger(RunApp.class.getName()).log(Level.SEVERE, null, ex);
@@ -4941,7 +4747,7 @@ public class RunApp extends javax.swing.JFrame {
             }
 
             
-            if(!fileTmp.exists())
+            if(!isMeka && !fileTmp.exists())
             {
                 xmlPath = DataIOUtils.getXMLString(arffFilename);
                 xmlFilename = DataIOUtils.getFilePath(xmlPath);
@@ -4957,7 +4763,7 @@ public class RunApp extends javax.swing.JFrame {
             
             try {
                 File f = new File(xmlFilename);
-                if(f.exists() && !f.isDirectory()) { 
+                if(isMeka || (f.exists() && !f.isDirectory())) { 
                     //MultiLabelInstances dataset_temp = new MultiLabelInstances(filename_database_arff, xmlFilename);
                 }
                 else{
@@ -4976,7 +4782,7 @@ public class RunApp extends javax.swing.JFrame {
             clearTableMetricsPrincipal();
             
             File f = new File(xmlFilename);
-            if(f.exists() && !f.isDirectory()) { 
+            if(!isMeka && f.exists() && !f.isDirectory()) { 
                 loadDataset(arffFilename, xmlFilename);
             }
             else{
@@ -5017,12 +4823,13 @@ public class RunApp extends javax.swing.JFrame {
 
                     MultiLabelInstances modifiedDataset = new MultiLabelInstances( Filter.useFilter(view.getDataSet(), filterRemove), dataset.getLabelsMetaData());
                     
+                    MLDataProfile viewProfile = new MLDataProfile(modifiedDataset);
                     LxIxF lif = new LxIxF();
-                    lif.calculate(modifiedDataset);
+                    lif.calculate(modifiedDataset, viewProfile);
                     RatioInstancesToAttributes ratioInstAtt = new RatioInstancesToAttributes();
-                    ratioInstAtt.calculate(modifiedDataset);
+                    ratioInstAtt.calculate(modifiedDataset, viewProfile);
                     AvgGainRatio avgGainRatio = new AvgGainRatio();
-                    avgGainRatio.calculate(modifiedDataset);
+                    avgGainRatio.calculate(modifiedDataset, viewProfile);
                     
                     ((DefaultTableModel)jTable2.getModel()).addRow(new Object[]{"View " + (i+1), attributes.length, 
                         getMetricValueFormatted(lif), 
@@ -5637,17 +5444,23 @@ public class RunApp extends javax.swing.JFrame {
             
             //new Instances
               
-            if(xmlFilename == null){
-                MekaToMulan m = new MekaToMulan();
-                m.convert(arffFilename, arffFilename+"_mulan");
-                dataset = new MultiLabelInstances(arffFilename+"_mulan.arff", arffFilename+"_mulan.xml");
-                File f2 = new File(arffFilename+"_mulan.xml");
-                f2.delete();
+            if(arffFilename.endsWith(BinaryDataset.EXTENSION)){
+                BinaryDataset binary = BinaryDataset.open(arffFilename);
+                try{
+                    dataset = binary.toMultiLabelInstances();
+                }
+                finally{
+                    binary.close();
+                }
             }
             else{
-                dataset = new MultiLabelInstances(arffFilename, xmlFilename);
+                //Without xml, labels are read from the relation of meka datasets
+                dataset = new ParallelArffLoader(arffFilename, xmlFilename).load();
             }
 
+            //Profile shared by all the metrics calculated for the dataset
+            profile = new MLDataProfile(dataset);
+
             labelAppearances = MetricUtils.getImbalancedDataByAppearances(dataset);
             labelAppearances = MetricUtils.sortByFrequency(labelAppearances);
              
@@ -5660,7 +5473,7 @@ public class RunApp extends javax.swing.JFrame {
             stat = new Statistics();
             stat.calculateStats(dataset);
 
-            printMainMetrics(dataset);
+            printMainMetrics(dataset, profile);
 
             labelsFreqSorted = MetricUtils.getImbalancedDataByAppearances(dataset);
 
@@ -6008,8 +5821,9 @@ public class RunApp extends javax.swing.JFrame {
      * Print the maint metrics for a dataset
      * 
      * @param dataset Multi-label dataset to calculate the metrics
+     * @param profile Profile of the dataset
      */
-    private void printMainMetrics(MultiLabelInstances dataset)
+    private void printMainMetrics(MultiLabelInstances dataset, MLDataProfile profile)
     {
         //Relation
         if(datasetCurrentName.length() > 30){
@@ -6021,23 +5835,23 @@ public class RunApp extends javax.swing.JFrame {
 
         //Metrics
         mlda.dimensionality.Instances instances = new mlda.dimensionality.Instances();
-        instances.calculate(dataset);
+        instances.calculate(dataset, profile);
         mlda.dimensionality.Attributes attributes = new mlda.dimensionality.Attributes();
-        attributes.calculate(dataset);
+        attributes.calculate(dataset, profile);
         Labels labels = new Labels();
-        labels.calculate(dataset);
+        labels.calculate(dataset, profile);
         Density density = new Density();
-        density.calculate(dataset);
+        density.calculate(dataset, profile);
         Cardinality cardinality = new Cardinality();
-        cardinality.calculate(dataset);
+        cardinality.calculate(dataset, profile);
         Diversity diversity = new Diversity();
-        diversity.calculate(dataset);
+        diversity.calculate(dataset, profile);
         Bound bound = new Bound();
-        bound.calculate(dataset);
+        bound.calculate(dataset, profile);
         DistinctLabelsets distinct = new DistinctLabelsets();
-        distinct.calculate(dataset);
+        distinct.calculate(dataset, profile);
         LxIxF lif = new LxIxF();
-        lif.calculate(dataset);
+        lif.calculate(dataset, profile);
 
         labelInstancesValue.setText(getMetricValueFormatted(instances));
         labelAttributesValue.setText(getMetricValueFormatted(attributes));
@@ -6315,7 +6129,7 @@ public class RunApp extends javax.swing.JFrame {
             progressBar.setValue(v);
             //If metric value exists, don't calculate
            if((tableMetrics.get(metric) == null) || (tableMetrics.get(metric).equals("-"))){
-               value = MetricUtils.getMetricValue(metric, dataset);
+               value = MetricUtils.getMetricValue(metric, dataset, profile);
                 tableMetrics.put(metric, value.replace(",", "."));
            }
            
@@ -6375,7 +6189,7 @@ public class RunApp extends javax.swing.JFrame {
                 
                 //If metric value exists, don't calculate
                if((tableMetricsMulti.get(dataName).get(metric) == null) || (tableMetricsMulti.get(dataName).get(metric).equals("-"))){
-                   value = MetricUtils.getMetricValue(metric, listDatasets.get(d));
+                   value = MetricUtils.getMetricValue(metric, listDatasets.get(d), listProfiles.get(d));
                     tableMetricsMulti.get(dataName).put(metric, value.replace(",", "."));
                } 
                
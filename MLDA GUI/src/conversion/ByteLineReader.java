@@ -0,0 +1,193 @@
+/*
+ * This file is part of the MLDA.
+ *
+ * (c)  Jose Maria Moyano Murillo
+ *      Eva Lucrecia Gibaja Galindo
+ *      Sebastian Ventura Soto <sventura@uco.es>
+ *
+ * For the full copyright and license information, please view the LICENSE
+ * file that was distributed with this source code.
+ */
+
+package conversion;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class reads the lines of a file as bytes, reusing the same buffer for
+ * all the lines, so no strings are created for the lines of the data section
+ *
+ * @author Jose Maria Moyano Murillo
+ */
+public class ByteLineReader implements Closeable {
+
+    /* Size of the buffer of the file */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /* Input stream */
+    InputStream in;
+
+    /* Buffer of the file */
+    byte[] buffer = new byte[BUFFER_SIZE];
+
+    /* Position of the next byte in the buffer */
+    int position = 0;
+
+    /* Number of valid bytes in the buffer */
+    int limit = 0;
+
+    /* Bytes of the current line, without line break */
+    byte[] line = new byte[256];
+
+    /* Length of the current line */
+    int length = 0;
+
+    /**
+     * Constructor
+     *
+     * @param in Input stream
+     */
+    public ByteLineReader(InputStream in)
+    {
+        this.in = in;
+    }
+
+    /**
+     * Read the next line
+     *
+     * @return True if a line was read and false at the end of the file
+     * @throws IOException
+     */
+    public boolean readLine() throws IOException
+    {
+        length = 0;
+        boolean any = false;
+
+        while(true)
+        {
+            if(position == limit)
+            {
+                limit = in.read(buffer);
+                position = 0;
+                if(limit <= 0)
+                {
+                    limit = 0;
+                    break;
+                }
+            }
+            any = true;
+
+            int start = position;
+            while(position < limit && buffer[position] != '\n')
+            {
+                position++;
+            }
+            append(start, position);
+
+            if(position < limit)
+            {
+                //Skip line break
+                position++;
+                break;
+            }
+        }
+
+        //Remove carriage return of windows line breaks
+        if(length > 0 && line[length-1] == '\r')
+        {
+            length--;
+        }
+
+        return any;
+    }
+
+    /**
+     * Append bytes of the buffer to the current line
+     *
+     * @param from First position in the buffer
+     * @param to Last position in the buffer, exclusive
+     */
+    private void append(int from, int to)
+    {
+        int n = to - from;
+        if(length + n > line.length)
+        {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + n));
+        }
+        System.arraycopy(buffer, from, line, length, n);
+        length += n;
+    }
+
+    /**
+     * Get the bytes of the current line. The array is reused for next lines
+     *
+     * @return Array whose first getLength() bytes are the line
+     */
+    public byte[] getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Get the length of the current line
+     *
+     * @return Number of bytes of the line
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Get the current line as string
+     *
+     * @return Line
+     */
+    public String getLineString()
+    {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Know if the current line is empty or only has blanks
+     *
+     * @return True if the line is blank and false otherwise
+     */
+    public boolean isBlank()
+    {
+        for(int i=0; i<length; i++)
+        {
+            if(line[i] != ' ' && line[i] != '\t')
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy the rest of the file, after the current line, to an output stream
+     *
+     * @param out Output stream
+     * @throws IOException
+     */
+    public void transferRest(OutputStream out) throws IOException
+    {
+        out.write(buffer, position, limit - position);
+        position = limit;
+
+        int read;
+        while((read = in.read(buffer)) > 0)
+        {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        in.close();
+    }
+}
@@ -12,8 +12,12 @@
 package conversion;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
+import mlda.io.ProjectedArffLoader;
+import mulan.data.InvalidDataFormatException;
+
 /**
  * This class allows to convert Meka datasets into Mulan datasets
  * 
@@ -25,61 +29,54 @@ public class MekaToMulan {
     int labels = 0;
     int c = 0;
     Vector<Attribute> attributes = new Vector<>();
+    
+    /* Line separator of the new files */
+    static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes(StandardCharsets.UTF_8);
 	
     /**
-     * Convert a meka dataset into a mulan dataset
+     * Convert a meka dataset into a mulan dataset.
+     * Only the header is parsed; the data section is copied as it is, since
+     * mulan datasets may have the labels in any position
      * 
      * @param mekaFileName Name of meka dataset file
      * @param mulanFileName Name of new mulan dataset file
      */
     public void convert (String mekaFileName, String mulanFileName)
     {
-        FileReader frIn = null;
-	BufferedReader br;
-	FileWriter outArff = null;
-	PrintWriter pwARFF;
-	FileWriter outXML = null;
-	PrintWriter pwXML;
-        
-        try{
-            frIn = new FileReader(mekaFileName + ".arff");
-            br = new BufferedReader(frIn);
-			
-            outArff = new FileWriter(mulanFileName + ".arff");
-            pwARFF = new PrintWriter(outArff);
-            outXML = new FileWriter(mulanFileName + ".xml");
-            pwXML = new PrintWriter(outXML);
-			
+        try(ByteLineReader reader = new ByteLineReader(new FileInputStream(mekaFileName + ".arff"));
+            OutputStream outArff = new BufferedOutputStream(new FileOutputStream(mulanFileName + ".arff"), ByteLineReader.BUFFER_SIZE);
+            PrintWriter pwXML = new PrintWriter(new BufferedWriter(new FileWriter(mulanFileName + ".xml"))))
+        {
             String line;
             String [] words;
+            boolean data = false;
             
-            while((line=br.readLine()) != null)
+            while(!data && reader.readLine())
             {
+                line = reader.getLineString();
                 words = line.split(" ");
 				
                 switch (words[0].toLowerCase()) {
                     case "@relation":
-                        words = line.split("-C");
                         relationName = mulanFileName;
-                        words = words[1].split("[^0-9\\-]");
-                        c = Integer.parseInt(words[1]);
+                        c = ProjectedArffLoader.getMekaLabelCount(line);
                         labels = Math.abs(c);
-                        pwARFF.println("@relation " + relationName);
-                        pwARFF.println();
+                        writeLine(outArff, "@relation " + relationName);
+                        writeLine(outArff, "");
                         break;
                     case "@attribute":
                         Attribute atr = new Attribute();
                         atr.name = getAttributeName(line);
                         atr.type = getAttributeType(line);
                         attributes.addElement(atr);
-                        pwARFF.println(line);
+                        writeLine(outArff, line);
                         break;
                     case "@data":
-                        pwARFF.println();
-                        pwARFF.println(line);
-                        while((line=br.readLine()) != null) {
-                            pwARFF.println(line);
-                        }   break;
+                        writeLine(outArff, "");
+                        writeLine(outArff, line);
+                        reader.transferRest(outArff);
+                        data = true;
+                        break;
                     default:
                         break;
                 }
@@ -92,48 +89,44 @@ public class MekaToMulan {
             pwXML.println("<?xml version=\"1.0\" ?>");
             pwXML.println("<labels xmlns=\"http://mulan.sourceforge.net/labels\">");
 			
-            Attribute a;
-			
-            if(c > 0)
+            int first = (c > 0) ? 0 : attributes.size() - labels;
+            for(int i=first; i<first+labels; i++)
             {
-                for(int i=0; i<labels; i++)
-                {
-                    a = attributes.get(i);
-                    /* scape caracter is \\
-                     * 		replace \' by '
-                     */
-                    pwXML.println("<label name=\"" + a.name.replaceAll("\\\\\'", "\\'") + "\"> </label>");
-		}
-            }
-            else if(c < 0)
-            {
-                int x = attributes.size();
-                for(int i=(x-labels); i<x; i++)
-		{
-                    a = attributes.get(i);
-                    pwXML.println("<label name=\"" + a.name.replaceAll("\\\\\'", "\\'") + "\"> </label>");
-		}
+                /* scape caracter is \\
+                 * 		replace \' by '
+                 */
+                pwXML.println("<label name=\"" + escapeXML(attributes.get(i).name.replaceAll("\\\\\'", "\\'")) + "\"> </label>");
             }
 			
             pwXML.println("</labels>");
-	} catch(IOException | NumberFormatException e1) { 
+	} catch(IOException | InvalidDataFormatException e1) { 
             e1.printStackTrace();
-	} finally {
-            try{
-                if(outArff != null) {
-                    outArff.close();
-                }
-		if(outXML != null) {
-                    outXML.close();
-                }
-		if(frIn != null) {
-                    frIn.close();
-                }
-            } catch(Exception e2){
-                e2.printStackTrace();
-            }
 	}
     }
+    
+    /**
+     * Write a line of the header
+     * 
+     * @param out Output stream
+     * @param line Line
+     * @throws IOException 
+     */
+    static void writeLine(OutputStream out, String line) throws IOException
+    {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(LINE_SEPARATOR);
+    }
+    
+    /**
+     * Escape the special characters of a xml attribute
+     * 
+     * @param s Value of the attribute
+     * @return Escaped value
+     */
+    static String escapeXML(String s)
+    {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;");
+    }
 	
     /**
      * Get attribute name from an .arff @attribute line
@@ -12,6 +12,7 @@
 package conversion;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -49,27 +50,32 @@ public class MulanToMeka {
     /* Indicates if instances are in reduced format */
     boolean reducedFormat;
     
-    /* Correspondence between old attributes order and new order */
-    Hashtable<Integer, String> originalCorrespondence = new Hashtable<>();
-    Hashtable<String, Integer> newCorrespondence = new Hashtable<>();
+    /* Indicates if each attribute of the mulan dataset is a label */
+    boolean [] isLabelAttribute;
+    
+    /* Position of each attribute of the mulan dataset in the meka dataset */
+    int [] remap;
+    
+    /* Start and end of each field of the current line, reused for all lines */
+    int [] fieldStart = new int[16];
+    int [] fieldEnd = new int[16];
+    
+    /* Attribute index of each field of the current sparse line */
+    int [] fieldIndex = new int[16];
+    
+    /* Digits of the last written index */
+    byte [] digits = new byte[11];
     
     /**
-     * Convert a mulan dataset file into a meka dataset
+     * Convert a mulan dataset file into a meka dataset.
+     * The data section is transformed line by line over bytes, moving the
+     * labels to the end with the remap of the columns
      * 
      * @param mulanFilename Name of the mulan dataset file
      * @param mekaFilename Name of the new meka dataset file
      */
     public void convert(String mulanFilename, String mekaFilename)
     {
-        FileReader frIn = null;
-	BufferedReader br;
-	FileWriter outARFF = null;
-	PrintWriter pwARFF;
-		
-	TreeMap<Integer, String> instanceMap = new TreeMap<>();
-        
-        int n=0;
-        
 	/* 
 	 *  Get labels from XML
 	 */
@@ -99,205 +105,68 @@ public class MulanToMeka {
             e.printStackTrace();
 	}
 		
-	try{
-            frIn = new FileReader(mulanFilename + ".arff");
-            br = new BufferedReader(frIn);			
-            outARFF = new FileWriter(mekaFilename + ".arff");
-            pwARFF = new PrintWriter(outARFF);
-			
+	try(ByteLineReader reader = new ByteLineReader(new FileInputStream(mulanFilename + ".arff"));
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(mekaFilename + ".arff"), ByteLineReader.BUFFER_SIZE))
+        {
+            ArrayList<Boolean> labelFlags = new ArrayList<>();
             String line;
             String [] words;
+            boolean data = false;
             
-            while((line=br.readLine()) != null){
-				
+            while(!data && reader.readLine()){
+                line = reader.getLineString();
                 words = line.split(" ");
 				
                 switch (words[0].toLowerCase()) {
                     case "@relation":
                         relationName = mekaFilename;
-                        pwARFF.println("@relation '" + relationName + ": -C -" + nLabels + "'");
-                        pwARFF.println();
+                        MekaToMulan.writeLine(out, "@relation '" + relationName + ": -C -" + nLabels + "'");
+                        MekaToMulan.writeLine(out, "");
                         break;
                     case "@attribute":
                         Attribute atr = new Attribute();
                         atr.name = getAttributeName(line);
                         atr.type = getAttributeType(line);
-                        /* Store original attribute number */
-                        originalCorrespondence.put(n, getAttributeName(line));
                         if(isLabel(atr.name)){
                             labels.addElement(atr);
+                            labelFlags.add(true);
                         }
                         else{
                             attributes.addElement(atr);
+                            labelFlags.add(false);
                         }   
-                        n++;
                         break;
                     case "@data":
-                        n = 0;
-                        Attribute a;
                         /* Print attributes and labels */
-                        for(int i=0; i<attributes.size(); i++)
+                        for(Attribute a : attributes)
                         {
-                            a = attributes.get(i);
-                            
-                            if (a.name.contains(" ")){
-                                pwARFF.println("@attribute " + "\'" + a.name + "\'" + " " + a.type);
-                            }
-                            else {
-                                pwARFF.println("@attribute " + a.name + " " + a.type);
-                            }
-                            
-                            /* Store new file attribute numbers */
-                            newCorrespondence.put(a.name, n);
-                            n++;
-                        }   
-                        
-                        for(int i=0; i<nLabels; i++)
-                        {
-                            a = labels.get(i);
-                            
-                            if (a.name.contains(" "))
-                            {
-                                //If has spaces
-                                pwARFF.println("@attribute " + "\'" + a.name + "\'" + " " + "{0,1}");
-                            }
-                            else
-                            {
-                                pwARFF.println("@attribute " + a.name + " " + "{0,1}");
-                            }
-                            
-                            /*Store number of attribute in new file*/
-                            newCorrespondence.put(a.name, n);
-                            n++;
-                        }   
-                        pwARFF.println();
-                        pwARFF.println(line);
-                        int newNum;
-                        String name;
-                        String inst;
-                        line = br.readLine();
-                        while(line.equals("") == true)
-                        {
-                            line = br.readLine();
-                        }   
-                        if(line.charAt(0) == '{')
+                            MekaToMulan.writeLine(out, "@attribute " + quote(a.name) + " " + a.type);
+                        }
+                        for(Attribute a : labels)
                         {
-                            /*
-                            * Reduced format
-                            */
-                            
-                            reducedFormat = true;
-                            
-                            line = line.replace("{", "");
-                            line = line.replace("}", "");
-                            words = line.split(",");
-                            
-                            inst = "{";
-                            instanceMap.clear();
-                            for(int i=0; i<words.length; i++)
-                            {
-                                /* Obtain correspondence between old and new */
-                                words[i] = words[i].trim();
-                                name = originalCorrespondence.get(Integer.parseInt(words[i].split(" ")[0]));
-                                newNum = newCorrespondence.get(name);
-                                instanceMap.put(newNum, words[i].split(" ")[1]);
-                            }
-                            
-                            Iterator iterator = instanceMap.keySet().iterator();
-                            while (iterator.hasNext()) {
-                                Object key = iterator.next();
-                                inst = inst + key + " " + instanceMap.get(key) + ",";
-                            }
-                            
-                            inst = inst + "}";
-                            inst = inst.replaceAll(",}", "}");
-                            pwARFF.println(inst);
-                            
-                            while((line=br.readLine()) != null){
-                                if(line.equals("") == false)
-                                {
-                                    line = line.replace("{", "");
-                                    line = line.replace("}", "");
-                                    words = line.split(",");
-                                    
-                                    inst = "{";
-                                    instanceMap.clear();
-                                    for(int i=0; i<words.length; i++)
-                                    {
-                                        /* Obtain correspondence between old and new */
-                                        words[i] = words[i].trim();
-                                        name = originalCorrespondence.get(Integer.parseInt(words[i].split(" ")[0]));
-                                        newNum = newCorrespondence.get(name);
-                                        instanceMap.put(newNum, words[i].split(" ")[1]);
-                                    }
-                                    
-                                    Iterator iterator2 = instanceMap.keySet().iterator();
-                                    while (iterator2.hasNext()) {
-                                        Object key = iterator2.next();
-                                        inst = inst + key + " " + instanceMap.get(key) + ",";
-                                    }
-                                    
-                                    inst = inst + "}";
-                                    inst = inst.replaceAll(",}", "}");
-                                    pwARFF.println(inst);
-                                }
-                            }
+                            MekaToMulan.writeLine(out, "@attribute " + quote(a.name) + " " + "{0,1}");
                         }
-                        else
+                        MekaToMulan.writeLine(out, "");
+                        MekaToMulan.writeLine(out, line);
+                        
+                        /* Features keep their order, and labels go after them */
+                        isLabelAttribute = new boolean[labelFlags.size()];
+                        remap = new int[labelFlags.size()];
+                        int nFeatures = 0, nLabelsFound = 0;
+                        for(int i=0; i<labelFlags.size(); i++)
                         {
-                            /*
-                            * Complete format
-                            */
-                            
-                            reducedFormat = false;
-                            
-                            String [] instance = new String[attributes.size() + labels.size()];
-                            
-                            words = line.split(",");
-                            
-                            for(int i=0; i<words.length; i++)
-                            {
-                                /* Get correspondence between old and new numbers */
-                                name = originalCorrespondence.get(i);
-                                newNum = newCorrespondence.get(name);
-                                instance[newNum] = words[i];
+                            isLabelAttribute[i] = labelFlags.get(i);
+                            if(isLabelAttribute[i]){
+                                remap[i] = attributes.size() + nLabelsFound++;
                             }
-                            
-                            inst = "";
-                            for(int i=0; i<instance.length; i++)
-                            {
-                                inst = inst + instance[i] + ",";
+                            else{
+                                remap[i] = nFeatures++;
                             }
-                            inst = inst + ";"; //Used to remove the last ","
-                            inst = inst.replace(",;", "");
-                            pwARFF.println(inst);
-                            
-                            while((line=br.readLine()) != null){
-                                if(line.equals("") == false)
-                                {
-                                    instance = new String[attributes.size() + labels.size()];
-                                    
-                                    words = line.split(",");
-                                    
-                                    for(int i=0; i<words.length; i++)
-                                    {
-                                        /* Get correspondence between old and new */
-                                        name = originalCorrespondence.get(i);
-                                        newNum = newCorrespondence.get(name);
-                                        instance[newNum] = words[i];
-                                    }
-                                    
-                                    inst = "";
-                                    for(int i=0; i<instance.length; i++)
-                                    {
-                                        inst = inst + instance[i] + ",";
-                                    }
-                                    inst = inst + ";";//Used to remove the last ","
-                                    inst = inst.replace(",;", "");
-                                    pwARFF.println(inst);
-                                }
-                            }
-                        }   break;
+                        }
+                        
+                        convertData(reader, out);
+                        data = true;
+                        break;
                     default:
                         break;
                 }
@@ -307,19 +176,252 @@ public class MulanToMeka {
 	{
             e1.printStackTrace();
 	}
-        finally
+    }
+    
+    /**
+     * Convert the lines of the data section
+     * 
+     * @param reader Reader of the mulan dataset, after the @data line
+     * @param out Output stream of the meka dataset
+     * @throws IOException 
+     */
+    void convertData(ByteLineReader reader, OutputStream out) throws IOException
+    {
+        byte [] line;
+        int length, start;
+        
+        while(reader.readLine())
+        {
+            if(reader.isBlank()){
+                continue;
+            }
+            
+            line = reader.getLine();
+            length = reader.getLength();
+            start = 0;
+            while(line[start] == ' ' || line[start] == '\t'){
+                start++;
+            }
+            
+            if(line[start] == '%'){
+                continue;
+            }
+            else if(line[start] == '{'){
+                /*
+                 * Reduced format
+                 */
+                reducedFormat = true;
+                convertSparse(line, start, length, out);
+            }
+            else{
+                /*
+                 * Complete format
+                 */
+                reducedFormat = false;
+                convertDense(line, start, length, out);
+            }
+            out.write(MekaToMulan.LINE_SEPARATOR);
+        }
+    }
+    
+    /**
+     * Convert a line in complete format, writing the features and then the labels
+     * 
+     * @param line Bytes of the line
+     * @param from First position of the line
+     * @param to Last position of the line, exclusive
+     * @param out Output stream
+     * @throws IOException if the number of values is not the number of attributes
+     */
+    void convertDense(byte [] line, int from, int to, OutputStream out) throws IOException
+    {
+        int n = splitFields(line, from, to);
+        if(n != remap.length){
+            throw new IOException("Expected " + remap.length + " values but found " + n + " in line: " + lineString(line, from, to));
+        }
+        
+        boolean first = true;
+        for(int pass=0; pass<2; pass++)
         {
-            try{
-                if(outARFF != null){
-                    outARFF.close();
+            for(int i=0; i<n; i++)
+            {
+                if(isLabelAttribute[i] == (pass == 1))
+                {
+                    if(!first){
+                        out.write(',');
+                    }
+                    out.write(line, fieldStart[i], fieldEnd[i] - fieldStart[i]);
+                    first = false;
                 }
-                if(frIn != null){
-                    frIn.close();
+            }
+        }
+    }
+    
+    /**
+     * Convert a line in reduced format, writing the features and then the labels.
+     * As the indices of the line are ordered, and features and labels keep 
+     * their relative order, the new indices are also ordered
+     * 
+     * @param line Bytes of the line
+     * @param from First position of the line
+     * @param to Last position of the line, exclusive
+     * @param out Output stream
+     * @throws IOException if an index is missing or out of the attributes
+     */
+    void convertSparse(byte [] line, int from, int to, OutputStream out) throws IOException
+    {
+        int end = to;
+        while(end > from && line[end-1] != '}'){
+            end--;
+        }
+        int n = (end - 1 > from + 1) ? splitFields(line, from + 1, end - 1) : 0;
+        
+        /* Index of each pair, and its value in the field */
+        int p;
+        for(int i=0; i<n; i++)
+        {
+            if(fieldStart[i] == fieldEnd[i]){
+                fieldIndex[i] = -1;
+                continue;
+            }
+            p = fieldStart[i];
+            while(p < fieldEnd[i] && (line[p] == ' ' || line[p] == '\t')){
+                p++;
+            }
+            int index = 0;
+            int digitsStart = p;
+            while(p < fieldEnd[i] && line[p] >= '0' && line[p] <= '9'){
+                index = index * 10 + (line[p] - '0');
+                p++;
+                if(index >= remap.length){
+                    throw new IOException("Index out of the " + remap.length + " attributes in line: " + lineString(line, from, to));
+                }
+            }
+            if(p == digitsStart){
+                throw new IOException("Index expected in line: " + lineString(line, from, to));
+            }
+            while(p < fieldEnd[i] && (line[p] == ' ' || line[p] == '\t')){
+                p++;
+            }
+            fieldIndex[i] = index;
+            fieldStart[i] = p;
+        }
+        
+        out.write('{');
+        boolean first = true;
+        for(int pass=0; pass<2; pass++)
+        {
+            for(int i=0; i<n; i++)
+            {
+                if(fieldIndex[i] >= 0 && isLabelAttribute[fieldIndex[i]] == (pass == 1))
+                {
+                    if(!first){
+                        out.write(',');
+                    }
+                    writeInt(out, remap[fieldIndex[i]]);
+                    out.write(' ');
+                    out.write(line, fieldStart[i], fieldEnd[i] - fieldStart[i]);
+                    first = false;
+                }
+            }
+        }
+        out.write('}');
+    }
+    
+    /**
+     * Find the fields of a line separated by commas out of quotes.
+     * Blanks around each field are removed
+     * 
+     * @param line Bytes of the line
+     * @param from First position of the line
+     * @param to Last position of the line, exclusive
+     * @return Number of fields
+     */
+    int splitFields(byte [] line, int from, int to)
+    {
+        int n = 0;
+        int start = from;
+        byte quote = 0;
+        
+        for(int i=from; i<=to; i++)
+        {
+            if(i < to && quote != 0){
+                if(line[i] == '\\'){
+                    i++;
+                }
+                else if(line[i] == quote){
+                    quote = 0;
+                }
+            }
+            else if(i < to && (line[i] == '\'' || line[i] == '"')){
+                quote = line[i];
+            }
+            else if(i == to || line[i] == ','){
+                if(n == fieldStart.length){
+                    fieldStart = Arrays.copyOf(fieldStart, n * 2);
+                    fieldEnd = Arrays.copyOf(fieldEnd, n * 2);
+                    fieldIndex = Arrays.copyOf(fieldIndex, n * 2);
+                }
+                
+                int s = start, e = Math.min(i, to);
+                while(s < e && (line[s] == ' ' || line[s] == '\t')){
+                    s++;
                 }
-            } catch(Exception e2){
-                e2.printStackTrace();
+                while(e > s && (line[e-1] == ' ' || line[e-1] == '\t')){
+                    e--;
+                }
+                fieldStart[n] = s;
+                fieldEnd[n] = e;
+                n++;
+                start = i + 1;
             }
         }
+        
+        return n;
+    }
+    
+    /**
+     * Get a line as text, for the error messages
+     * 
+     * @param line Bytes of the line
+     * @param from First position of the line
+     * @param to Last position of the line, exclusive
+     * @return Text of the line
+     */
+    String lineString(byte [] line, int from, int to)
+    {
+        return new String(line, from, to - from, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Write a non-negative integer as text
+     * 
+     * @param out Output stream
+     * @param value Value to write
+     * @throws IOException 
+     */
+    void writeInt(OutputStream out, int value) throws IOException
+    {
+        int p = digits.length;
+        do{
+            digits[--p] = (byte)('0' + value % 10);
+            value /= 10;
+        }while(value > 0);
+        out.write(digits, p, digits.length - p);
+    }
+    
+    /**
+     * Quote an attribute name if it has spaces
+     * 
+     * @param name Attribute name
+     * @return Name to write in the header
+     */
+    String quote(String name)
+    {
+        if(name.contains(" ")){
+            return "\'" + name + "\'";
+        }
+        return name;
     }
 	
     /**
@@ -12,8 +12,9 @@
 package utils;
 
 import java.util.ArrayList;
+import mlda.util.LabelCooccurrences;
+import mlda.util.LabelMatrix;
 import mulan.data.MultiLabelInstances;
-import static utils.Utils.getPossibleCombinations;
 import weka.core.Instances;
 
 /**
@@ -42,6 +43,12 @@ public class AttributePairsUtils {
 
         ImbalancedFeature[] imbalancedData = MetricUtils.getImbalancedDataByAppearances(dataset);
         int app_i, app_j;
+        
+        int[] appearances = new int[labelIndices.length];
+        for(int i = 0; i<labelIndices.length; i++)
+        {
+            appearances[i] = DataInfoUtils.getLabelAppearancesByName(imbalancedData, labelNames[i]);
+        }
 
         int labelPairsIndex = 0;
         int value;
@@ -58,8 +65,8 @@ public class AttributePairsUtils {
                     continue;
                 }
 
-                app_i = DataInfoUtils.getLabelAppearancesByName(imbalancedData, labelNames[i]);
-                app_j = DataInfoUtils.getLabelAppearancesByName(imbalancedData, labelNames[j]);
+                app_i = appearances[i];
+                app_j = appearances[j];
 
                 current = new AttributesPair(labelNames[i], labelNames[j],value,i,j,app_i,app_j);
                 list.add(current);   
@@ -204,20 +211,11 @@ public class AttributePairsUtils {
     public static ArrayList<AttributesPair> getAttributePairs(
             MultiLabelInstances dataset)
     {       
-        Instances instances = dataset.getDataSet();
-       
-        //Return possible combinations among labels
-        int possibleCombinations = getPossibleCombinations(dataset.getNumLabels());
-        
-        int [] labelPairAppearances = new int[possibleCombinations];
-        int [] currentLabelValues;
         int[] labelIndices = dataset.getLabelIndices();
-                
-        for(int i=0; i<instances.size(); i++)
-        {
-            currentLabelValues = DataInfoUtils.getCurrentValueLabels(instances, i, labelIndices);
-            labelPairAppearances = updateAttributePairs(labelPairAppearances, currentLabelValues);
-        }            
+        
+        //Co-occurrences packed in the same order than getLabelPairsIndex
+        int [] labelPairAppearances = new LabelCooccurrences(
+                new LabelMatrix(dataset)).getPackedCounts();
         
         return makeAttributePairs(labelPairAppearances, labelIndices, dataset);
     }
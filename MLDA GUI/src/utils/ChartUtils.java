@@ -15,10 +15,10 @@ import java.awt.Color;
 import java.awt.Font;
 import java.util.ArrayList;
 import java.util.HashMap;
-import mulan.data.LabelsPair;
+import mlda.util.LabelContingency;
+import mlda.util.LabelCooccurrences;
+import mlda.util.LabelMatrix;
 import mulan.data.MultiLabelInstances;
-import mulan.data.Statistics;
-import mulan.data.UnconditionalChiSquareIdentifier;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.annotations.XYTextAnnotation;
 import org.jfree.chart.plot.CategoryPlot;
@@ -30,8 +30,6 @@ import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 import static utils.Utils.maxKey;
-import weka.core.Instance;
-import weka.core.Instances;
 
 /**
  * This class implemnts some utils for charts
@@ -338,24 +336,17 @@ public class ChartUtils {
      */
     public static double[][] getChiPhiCoefficients (MultiLabelInstances dataset)
     {
-        double[][] coefficients = new double[dataset.getNumLabels()][dataset.getNumLabels()];
-        double phi, chi;
+        int nLabels = dataset.getNumLabels();
+        double[][] coefficients = new double[nLabels][nLabels];
         
-        try {                
-            UnconditionalChiSquareIdentifier depid = new UnconditionalChiSquareIdentifier();
-            LabelsPair[] pairs = depid.calculateDependence(dataset);
-            Statistics stat = new Statistics();
-            double [][] phiMatrix = stat.calculatePhi(dataset);
-                
-            for (LabelsPair pair : pairs) {
-                chi = pair.getScore();
-                phi = phiMatrix[pair.getPair()[0]][pair.getPair()[1]];
-                coefficients[pair.getPair()[0]][pair.getPair()[1]] = chi;
-                coefficients[pair.getPair()[1]][pair.getPair()[0]] = phi;
-            }   
-        }
-        catch (Exception e) {
-            e.printStackTrace();
+        //Chi and phi are obtained from the same contingency tables
+        LabelContingency contingency = new LabelContingency(new LabelMatrix(dataset));
+        
+        for(int i=0; i<nLabels; i++){
+            for(int j=i+1; j<nLabels; j++){
+                coefficients[i][j] = contingency.getChiSquare(i, j);
+                coefficients[j][i] = contingency.getPhi(i, j);
+            }
         }
         
         return coefficients;  
@@ -420,26 +411,9 @@ public class ChartUtils {
      */
     public static double[][] calculateCoocurrences(MultiLabelInstances mldata)
     {        
-        int nLabels = mldata.getNumLabels();
-        Instances data = mldata.getDataSet();
-            
-        double [][] coocurrenceMatrix = new double[nLabels][nLabels];
-        
-        int [] labelIndices = mldata.getLabelIndices();
-            
-        Instance temp = null;
-        for(int k=0; k<data.numInstances(); k++){   
-            temp = data.instance(k);
-                
-            for(int i=0; i<nLabels; i++){
-                for(int j=i+1; j<nLabels; j++){
-                    if((temp.value(labelIndices[i]) == 1.0) && (temp.value(labelIndices[j]) == 1.0)){
-                        coocurrenceMatrix[i][j]++;
-                    }
-                }
-            }
-        }
+        //Only pairs among the relevant labels of each instance are counted
+        LabelCooccurrences coocurrences = new LabelCooccurrences(new LabelMatrix(mldata));
             
-        return coocurrenceMatrix;
+        return coocurrences.toMatrix();
     }
 }
@@ -11,17 +11,21 @@
 
 package utils;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import mlda.io.ArffWriter;
 import mulan.data.MultiLabelInstances;
-import weka.core.Attribute;
-import weka.core.Instances;
 import static utils.Utils.getMax;
 import static utils.Utils.getMin;
 
@@ -197,7 +201,6 @@ public class DataIOUtils {
     public static void saveDatasets(ArrayList<MultiLabelInstances> datasets, 
             String path, String dataName, String type) throws IOException
     {
-        BufferedWriter  bwCurrent;
         PrintWriter wr;        
               
         int index = 1;
@@ -207,13 +210,11 @@ public class DataIOUtils {
         {
             currentPath = path + "/" + dataName + type + index + ".arff";
 
-            bwCurrent = new BufferedWriter(new FileWriter(currentPath));
-            wr = new PrintWriter(bwCurrent);
+            wr = new PrintWriter(ArffWriter.open(currentPath));
 
             saveDataset(wr,currentData);
 
             wr.close();
-            bwCurrent.close();
 
             index++;
         }
@@ -232,7 +233,6 @@ public class DataIOUtils {
     public static void saveMVDatasets(ArrayList<MultiLabelInstances> datasets, 
             String path, String dataName, String type) throws IOException
     {
-        BufferedWriter  bwCurrent;
         PrintWriter wr;        
 
         int index = 1;
@@ -242,13 +242,11 @@ public class DataIOUtils {
         {
             currentPath = path + "/"+ dataName + type + index + ".arff";
 
-            bwCurrent = new BufferedWriter(new FileWriter(currentPath));
-            wr = new PrintWriter(bwCurrent);
+            wr = new PrintWriter(ArffWriter.open(currentPath));
 
             saveDataset(wr, currentData, dataName);
 
             wr.close();
-            bwCurrent.close();
 
             index++;
         }
@@ -268,7 +266,6 @@ public class DataIOUtils {
             String path, String dataName, String type, String relationName) 
             throws IOException
     {
-        BufferedWriter  bwCurrent;
         PrintWriter wr;        
 
         int index = 1;
@@ -278,13 +275,11 @@ public class DataIOUtils {
         {
             currentPath = path + "/" + dataName + type + index + ".arff";
 
-            bwCurrent = new BufferedWriter(new FileWriter(currentPath));
-            wr = new PrintWriter(bwCurrent);
+            wr = new PrintWriter(ArffWriter.open(currentPath));
 
             saveMekaDataset(wr, currentData);
 
             wr.close();
-            bwCurrent.close();
 
             index++;
         }
@@ -304,7 +299,6 @@ public class DataIOUtils {
             datasets, String path, String dataName, String type, String 
                     relationName) throws IOException
     {
-        BufferedWriter  bwCurrent;
         PrintWriter wr;        
 
         int index = 1;
@@ -314,13 +308,11 @@ public class DataIOUtils {
         {
             currentPath = path + "/" + dataName + "-" + type + index + ".arff";
 
-            bwCurrent = new BufferedWriter(new FileWriter(currentPath));
-            wr = new PrintWriter(bwCurrent);
+            wr = new PrintWriter(ArffWriter.open(currentPath));
 
             saveMekaDataset(wr, currentData, dataName);
 
             wr.close();
-            bwCurrent.close();
 
             index++;
         }
@@ -362,8 +354,10 @@ public class DataIOUtils {
      * 
      * @param wr PrintWriter
      * @param dataset Dataset
+     * @throws IOException 
      */
     public static void saveDataset(PrintWriter wr, MultiLabelInstances dataset)
+            throws IOException
     {
         saveDataset(wr, dataset, dataset.getDataSet().relationName());   
     }
@@ -373,9 +367,10 @@ public class DataIOUtils {
      * 
      * @param wr PrintWriter
      * @param dataset Dataset
+     * @throws IOException 
      */
     public static void saveMekaDataset(PrintWriter wr, MultiLabelInstances 
-            dataset)
+            dataset) throws IOException
     {
         saveMekaDataset(wr, dataset, dataset.getDataSet().relationName());   
     }
@@ -386,43 +381,12 @@ public class DataIOUtils {
      * @param wr PrintWriter
      * @param dataset Dataset
      * @param relationName Name of the relation
+     * @throws IOException 
      */
     public static void saveDataset(PrintWriter wr, MultiLabelInstances dataset, 
-            String relationName)
+            String relationName) throws IOException
     {
-        //relationName = relationName.replaceAll(" ", "_");
-        if(relationName.contains("-")){
-            wr.write("@relation " + "\'" + relationName + "\'");
-        }
-        else if(relationName.contains(":")){
-            wr.write("@relation " + "\'" + relationName + "\'");
-        }
-        else{
-            wr.write("@relation " + relationName);
-        }
-
-        wr.write(System.getProperty("line.separator"));  
-
-        Instances instances = dataset.getDataSet();
-       
-        Attribute att;
-        for (int i=0; i< instances.numAttributes();i++)
-        {
-            att = instances.attribute(i);
-            wr.write(att.toString());
-            wr.write(System.getProperty("line.separator")); 
-        }   
-
-        String current;
-        
-        wr.write("@data");
-        wr.write(System.getProperty("line.separator"));  
-        for(int i=0; i<dataset.getNumInstances();i++)
-        {
-            current = dataset.getDataSet().get(i).toString();
-            wr.write(current);
-            wr.write(System.getProperty("line.separator"));  
-        }
+        new ArffWriter().write(wr, dataset.getDataSet(), getRelation(relationName));
     }
     
     /**
@@ -432,35 +396,12 @@ public class DataIOUtils {
      * @param dataset Dataset
      * @param relationName Name of the relation
      * @param views String with views intervals
+     * @throws IOException 
      */
     public static void saveDatasetMV(PrintWriter wr, MultiLabelInstances 
-            dataset, String relationName, String views)
+            dataset, String relationName, String views) throws IOException
     {
-        //relationName = relationName.replaceAll(" ", "_");
-        
-        wr.write("@relation " + "\'" + relationName + " " + views + "\'");
-        wr.write(System.getProperty("line.separator"));  
-        
-        Instances instancias = dataset.getDataSet();
-       
-        Attribute att;
-        for (int i=0; i< instancias.numAttributes();i++)
-        {
-            att = instancias.attribute(i);
-            wr.write(att.toString());
-            wr.write(System.getProperty("line.separator")); 
-        }   
-
-        String current ;
-        
-        wr.write("@data");
-        wr.write(System.getProperty("line.separator"));  
-        for(int i=0; i<dataset.getNumInstances();i++)
-        {
-            current = dataset.getDataSet().get(i).toString();
-            wr.write(current);
-            wr.write(System.getProperty("line.separator"));  
-        } 
+        new ArffWriter().write(wr, dataset.getDataSet(), getMVRelation(relationName, views));
     }
     
     /**
@@ -469,100 +410,388 @@ public class DataIOUtils {
      * @param wr PrintWriter
      * @param dataset Dataset
      * @param relationName Name of the relation
+     * @throws IOException 
      */
     public static void saveMekaDataset(PrintWriter wr, MultiLabelInstances 
-            dataset, String relationName)
+            dataset, String relationName) throws IOException
     {
-        int maxAttIndex;
-        int minAttIndex;
+        String relation = getMekaRelation(dataset, relationName);
         
-        String c;
-        c = "-C ";
+        if(relation == null){
+            showCannotSaveMeka();
+            return;
+        }
         
-        int [] attIndex = dataset.getFeatureIndices();
+        new ArffWriter().write(wr, dataset.getDataSet(), relation);
+    }
+    
+    /**
+     * Save multi-view multi-label meka dataset
+     * 
+     * @param wr PrintWriter
+     * @param dataset Dataset
+     * @param relationName Name of the relation
+     * @param views String with views intervals
+     * @throws IOException 
+     */
+    public static void saveMVMekaDataset(PrintWriter wr, MultiLabelInstances dataset, 
+            String relationName, String views) throws IOException
+    {
+        String relation = getMVMekaRelation(dataset, relationName, views);
         
-        maxAttIndex = getMax(attIndex);
-        minAttIndex = getMin(attIndex);
+        if(relation == null){
+            showCannotSaveMeka();
+            return;
+        }
         
-        int [] labelIndices = dataset.getLabelIndices();
+        new ArffWriter().write(wr, dataset.getDataSet(), relation);
+    }
+    
+    /**
+     * Save a dataset in mulan and/or meka format. The rows are formatted only
+     * once and written to both files
+     * 
+     * @param dataset Dataset
+     * @param relationName Name of the relation
+     * @param mulanPath Path of the mulan .arff file, or null
+     * @param mekaPath Path of the meka .arff file, or null
+     * @throws IOException 
+     */
+    public static void saveDataset(MultiLabelInstances dataset, 
+            String relationName, String mulanPath, String mekaPath) 
+            throws IOException
+    {
+        String mekaRelation = getMekaRelation(dataset, relationName);
         
-        boolean areLabelMaxIndices = true;
-        boolean areLabelMinIndices = false;
+        if(mekaPath != null && mekaRelation == null){
+            showCannotSaveMeka();
+            mekaPath = null;
+        }
         
-        for(int i=0; i<labelIndices.length && areLabelMaxIndices; i++){
-            if(labelIndices[i] < maxAttIndex){
-                areLabelMaxIndices = false;
+        saveDataset(dataset, mulanPath, getRelation(relationName), mekaPath, 
+                mekaRelation, 0);
+    }
+    
+    /**
+     * Save a multi-view dataset in mulan and/or meka format. The rows are 
+     * formatted only once and written to both files
+     * 
+     * @param dataset Dataset
+     * @param relationName Name of the relation
+     * @param views String with views intervals
+     * @param mulanPath Path of the mulan .arff file, or null
+     * @param mekaPath Path of the meka .arff file, or null
+     * @throws IOException 
+     */
+    public static void saveDatasetMV(MultiLabelInstances dataset, 
+            String relationName, String views, String mulanPath, 
+            String mekaPath) throws IOException
+    {
+        String mekaRelation = getMVMekaRelation(dataset, relationName, views);
+        
+        if(mekaPath != null && mekaRelation == null){
+            showCannotSaveMeka();
+            mekaPath = null;
+        }
+        
+        saveDataset(dataset, mulanPath, getMVRelation(relationName, views), 
+                mekaPath, mekaRelation, 0);
+    }
+    
+    /**
+     * Save the train and test datasets of the folds in mulan and/or meka 
+     * format. Each dataset is written to all the formats with a single pass 
+     * over its rows, and the datasets are written concurrently. The meka 
+     * relation of every fold is checked before writing any of them, so the 
+     * tasks writing the folds never show dialogs
+     * 
+     * @param trainDatasets List of train datasets
+     * @param testDatasets List of test datasets
+     * @param path Path to store
+     * @param mulanName Name of the mulan datasets, or null
+     * @param mekaName Name of the meka datasets, or null
+     * @throws IOException 
+     */
+    public static void saveFolds(ArrayList<MultiLabelInstances> trainDatasets, 
+            ArrayList<MultiLabelInstances> testDatasets, String path, 
+            String mulanName, String mekaName) throws IOException
+    {
+        String mekaFoldsName = mekaName;
+        
+        if(mekaName != null && (!canSaveMeka(trainDatasets) || 
+                !canSaveMeka(testDatasets))){
+            showCannotSaveMeka();
+            mekaFoldsName = null;
+        }
+        
+        int nProcessors = Runtime.getRuntime().availableProcessors();
+        int nDatasets = trainDatasets.size() + testDatasets.size();
+        int numThreads = Math.max(1, nProcessors / Math.max(1, nDatasets));
+        
+        ArrayList<Callable<Void>> tasks = new ArrayList<>();
+        addFoldTasks(tasks, trainDatasets, path, mulanName, mekaFoldsName, 
+                "_train", numThreads);
+        addFoldTasks(tasks, testDatasets, path, mulanName, mekaFoldsName, 
+                "_test", numThreads);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(nDatasets, nProcessors)));
+        
+        try{
+            for(Future<Void> result : executor.invokeAll(tasks)){
+                result.get();
             }
         }
+        catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("Saving of the datasets was interrupted", e);
+        }
+        catch(ExecutionException e){
+            if(e.getCause() instanceof IOException){
+                throw (IOException) e.getCause();
+            }
+            else if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            else{
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        finally{
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Add a task to save each fold
+     * 
+     * @param tasks List of tasks
+     * @param datasets List of datasets
+     * @param path Path to store
+     * @param mulanName Name of the mulan datasets, or null
+     * @param mekaName Name of the meka datasets, or null
+     * @param type Type
+     * @param numThreads Number of threads to format the rows of each fold
+     */
+    private static void addFoldTasks(ArrayList<Callable<Void>> tasks, 
+            ArrayList<MultiLabelInstances> datasets, String path, 
+            String mulanName, String mekaName, String type, int numThreads)
+    {
+        int index = 1;
         
-        if(!areLabelMaxIndices){
-            areLabelMinIndices = true;
-            for(int i=0; i<labelIndices.length && areLabelMinIndices; i++){
-                if(labelIndices[i] > minAttIndex){
-                    areLabelMinIndices = false;
-                }
+        for(MultiLabelInstances currentData : datasets)
+        {
+            String relationName = currentData.getDataSet().relationName();
+            String mulanPath = null;
+            String mekaPath = null;
+            
+            if(mulanName != null){
+                mulanPath = path + "/" + mulanName + type + index + ".arff";
+            }
+            if(mekaName != null){
+                mekaPath = path + "/" + mekaName + type + index + ".arff";
+            }
+            
+            final String currentMulanPath = mulanPath;
+            final String currentMulanRelation = getRelation(relationName);
+            final String currentMekaPath = mekaPath;
+            final String currentMekaRelation = 
+                    getMekaRelation(currentData, relationName);
+            tasks.add(() -> {
+                saveDataset(currentData, currentMulanPath, 
+                        currentMulanRelation, currentMekaPath, 
+                        currentMekaRelation, numThreads);
+                return null;
+            });
+            
+            index++;
+        }
+    }
+    
+    /**
+     * Check if all the datasets can be saved as meka, i.e., if their labels 
+     * are at the beginning or at the end of the attributes
+     * 
+     * @param datasets List of datasets
+     * @return True if all the datasets can be saved as meka and false 
+     *  otherwise
+     */
+    private static boolean canSaveMeka(ArrayList<MultiLabelInstances> datasets)
+    {
+        for(MultiLabelInstances dataset : datasets){
+            if(getMekaLabelsOption(dataset) == null){
+                return false;
             }
         }
         
-        if((!areLabelMaxIndices) && (!areLabelMinIndices)){
-            JOptionPane.showMessageDialog(null, "Cannot save as meka.", "alert", JOptionPane.ERROR_MESSAGE);
+        return true;
+    }
+    
+    /**
+     * Show the error of a dataset that can not be saved as meka. The dialog 
+     * is shown on the event dispatch thread, since the datasets are usually 
+     * saved from other threads
+     */
+    private static void showCannotSaveMeka()
+    {
+        Runnable dialog = () -> JOptionPane.showMessageDialog(null, 
+                "Cannot save as meka.", "alert", JOptionPane.ERROR_MESSAGE);
+        
+        if(SwingUtilities.isEventDispatchThread()){
+            dialog.run();
+        }
+        else{
+            SwingUtilities.invokeLater(dialog);
+        }
+    }
+    
+    /**
+     * Save a dataset to the mulan and meka files at the same time. It does 
+     * not show dialogs, since it is called from the tasks saving the folds
+     * 
+     * @param dataset Dataset
+     * @param mulanPath Path of the mulan .arff file, or null
+     * @param mulanRelation Relation line of the mulan file
+     * @param mekaPath Path of the meka .arff file, or null
+     * @param mekaRelation Relation line of the meka file, or null if the 
+     *  dataset can not be saved as meka, so the meka file is not written
+     * @param numThreads Number of threads to format the rows, or 0 to use 
+     *  all the processors
+     * @throws IOException 
+     */
+    private static void saveDataset(MultiLabelInstances dataset, 
+            String mulanPath, String mulanRelation, String mekaPath, 
+            String mekaRelation, int numThreads) throws IOException
+    {
+        ArrayList<String> paths = new ArrayList<>();
+        ArrayList<String> relations = new ArrayList<>();
+        
+        if(mulanPath != null){
+            paths.add(mulanPath);
+            relations.add(mulanRelation);
+        }
+        if(mekaPath != null && mekaRelation != null){
+            paths.add(mekaPath);
+            relations.add(mekaRelation);
+        }
+        
+        if(paths.isEmpty()){
             return;
         }
-        else if(areLabelMaxIndices){
-            c = c + "-" + labelIndices.length;
+        
+        Writer[] writers = new Writer[paths.size()];
+        try{
+            for(int i=0; i<writers.length; i++){
+                writers[i] = ArffWriter.open(paths.get(i));
+            }
+            
+            ArffWriter arffWriter = new ArffWriter();
+            arffWriter.setNumThreads(numThreads);
+            arffWriter.write(writers, dataset.getDataSet(), 
+                    relations.toArray(new String[relations.size()]));
+        }
+        finally{
+            for(Writer writer : writers){
+                if(writer != null){
+                    writer.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the relation line of a mulan dataset
+     * 
+     * @param relationName Name of the relation
+     * @return Relation line
+     */
+    public static String getRelation(String relationName)
+    {
+        //relationName = relationName.replaceAll(" ", "_");
+        if(relationName.contains("-")){
+            return "@relation " + "\'" + relationName + "\'";
+        }
+        else if(relationName.contains(":")){
+            return "@relation " + "\'" + relationName + "\'";
         }
         else{
-            c = c + labelIndices.length;
+            return "@relation " + relationName;
+        }
+    }
+    
+    /**
+     * Get the relation line of a multi-view mulan dataset
+     * 
+     * @param relationName Name of the relation
+     * @param views String with views intervals
+     * @return Relation line
+     */
+    public static String getMVRelation(String relationName, String views)
+    {
+        //relationName = relationName.replaceAll(" ", "_");
+        
+        return "@relation " + "\'" + relationName + " " + views + "\'";
+    }
+    
+    /**
+     * Get the relation line of a meka dataset
+     * 
+     * @param dataset Dataset
+     * @param relationName Name of the relation
+     * @return Relation line, or null if the labels are not at the beginning 
+     *  nor at the end of the attributes
+     */
+    public static String getMekaRelation(MultiLabelInstances dataset, 
+            String relationName)
+    {
+        String c = getMekaLabelsOption(dataset);
+        
+        if(c == null){
+            return null;
         }
         
         if(relationName.contains("-C")){
-            wr.write("@relation " + "\'" + relationName + "\'");
+            return "@relation " + "\'" + relationName + "\'";
         }
         else{
             if(relationName.contains("-V:")){
-                wr.write("@relation " + "\'" + relationName.split("-V:")[0] + ": " + c + " -V:" + relationName.split("-V:")[1] +  "\'");
+                return "@relation " + "\'" + relationName.split("-V:")[0] + ": " + c + " -V:" + relationName.split("-V:")[1] +  "\'";
             }
             else{
-                wr.write("@relation " + "\'" + relationName + ": " + c + "\'");
+                return "@relation " + "\'" + relationName + ": " + c + "\'";
             }
         }
-        
-        
-        
-        wr.write(System.getProperty("line.separator"));  
-
-        Instances instances = dataset.getDataSet();
-       
-        Attribute att;
-        for (int i=0; i< instances.numAttributes();i++)
-        {
-            att = instances.attribute(i);
-            wr.write(att.toString());
-            wr.write(System.getProperty("line.separator")); 
-        }   
-
-        String current;
-        
-        wr.write("@data");
-        wr.write(System.getProperty("line.separator"));  
-        for(int i=0; i<dataset.getNumInstances();i++)
-        {
-            current = dataset.getDataSet().get(i).toString();
-            wr.write(current);
-            wr.write(System.getProperty("line.separator"));  
-        }
     }
     
     /**
-     * Save multi-view multi-label meka dataset
+     * Get the relation line of a multi-view meka dataset
      * 
-     * @param wr PrintWriter
      * @param dataset Dataset
      * @param relationName Name of the relation
      * @param views String with views intervals
+     * @return Relation line, or null if the labels are not at the beginning 
+     *  nor at the end of the attributes
      */
-    public static void saveMVMekaDataset(PrintWriter wr, MultiLabelInstances dataset, 
+    public static String getMVMekaRelation(MultiLabelInstances dataset, 
             String relationName, String views)
+    {
+        String c = getMekaLabelsOption(dataset);
+        
+        if(c == null){
+            return null;
+        }
+        
+        return "@relation " + "\'" + relationName + ": " + c + " " + views + "\'";
+    }
+    
+    /**
+     * Get the -C option of meka with the number of labels
+     * 
+     * @param dataset Dataset
+     * @return -C option, or null if the labels are not at the beginning nor 
+     *  at the end of the attributes
+     */
+    private static String getMekaLabelsOption(MultiLabelInstances dataset)
     {
         int maxAttIndex;
         int minAttIndex;
@@ -596,8 +825,7 @@ public class DataIOUtils {
         }
         
         if((!areLabelMaxIndices) && (!areLabelMinIndices)){
-            JOptionPane.showMessageDialog(null, "Cannot save as meka.", "alert", JOptionPane.ERROR_MESSAGE);
-            return;
+            return null;
         }
         else if(areLabelMaxIndices){
             c = c + "-" + labelIndices.length;
@@ -606,30 +834,7 @@ public class DataIOUtils {
             c = c + labelIndices.length;
         }
         
-        
-        wr.write("@relation " + "\'" + relationName + ": " + c + " " + views + "\'");
-        wr.write(System.getProperty("line.separator"));  
-
-        Instances instances = dataset.getDataSet();
-       
-        Attribute att;
-        for (int i=0; i< instances.numAttributes();i++)
-        {
-            att = instances.attribute(i);
-            wr.write(att.toString());
-            wr.write(System.getProperty("line.separator")); 
-        }   
-
-        String current;
-        
-        wr.write("@data");
-        wr.write(System.getProperty("line.separator"));  
-        for(int i=0; i<dataset.getNumInstances();i++)
-        {
-            current = dataset.getDataSet().get(i).toString();
-            wr.write(current);
-            wr.write(System.getProperty("line.separator"));  
-        }
+        return c;
     }
     
     /**
@@ -223,26 +223,21 @@ public class MetricUtils {
         Instances instances = dataset.getDataSet();
          
         int n1=0, n0=0, maxAppearance;
-        double is, IRIntraClass, variance, IRInterClass;         
+        double IRIntraClass, variance, IRInterClass;         
         double mean = dataset.getNumInstances()/2;
          
         Attribute currentAttribute;
         ImbalancedFeature currentLabel;        
+        
+        //Counted in a single pass, visiting only stored values of sparse instances
+        int[] appearances = mlda.util.Utils.getLabelAppearances(dataset);
          
         for(int i=0; i<labelIndices.length;i++)
         {
             currentAttribute = instances.attribute(labelIndices[i]);
            
-            for(int j=0; j<instances.size();j++)
-            {
-                is = instances.instance(j).value(currentAttribute);
-                if(is == 1.0) {
-                    n1++;
-                }
-                else {
-                    n0++;
-                }
-            } 
+            n1 = appearances[i];
+            n0 = instances.size() - n1;
             
             try { 
                 if(n0 ==0 || n1 ==0) {
@@ -298,25 +293,22 @@ public class MetricUtils {
         Instances instances = dataset.getDataSet();
          
         int n1=0, n0=0;
-        double is, IR, variance;         
+        double IR, variance;         
         double mean = dataset.getNumInstances()/2;
          
         Attribute current;
+        
+        //Counted in a single pass, visiting only stored values of sparse instances
+        int[] appearances = mlda.util.Utils.getLabelAppearances(dataset);
          
         for(int i=0; i<labelIndices.length;i++)
         {
             current= instances.attribute(labelIndices[i]);
            
-            for(int j=0; j<instances.size();j++)
-            {
-                is = instances.instance(j).value(current);
-                if(is == 1.0) {
-                    n1++;
-                }
-                else {
-                    n0++;
-                }
-            } try { 
+            n1 = appearances[i];
+            n0 = instances.size() - n1;
+            
+            try { 
                 if(n0 ==0 || n1 ==0) {
                     IR=0;
                 }
@@ -358,23 +350,15 @@ public class MetricUtils {
          
         Instances instances = dataset.getDataSet();
          
-        int appearances = 0;
-        double is;
         Attribute current;
+        
+        //Counted in a single pass, visiting only stored values of sparse instances
+        int[] appearances = mlda.util.Utils.getLabelAppearances(dataset);
          
         for(int i=0; i<labelIndices.length;i++)
         {
             current = instances.attribute(labelIndices[i]);
-             
-            for(int j=0; j<instances.size();j++)
-            {
-                is = instances.instance(j).value(current);
-                if(is ==1.0) {
-                    appearances++;
-                }
-            }
-            imbalancedData[i] = new ImbalancedFeature(current.name(), appearances);
-            appearances = 0;
+            imbalancedData[i] = new ImbalancedFeature(current.name(), appearances[i]);
         }
          
         return imbalancedData;
@@ -473,6 +457,21 @@ public class MetricUtils {
      */
     public static String getMetricValue(String metric, MultiLabelInstances 
             dataset)
+    {
+        return getMetricValue(metric, dataset, new MLDataProfile(dataset));
+    }
+    
+    /**
+     * Obtain metric value, given the name, sharing the profile of the dataset
+     * so the information gathered for a metric is reused by the next ones
+     * 
+     * @param metric Metric name
+     * @param dataset Dataset
+     * @param profile Profile of the dataset
+     * @return Metric value as String
+     */
+    public static String getMetricValue(String metric, MultiLabelInstances 
+            dataset, MLDataProfile profile)
     {       
         double value = -1.0;
         
@@ -724,7 +723,7 @@ public class MetricUtils {
             }
         
             if(mldm != null){
-                value = mldm.calculate(dataset);
+                value = mldm.calculate(dataset, profile);
             }
             else{
                 value = -1.0;